@@ -22,6 +22,7 @@ import org.wso2.apk.apimgt.api.model.*;
 import org.wso2.apk.apimgt.api.model.policy.*;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -95,6 +96,44 @@ public interface APIAdmin {
                                                 String applicationName, String sortBy, String sortOrder)
             throws APIManagementException;
 
+    /**
+     * Returns a page of the applications of the organization, starting right after the given cursor. Unlike offset
+     * based pagination, the cost of a page does not grow with its depth and no count query is needed to find out
+     * whether there are more pages.
+     *
+     * @param owner           content to search applications based on owners
+     * @param organization    Organization
+     * @param limit           maximum number of applications in the page
+     * @param after           cursor returned with the previous page, or null for the first page
+     * @param applicationName content to search applications based on application name
+     * @param sortBy          sort key, one of name, owner, throttlingTier or status
+     * @param sortOrder       sort order, asc or desc
+     * @return page of applications along with the cursor of the next page
+     * @throws APIManagementException if the sort criteria are invalid or failed to get the applications
+     */
+    ApplicationPage getApplicationsPage(String owner, String organization, int limit, ApplicationCursor after,
+                                        String applicationName, String sortBy, String sortOrder)
+            throws APIManagementException;
+
+    /**
+     * Returns a page of the applications of the organization along with the total number of matching applications,
+     * read with a single statement instead of a page query followed by a count query.
+     *
+     * @param owner           content to search applications based on owners
+     * @param organization    Organization
+     * @param limit           maximum number of applications in the page
+     * @param offset          index of the first application of the page
+     * @param applicationName content to search applications based on application name
+     * @param sortBy          sort key, one of name, owner, throttlingTier or status
+     * @param sortOrder       sort order, asc or desc
+     * @param countMode       whether the total is computed exactly, estimated or not computed
+     * @return page of applications along with the total
+     * @throws APIManagementException if the sort criteria are invalid or failed to get the applications
+     */
+    ApplicationPage getApplicationsWithCount(String owner, String organization, int limit, int offset,
+                                             String applicationName, String sortBy, String sortOrder,
+                                             CountMode countMode) throws APIManagementException;
+
     /**
      * Get count of the applications for the tenantId.
      *
@@ -347,23 +386,53 @@ public interface APIAdmin {
             throws APIManagementException;
 
     /**
-     * Adds a tenant theme to the database
+     * Adds a tenant theme to the database, without a content hash
      *
-     * @param organization     tenant ID of user
+     * @param organization tenant ID of user
      * @param themeContent content of the tenant theme
      * @throws APIManagementException if an error occurs when adding a tenant theme to the database
+     * @deprecated use {@link #addTenantTheme(String, InputStream, long, String)}, a theme stored without a hash has
+     * no entity tag
      */
+    @Deprecated
     void addTenantTheme(String organization, InputStream themeContent) throws APIManagementException;
 
     /**
-     * Updates an existing tenant theme in the database
+     * Adds a tenant theme to the database
      *
-     * @param organization     tenant ID of user
+     * @param organization  tenant ID of user
+     * @param themeContent  content of the tenant theme
+     * @param contentLength length of the content in bytes
+     * @param themeHash     SHA-256 hash of the content
+     * @throws APIManagementException if an error occurs when adding a tenant theme to the database
+     */
+    void addTenantTheme(String organization, InputStream themeContent, long contentLength, String themeHash)
+            throws APIManagementException;
+
+    /**
+     * Updates an existing tenant theme in the database, without a content hash
+     *
+     * @param organization tenant ID of user
      * @param themeContent content of the tenant theme
      * @throws APIManagementException if an error occurs when updating an existing tenant theme in the database
+     * @deprecated use {@link #updateTenantTheme(String, InputStream, long, String)}, a theme stored without a hash
+     * has no entity tag
      */
+    @Deprecated
     void updateTenantTheme(String organization, InputStream themeContent) throws APIManagementException;
 
+    /**
+     * Updates an existing tenant theme in the database
+     *
+     * @param organization  tenant ID of user
+     * @param themeContent  content of the tenant theme
+     * @param contentLength length of the content in bytes
+     * @param themeHash     SHA-256 hash of the content
+     * @throws APIManagementException if an error occurs when updating an existing tenant theme in the database
+     */
+    void updateTenantTheme(String organization, InputStream themeContent, long contentLength, String themeHash)
+            throws APIManagementException;
+
     /**
      * Retrieves a tenant theme from the database
      *
@@ -373,6 +442,25 @@ public interface APIAdmin {
      */
     InputStream getTenantTheme(String organization) throws APIManagementException;
 
+    /**
+     * Writes a tenant theme from the database to the given stream without holding the whole theme in memory
+     *
+     * @param organization tenant ID of user
+     * @param outputStream stream to write the content of the tenant theme to
+     * @return true if a tenant theme exists for the organization, false otherwise
+     * @throws APIManagementException if an error occurs when retrieving a tenant theme from the database
+     */
+    boolean getTenantTheme(String organization, OutputStream outputStream) throws APIManagementException;
+
+    /**
+     * Retrieves the SHA-256 hash of the content of a tenant theme
+     *
+     * @param organization tenant ID of user
+     * @return hash of the tenant theme, or null if no tenant theme exists for the organization
+     * @throws APIManagementException if an error occurs when retrieving the hash of a tenant theme
+     */
+    String getTenantThemeHash(String organization) throws APIManagementException;
+
     /**
      * Checks whether a tenant theme exist for a particular tenant
      *
@@ -442,6 +530,17 @@ public interface APIAdmin {
      */
     List<BlockConditionsDTO> getBlockConditions(String organization) throws APIManagementException;
 
+    /**
+     * Passes the block conditions of an organization to the given consumer as they are read from the database.
+     *
+     * @param organization organization
+     * @param consumer     consumer of the block conditions
+     * @return number of block conditions read
+     * @throws APIManagementException if the block conditions could not be read or the consumer failed
+     */
+    int getBlockConditions(String organization, ResultConsumer<BlockConditionsDTO> consumer)
+            throws APIManagementException;
+
     /**
      * Get api throttling policy by uuid
      *
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.api;
+
+/**
+ * Receives the results of a query one at a time, as they are read from the database. Used to process large results
+ * without holding all of them in memory.
+ *
+ * @param <T> type of the results
+ */
+@FunctionalInterface
+public interface ResultConsumer<T> {
+
+    /**
+     * Processes a single result. Throwing an exception stops reading the remaining results.
+     *
+     * @param result result
+     * @throws APIManagementException if the result could not be processed
+     */
+    void accept(T result) throws APIManagementException;
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.api.model;
+
+/**
+ * Position in a sorted application listing, given by the sort column value and the id of the last application of a
+ * page. The next page starts right after it, so a page is read with an index seek regardless of its depth.
+ */
+public final class ApplicationCursor {
+
+    private final String sortValue;
+    private final int applicationId;
+
+    public ApplicationCursor(String sortValue, int applicationId) {
+
+        this.sortValue = sortValue;
+        this.applicationId = applicationId;
+    }
+
+    public String getSortValue() {
+
+        return sortValue;
+    }
+
+    public int getApplicationId() {
+
+        return applicationId;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.api.model;
+
+/**
+ * Page of a sorted application listing along with the cursor of the next page, if there is one, and the total number
+ * of matching applications, if it was requested.
+ */
+public final class ApplicationPage {
+
+    private final Application[] applications;
+    private final ApplicationCursor nextCursor;
+    private final int total;
+    private final boolean totalEstimated;
+
+    public ApplicationPage(Application[] applications, ApplicationCursor nextCursor) {
+
+        this(applications, nextCursor, -1, false);
+    }
+
+    public ApplicationPage(Application[] applications, ApplicationCursor nextCursor, int total,
+                           boolean totalEstimated) {
+
+        this.applications = applications;
+        this.nextCursor = nextCursor;
+        this.total = total;
+        this.totalEstimated = totalEstimated;
+    }
+
+    public Application[] getApplications() {
+
+        return applications;
+    }
+
+    /**
+     * @return cursor of the next page, or null if this is the last page
+     */
+    public ApplicationCursor getNextCursor() {
+
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+
+        return nextCursor != null;
+    }
+
+    /**
+     * @return total number of matching applications, or -1 if it was not computed
+     */
+    public int getTotal() {
+
+        return total;
+    }
+
+    /**
+     * @return true if the total is an estimate from the database statistics
+     */
+    public boolean isTotalEstimated() {
+
+        return totalEstimated;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.api.model;
+
+/**
+ * How the total number of matching entries is found for a paginated listing.
+ */
+public enum CountMode {
+
+    /**
+     * The total is not computed.
+     */
+    NONE,
+
+    /**
+     * The exact total, computed by the page query itself with a window function.
+     */
+    EXACT,
+
+    /**
+     * The total estimated from the database planner statistics, without scanning the matching rows. Suited for very
+     * large organizations where an exact count is as expensive as the listing itself.
+     */
+    ESTIMATED
+}
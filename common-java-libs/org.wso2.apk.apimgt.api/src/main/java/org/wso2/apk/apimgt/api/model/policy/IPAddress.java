@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.api.model.policy;
+
+import java.math.BigInteger;
+
+/**
+ * IPv4 or IPv6 address held as two primitive longs. IPv4 addresses are kept in their IPv4 mapped IPv6 form
+ * (::ffff:a.b.c.d), so both versions share a single ordering.
+ * <p>
+ * The parser accepts address literals only and never resolves host names. The static parse methods taking a
+ * {@code long[]} do not allocate and are meant for request time evaluation.
+ */
+public final class IPAddress implements Comparable<IPAddress> {
+
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFF00000000L;
+    private static final long IPV4_MASK = 0xFFFFFFFFL;
+
+    private final long high;
+    private final long low;
+
+    private IPAddress(long high, long low) {
+
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Creates an address from the high and low 64 bits of its IPv6 form.
+     *
+     * @param high high 64 bits
+     * @param low  low 64 bits
+     * @return address
+     */
+    public static IPAddress of(long high, long low) {
+
+        return new IPAddress(high, low);
+    }
+
+    /**
+     * Parses an IPv4 or IPv6 address literal.
+     *
+     * @param ip address literal
+     * @return address
+     * @throws IllegalArgumentException if the literal is not a valid address
+     */
+    public static IPAddress parse(CharSequence ip) {
+
+        long[] address = new long[2];
+        if (ip == null || !parse(ip, address)) {
+            throw new IllegalArgumentException("Invalid IP address: " + ip);
+        }
+        return new IPAddress(address[0], address[1]);
+    }
+
+    /**
+     * Parses an IPv4 or IPv6 address literal into the high and low 64 bits of its IPv6 form. A zone suffix of a scoped
+     * IPv6 address (e.g. %eth0) is ignored, while IPv4 addresses with a zone suffix are rejected. Only ASCII digits are
+     * accepted.
+     *
+     * @param ip      address literal
+     * @param address array receiving the high and low bits at index 0 and 1
+     * @return true if the literal is a valid address
+     */
+    public static boolean parse(CharSequence ip, long[] address) {
+
+        return parse(ip, 0, ip.length(), address);
+    }
+
+    /**
+     * Parses the given part of a character sequence as an address literal. See {@link #parse(CharSequence, long[])}.
+     *
+     * @param ip      character sequence
+     * @param start   start index, inclusive
+     * @param end     end index, exclusive
+     * @param address array receiving the high and low bits at index 0 and 1
+     * @return true if the part is a valid address
+     */
+    public static boolean parse(CharSequence ip, int start, int end, long[] address) {
+
+        boolean ipv6 = false;
+        for (int i = start; i < end; i++) {
+            char c = ip.charAt(i);
+            if (c == '%') {
+                // a zone is only allowed on IPv6 addresses and must not be empty
+                if (!ipv6 || i == end - 1) {
+                    return false;
+                }
+                end = i;
+                break;
+            } else if (c == ':') {
+                ipv6 = true;
+            }
+        }
+        if (!ipv6) {
+            long ipv4 = parseIPv4(ip, start, end);
+            if (ipv4 < 0) {
+                return false;
+            }
+            address[0] = 0;
+            address[1] = IPV4_MAPPED_PREFIX | ipv4;
+            return true;
+        }
+        return parseIPv6(ip, start, end, address);
+    }
+
+    /**
+     * Parses a dotted decimal IPv4 address literal.
+     *
+     * @param ip address literal
+     * @return address as an unsigned 32 bit value, or -1 if the literal is not a valid IPv4 address
+     */
+    public static long parseIPv4(CharSequence ip) {
+
+        return parseIPv4(ip, 0, ip.length());
+    }
+
+    /**
+     * Converts a dotted decimal IPv4 address into the long used by throttle policy conditions. Values which are not
+     * valid IPv4 literals are converted as policies always have been: each dot separated part is weighted by its
+     * position, and a part which is not a number fails with a NumberFormatException.
+     *
+     * @param ip IPv4 address
+     * @return address as a long, or 0 for null
+     */
+    public static long ipv4ToLong(String ip) {
+
+        if (ip == null) {
+            return 0;
+        }
+        long address = parseIPv4(ip);
+        if (address >= 0) {
+            return address;
+        }
+        address = 0;
+        String[] parts = ip.split("\\.");
+        for (int i = 0; i < parts.length; i++) {
+            address += Long.parseLong(parts[i]) * Math.pow(256, 3 - i);
+        }
+        return address;
+    }
+
+    private static long parseIPv4(CharSequence ip, int start, int end) {
+
+        long result = 0;
+        int octets = 0;
+        int value = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (++digits > 3 || value > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && digits > 0 && octets < 3) {
+                result = (result << 8) | value;
+                octets++;
+                value = 0;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+        if (digits == 0 || octets != 3) {
+            return -1;
+        }
+        return (result << 8) | value;
+    }
+
+    private static boolean parseIPv6(CharSequence ip, int start, int end, long[] address) {
+
+        long headHigh = 0;
+        long headLow = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+        int i = start;
+        if (end - start >= 2 && ip.charAt(start) == ':') {
+            if (ip.charAt(start + 1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i += 2;
+        }
+        while (i < end) {
+            int groupStart = i;
+            int value = 0;
+            int digits = 0;
+            int hex;
+            while (i < end && (hex = hexValue(ip.charAt(i))) >= 0) {
+                value = (value << 4) | hex;
+                if (++digits > 4) {
+                    return false;
+                }
+                i++;
+            }
+            int groups = 1;
+            long bits = value;
+            if (i < end && ip.charAt(i) == '.') {
+                // trailing IPv4 part, e.g. ::ffff:192.168.1.1
+                long ipv4 = parseIPv4(ip, groupStart, end);
+                if (ipv4 < 0) {
+                    return false;
+                }
+                groups = 2;
+                bits = ipv4;
+                i = end;
+            } else if (digits == 0) {
+                return false;
+            }
+            if (compressed) {
+                tailHigh = (tailHigh << (16 * groups)) | (tailLow >>> (64 - 16 * groups));
+                tailLow = (tailLow << (16 * groups)) | bits;
+                tailGroups += groups;
+            } else {
+                headHigh = (headHigh << (16 * groups)) | (headLow >>> (64 - 16 * groups));
+                headLow = (headLow << (16 * groups)) | bits;
+                headGroups += groups;
+            }
+            if (headGroups + tailGroups > 8) {
+                return false;
+            }
+            if (i == end) {
+                break;
+            }
+            if (ip.charAt(i) != ':' || ++i == end) {
+                return false;
+            }
+            if (ip.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            }
+        }
+        if (compressed ? headGroups + tailGroups > 7 : headGroups != 8) {
+            return false;
+        }
+        // move the groups before '::' to the top of the address
+        int shift = 16 * (8 - headGroups);
+        if (shift >= 128) {
+            headHigh = 0;
+            headLow = 0;
+        } else if (shift >= 64) {
+            headHigh = headLow << (shift - 64);
+            headLow = 0;
+        } else if (shift > 0) {
+            headHigh = (headHigh << shift) | (headLow >>> (64 - shift));
+            headLow = headLow << shift;
+        }
+        address[0] = headHigh | tailHigh;
+        address[1] = headLow | tailLow;
+        return true;
+    }
+
+    /**
+     * Returns the value of an ASCII hexadecimal digit. Unlike {@link Character#digit(char, int)}, digits of other
+     * scripts are not accepted.
+     */
+    private static int hexValue(char c) {
+
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * Compares two addresses given as high and low bits, treating them as unsigned 128 bit values.
+     *
+     * @return a negative value, zero or a positive value as the first address is less than, equal to or greater than
+     * the second
+     */
+    public static int compare(long high1, long low1, long high2, long low2) {
+
+        int result = Long.compareUnsigned(high1, high2);
+        return result != 0 ? result : Long.compareUnsigned(low1, low2);
+    }
+
+    /**
+     * Checks whether the given bits represent an IPv4 address.
+     *
+     * @param high high 64 bits
+     * @param low  low 64 bits
+     * @return true for IPv4 mapped addresses
+     */
+    public static boolean isIPv4(long high, long low) {
+
+        return high == 0 && (low & ~IPV4_MASK) == IPV4_MAPPED_PREFIX;
+    }
+
+    public long getHigh() {
+
+        return high;
+    }
+
+    public long getLow() {
+
+        return low;
+    }
+
+    public boolean isIPv4() {
+
+        return isIPv4(high, low);
+    }
+
+    public boolean isIPv6() {
+
+        return !isIPv4();
+    }
+
+    /**
+     * @return the IPv4 address as an unsigned 32 bit value
+     * @throws IllegalStateException if this is not an IPv4 address
+     */
+    public long toIPv4() {
+
+        if (!isIPv4()) {
+            throw new IllegalStateException(this + " is not an IPv4 address");
+        }
+        return low & IPV4_MASK;
+    }
+
+    /**
+     * @return the 32 bit value of an IPv4 address or the 128 bit value of an IPv6 address
+     */
+    public BigInteger toBigInteger() {
+
+        if (isIPv4()) {
+            return BigInteger.valueOf(low & IPV4_MASK);
+        }
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (high >>> (56 - 8 * i));
+            bytes[i + 8] = (byte) (low >>> (56 - 8 * i));
+        }
+        return new BigInteger(1, bytes);
+    }
+
+    @Override
+    public int compareTo(IPAddress other) {
+
+        return compare(high, low, other.high, other.low);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IPAddress)) {
+            return false;
+        }
+        IPAddress other = (IPAddress) o;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public int hashCode() {
+
+        return Long.hashCode(high) * 31 + Long.hashCode(low);
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder builder = new StringBuilder();
+        if (isIPv4()) {
+            long ipv4 = low & IPV4_MASK;
+            return builder.append(ipv4 >>> 24).append('.').append((ipv4 >>> 16) & 0xFF).append('.')
+                    .append((ipv4 >>> 8) & 0xFF).append('.').append(ipv4 & 0xFF).toString();
+        }
+        for (int i = 0; i < 8; i++) {
+            long bits = i < 4 ? high : low;
+            if (i > 0) {
+                builder.append(':');
+            }
+            builder.append(Long.toHexString((bits >>> (48 - 16 * (i % 4))) & 0xFFFF));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.api.model.policy;
+
+/**
+ * Inclusive range of IP addresses, created from a start and end address or from CIDR notation.
+ */
+public final class IPAddressRange {
+
+    private final IPAddress start;
+    private final IPAddress end;
+
+    private IPAddressRange(IPAddress start, IPAddress end) {
+
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Creates a range between the given addresses.
+     *
+     * @param start first address of the range
+     * @param end   last address of the range
+     * @return range
+     * @throws IllegalArgumentException if the start address is greater than the end address
+     */
+    public static IPAddressRange of(IPAddress start, IPAddress end) {
+
+        if (start.compareTo(end) > 0) {
+            throw new IllegalArgumentException("Invalid IP address range: " + start + " - " + end);
+        }
+        return new IPAddressRange(start, end);
+    }
+
+    /**
+     * Parses an address in CIDR notation, such as 10.0.0.0/8 or 2001:db8::/32. An address without a prefix length is
+     * a range of a single address.
+     *
+     * @param cidr address with an optional prefix length
+     * @return range covered by the block
+     * @throws IllegalArgumentException if the value is not a valid address or prefix length
+     */
+    public static IPAddressRange parse(String cidr) {
+
+        if (cidr == null) {
+            throw new IllegalArgumentException("Invalid CIDR block: null");
+        }
+        int separator = cidr.indexOf('/');
+        long[] address = new long[2];
+        if (!IPAddress.parse(cidr, 0, separator < 0 ? cidr.length() : separator, address)) {
+            throw new IllegalArgumentException("Invalid CIDR block: " + cidr);
+        }
+        if (separator < 0) {
+            IPAddress ip = IPAddress.of(address[0], address[1]);
+            return new IPAddressRange(ip, ip);
+        }
+        boolean ipv4 = IPAddress.isIPv4(address[0], address[1]);
+        int prefixLength;
+        try {
+            prefixLength = Integer.parseInt(cidr.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid CIDR block: " + cidr, e);
+        }
+        if (prefixLength < 0 || prefixLength > (ipv4 ? 32 : 128)) {
+            throw new IllegalArgumentException("Invalid CIDR block: " + cidr);
+        }
+        if (ipv4) {
+            prefixLength += 96;
+        }
+        long highMask = prefixLength >= 64 ? -1L : prefixLength == 0 ? 0 : -1L << (64 - prefixLength);
+        long lowMask = prefixLength <= 64 ? 0 : prefixLength == 128 ? -1L : -1L << (128 - prefixLength);
+        return new IPAddressRange(IPAddress.of(address[0] & highMask, address[1] & lowMask),
+                IPAddress.of(address[0] | ~highMask, address[1] | ~lowMask));
+    }
+
+    public IPAddress getStart() {
+
+        return start;
+    }
+
+    public IPAddress getEnd() {
+
+        return end;
+    }
+
+    /**
+     * Checks whether the address given as high and low bits is within the range.
+     *
+     * @param high high 64 bits of the address
+     * @param low  low 64 bits of the address
+     * @return true if the address is within the range
+     */
+    public boolean contains(long high, long low) {
+
+        return IPAddress.compare(high, low, start.getHigh(), start.getLow()) >= 0
+                && IPAddress.compare(high, low, end.getHigh(), end.getLow()) <= 0;
+    }
+
+    public boolean contains(IPAddress address) {
+
+        return contains(address.getHigh(), address.getLow());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IPAddressRange)) {
+            return false;
+        }
+        IPAddressRange other = (IPAddressRange) o;
+        return start.equals(other.start) && end.equals(other.end);
+    }
+
+    @Override
+    public int hashCode() {
+
+        return start.hashCode() * 31 + end.hashCode();
+    }
+
+    @Override
+    public String toString() {
+
+        return start + " - " + end;
+    }
+}
@@ -19,9 +19,6 @@
 package org.wso2.apk.apimgt.api.model.policy;
 
 import java.math.BigInteger;
-import java.net.Inet6Address;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
 
 public class IPCondition extends Condition {
 	
@@ -59,49 +56,31 @@ public class IPCondition extends Condition {
         this.endingIP = endingIP;
     }
 
+    /**
+     * Converts a dotted decimal IPv4 address into a long. See {@link IPAddress#ipv4ToLong(String)}.
+     * @param ip IPv4 address
+     * @return address as a long, or 0 for null
+     */
     public long ipToLong(String ip) {
-        long ipAddressinLong = 0;
-        if (ip != null) {
-            //convert ipaddress into a long
-            String[] ipAddressArray = ip.split("\\.");    //split by "." and add to an array
-
-            for (int i = 0; i < ipAddressArray.length; i++) {
-                int power = 3 - i;
-                long ipAddress = Long.parseLong(ipAddressArray[i]);   //parse to long
-                ipAddressinLong += ipAddress * Math.pow(256, power);
-            }
-        }
-        return ipAddressinLong;
+        return IPAddress.ipv4ToLong(ip);
     }
     
     private BigInteger ipToBigInteger(String ip) {
-        InetAddress address;
-        try {
-            address = InetAddress.getByName(ip);
-            byte[] bytes = address.getAddress();
-            return new BigInteger(1, bytes);
-        } catch (UnknownHostException e) {
-            //ignore the error 
+        long[] address = new long[2];
+        if (ip != null && IPAddress.parse(ip, address)) {
+            return IPAddress.of(address[0], address[1]).toBigInteger();
         }
         return BigInteger.ZERO;
     }
     
     /**
-     * Check whether the version of the IP is v6
+     * Check whether the version of the IP is v6. Only address literals are accepted, host names are not resolved.
      * @param ip
      * @return boolean
      */
     public static boolean isIPv6Address(String ip) {
-        InetAddress address;
-        try {
-            address = InetAddress.getByName(ip);
-            if (address instanceof Inet6Address) {
-                return true;
-            }
-        } catch (UnknownHostException e) {
-            // ignore the error
-        }
-        return false;
+        long[] address = new long[2];
+        return ip != null && IPAddress.parse(ip, address) && !IPAddress.isIPv4(address[0], address[1]);
     }
 
     @Override
@@ -44,19 +44,13 @@ public class IPRangeCondition extends Condition {
         this.endingIP = endingIP;
     }
 
+    /**
+     * Converts a dotted decimal IPv4 address into a long. See {@link IPAddress#ipv4ToLong(String)}.
+     * @param ip IPv4 address
+     * @return address as a long, or 0 for null
+     */
     public long ipToLong(String ip) {
-        long ipAddressinLong = 0;
-        if (ip != null) {
-            //convert ipaddress into a long
-            String[] ipAddressArray = ip.split("\\.");    //split by "." and add to an array
-
-            for (int i = 0; i < ipAddressArray.length; i++) {
-                int power = 3 - i;
-                long ipAddress = Long.parseLong(ipAddressArray[i]);   //parse to long
-                ipAddressinLong += ipAddress * Math.pow(256, power);
-            }
-        }
-        return ipAddressinLong;
+        return IPAddress.ipv4ToLong(ip);
     }
 
     @Override
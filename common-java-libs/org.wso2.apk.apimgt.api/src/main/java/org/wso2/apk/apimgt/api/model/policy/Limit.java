@@ -18,7 +18,11 @@
 
 package org.wso2.apk.apimgt.api.model.policy;
 
-public class Limit {
+import java.io.Serializable;
+
+public class Limit implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String timeUnit;
     private int unitTime;
@@ -18,9 +18,12 @@
 
 package org.wso2.apk.apimgt.api.model.policy;
 
+import java.io.Serializable;
 import java.util.List;
 
-public class Pipeline {
+public class Pipeline implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private QuotaPolicy quotaPolicy;
     private List<Condition> conditions;
@@ -18,8 +18,11 @@
 
 package org.wso2.apk.apimgt.api.model.policy;
 
+import java.io.Serializable;
 
-public class QuotaPolicy {
+public class QuotaPolicy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String type;
     private Limit limit;
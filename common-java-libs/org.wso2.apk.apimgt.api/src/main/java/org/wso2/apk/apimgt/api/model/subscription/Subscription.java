@@ -88,11 +88,27 @@ public class Subscription implements CacheableEntity<String> {
         return getSubscriptionCacheKey(getAppId(), getApiId());
     }
 
-    private static String getSubscriptionCacheKey(int appId, int apiId) {
+    public static String getSubscriptionCacheKey(int appId, int apiId) {
 
         return appId + DELEM_PERIOD + apiId;
     }
 
+    /**
+     * Gets the key of the subscription packed into a long, with the application id in the high 32 bits and the API
+     * id in the low 32 bits. Unlike {@link #getCacheKey()}, it is computed without allocating.
+     *
+     * @return packed subscription key
+     */
+    public long getSubscriptionKey() {
+
+        return getSubscriptionKey(getAppId(), getApiId());
+    }
+
+    public static long getSubscriptionKey(int appId, int apiId) {
+
+        return ((long) appId << Integer.SIZE) | (apiId & 0xFFFFFFFFL);
+    }
+
     public String getSubscriptionUUID() {
 
         return subscriptionUUID;
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.benchmarks;
+
+import org.wso2.apk.apimgt.api.model.policy.APIPolicy;
+import org.wso2.apk.apimgt.api.model.policy.Condition;
+import org.wso2.apk.apimgt.api.model.policy.HeaderCondition;
+import org.wso2.apk.apimgt.api.model.policy.IPCondition;
+import org.wso2.apk.apimgt.api.model.policy.Pipeline;
+import org.wso2.apk.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.apk.apimgt.api.model.policy.QuotaPolicy;
+import org.wso2.apk.apimgt.api.model.policy.RequestCountLimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Builds the model objects shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+
+    }
+
+    /**
+     * Creates an advanced throttle policy with the given number of conditional groups. Each group has a specific IP
+     * condition, an IP range condition and a header condition.
+     *
+     * @param name          policy name
+     * @param pipelineCount number of conditional groups
+     * @return policy
+     */
+    static APIPolicy createAPIPolicy(String name, int pipelineCount) {
+
+        APIPolicy policy = new APIPolicy(name);
+        policy.setUUID(UUID.randomUUID().toString());
+        policy.setDisplayName(name);
+        policy.setDescription("Benchmark policy " + name);
+        policy.setTenantDomain("carbon.super");
+        policy.setDefaultQuotaPolicy(createQuotaPolicy(1000));
+        List<Pipeline> pipelines = new ArrayList<>(pipelineCount);
+        for (int i = 0; i < pipelineCount; i++) {
+            List<Condition> conditions = new ArrayList<>(3);
+            IPCondition specificIP = new IPCondition(PolicyConstants.IP_SPECIFIC_TYPE);
+            specificIP.setSpecificIP("10.0." + (i / 256) + '.' + (i % 256));
+            conditions.add(specificIP);
+            IPCondition ipRange = new IPCondition(PolicyConstants.IP_RANGE_TYPE);
+            ipRange.setStartingIP("192.168." + (i % 256) + ".0");
+            ipRange.setEndingIP("192.168." + (i % 256) + ".255");
+            ipRange.setInvertCondition(i % 2 == 0);
+            conditions.add(ipRange);
+            HeaderCondition header = new HeaderCondition();
+            header.setHeader("X-Benchmark-Header-" + i);
+            header.setValue("value-" + i);
+            conditions.add(header);
+
+            Pipeline pipeline = new Pipeline();
+            pipeline.setId(i);
+            pipeline.setEnabled(true);
+            pipeline.setDescription("Conditional group " + i);
+            pipeline.setConditions(conditions);
+            pipeline.setQuotaPolicy(createQuotaPolicy(100 + i));
+            pipelines.add(pipeline);
+        }
+        policy.setPipelines(pipelines);
+        return policy;
+    }
+
+    private static QuotaPolicy createQuotaPolicy(long requestCount) {
+
+        RequestCountLimit limit = new RequestCountLimit();
+        limit.setRequestCount(requestCount);
+        limit.setTimeUnit("min");
+        limit.setUnitTime(1);
+        QuotaPolicy quotaPolicy = new QuotaPolicy();
+        quotaPolicy.setType(PolicyConstants.REQUEST_COUNT_TYPE);
+        quotaPolicy.setLimit(limit);
+        return quotaPolicy;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.model.BlockConditionsDTO;
+import org.wso2.apk.apimgt.impl.APIManagerConfigurationServiceImpl;
+import org.wso2.apk.apimgt.impl.ConfigurationHolder;
+import org.wso2.apk.apimgt.impl.dao.impl.BlockConditionDAOImpl;
+import org.wso2.apk.apimgt.impl.dto.DatasourceProperties;
+import org.wso2.apk.apimgt.impl.internal.ServiceReferenceHolder;
+import org.wso2.apk.apimgt.impl.utils.APIMgtDBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Measures reading and mapping block conditions through BlockConditionDAOImpl. The data source is an in-memory H2
+ * database running in PostgreSQL compatibility mode, pooled and instrumented by APIMgtDBUtil as in a deployment.
+ * Each parameter combination runs in its own fork, so the data source is initialized once per combination.
+ */
+@State(Scope.Benchmark)
+public class BlockConditionDAOBenchmark {
+
+    private static final String ORGANIZATION = "carbon.super";
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE AM_BLOCK_CONDITIONS ("
+            + "CONDITION_ID INTEGER, "
+            + "TYPE VARCHAR(45) DEFAULT NULL, "
+            + "BLOCK_CONDITION VARCHAR(512) DEFAULT NULL, "
+            + "ENABLED VARCHAR(45) DEFAULT NULL, "
+            + "ORGANIZATION VARCHAR(45) DEFAULT NULL, "
+            + "UUID VARCHAR(256), "
+            + "PRIMARY KEY (CONDITION_ID), "
+            + "UNIQUE (UUID))";
+    private static final String CREATE_INDEX_SQL =
+            "CREATE INDEX IDX_AM_BLOCK_CONDITIONS_ORG ON AM_BLOCK_CONDITIONS (ORGANIZATION)";
+    private static final String INSERT_SQL = "INSERT INTO AM_BLOCK_CONDITIONS "
+            + "(CONDITION_ID, TYPE, BLOCK_CONDITION, ENABLED, ORGANIZATION, UUID) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String[] CONDITION_TYPES = {"API", "APPLICATION", "USER", "IP", "IPRANGE"};
+
+    @Param({"10", "1000"})
+    private int rowCount;
+
+    @Param({"true", "false"})
+    private boolean metricsEnabled;
+
+    private BlockConditionDAOImpl blockConditionDAO;
+
+    @Setup
+    public void setup() throws SQLException {
+
+        DatasourceProperties datasourceProperties = new DatasourceProperties();
+        datasourceProperties.setUrl("jdbc:h2:mem:apk_benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        datasourceProperties.setUsername("sa");
+        datasourceProperties.setPassword("");
+        datasourceProperties.setMaxPoolSize(10);
+        datasourceProperties.setMinIdleTime(1);
+        datasourceProperties.setMaxLifeTime(1800000);
+        datasourceProperties.setValidationTimeout(5000);
+        datasourceProperties.setSetAutocommit(true);
+        datasourceProperties.setTestQuery("SELECT 1");
+        datasourceProperties.setMetricsEnabled(metricsEnabled);
+        ConfigurationHolder configurationHolder = new ConfigurationHolder();
+        configurationHolder.setDatasourceProperties(datasourceProperties);
+        ServiceReferenceHolder.getInstance().setAPIManagerConfigurationService(
+                new APIManagerConfigurationServiceImpl(configurationHolder));
+        APIMgtDBUtil.initialize();
+
+        try (Connection connection = APIMgtDBUtil.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS AM_BLOCK_CONDITIONS");
+                statement.execute(CREATE_TABLE_SQL);
+                statement.execute(CREATE_INDEX_SQL);
+            }
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                for (int i = 0; i < rowCount * 2; i++) {
+                    String type = CONDITION_TYPES[i % CONDITION_TYPES.length];
+                    insert.setInt(1, i + 1);
+                    insert.setString(2, type);
+                    insert.setString(3, createConditionValue(type, i));
+                    insert.setString(4, "TRUE");
+                    // half of the rows belong to another organization and are filtered out by the query
+                    insert.setString(5, i % 2 == 0 ? ORGANIZATION : "other.org");
+                    insert.setString(6, UUID.randomUUID().toString());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+        blockConditionDAO = BlockConditionDAOImpl.getInstance();
+    }
+
+    private static String createConditionValue(String type, int i) {
+
+        switch (type) {
+            case "IP":
+                return "{\"fixedIp\":\"10.0." + (i / 256 % 256) + '.' + (i % 256) + "\",\"invert\":false}";
+            case "IPRANGE":
+                return "{\"startingIp\":\"172.16." + (i % 256) + ".0\",\"endingIp\":\"172.16." + (i % 256)
+                        + ".255\",\"invert\":false}";
+            case "API":
+                return "/benchmark/api" + i + "/1.0.0";
+            default:
+                return type.toLowerCase() + i;
+        }
+    }
+
+    @Benchmark
+    public List<BlockConditionsDTO> getBlockConditions() throws APIManagementException {
+
+        return blockConditionDAO.getBlockConditions(ORGANIZATION);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.wso2.apk.apimgt.api.model.policy.IPAddress;
+import org.wso2.apk.apimgt.api.model.policy.IPCondition;
+import org.wso2.apk.apimgt.api.model.policy.PolicyConstants;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Measures the generation of Siddhi conditions from IP conditions and the parsing of IP address literals. The
+ * InetAddress based parser is the one IPCondition used before IPAddress was introduced and is kept as a baseline.
+ */
+@State(Scope.Benchmark)
+public class IPConditionBenchmark {
+
+    @Param({"192.168.10.125", "2001:db8:85a3::8a2e:370:7334"})
+    private String ip;
+
+    private IPCondition specificIPCondition;
+    private IPCondition ipRangeCondition;
+    private final long[] address = new long[2];
+
+    @Setup
+    public void setup() {
+
+        boolean ipv6 = ip.indexOf(':') >= 0;
+        specificIPCondition = new IPCondition(PolicyConstants.IP_SPECIFIC_TYPE);
+        specificIPCondition.setSpecificIP(ip);
+        ipRangeCondition = new IPCondition(PolicyConstants.IP_RANGE_TYPE);
+        ipRangeCondition.setStartingIP(ipv6 ? "2001:db8::" : "192.168.0.0");
+        ipRangeCondition.setEndingIP(ipv6 ? "2001:db8::ffff:ffff:ffff" : "192.168.255.255");
+        ipRangeCondition.setInvertCondition(true);
+    }
+
+    @Benchmark
+    public String specificIPCondition() {
+
+        return specificIPCondition.getCondition();
+    }
+
+    @Benchmark
+    public String ipRangeCondition() {
+
+        return ipRangeCondition.getCondition();
+    }
+
+    @Benchmark
+    public long parse() {
+
+        IPAddress.parse(ip, address);
+        return address[0] ^ address[1];
+    }
+
+    @Benchmark
+    public byte[] parseWithInetAddress() throws UnknownHostException {
+
+        return InetAddress.getByName(ip).getAddress();
+    }
+}
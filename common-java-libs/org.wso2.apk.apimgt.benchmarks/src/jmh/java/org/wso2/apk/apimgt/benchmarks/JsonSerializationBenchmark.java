@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.impl.utils.JsonCodecRegistry;
+import org.wso2.apk.apimgt.rest.api.admin.v1.common.utils.RestApiAdminUtils;
+import org.wso2.apk.apimgt.rest.api.admin.v1.common.utils.mappings.throttling.AdvancedThrottlePolicyMappingUtil;
+import org.wso2.apk.apimgt.rest.api.admin.v1.dto.AdvancedThrottlePolicyDTO;
+
+import java.util.Map;
+
+/**
+ * Measures JSON serialization and deserialization of REST API DTOs and key manager configurations through the shared
+ * codecs of JsonCodecRegistry, compared with building a new ObjectMapper or Gson instance per call as was done
+ * before. Run with {@code -prof gc} to compare the allocation rates.
+ */
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private static final String KEY_MANAGER_CONFIGURATION = "{\"client_id\":\"clientId\",\"client_secret\":\"secret\","
+            + "\"grant_types\":[\"client_credentials\",\"password\",\"refresh_token\"],"
+            + "\"self_validate_jwt\":true,\"claim_mappings\":[{\"remoteClaim\":\"sub\",\"localClaim\":\"username\"}],"
+            + "\"token_endpoint\":\"https://localhost:9443/oauth2/token\"}";
+
+    @Param({"1", "10", "50"})
+    private int pipelineCount;
+
+    private AdvancedThrottlePolicyDTO policyDTO;
+    private String policyJson;
+
+    @Setup
+    public void setup() throws APIManagementException {
+
+        policyDTO = AdvancedThrottlePolicyMappingUtil.fromAdvancedPolicyToDTO(
+                BenchmarkData.createAPIPolicy("policy", pipelineCount));
+        policyJson = RestApiAdminUtils.getJsonFromDTO(policyDTO);
+    }
+
+    @Benchmark
+    public String getJsonFromDTO() throws APIManagementException {
+
+        return RestApiAdminUtils.getJsonFromDTO(policyDTO);
+    }
+
+    @Benchmark
+    public String getJsonFromDTOWithNewMapper() throws JsonProcessingException {
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        return mapper.writeValueAsString(policyDTO);
+    }
+
+    @Benchmark
+    public AdvancedThrottlePolicyDTO getDTOFromJson() throws APIManagementException {
+
+        return RestApiAdminUtils.getDTOFromJson(policyJson, AdvancedThrottlePolicyDTO.class);
+    }
+
+    @Benchmark
+    public AdvancedThrottlePolicyDTO getDTOFromJsonWithNewMapper() throws JsonProcessingException {
+
+        return new ObjectMapper().readValue(policyJson, AdvancedThrottlePolicyDTO.class);
+    }
+
+    @Benchmark
+    public Map<?, ?> parseKeyManagerConfiguration() {
+
+        return JsonCodecRegistry.getInstance().getGson().fromJson(KEY_MANAGER_CONFIGURATION, Map.class);
+    }
+
+    @Benchmark
+    public Map<?, ?> parseKeyManagerConfigurationWithNewGson() {
+
+        return new Gson().fromJson(KEY_MANAGER_CONFIGURATION, Map.class);
+    }
+}
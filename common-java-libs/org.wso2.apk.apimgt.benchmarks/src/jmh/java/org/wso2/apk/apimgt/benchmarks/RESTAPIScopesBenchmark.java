@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.benchmarks;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.wso2.apk.apimgt.impl.APIConstants;
+import org.wso2.apk.apimgt.impl.utils.APIUtil;
+import org.wso2.apk.apimgt.impl.utils.ScopeRoleIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures reading the RESTAPIScopes tenant configuration into a scope-role map, and checking whether a user is
+ * allowed a scope with the compiled ScopeRoleIndex compared with scanning the scope-role map.
+ */
+@State(Scope.Benchmark)
+public class RESTAPIScopesBenchmark {
+
+    @Param({"50", "500"})
+    private int scopeCount;
+
+    @Param({"50"})
+    private int roleCount;
+
+    private JSONObject scopesConfig;
+    private JSONObject roleMappings;
+    private Map<String, String> scopeRoleMapping;
+    private ScopeRoleIndex scopeRoleIndex;
+    private String[] userRoles;
+    private String scopeName;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+
+        JSONArray scopes = new JSONArray();
+        for (int i = 0; i < scopeCount; i++) {
+            JSONObject scope = new JSONObject();
+            scope.put(APIConstants.REST_API_SCOPE_NAME, "apim:scope_" + i);
+            scope.put(APIConstants.REST_API_SCOPE_ROLE, "admin, role_" + (i % roleCount) + ", role_"
+                    + ((i + 1) % roleCount));
+            scopes.add(scope);
+        }
+        scopesConfig = new JSONObject();
+        scopesConfig.put("Scope", scopes);
+        roleMappings = new JSONObject();
+        roleMappings.put("admin", "Internal/admin");
+
+        scopeRoleMapping = APIUtil.getRESTAPIScopesFromConfig(scopesConfig, roleMappings);
+        scopeRoleIndex = ScopeRoleIndex.build(scopeRoleMapping);
+        userRoles = new String[]{"Internal/everyone", "role_" + (roleCount - 1)};
+        scopeName = "apim:scope_" + (scopeCount - 1);
+    }
+
+    @Benchmark
+    public Map<String, String> getRESTAPIScopesFromConfig() {
+
+        return APIUtil.getRESTAPIScopesFromConfig(scopesConfig, roleMappings);
+    }
+
+    @Benchmark
+    public boolean isScopeAllowed() {
+
+        return scopeRoleIndex.isScopeAllowed(userRoles, scopeName);
+    }
+
+    /**
+     * Scope check done by splitting the role list of every scope, as APIAdminImpl did before the index was added.
+     */
+    @Benchmark
+    public boolean isScopeAllowedByScan() {
+
+        List<String> userRoleList = Arrays.asList(userRoles);
+        List<String> authorizedScopes = new ArrayList<>();
+        for (Map.Entry<String, String> entry : scopeRoleMapping.entrySet()) {
+            for (String role : entry.getValue().split(",")) {
+                if (userRoleList.contains(role)) {
+                    authorizedScopes.add(entry.getKey());
+                }
+            }
+        }
+        return authorizedScopes.contains(scopeName);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.wso2.apk.apimgt.api.model.subscription.Subscription;
+import org.wso2.apk.apimgt.impl.subscription.LongObjectHashMap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares looking up subscriptions in a LongObjectHashMap keyed by the packed subscription key with a HashMap keyed
+ * by the "appId:apiId" cache key, which has to be built for every lookup.
+ * <p>
+ * Only the index selected by the {@code index} parameter is built, and the heap it retains is reported with the
+ * results as the {@code retainedMegabytes} and {@code retainedBytesPerEntry} secondary metrics. The subscriptions are
+ * taken from a small shared pool, so the footprint is the one of the keys and the hash table. The 10M entry runs need
+ * a heap of a few GB, which is set for the forked JVM.
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class SubscriptionIndexBenchmark {
+
+    private static final int APIS_PER_APPLICATION = 8;
+    private static final int SUBSCRIPTION_POOL_SIZE = 1024;
+    private static final int PROBE_COUNT = 1 << 16;
+
+    @Param({"100000", "10000000"})
+    private int subscriptionCount;
+
+    @Param({"packed", "string"})
+    private String index;
+
+    private LongObjectHashMap<Subscription> packedIndex;
+    private Map<String, Subscription> stringIndex;
+    private int[] probeAppIds;
+    private int[] probeApiIds;
+    private int probe;
+    private long retainedBytes;
+
+    @Setup
+    public void setup() {
+
+        Subscription[] pool = new Subscription[SUBSCRIPTION_POOL_SIZE];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = new Subscription();
+            pool[i].setSubscriptionId(i);
+            pool[i].setSubscriptionState("UNBLOCKED");
+        }
+        long usedBefore = usedHeap();
+        if ("packed".equals(index)) {
+            packedIndex = new LongObjectHashMap<>(subscriptionCount);
+            for (int i = 0; i < subscriptionCount; i++) {
+                packedIndex.put(Subscription.getSubscriptionKey(appIdOf(i), apiIdOf(i)), pool[i % pool.length]);
+            }
+        } else {
+            stringIndex = new HashMap<>();
+            for (int i = 0; i < subscriptionCount; i++) {
+                stringIndex.put(Subscription.getSubscriptionCacheKey(appIdOf(i), apiIdOf(i)), pool[i % pool.length]);
+            }
+        }
+        retainedBytes = usedHeap() - usedBefore;
+
+        Random random = new Random(42);
+        probeAppIds = new int[PROBE_COUNT];
+        probeApiIds = new int[PROBE_COUNT];
+        for (int i = 0; i < PROBE_COUNT; i++) {
+            int subscription = random.nextInt(subscriptionCount);
+            probeAppIds[i] = appIdOf(subscription);
+            probeApiIds[i] = apiIdOf(subscription);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        packedIndex = null;
+        stringIndex = null;
+    }
+
+    @Benchmark
+    public Subscription lookup(Footprint footprint) {
+
+        int i = probe++ & (PROBE_COUNT - 1);
+        if (packedIndex != null) {
+            return packedIndex.get(Subscription.getSubscriptionKey(probeAppIds[i], probeApiIds[i]));
+        }
+        return stringIndex.get(Subscription.getSubscriptionCacheKey(probeAppIds[i], probeApiIds[i]));
+    }
+
+    /**
+     * Reports the heap retained by the index built for the trial.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public double retainedMegabytes;
+        public double retainedBytesPerEntry;
+
+        @Setup(Level.Iteration)
+        public void setup(SubscriptionIndexBenchmark benchmark) {
+
+            retainedMegabytes = benchmark.retainedBytes / (1024.0 * 1024.0);
+            retainedBytesPerEntry = benchmark.retainedBytes / (double) benchmark.subscriptionCount;
+        }
+    }
+
+    private static int appIdOf(int subscription) {
+
+        return subscription / APIS_PER_APPLICATION + 1;
+    }
+
+    private static int apiIdOf(int subscription) {
+
+        return (subscription % APIS_PER_APPLICATION) * 97 + 1;
+    }
+
+    private static long usedHeap() {
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.model.policy.APIPolicy;
+import org.wso2.apk.apimgt.rest.api.admin.v1.common.utils.mappings.throttling.AdvancedThrottlePolicyMappingUtil;
+import org.wso2.apk.apimgt.rest.api.admin.v1.dto.AdvancedThrottlePolicyDTO;
+
+/**
+ * Measures the conversion of advanced throttle policies between the REST API DTOs and the model objects, which is
+ * done through the condition and limit mappings of CommonThrottleMappingUtil.
+ */
+@State(Scope.Benchmark)
+public class ThrottlePolicyMappingBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int pipelineCount;
+
+    private APIPolicy policy;
+    private AdvancedThrottlePolicyDTO policyDTO;
+
+    @Setup
+    public void setup() throws APIManagementException {
+
+        policy = BenchmarkData.createAPIPolicy("policy", pipelineCount);
+        policyDTO = AdvancedThrottlePolicyMappingUtil.fromAdvancedPolicyToDTO(policy);
+    }
+
+    @Benchmark
+    public AdvancedThrottlePolicyDTO modelToDTO() throws APIManagementException {
+
+        return AdvancedThrottlePolicyMappingUtil.fromAdvancedPolicyToDTO(policy);
+    }
+
+    @Benchmark
+    public APIPolicy dtoToModel() throws APIManagementException {
+
+        return AdvancedThrottlePolicyMappingUtil.fromAdvancedPolicyDTOToPolicy(policyDTO);
+    }
+}
@@ -31,11 +31,15 @@ import org.wso2.apk.apimgt.api.BlockConditionNotFoundException;
 import org.wso2.apk.apimgt.api.ExceptionCodes;
 import org.wso2.apk.apimgt.api.MonetizationException;
 import org.wso2.apk.apimgt.api.PolicyNotFoundException;
+import org.wso2.apk.apimgt.api.ResultConsumer;
 import org.wso2.apk.apimgt.api.dto.KeyManagerConfigurationDTO;
 import org.wso2.apk.apimgt.api.model.APICategory;
 import org.wso2.apk.apimgt.api.model.Application;
+import org.wso2.apk.apimgt.api.model.ApplicationCursor;
 import org.wso2.apk.apimgt.api.model.ApplicationInfo;
+import org.wso2.apk.apimgt.api.model.ApplicationPage;
 import org.wso2.apk.apimgt.api.model.BlockConditionsDTO;
+import org.wso2.apk.apimgt.api.model.CountMode;
 import org.wso2.apk.apimgt.api.model.Environment;
 import org.wso2.apk.apimgt.api.model.Monetization;
 import org.wso2.apk.apimgt.api.model.MonetizationUsagePublishInfo;
@@ -47,27 +51,34 @@ import org.wso2.apk.apimgt.api.model.policy.Pipeline;
 import org.wso2.apk.apimgt.api.model.policy.Policy;
 import org.wso2.apk.apimgt.api.model.policy.PolicyConstants;
 import org.wso2.apk.apimgt.api.model.policy.SubscriptionPolicy;
+import org.wso2.apk.apimgt.impl.dao.KeyManagerDAO;
+import org.wso2.apk.apimgt.impl.dao.PolicyDAO;
 import org.wso2.apk.apimgt.impl.dao.impl.AdminDAOImpl;
 import org.wso2.apk.apimgt.impl.dao.impl.ApplicationDAOImpl;
 import org.wso2.apk.apimgt.impl.dao.impl.BlockConditionDAOImpl;
+import org.wso2.apk.apimgt.impl.dao.impl.CachedKeyManagerDAOImpl;
+import org.wso2.apk.apimgt.impl.dao.impl.CachedPolicyDAOImpl;
 import org.wso2.apk.apimgt.impl.dao.impl.EnvironmentDAOImpl;
-import org.wso2.apk.apimgt.impl.dao.impl.KeyManagerDAOImpl;
-import org.wso2.apk.apimgt.impl.dao.impl.PolicyDAOImpl;
 import org.wso2.apk.apimgt.impl.dao.impl.TierDAOImpl;
 import org.wso2.apk.apimgt.impl.dto.ThrottleProperties;
 import org.wso2.apk.apimgt.impl.dto.TierPermissionDTO;
 import org.wso2.apk.apimgt.impl.internal.ServiceReferenceHolder;
+import org.wso2.apk.apimgt.impl.kmclient.KeyManagerClientRegistry;
 import org.wso2.apk.apimgt.impl.monetization.DefaultMonetizationImpl;
 import org.wso2.apk.apimgt.impl.utils.APIUtil;
+import org.wso2.apk.apimgt.impl.utils.BlockConditionIndex;
+import org.wso2.apk.apimgt.impl.utils.BlockConditionStore;
+import org.wso2.apk.apimgt.impl.utils.ScopeRoleIndex;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.TimeZone;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -81,8 +92,8 @@ public class APIAdminImpl implements APIAdmin {
     protected EnvironmentDAOImpl environmentDAOImpl;
     protected ApplicationDAOImpl applicationDAOImpl;
     protected AdminDAOImpl adminDAOImpl;
-    protected KeyManagerDAOImpl keyManagerDAOImpl;
-    protected PolicyDAOImpl policyDAOImpl;
+    protected KeyManagerDAO keyManagerDAOImpl;
+    protected PolicyDAO policyDAOImpl;
     protected BlockConditionDAOImpl blockConditionDAOImpl;
     protected TierDAOImpl tierDAOImpl;
 
@@ -90,8 +101,8 @@ public class APIAdminImpl implements APIAdmin {
         environmentDAOImpl = EnvironmentDAOImpl.getInstance();
         applicationDAOImpl = ApplicationDAOImpl.getInstance();
         adminDAOImpl = AdminDAOImpl.getInstance();
-        keyManagerDAOImpl = KeyManagerDAOImpl.getInstance();
-        policyDAOImpl = PolicyDAOImpl.getInstance();
+        keyManagerDAOImpl = CachedKeyManagerDAOImpl.getInstance();
+        policyDAOImpl = CachedPolicyDAOImpl.getInstance();
         blockConditionDAOImpl = BlockConditionDAOImpl.getInstance();
         tierDAOImpl = TierDAOImpl.getInstance();
     }
@@ -211,6 +222,24 @@ public class APIAdminImpl implements APIAdmin {
                 sortOrder, applicationName);
     }
 
+    @Override
+    public ApplicationPage getApplicationsPage(String owner, String organization, int limit, ApplicationCursor after,
+                                               String applicationName, String sortBy, String sortOrder)
+            throws APIManagementException {
+
+        return applicationDAOImpl.getApplicationsPage(owner, organization, limit, after, sortBy, sortOrder,
+                applicationName);
+    }
+
+    @Override
+    public ApplicationPage getApplicationsWithCount(String owner, String organization, int limit, int offset,
+                                                    String applicationName, String sortBy, String sortOrder,
+                                                    CountMode countMode) throws APIManagementException {
+
+        return applicationDAOImpl.getApplicationsWithCount(owner, organization, limit, offset, sortBy, sortOrder,
+                applicationName, countMode);
+    }
+
     /**
      * Get count of the applications for the organization.
      *
@@ -309,19 +338,21 @@ public class APIAdminImpl implements APIAdmin {
     @Override
     public List<KeyManagerConfigurationDTO> getKeyManagerConfigurationsByOrganization(String organization)
             throws APIManagementException {
-        return null;
+        return keyManagerDAOImpl.getKeyManagerConfigurationsByOrganization(organization);
     }
 
     @Override
     public Map<String, List<KeyManagerConfigurationDTO>> getAllKeyManagerConfigurations()
             throws APIManagementException {
-        return null;
+        // the organization of a key manager is nullable, and groupingBy does not accept null keys
+        return keyManagerDAOImpl.getKeyManagerConfigurations().stream()
+                .collect(Collectors.groupingBy(keyManager -> Objects.toString(keyManager.getOrganization(), "")));
     }
 
     @Override
     public KeyManagerConfigurationDTO getKeyManagerConfigurationById(String organization, String id)
             throws APIManagementException {
-        return null;
+        return keyManagerDAOImpl.getKeyManagerConfigurationByID(organization, id);
     }
 
     @Override
@@ -343,13 +374,16 @@ public class APIAdminImpl implements APIAdmin {
     @Override
     public KeyManagerConfigurationDTO addKeyManagerConfiguration(KeyManagerConfigurationDTO keyManagerConfigurationDTO)
             throws APIManagementException {
-        return null;
+        keyManagerDAOImpl.addKeyManagerConfiguration(keyManagerConfigurationDTO);
+        return keyManagerConfigurationDTO;
     }
 
     @Override
     public KeyManagerConfigurationDTO updateKeyManagerConfiguration(
             KeyManagerConfigurationDTO keyManagerConfigurationDTO) throws APIManagementException {
-        return null;
+        keyManagerDAOImpl.updateKeyManagerConfiguration(keyManagerConfigurationDTO);
+        KeyManagerClientRegistry.getInstance().remove(keyManagerConfigurationDTO.getUuid());
+        return keyManagerConfigurationDTO;
     }
 
     @Override
@@ -361,13 +395,14 @@ public class APIAdminImpl implements APIAdmin {
     @Override
     public void deleteKeyManagerConfigurationById(String organization,
                                                   KeyManagerConfigurationDTO keyManagerConfigurationDTO) throws APIManagementException {
-
+        keyManagerDAOImpl.deleteKeyManagerConfigurationById(keyManagerConfigurationDTO.getUuid(), organization);
+        KeyManagerClientRegistry.getInstance().remove(keyManagerConfigurationDTO.getUuid());
     }
 
     @Override
     public KeyManagerConfigurationDTO getKeyManagerConfigurationByName(String organization, String name)
             throws APIManagementException {
-        return null;
+        return keyManagerDAOImpl.getKeyManagerConfigurationByName(organization, name);
     }
 
     // ToDo :  Add KM configuration methods
@@ -427,11 +462,10 @@ public class APIAdminImpl implements APIAdmin {
      */
     public boolean isScopeExistsForUser(String username, String scopeName) throws APIManagementException {
         if (APIUtil.isUserExist(username)) {
-            Map<String, String> scopeRoleMapping =
-                    APIUtil.getRESTAPIScopesForTenant(APIUtil.getTenantDomain(username));
-            if (scopeRoleMapping.containsKey(scopeName)) {
+            ScopeRoleIndex scopeRoleIndex = APIUtil.getRESTAPIScopeRoleIndex(APIUtil.getTenantDomain(username));
+            if (scopeRoleIndex.containsScope(scopeName)) {
                 String[] userRoles = APIUtil.getListOfRoles(username);
-                return getRoleScopeList(userRoles, scopeRoleMapping).contains(scopeName);
+                return scopeRoleIndex.isScopeAllowed(userRoles, scopeName);
             } else {
                 throw new APIManagementException("Scope Not Found.  Scope : " + scopeName + ",",
                         ExceptionCodes.SCOPE_NOT_FOUND);
@@ -454,53 +488,53 @@ public class APIAdminImpl implements APIAdmin {
         return scopeRoleMapping.containsKey(scopeName);
     }
 
-    /**
-     * This method used to get the list of scopes of a user roles
-     *
-     * @param userRoles        roles of a particular user
-     * @param scopeRoleMapping scope-role mapping
-     * @return scopeList            scope lost of a particular user
-     * @throws APIManagementException
-     */
-    private List<String> getRoleScopeList(String[] userRoles, Map<String, String> scopeRoleMapping) {
-        List<String> userRoleList;
-        List<String> authorizedScopes = new ArrayList<>();
-
-        if (userRoles == null || userRoles.length == 0) {
-            userRoles = new String[0];
-        }
+    @Override
+    @Deprecated
+    public void addTenantTheme(String organization, InputStream themeContent) throws APIManagementException {
 
-        userRoleList = Arrays.asList(userRoles);
-        Iterator<Map.Entry<String, String>> iterator = scopeRoleMapping.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<String, String> entry = iterator.next();
-            for (String aRole : entry.getValue().split(",")) {
-                if (userRoleList.contains(aRole)) {
-                    authorizedScopes.add(entry.getKey());
-                }
-            }
-        }
-        return authorizedScopes;
+        adminDAOImpl.addTenantTheme(organization, themeContent);
     }
 
     @Override
-    public void addTenantTheme(String organization, InputStream themeContent) throws APIManagementException {
+    public void addTenantTheme(String organization, InputStream themeContent, long contentLength, String themeHash)
+            throws APIManagementException {
 
-        adminDAOImpl.addTenantTheme(organization, themeContent);
+        adminDAOImpl.addTenantTheme(organization, themeContent, contentLength, themeHash);
     }
 
     @Override
+    @Deprecated
     public void updateTenantTheme(String organization, InputStream themeContent) throws APIManagementException {
 
         adminDAOImpl.updateTenantTheme(organization, themeContent);
     }
 
+    @Override
+    public void updateTenantTheme(String organization, InputStream themeContent, long contentLength, String themeHash)
+            throws APIManagementException {
+
+        adminDAOImpl.updateTenantTheme(organization, themeContent, contentLength, themeHash);
+    }
+
     @Override
     public InputStream getTenantTheme(String organization) throws APIManagementException {
 
         return adminDAOImpl.getTenantTheme(organization);
     }
 
+    @Override
+    public boolean getTenantTheme(String organization, OutputStream outputStream) throws APIManagementException {
+
+        return adminDAOImpl.getTenantTheme(organization, outputStream);
+    }
+
+    @Override
+    public String getTenantThemeHash(String organization) throws APIManagementException {
+
+        // read from the database on every call, so that a theme imported on another node is seen right away
+        return adminDAOImpl.getTenantThemeHash(organization);
+    }
+
     @Override
     public boolean isTenantThemeExist(String organization) throws APIManagementException {
 
@@ -531,6 +565,7 @@ public class APIAdminImpl implements APIAdmin {
                 APIUtil.validateRestAPIScopes(config);
                 // ToDO: // update through config
                 //ServiceReferenceHolder.getInstance().getApimConfigService().updateTenantConfig(organization, config);
+                APIUtil.clearTenantConfigCache(organization);
             } catch (ValidationException | JSONException e) {
                 throw new APIManagementException("tenant-config validation failure",
                         ExceptionCodes.from(ExceptionCodes.INVALID_TENANT_CONFIG, e.getMessage()));
@@ -638,6 +673,23 @@ public class APIAdminImpl implements APIAdmin {
         return blockConditionDAOImpl.getBlockConditions(organization);
     }
 
+    @Override
+    public int getBlockConditions(String organization, ResultConsumer<BlockConditionsDTO> consumer)
+            throws APIManagementException {
+        return blockConditionDAOImpl.getBlockConditions(organization, consumer);
+    }
+
+    /**
+     * Returns the compiled block conditions of an organization. See {@link BlockConditionStore}.
+     *
+     * @param organization organization
+     * @return block condition index of the organization
+     * @throws APIManagementException if the block conditions could not be loaded
+     */
+    public BlockConditionIndex getBlockConditionIndex(String organization) throws APIManagementException {
+        return BlockConditionStore.getInstance().getIndex(organization);
+    }
+
     @Override
     public APIPolicy getAPIPolicyByUUID(String uuid) throws APIManagementException {
         APIPolicy policy = policyDAOImpl.getAPIPolicyByUUID(uuid);
@@ -691,6 +743,7 @@ public class APIAdminImpl implements APIAdmin {
         blockConditionsDTO.setEnabled(conditionStatus);
         blockConditionsDTO.setUUID(UUID.randomUUID().toString());
         BlockConditionsDTO createdBlockConditionsDto = blockConditionDAOImpl.addBlockConditions(blockConditionsDTO);
+        BlockConditionStore.getInstance().updateCondition(createdBlockConditionsDto);
 
         //TODO:APK
 //        if (createdBlockConditionsDto != null) {
@@ -765,6 +818,9 @@ public class APIAdminImpl implements APIAdmin {
 
         boolean updateState = blockConditionDAOImpl.updateBlockConditionStateByUUID(uuid, state);
         BlockConditionsDTO blockConditionsDTO = blockConditionDAOImpl.getBlockConditionByUUID(uuid);
+        if (updateState) {
+            BlockConditionStore.getInstance().updateCondition(blockConditionsDTO);
+        }
         //TODO:APK
 //        if (updateState && blockConditionsDTO != null) {
 //            publishBlockingEventUpdate(blockConditionsDTO);
@@ -862,6 +918,7 @@ public class APIAdminImpl implements APIAdmin {
         if (blockCondition != null) {
             deleteState = blockConditionDAOImpl.deleteBlockCondition(blockCondition.getConditionId());
             if (deleteState) {
+                BlockConditionStore.getInstance().removeCondition(blockCondition);
                 //TODO: APK
 //                unpublishBlockCondition(blockCondition);
             }
@@ -98,6 +98,9 @@ public final class APIConstants {
 
     public static final String API_TENANT_CONF_MEDIA_TYPE = "tenant-config";
     public static final String TENANT_CONFIG_CACHE_NAME = "tenantConfigCache";
+    public static final String OIDC_DISCOVERY_CACHE = "oidcDiscoveryCache";
+    public static final String KEY_MANAGER_INTROSPECTION_CACHE = "keyManagerIntrospectionCache";
+    public static final String BLOCK_CONDITION_INDEX_CACHE = "blockConditionIndexCache";
 
     public static final String API_MAX_REVISION_COUNT_PROPERTY_NAME = "ApiMaxRevisionCount";
 
@@ -722,10 +725,16 @@ public final class APIConstants {
             CACHE_CONFIGS + "EnableRecentlyAddedAPICache";
     public static final String SCOPE_CACHE_ENABLED = CACHE_CONFIGS + "EnableScopeCache";
     public static final String PUBLISHER_ROLE_CACHE_ENABLED = CACHE_CONFIGS + "EnablePublisherRoleCache";
+    public static final String POLICY_CACHE_ENABLED = CACHE_CONFIGS + "EnablePolicyCache";
+    public static final String POLICY_CACHE_EXPIRY = CACHE_CONFIGS + "PolicyCacheExpiry";
+    public static final String BLOCK_CONDITION_CACHE_EXPIRY = CACHE_CONFIGS + "BlockConditionCacheExpiry";
     public static final String GATEWAY_RESOURCE_CACHE_TIMEOUT = CACHE_CONFIGS + "GatewayResourceCacheExpiry";
     public static final String DEFAULT_CACHE_TIMEOUT = "Cache.DefaultCacheTimeout";
     public static final String REST_API_SCOPE_CACHE = "REST_API_SCOPE_CACHE";
+    public static final String REST_API_SCOPE_ROLE_INDEX_CACHE = "REST_API_SCOPE_ROLE_INDEX_CACHE";
     public static final long DEFAULT_TIMEOUT = 900;
+    public static final String DEFAULT_CACHE_MAX_ENTRIES = "Cache.DefaultCacheMaxEntries";
+    public static final int DEFAULT_CACHE_SIZE = 10000;
 
     public static final String API_KEY_VALIDATOR = "APIKeyValidator.";
     public static final String API_KEY_VALIDATOR_URL = API_KEY_VALIDATOR + "ServerURL";
@@ -748,6 +757,11 @@ public final class APIConstants {
             API_KEY_VALIDATOR + "EnableProvisionedAppValidation";
     public static final String API_KEY_SUBSCRIPTION_VALIDATION_ENABLED =
             API_KEY_VALIDATOR + "EnableAPIKeySubscriptionValidation";
+    public static final String SUBSCRIPTION_DATA_STORE = "SubscriptionDataStore.";
+    public static final String SUBSCRIPTION_DATA_STORE_ORGANIZATIONS =
+            SUBSCRIPTION_DATA_STORE + "Organizations.Organization";
+    public static final String SUBSCRIPTION_DATA_STORE_SYNC_INTERVAL = SUBSCRIPTION_DATA_STORE + "SyncInterval";
+    public static final long DEFAULT_SUBSCRIPTION_DATA_STORE_SYNC_INTERVAL = 10000;
     public static final String KEY_MANAGER_OAUTH2_SCOPES_REST_API_BASE_PATH = "/api/identity/oauth2/v1.0/scopes";
     public static final String KEY_MANAGER_OAUTH2_SCOPES_SCOPE_NAME_PARAM = "{scope_name}";
     public static final String KEY_MANAGER_OAUTH2_SCOPES_REST_API_SCOPE_NAME = "/name/"
@@ -1083,6 +1097,7 @@ public final class APIConstants {
     public static final String LC_CACHE_NAME = "lcCache";
     public static final String APP_SCOPE_CACHE = "appScopeCache";
     public static final String TIERS_CACHE = "tiersCache";
+    public static final String POLICY_CACHE = "policyCache";
     public static final int API_CONTEXT_CACHE_EXPIRY_TIME_IN_DAYS = 3650;
     public static final String CLAIMS_APIM_CACHE = "claimsLocalCache";
     public static final String APP_SUBSCRIPTION_SCOPE_CACHE = "appSubscriptionScopeCache";
@@ -1422,6 +1437,16 @@ public final class APIConstants {
 
     public static final String HTTP_CLIENT_MAX_TOTAL = "HttpClient.MaxTotal";
     public static final String HTTP_CLIENT_DEFAULT_MAX_PER_ROUTE = "HttpClient.DefaultMaxPerRoute";
+    public static final String HTTP_CLIENT_KEEP_ALIVE_TIMEOUT = "HttpClient.KeepAliveTimeout";
+    public static final String HTTP_CLIENT_MAX_IDLE_TIME = "HttpClient.MaxIdleTime";
+    public static final String HTTP_CLIENT_CONNECTION_REQUEST_TIMEOUT = "HttpClient.ConnectionRequestTimeout";
+    public static final String HTTP_CLIENT_VALIDATE_AFTER_INACTIVITY = "HttpClient.ValidateAfterInactivity";
+    public static final int DEFAULT_HTTP_CLIENT_MAX_TOTAL = 100;
+    public static final int DEFAULT_HTTP_CLIENT_MAX_PER_ROUTE = 50;
+    public static final long DEFAULT_HTTP_CLIENT_KEEP_ALIVE_TIMEOUT = 60000;
+    public static final long DEFAULT_HTTP_CLIENT_MAX_IDLE_TIME = 30000;
+    public static final int DEFAULT_HTTP_CLIENT_CONNECTION_REQUEST_TIMEOUT = 10000;
+    public static final int DEFAULT_HTTP_CLIENT_VALIDATE_AFTER_INACTIVITY = 2000;
 
     public static final String PROXY_ENABLE = "ProxyConfig.Enable";
     public static final String PROXY_HOST = "ProxyConfig.Host";
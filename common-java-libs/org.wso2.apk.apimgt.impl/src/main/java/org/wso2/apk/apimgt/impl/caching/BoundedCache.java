@@ -0,0 +1,954 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.caching;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.configuration.CacheEntryListenerConfiguration;
+import javax.cache.configuration.Configuration;
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryEventFilter;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListener;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+import javax.cache.event.EventType;
+import javax.cache.expiry.Duration;
+import javax.cache.expiry.ExpiryPolicy;
+import javax.cache.integration.CompletionListener;
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import javax.cache.processor.MutableEntry;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A local, size bounded {@link Cache} implementation with per entry expiry. Entries are evicted in least recently
+ * used order once the configured maximum is reached, and are expired according to the {@link ExpiryPolicy} of the
+ * cache configuration. Hit, miss, put, removal and eviction counts are recorded in a {@link CacheStatistics}.
+ * <p>
+ * Instances are created and owned by {@link CacheProvider} and are exposed through {@link LocalCacheManager}. Entry
+ * processors run under a lock of their key only, so a slow processor does not hold up the other operations of the
+ * cache. Their result is applied only if the entry was not changed meanwhile, otherwise the processor is run again.
+ * Entry listeners are notified synchronously on the thread which changed the cache, after the lock is released.
+ * Entries evicted to keep the cache within its bounds are not reported to the listeners. Expired entries are counted
+ * as expirations rather than evictions. Cache loaders and writers are not supported, and a closed cache rejects all
+ * operations.
+ */
+public class BoundedCache<K, V> implements Cache<K, V> {
+
+    private static final Log log = LogFactory.getLog(BoundedCache.class);
+    private static final int KEY_LOCK_COUNT = 64;
+
+    private final String name;
+    private final int maxEntries;
+    private final MutableConfiguration<K, V> configuration;
+    private final ExpiryPolicy expiryPolicy;
+    private final CacheStatistics statistics = new CacheStatistics();
+    private final LinkedHashMap<K, ExpirableValue<V>> entries;
+    private final List<ListenerRegistration<K, V>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Event<K, V>> pendingEvents = new ArrayList<>();
+    private final Object[] keyLocks = new Object[KEY_LOCK_COUNT];
+    private volatile boolean closed;
+
+    public BoundedCache(String name, int maxEntries, MutableConfiguration<K, V> configuration) {
+
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Maximum entry count of cache " + name + " should be positive");
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.configuration = configuration;
+        this.expiryPolicy = configuration.getExpiryPolicyFactory().create();
+        this.entries = new LinkedHashMap<K, ExpirableValue<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, ExpirableValue<V>> eldest) {
+
+                boolean remove = size() > BoundedCache.this.maxEntries;
+                if (remove) {
+                    statistics.recordEvictions(1);
+                }
+                return remove;
+            }
+        };
+        for (CacheEntryListenerConfiguration<K, V> listenerConfiguration
+                : configuration.getCacheEntryListenerConfigurations()) {
+            listeners.add(new ListenerRegistration<>(listenerConfiguration));
+        }
+        for (int i = 0; i < keyLocks.length; i++) {
+            keyLocks[i] = new Object();
+        }
+    }
+
+    @Override
+    public V get(K key) {
+
+        ensureOpen();
+        requireNonNull(key);
+        long start = System.nanoTime();
+        V value;
+        synchronized (entries) {
+            value = getIfValid(key, currentTime());
+        }
+        dispatchPendingEvents();
+        if (value != null) {
+            statistics.recordHit();
+        } else {
+            statistics.recordMiss();
+        }
+        statistics.recordGetTime(System.nanoTime() - start);
+        return value;
+    }
+
+    @Override
+    public Map<K, V> getAll(Set<? extends K> keys) {
+
+        Map<K, V> result = new HashMap<>();
+        for (K key : keys) {
+            V value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+
+        ensureOpen();
+        requireNonNull(key);
+        long now = currentTime();
+        boolean contains;
+        synchronized (entries) {
+            ExpirableValue<V> holder = entries.get(key);
+            contains = holder != null && !holder.isExpired(now);
+            if (holder != null && !contains) {
+                removeExpired(key);
+            }
+        }
+        dispatchPendingEvents();
+        return contains;
+    }
+
+    @Override
+    public void loadAll(Set<? extends K> keys, boolean replaceExistingValues, CompletionListener completionListener) {
+
+        ensureOpen();
+        // No cache loader is configured for this cache, hence there is nothing to load.
+        if (completionListener != null) {
+            completionListener.onCompletion();
+        }
+    }
+
+    @Override
+    public void put(K key, V value) {
+
+        getAndPut(key, value);
+    }
+
+    @Override
+    public V getAndPut(K key, V value) {
+
+        ensureOpen();
+        requireNonNull(key);
+        requireNonNull(value);
+        long start = System.nanoTime();
+        long now = currentTime();
+        V previous;
+        synchronized (entries) {
+            previous = getIfValid(key, now);
+            store(key, value, previous, now);
+        }
+        dispatchPendingEvents();
+        statistics.recordPut();
+        statistics.recordPutTime(System.nanoTime() - start);
+        return previous;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public boolean putIfAbsent(K key, V value) {
+
+        ensureOpen();
+        requireNonNull(key);
+        requireNonNull(value);
+        long now = currentTime();
+        boolean absent;
+        synchronized (entries) {
+            if (getIfValid(key, now) != null) {
+                absent = false;
+            } else {
+                store(key, value, null, now);
+                absent = true;
+            }
+        }
+        dispatchPendingEvents();
+        if (absent) {
+            statistics.recordPut();
+        }
+        return absent;
+    }
+
+    @Override
+    public boolean remove(K key) {
+
+        return getAndRemove(key) != null;
+    }
+
+    @Override
+    public boolean remove(K key, V oldValue) {
+
+        ensureOpen();
+        requireNonNull(key);
+        requireNonNull(oldValue);
+        boolean removed;
+        synchronized (entries) {
+            V current = getIfValid(key, currentTime());
+            removed = current != null && current.equals(oldValue);
+            if (removed) {
+                entries.remove(key);
+                addEvent(EventType.REMOVED, key, current, current);
+            }
+        }
+        dispatchPendingEvents();
+        if (removed) {
+            statistics.recordRemoval();
+        }
+        return removed;
+    }
+
+    @Override
+    public V getAndRemove(K key) {
+
+        ensureOpen();
+        requireNonNull(key);
+        long start = System.nanoTime();
+        V previous;
+        synchronized (entries) {
+            previous = getIfValid(key, currentTime());
+            if (previous != null) {
+                entries.remove(key);
+                addEvent(EventType.REMOVED, key, previous, previous);
+            }
+        }
+        dispatchPendingEvents();
+        if (previous != null) {
+            statistics.recordRemoval();
+        }
+        statistics.recordRemoveTime(System.nanoTime() - start);
+        return previous;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+
+        ensureOpen();
+        requireNonNull(key);
+        requireNonNull(oldValue);
+        requireNonNull(newValue);
+        long now = currentTime();
+        boolean replaced;
+        synchronized (entries) {
+            V current = getIfValid(key, now);
+            replaced = current != null && current.equals(oldValue);
+            if (replaced) {
+                store(key, newValue, current, now);
+            }
+        }
+        dispatchPendingEvents();
+        if (replaced) {
+            statistics.recordPut();
+        }
+        return replaced;
+    }
+
+    @Override
+    public boolean replace(K key, V value) {
+
+        return getAndReplace(key, value) != null;
+    }
+
+    @Override
+    public V getAndReplace(K key, V value) {
+
+        ensureOpen();
+        requireNonNull(key);
+        requireNonNull(value);
+        long now = currentTime();
+        V previous;
+        synchronized (entries) {
+            previous = getIfValid(key, now);
+            if (previous != null) {
+                store(key, value, previous, now);
+            }
+        }
+        dispatchPendingEvents();
+        if (previous != null) {
+            statistics.recordPut();
+        }
+        return previous;
+    }
+
+    @Override
+    public void removeAll(Set<? extends K> keys) {
+
+        for (K key : keys) {
+            remove(key);
+        }
+    }
+
+    @Override
+    public void removeAll() {
+
+        ensureOpen();
+        int removed;
+        synchronized (entries) {
+            removed = entries.size();
+            if (!listeners.isEmpty()) {
+                long now = currentTime();
+                for (Map.Entry<K, ExpirableValue<V>> entry : entries.entrySet()) {
+                    ExpirableValue<V> holder = entry.getValue();
+                    addEvent(holder.isExpired(now) ? EventType.EXPIRED : EventType.REMOVED, entry.getKey(),
+                            holder.value, holder.value);
+                }
+            }
+            entries.clear();
+        }
+        dispatchPendingEvents();
+        statistics.recordRemovals(removed);
+    }
+
+    @Override
+    public void clear() {
+
+        ensureOpen();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public <C extends Configuration<K, V>> C getConfiguration(Class<C> clazz) {
+
+        if (clazz.isInstance(configuration)) {
+            return clazz.cast(configuration);
+        }
+        throw new IllegalArgumentException("Unsupported configuration class " + clazz.getName());
+    }
+
+    @Override
+    public <T> T invoke(K key, EntryProcessor<K, V, T> entryProcessor, Object... arguments)
+            throws EntryProcessorException {
+
+        ensureOpen();
+        requireNonNull(key);
+        if (entryProcessor == null) {
+            throw new NullPointerException("Entry processor cannot be null");
+        }
+        ProcessorEntry entry;
+        T result;
+        // processors of the same key run one at a time, without holding up the operations on other keys
+        synchronized (keyLockOf(key)) {
+            try {
+                while (true) {
+                    V original;
+                    synchronized (entries) {
+                        original = getIfValid(key, currentTime());
+                    }
+                    entry = new ProcessorEntry(key, original);
+                    try {
+                        result = entryProcessor.process(entry, arguments);
+                    } catch (EntryProcessorException e) {
+                        throw e;
+                    } catch (RuntimeException e) {
+                        throw new EntryProcessorException(e);
+                    }
+                    if (apply(entry)) {
+                        break;
+                    }
+                    if (log.isDebugEnabled()) {
+                        log.debug("Entry of cache " + name + " changed while an entry processor was running. "
+                                + "Running the processor again");
+                    }
+                }
+            } finally {
+                dispatchPendingEvents();
+            }
+        }
+        if (entry.updated) {
+            statistics.recordPut();
+        } else if (entry.removed && entry.original != null) {
+            statistics.recordRemoval();
+        }
+        return result;
+    }
+
+    /**
+     * Applies the changes of a processor entry, unless the entry of the cache was changed since the processor read it.
+     *
+     * @return true if the changes were applied
+     */
+    private boolean apply(ProcessorEntry entry) {
+
+        synchronized (entries) {
+            ExpirableValue<V> holder = entries.get(entry.key);
+            long now = currentTime();
+            V current = holder != null && !holder.isExpired(now) ? holder.value : null;
+            if (current != entry.original) {
+                return false;
+            }
+            if (entry.updated) {
+                store(entry.key, entry.value, entry.original, now);
+            } else if (entry.removed && entry.original != null) {
+                entries.remove(entry.key);
+                addEvent(EventType.REMOVED, entry.key, entry.original, entry.original);
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public <T> Map<K, EntryProcessorResult<T>> invokeAll(Set<? extends K> keys,
+                                                         EntryProcessor<K, V, T> entryProcessor,
+                                                         Object... arguments) {
+
+        Map<K, EntryProcessorResult<T>> results = new HashMap<>();
+        for (K key : keys) {
+            try {
+                T result = invoke(key, entryProcessor, arguments);
+                if (result != null) {
+                    results.put(key, () -> result);
+                }
+            } catch (EntryProcessorException e) {
+                results.put(key, () -> {
+                    throw e;
+                });
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public String getName() {
+
+        return name;
+    }
+
+    @Override
+    public CacheManager getCacheManager() {
+
+        return LocalCacheManager.getInstance();
+    }
+
+    @Override
+    public void close() {
+
+        if (closed) {
+            return;
+        }
+        closed = true;
+        synchronized (entries) {
+            entries.clear();
+        }
+        for (ListenerRegistration<K, V> registration : listeners) {
+            registration.close();
+        }
+        listeners.clear();
+    }
+
+    @Override
+    public boolean isClosed() {
+
+        return closed;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> clazz) {
+
+        if (clazz.isAssignableFrom(getClass())) {
+            return clazz.cast(this);
+        }
+        throw new IllegalArgumentException("Unwrapping to " + clazz.getName() + " is not supported");
+    }
+
+    @Override
+    public void registerCacheEntryListener(CacheEntryListenerConfiguration<K, V> listenerConfiguration) {
+
+        ensureOpen();
+        // the configuration rejects a listener configuration which is already registered
+        configuration.addCacheEntryListenerConfiguration(listenerConfiguration);
+        listeners.add(new ListenerRegistration<>(listenerConfiguration));
+    }
+
+    @Override
+    public void deregisterCacheEntryListener(CacheEntryListenerConfiguration<K, V> listenerConfiguration) {
+
+        if (listenerConfiguration == null) {
+            throw new NullPointerException("Cache entry listener configuration cannot be null");
+        }
+        configuration.removeCacheEntryListenerConfiguration(listenerConfiguration);
+        for (ListenerRegistration<K, V> registration : listeners) {
+            if (registration.configuration.equals(listenerConfiguration)) {
+                listeners.remove(registration);
+                registration.close();
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the live entries of the cache. Changes done to the cache after this call are not
+     * reflected in the returned iterator.
+     *
+     * @return iterator over a snapshot of the cache entries
+     */
+    @Override
+    public Iterator<Cache.Entry<K, V>> iterator() {
+
+        ensureOpen();
+        long now = currentTime();
+        List<Cache.Entry<K, V>> snapshot = new ArrayList<>();
+        synchronized (entries) {
+            for (Map.Entry<K, ExpirableValue<V>> entry : entries.entrySet()) {
+                if (!entry.getValue().isExpired(now)) {
+                    snapshot.add(new SnapshotEntry<>(entry.getKey(), entry.getValue().value));
+                }
+            }
+        }
+        return snapshot.iterator();
+    }
+
+    /**
+     * Returns the number of entries currently held by the cache, including entries which are expired but not yet
+     * purged.
+     *
+     * @return number of entries in the cache
+     */
+    public int size() {
+
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+
+        return maxEntries;
+    }
+
+    /**
+     * @return configuration of the cache, which is changed in place by {@link LocalCacheManager}
+     */
+    MutableConfiguration<K, V> getMutableConfiguration() {
+
+        return configuration;
+    }
+
+    /**
+     * Returns the statistics recorded for this cache.
+     *
+     * @return cache statistics
+     */
+    public CacheStatistics getStatistics() {
+
+        return statistics;
+    }
+
+    /**
+     * Must be called while holding the lock on the entry map.
+     */
+    private V getIfValid(K key, long now) {
+
+        ExpirableValue<V> holder = entries.get(key);
+        if (holder == null) {
+            return null;
+        }
+        if (holder.isExpired(now)) {
+            removeExpired(key);
+            return null;
+        }
+        Duration accessExpiry = expiryPolicy.getExpiryForAccess();
+        if (accessExpiry != null) {
+            holder.expiryTime = accessExpiry.getAdjustedTime(now);
+        }
+        return holder.value;
+    }
+
+    private void removeExpired(K key) {
+
+        ExpirableValue<V> holder = entries.remove(key);
+        if (holder != null) {
+            statistics.recordExpiration();
+            addEvent(EventType.EXPIRED, key, holder.value, holder.value);
+        }
+    }
+
+    /**
+     * Stores the value against the key, given the live value currently held. Must be called while holding the lock
+     * on the entry map.
+     */
+    private void store(K key, V value, V previous, long now) {
+
+        ExpirableValue<V> holder = previous == null
+                ? createHolder(value, now) : updateHolder(entries.get(key), value, now);
+        if (holder == null) {
+            // a zero expiry duration expires the entry right away
+            entries.remove(key);
+            if (previous != null) {
+                addEvent(EventType.EXPIRED, key, previous, previous);
+            }
+            return;
+        }
+        entries.put(key, holder);
+        if (previous == null) {
+            addEvent(EventType.CREATED, key, value, null);
+        } else {
+            addEvent(EventType.UPDATED, key, value, previous);
+        }
+    }
+
+    /**
+     * Queues an event for the registered listeners. Must be called while holding the lock on the entry map, so that
+     * the events are dispatched in the order the changes were applied.
+     */
+    private void addEvent(EventType eventType, K key, V value, V oldValue) {
+
+        if (!listeners.isEmpty()) {
+            pendingEvents.add(new Event<>(this, eventType, key, value, oldValue));
+        }
+    }
+
+    /**
+     * Notifies the listeners of the queued events. Must be called after releasing the lock on the entry map.
+     */
+    private void dispatchPendingEvents() {
+
+        if (listeners.isEmpty()) {
+            return;
+        }
+        List<Event<K, V>> events;
+        synchronized (entries) {
+            if (pendingEvents.isEmpty()) {
+                return;
+            }
+            events = new ArrayList<>(pendingEvents);
+            pendingEvents.clear();
+        }
+        for (Event<K, V> event : events) {
+            for (ListenerRegistration<K, V> registration : listeners) {
+                registration.dispatch(event);
+            }
+        }
+    }
+
+    private ExpirableValue<V> createHolder(V value, long now) {
+
+        Duration creationExpiry = expiryPolicy.getExpiryForCreation();
+        if (creationExpiry == null) {
+            creationExpiry = Duration.ETERNAL;
+        }
+        if (creationExpiry.isZero()) {
+            return null;
+        }
+        return new ExpirableValue<>(value, creationExpiry.getAdjustedTime(now));
+    }
+
+    private ExpirableValue<V> updateHolder(ExpirableValue<V> existing, V value, long now) {
+
+        Duration updateExpiry = expiryPolicy.getExpiryForUpdate();
+        if (updateExpiry == null) {
+            return new ExpirableValue<>(value, existing.expiryTime);
+        }
+        if (updateExpiry.isZero()) {
+            return null;
+        }
+        return new ExpirableValue<>(value, updateExpiry.getAdjustedTime(now));
+    }
+
+    private Object keyLockOf(K key) {
+
+        int hash = key.hashCode();
+        return keyLocks[(hash ^ (hash >>> 16)) & (KEY_LOCK_COUNT - 1)];
+    }
+
+    private void ensureOpen() {
+
+        if (closed) {
+            throw new IllegalStateException("Cache " + name + " is closed");
+        }
+    }
+
+    private static long currentTime() {
+
+        return System.currentTimeMillis();
+    }
+
+    private static void requireNonNull(Object object) {
+
+        if (object == null) {
+            throw new NullPointerException("Cache keys and values cannot be null");
+        }
+    }
+
+    private static final class ExpirableValue<V> {
+
+        private final V value;
+        private long expiryTime;
+
+        private ExpirableValue(V value, long expiryTime) {
+
+            this.value = value;
+            this.expiryTime = expiryTime;
+        }
+
+        private boolean isExpired(long now) {
+
+            return expiryTime <= now;
+        }
+    }
+
+    private static final class SnapshotEntry<K, V> implements Cache.Entry<K, V> {
+
+        private final K key;
+        private final V value;
+
+        private SnapshotEntry(K key, V value) {
+
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+
+            return value;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> clazz) {
+
+            throw new IllegalArgumentException("Unwrapping to " + clazz.getName() + " is not supported");
+        }
+    }
+
+    /**
+     * Entry handed to an entry processor. Changes are applied to the cache once the processor returns.
+     */
+    private final class ProcessorEntry implements MutableEntry<K, V> {
+
+        private final K key;
+        private final V original;
+        private V value;
+        private boolean updated;
+        private boolean removed;
+
+        private ProcessorEntry(K key, V original) {
+
+            this.key = key;
+            this.original = original;
+            this.value = original;
+        }
+
+        @Override
+        public boolean exists() {
+
+            return value != null;
+        }
+
+        @Override
+        public void remove() {
+
+            value = null;
+            updated = false;
+            removed = true;
+        }
+
+        @Override
+        public void setValue(V value) {
+
+            requireNonNull(value);
+            this.value = value;
+            updated = true;
+            removed = false;
+        }
+
+        @Override
+        public K getKey() {
+
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+
+            return value;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> clazz) {
+
+            throw new IllegalArgumentException("Unwrapping to " + clazz.getName() + " is not supported");
+        }
+    }
+
+    private static final class Event<K, V> extends CacheEntryEvent<K, V> {
+
+        private final K key;
+        private final V value;
+        private final V oldValue;
+
+        private Event(Cache<K, V> source, EventType eventType, K key, V value, V oldValue) {
+
+            super(source, eventType);
+            this.key = key;
+            this.value = value;
+            this.oldValue = oldValue;
+        }
+
+        @Override
+        public K getKey() {
+
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+
+            return value;
+        }
+
+        @Override
+        public V getOldValue() {
+
+            return oldValue;
+        }
+
+        @Override
+        public boolean isOldValueAvailable() {
+
+            return oldValue != null;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> clazz) {
+
+            throw new IllegalArgumentException("Unwrapping to " + clazz.getName() + " is not supported");
+        }
+    }
+
+    /**
+     * A listener created from a listener configuration, with its optional event filter.
+     */
+    private static final class ListenerRegistration<K, V> {
+
+        private final CacheEntryListenerConfiguration<K, V> configuration;
+        private final CacheEntryListener<? super K, ? super V> listener;
+        private final CacheEntryEventFilter<? super K, ? super V> filter;
+
+        private ListenerRegistration(CacheEntryListenerConfiguration<K, V> configuration) {
+
+            this.configuration = configuration;
+            this.listener = configuration.getCacheEntryListenerFactory().create();
+            Factory<CacheEntryEventFilter<? super K, ? super V>> filterFactory =
+                    configuration.getCacheEntryEventFilterFactory();
+            this.filter = filterFactory != null ? filterFactory.create() : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void dispatch(Event<K, V> event) {
+
+            CacheEntryEvent<K, V> listenerEvent = configuration.isOldValueRequired() || event.getOldValue() == null
+                    ? event : new Event<>(event.getSource(), event.getEventType(), event.getKey(), event.getValue(),
+                    null);
+            Iterable<CacheEntryEvent<? extends K, ? extends V>> events = Collections.singletonList(listenerEvent);
+            try {
+                if (filter != null && !filter.evaluate(listenerEvent)) {
+                    return;
+                }
+                switch (event.getEventType()) {
+                    case CREATED:
+                        if (listener instanceof CacheEntryCreatedListener) {
+                            ((CacheEntryCreatedListener<K, V>) listener).onCreated(events);
+                        }
+                        break;
+                    case UPDATED:
+                        if (listener instanceof CacheEntryUpdatedListener) {
+                            ((CacheEntryUpdatedListener<K, V>) listener).onUpdated(events);
+                        }
+                        break;
+                    case REMOVED:
+                        if (listener instanceof CacheEntryRemovedListener) {
+                            ((CacheEntryRemovedListener<K, V>) listener).onRemoved(events);
+                        }
+                        break;
+                    case EXPIRED:
+                        if (listener instanceof CacheEntryExpiredListener) {
+                            ((CacheEntryExpiredListener<K, V>) listener).onExpired(events);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            } catch (RuntimeException e) {
+                log.error("Error while notifying a listener of cache " + event.getSource().getName() + " of a "
+                        + event.getEventType() + " event", e);
+            }
+        }
+
+        private void close() {
+
+            if (listener instanceof Closeable) {
+                try {
+                    ((Closeable) listener).close();
+                } catch (IOException e) {
+                    log.warn("Error while closing a cache entry listener", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.caching;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.apk.apimgt.impl.APIConstants;
+import org.wso2.apk.apimgt.impl.APIManagerConfigurationService;
+import org.wso2.apk.apimgt.impl.ConfigurationHolder;
+import org.wso2.apk.apimgt.impl.internal.ServiceReferenceHolder;
+import org.wso2.apk.apimgt.impl.utils.BlockConditionIndex;
+import org.wso2.apk.apimgt.impl.utils.ScopeRoleIndex;
+
+import javax.cache.Cache;
+import javax.cache.CacheException;
+import javax.cache.configuration.CompleteConfiguration;
+import javax.cache.configuration.Configuration;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holder of the local caches used by the API manager components. Caches are created lazily on first access with the
+ * expiry and size bounds read from the API manager configuration.
+ */
+public final class CacheProvider {
+
+    private static final Log log = LogFactory.getLog(CacheProvider.class);
+
+    private static final Map<String, BoundedCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    private CacheProvider() {
+
+    }
+
+    /**
+     * @return cache holding the role list of a user against the username
+     */
+    public static Cache<String, String[]> getUserRoleCache() {
+
+        return getCache(APIConstants.API_USER_ROLE_CACHE);
+    }
+
+    /**
+     * @return cache holding whether a user has the API manager admin permission against the username
+     */
+    public static Cache<String, Integer> getAdminPermissionCache() {
+
+        return getCache(APIConstants.API_PUBLISHER_ADMIN_PERMISSION_CACHE);
+    }
+
+    /**
+     * @return cache holding the REST API scope to role mapping against the tenant domain
+     */
+    public static Cache<String, Map<String, String>> getRESTAPIScopeCache() {
+
+        return getCache(APIConstants.REST_API_SCOPE_CACHE);
+    }
+
+    /**
+     * @return cache holding the compiled REST API scope to role index against the tenant domain
+     */
+    public static Cache<String, ScopeRoleIndex> getRESTAPIScopeRoleIndexCache() {
+
+        return getCache(APIConstants.REST_API_SCOPE_ROLE_INDEX_CACHE);
+    }
+
+    /**
+     * @return cache holding the compiled block conditions against the organization
+     */
+    public static Cache<String, BlockConditionIndex> getBlockConditionIndexCache() {
+
+        return getCache(APIConstants.BLOCK_CONDITION_INDEX_CACHE,
+                getCacheTimeout(APIConstants.BLOCK_CONDITION_CACHE_EXPIRY), getDefaultCacheMaxEntries());
+    }
+
+    /**
+     * @return cache holding the tenant-conf against the organization
+     */
+    public static <V> Cache<String, V> getTenantConfigCache() {
+
+        return getCache(APIConstants.TENANT_CONFIG_CACHE_NAME);
+    }
+
+    /**
+     * @param expiryTimeInSecs time an entry lives in the cache, used when the cache is created
+     * @return cache holding the OpenID Connect discovery documents against the well-known URL
+     */
+    public static <V> Cache<String, V> getOIDCDiscoveryCache(long expiryTimeInSecs) {
+
+        return getCache(APIConstants.OIDC_DISCOVERY_CACHE, expiryTimeInSecs, getDefaultCacheMaxEntries());
+    }
+
+    /**
+     * @return cache holding the token introspection results of the key managers against the token hash
+     */
+    public static <V> Cache<String, V> getIntrospectionCache() {
+
+        return getCache(APIConstants.KEY_MANAGER_INTROSPECTION_CACHE, getTokenCacheTimeout(),
+                getDefaultCacheMaxEntries());
+    }
+
+    /**
+     * @return cache holding the throttling policies of a policy level of an organization
+     */
+    public static <V> Cache<String, V> getPolicyCache() {
+
+        return getCache(APIConstants.POLICY_CACHE, getCacheTimeout(APIConstants.POLICY_CACHE_EXPIRY),
+                getDefaultCacheMaxEntries());
+    }
+
+    /**
+     * Returns the cache with the given name. The cache is created with the configured default expiry time and
+     * maximum entry count if it does not exist.
+     *
+     * @param cacheName name of the cache
+     * @return cache with the given name
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> Cache<K, V> getCache(String cacheName) {
+
+        BoundedCache<?, ?> cache = caches.get(cacheName);
+        if (cache != null) {
+            return (Cache<K, V>) cache;
+        }
+        return getCache(cacheName, getDefaultCacheTimeout(), getDefaultCacheMaxEntries());
+    }
+
+    /**
+     * Returns the cache with the given name. The cache is created with the given expiry time and maximum entry count
+     * if it does not exist. If the cache already exists, it is returned as it is.
+     *
+     * @param cacheName        name of the cache
+     * @param expiryTimeInSecs time an entry lives in the cache after it is created
+     * @param maxEntries       maximum number of entries the cache holds before evicting the least recently used entry
+     * @return cache with the given name
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> Cache<K, V> getCache(String cacheName, long expiryTimeInSecs, int maxEntries) {
+
+        return (Cache<K, V>) caches.computeIfAbsent(cacheName,
+                name -> createCache(name, expiryTimeInSecs, maxEntries));
+    }
+
+    /**
+     * Returns the statistics of the given cache.
+     *
+     * @param cacheName name of the cache
+     * @return statistics of the cache or null if the cache is not created yet
+     */
+    public static CacheStatistics getCacheStatistics(String cacheName) {
+
+        BoundedCache<?, ?> cache = caches.get(cacheName);
+        return cache != null ? cache.getStatistics() : null;
+    }
+
+    /**
+     * @return names of the caches created so far
+     */
+    public static Set<String> getCacheNames() {
+
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Removes the given key from the given cache, if the cache exists.
+     *
+     * @param cacheName name of the cache
+     * @param key       key of the entry to be removed
+     */
+    @SuppressWarnings("unchecked")
+    public static <K> void removeFromCache(String cacheName, K key) {
+
+        BoundedCache<K, ?> cache = (BoundedCache<K, ?>) caches.get(cacheName);
+        if (cache != null && key != null) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Removes all the entries of the given cache, if the cache exists.
+     *
+     * @param cacheName name of the cache
+     */
+    public static void clearCache(String cacheName) {
+
+        BoundedCache<?, ?> cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.removeAll();
+        }
+    }
+
+    /**
+     * Returns the cache with the given name without creating it.
+     *
+     * @param cacheName name of the cache
+     * @return cache or null if the cache is not created yet
+     */
+    static BoundedCache<?, ?> getExistingCache(String cacheName) {
+
+        return caches.get(cacheName);
+    }
+
+    /**
+     * Creates a cache with the given configuration and the configured default maximum entry count.
+     *
+     * @param cacheName     name of the cache
+     * @param configuration configuration of the cache
+     * @return created cache
+     * @throws CacheException if a cache with the given name already exists
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> BoundedCache<K, V> createCache(String cacheName, Configuration<K, V> configuration) {
+
+        MutableConfiguration<K, V> mutableConfiguration = configuration instanceof CompleteConfiguration
+                ? new MutableConfiguration<>((CompleteConfiguration<K, V>) configuration)
+                : new MutableConfiguration<K, V>().setTypes(configuration.getKeyType(), configuration.getValueType());
+        BoundedCache<K, V> cache = new BoundedCache<>(cacheName, getDefaultCacheMaxEntries(), mutableConfiguration);
+        if (caches.putIfAbsent(cacheName, cache) != null) {
+            throw new CacheException("Cache " + cacheName + " already exists");
+        }
+        return cache;
+    }
+
+    /**
+     * Closes and removes the cache with the given name. The cache is created again on next access.
+     *
+     * @param cacheName name of the cache
+     */
+    static void destroyCache(String cacheName) {
+
+        BoundedCache<?, ?> cache = caches.remove(cacheName);
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    private static <K, V> BoundedCache<K, V> createCache(String cacheName, long expiryTimeInSecs, int maxEntries) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Creating cache " + cacheName + " with expiry time " + expiryTimeInSecs
+                    + "s and maximum entry count " + maxEntries);
+        }
+        MutableConfiguration<K, V> configuration = new MutableConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        configuration.setExpiryPolicyFactory(
+                CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.SECONDS, expiryTimeInSecs)));
+        return new BoundedCache<>(cacheName, maxEntries, configuration);
+    }
+
+    /**
+     * @return configured default time in seconds an entry lives in a cache
+     */
+    public static long getDefaultCacheTimeout() {
+
+        String timeout = getConfigProperty(APIConstants.DEFAULT_CACHE_TIMEOUT);
+        if (StringUtils.isNotEmpty(timeout)) {
+            try {
+                return Long.parseLong(timeout.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid default cache timeout " + timeout + ". Using " + APIConstants.DEFAULT_TIMEOUT
+                        + "s instead.");
+            }
+        }
+        return APIConstants.DEFAULT_TIMEOUT;
+    }
+
+    /**
+     * @return time in seconds a token introspection result lives in the cache, as configured by TokenCacheExpiry
+     */
+    public static long getTokenCacheTimeout() {
+
+        return getCacheTimeout(APIConstants.TOKEN_CACHE_EXPIRY);
+    }
+
+    private static long getCacheTimeout(String configKey) {
+
+        String timeout = getConfigProperty(configKey);
+        if (StringUtils.isNotEmpty(timeout)) {
+            try {
+                return Long.parseLong(timeout.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid cache timeout " + timeout + " for " + configKey + ". Using the default instead.");
+            }
+        }
+        return getDefaultCacheTimeout();
+    }
+
+    private static int getDefaultCacheMaxEntries() {
+
+        String maxEntries = getConfigProperty(APIConstants.DEFAULT_CACHE_MAX_ENTRIES);
+        if (StringUtils.isNotEmpty(maxEntries)) {
+            try {
+                return Integer.parseInt(maxEntries.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid default cache size " + maxEntries + ". Using "
+                        + APIConstants.DEFAULT_CACHE_SIZE + " instead.");
+            }
+        }
+        return APIConstants.DEFAULT_CACHE_SIZE;
+    }
+
+    private static String getConfigProperty(String key) {
+
+        APIManagerConfigurationService configurationService = ServiceReferenceHolder.getInstance()
+                .getAPIManagerConfigurationService();
+        if (configurationService == null) {
+            return null;
+        }
+        ConfigurationHolder configuration = configurationService.getAPIManagerConfiguration();
+        return configuration != null ? configuration.getFirstProperty(key) : null;
+    }
+}
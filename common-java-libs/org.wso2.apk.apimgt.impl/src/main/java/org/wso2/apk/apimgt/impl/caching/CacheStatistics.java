@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.caching;
+
+import javax.cache.management.CacheStatisticsMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free statistics holder of a {@link BoundedCache}. Average times are reported in microseconds as required by
+ * {@link CacheStatisticsMXBean}.
+ */
+public class CacheStatistics implements CacheStatisticsMXBean {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder removals = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder getTimeNanos = new LongAdder();
+    private final LongAdder putTimeNanos = new LongAdder();
+    private final LongAdder removeTimeNanos = new LongAdder();
+    private final LongAdder timedRemovals = new LongAdder();
+
+    void recordHit() {
+
+        hits.increment();
+    }
+
+    void recordMiss() {
+
+        misses.increment();
+    }
+
+    void recordPut() {
+
+        puts.increment();
+    }
+
+    void recordRemoval() {
+
+        removals.increment();
+    }
+
+    void recordRemovals(long count) {
+
+        removals.add(count);
+    }
+
+    void recordEvictions(long count) {
+
+        evictions.add(count);
+    }
+
+    void recordExpiration() {
+
+        expirations.increment();
+    }
+
+    void recordGetTime(long nanos) {
+
+        getTimeNanos.add(nanos);
+    }
+
+    void recordPutTime(long nanos) {
+
+        putTimeNanos.add(nanos);
+    }
+
+    void recordRemoveTime(long nanos) {
+
+        removeTimeNanos.add(nanos);
+        timedRemovals.increment();
+    }
+
+    @Override
+    public void clear() {
+
+        hits.reset();
+        misses.reset();
+        puts.reset();
+        removals.reset();
+        evictions.reset();
+        expirations.reset();
+        getTimeNanos.reset();
+        putTimeNanos.reset();
+        removeTimeNanos.reset();
+        timedRemovals.reset();
+    }
+
+    @Override
+    public long getCacheHits() {
+
+        return hits.sum();
+    }
+
+    @Override
+    public float getCacheHitPercentage() {
+
+        long gets = getCacheGets();
+        return gets == 0 ? 0 : (float) getCacheHits() / gets * 100;
+    }
+
+    @Override
+    public long getCacheMisses() {
+
+        return misses.sum();
+    }
+
+    @Override
+    public float getCacheMissPercentage() {
+
+        long gets = getCacheGets();
+        return gets == 0 ? 0 : (float) getCacheMisses() / gets * 100;
+    }
+
+    @Override
+    public long getCacheGets() {
+
+        return hits.sum() + misses.sum();
+    }
+
+    @Override
+    public long getCachePuts() {
+
+        return puts.sum();
+    }
+
+    @Override
+    public long getCacheRemovals() {
+
+        return removals.sum();
+    }
+
+    @Override
+    public long getCacheEvictions() {
+
+        return evictions.sum();
+    }
+
+    /**
+     * @return number of entries removed from the cache because they expired, which are not counted as evictions
+     */
+    public long getCacheExpirations() {
+
+        return expirations.sum();
+    }
+
+    @Override
+    public float getAverageGetTime() {
+
+        return average(getTimeNanos.sum(), getCacheGets());
+    }
+
+    @Override
+    public float getAveragePutTime() {
+
+        return average(putTimeNanos.sum(), getCachePuts());
+    }
+
+    @Override
+    public float getAverageRemoveTime() {
+
+        return average(removeTimeNanos.sum(), timedRemovals.sum());
+    }
+
+    @Override
+    public String toString() {
+
+        return "hits=" + getCacheHits() + ", misses=" + getCacheMisses() + ", hitPercentage="
+                + getCacheHitPercentage() + ", puts=" + getCachePuts() + ", removals=" + getCacheRemovals()
+                + ", evictions=" + getCacheEvictions() + ", expirations=" + getCacheExpirations();
+    }
+
+    private static float average(long totalNanos, long count) {
+
+        if (count == 0) {
+            return 0;
+        }
+        return (float) TimeUnit.NANOSECONDS.toMicros(totalNanos) / count;
+    }
+}
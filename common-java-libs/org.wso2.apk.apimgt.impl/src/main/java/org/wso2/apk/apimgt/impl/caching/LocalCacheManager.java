@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.caching;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.configuration.Configuration;
+import javax.cache.configuration.OptionalFeature;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Properties;
+
+/**
+ * {@link CacheManager} of the local caches held by {@link CacheProvider}. The manager is shared by the whole process
+ * and cannot be closed. Closing it destroys the caches created so far, which are created again on next access.
+ */
+public final class LocalCacheManager implements CacheManager {
+
+    private static final URI URI = java.net.URI.create("apk:local-cache");
+    private static final LocalCacheManager INSTANCE = new LocalCacheManager();
+
+    private final CachingProvider cachingProvider = new LocalCachingProvider();
+
+    private LocalCacheManager() {
+
+    }
+
+    public static LocalCacheManager getInstance() {
+
+        return INSTANCE;
+    }
+
+    @Override
+    public CachingProvider getCachingProvider() {
+
+        return cachingProvider;
+    }
+
+    @Override
+    public URI getURI() {
+
+        return URI;
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+
+        return LocalCacheManager.class.getClassLoader();
+    }
+
+    @Override
+    public Properties getProperties() {
+
+        return new Properties();
+    }
+
+    @Override
+    public <K, V, C extends Configuration<K, V>> Cache<K, V> createCache(String cacheName, C configuration) {
+
+        if (cacheName == null || configuration == null) {
+            throw new NullPointerException("Cache name and configuration cannot be null");
+        }
+        return CacheProvider.createCache(cacheName, configuration);
+    }
+
+    @Override
+    public <K, V> Cache<K, V> getCache(String cacheName, Class<K> keyType, Class<V> valueType) {
+
+        Cache<K, V> cache = getCache(cacheName);
+        if (cache != null) {
+            Configuration<?, ?> configuration = ((BoundedCache<?, ?>) cache).getMutableConfiguration();
+            if (!configuration.getKeyType().isAssignableFrom(keyType)
+                    || !configuration.getValueType().isAssignableFrom(valueType)) {
+                throw new ClassCastException("Cache " + cacheName + " does not hold " + keyType.getName()
+                        + " keys and " + valueType.getName() + " values");
+            }
+        }
+        return cache;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Cache<K, V> getCache(String cacheName) {
+
+        return (Cache<K, V>) CacheProvider.getExistingCache(cacheName);
+    }
+
+    @Override
+    public Iterable<String> getCacheNames() {
+
+        return new ArrayList<>(CacheProvider.getCacheNames());
+    }
+
+    @Override
+    public void destroyCache(String cacheName) {
+
+        CacheProvider.destroyCache(cacheName);
+    }
+
+    @Override
+    public void enableManagement(String cacheName, boolean enabled) {
+
+        BoundedCache<?, ?> cache = CacheProvider.getExistingCache(cacheName);
+        if (cache != null) {
+            cache.getMutableConfiguration().setManagementEnabled(enabled);
+        }
+    }
+
+    @Override
+    public void enableStatistics(String cacheName, boolean enabled) {
+
+        BoundedCache<?, ?> cache = CacheProvider.getExistingCache(cacheName);
+        if (cache != null) {
+            cache.getMutableConfiguration().setStatisticsEnabled(enabled);
+        }
+    }
+
+    @Override
+    public void close() {
+
+        for (String cacheName : getCacheNames()) {
+            CacheProvider.destroyCache(cacheName);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+
+        return false;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> clazz) {
+
+        if (clazz.isAssignableFrom(getClass())) {
+            return clazz.cast(this);
+        }
+        throw new IllegalArgumentException("Unwrapping to " + clazz.getName() + " is not supported");
+    }
+
+    /**
+     * Provider of the local cache manager. It is not registered as a service, so it is only reachable through
+     * {@link CacheManager#getCachingProvider()}.
+     */
+    private static final class LocalCachingProvider implements CachingProvider {
+
+        @Override
+        public CacheManager getCacheManager(URI uri, ClassLoader classLoader, Properties properties) {
+
+            return INSTANCE;
+        }
+
+        @Override
+        public ClassLoader getDefaultClassLoader() {
+
+            return INSTANCE.getClassLoader();
+        }
+
+        @Override
+        public URI getDefaultURI() {
+
+            return URI;
+        }
+
+        @Override
+        public Properties getDefaultProperties() {
+
+            return INSTANCE.getProperties();
+        }
+
+        @Override
+        public CacheManager getCacheManager(URI uri, ClassLoader classLoader) {
+
+            return INSTANCE;
+        }
+
+        @Override
+        public CacheManager getCacheManager() {
+
+            return INSTANCE;
+        }
+
+        @Override
+        public void close() {
+
+            INSTANCE.close();
+        }
+
+        @Override
+        public void close(ClassLoader classLoader) {
+
+            INSTANCE.close();
+        }
+
+        @Override
+        public void close(URI uri, ClassLoader classLoader) {
+
+            INSTANCE.close();
+        }
+
+        @Override
+        public boolean isSupported(OptionalFeature optionalFeature) {
+
+            // entries are stored by reference
+            return optionalFeature == OptionalFeature.STORE_BY_REFERENCE;
+        }
+    }
+}
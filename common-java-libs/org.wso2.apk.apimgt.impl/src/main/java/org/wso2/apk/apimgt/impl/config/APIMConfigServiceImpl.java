@@ -28,6 +28,7 @@ import org.wso2.apk.apimgt.impl.APIConstants;
 import org.wso2.apk.apimgt.impl.APIConstants.ConfigType;
 import org.wso2.apk.apimgt.impl.dao.SystemConfigurationsDAO;
 import org.wso2.apk.apimgt.impl.dto.UserRegistrationConfigDTO;
+import org.wso2.apk.apimgt.impl.utils.APIUtil;
 
 import java.util.Iterator;
 
@@ -88,6 +89,7 @@ public class APIMConfigServiceImpl implements APIMConfigService {
             organization = APIConstants.SUPER_TENANT_DOMAIN;
         }
         systemConfigurationsDAO.addSystemConfig(organization, ConfigType.TENANT.toString(), tenantConfig);
+        APIUtil.clearTenantConfigCache(organization);
     }
 
     @Override
@@ -102,6 +104,11 @@ public class APIMConfigServiceImpl implements APIMConfigService {
     @Override
     public void updateTenantConfig(String organization, String tenantConfig) throws APIManagementException {
 
+        if (organization == null) {
+            organization = APIConstants.SUPER_TENANT_DOMAIN;
+        }
+        systemConfigurationsDAO.updateSystemConfig(organization, ConfigType.TENANT.toString(), tenantConfig);
+        APIUtil.clearTenantConfigCache(organization);
     }
 
     @Override
@@ -23,6 +23,7 @@ import org.wso2.apk.apimgt.api.model.APICategory;
 import org.wso2.apk.apimgt.api.model.MonetizationUsagePublishInfo;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface AdminDAO {
@@ -106,25 +107,54 @@ public interface AdminDAO {
     APICategory getAPICategoryByID(String apiCategoryID) throws APIManagementException;
 
     /**
-     * Adds a tenant theme to the database
+     * Adds a tenant theme of unknown length to the database, without a content hash
      *
      * @param organization tenant ID of user
      * @param themeContent content of the tenant theme
      * @throws APIManagementException if an error occurs when adding a tenant theme to the database
+     * @deprecated use {@link #addTenantTheme(String, InputStream, long, String)}
      */
+    @Deprecated
     void addTenantTheme(String organization, InputStream themeContent) throws APIManagementException;
 
     /**
-     * Updates an existing tenant theme in the database
+     * Adds a tenant theme to the database
+     *
+     * @param organization  tenant ID of user
+     * @param themeContent  content of the tenant theme
+     * @param contentLength length of the content in bytes
+     * @param themeHash     hash of the content
+     * @throws APIManagementException if an error occurs when adding a tenant theme to the database
+     */
+    void addTenantTheme(String organization, InputStream themeContent, long contentLength, String themeHash)
+            throws APIManagementException;
+
+    /**
+     * Updates an existing tenant theme in the database with content of unknown length, without a content hash
      *
      * @param organization tenant ID of user
      * @param themeContent content of the tenant theme
      * @throws APIManagementException if an error occurs when updating an existing tenant theme in the database
+     * @deprecated use {@link #updateTenantTheme(String, InputStream, long, String)}
      */
+    @Deprecated
     void updateTenantTheme(String organization, InputStream themeContent) throws APIManagementException;
 
     /**
-     * Retrieves a tenant theme from the database
+     * Updates an existing tenant theme in the database
+     *
+     * @param organization  tenant ID of user
+     * @param themeContent  content of the tenant theme
+     * @param contentLength length of the content in bytes
+     * @param themeHash     hash of the content
+     * @throws APIManagementException if an error occurs when updating an existing tenant theme in the database
+     */
+    void updateTenantTheme(String organization, InputStream themeContent, long contentLength, String themeHash)
+            throws APIManagementException;
+
+    /**
+     * Retrieves a tenant theme from the database. The content is read into memory, use
+     * {@link #getTenantTheme(String, OutputStream)} to stream it instead.
      *
      * @param tenantId tenant ID of user
      * @return content of the tenant theme
@@ -132,6 +162,25 @@ public interface AdminDAO {
      */
     InputStream getTenantTheme(String tenantId) throws APIManagementException;
 
+    /**
+     * Writes a tenant theme from the database to the given stream while the database connection is open
+     *
+     * @param organization tenant ID of user
+     * @param outputStream stream to write the content of the tenant theme to
+     * @return true if the tenant theme exists, false otherwise
+     * @throws APIManagementException if an error occurs when retrieving a tenant theme from the database
+     */
+    boolean getTenantTheme(String organization, OutputStream outputStream) throws APIManagementException;
+
+    /**
+     * Retrieves the content hash of a tenant theme
+     *
+     * @param organization tenant ID of user
+     * @return hash of the tenant theme, or null if the tenant theme or its hash does not exist
+     * @throws APIManagementException if an error occurs when retrieving the hash from the database
+     */
+    String getTenantThemeHash(String organization) throws APIManagementException;
+
     /**
      * Checks whether a tenant theme exist for a particular tenant
      *
@@ -92,6 +92,44 @@ public interface ApplicationDAO {
                                                 int offset, String sortBy, String sortOrder, String appName)
             throws APIManagementException;
 
+    /**
+     * Returns a page of the applications of the organization using keyset pagination. A page starts right after the
+     * given cursor, so its cost does not depend on how deep it is in the listing.
+     *
+     * @param owner        content to search applications based on owners
+     * @param organization organization of the applications
+     * @param limit        maximum number of applications in the page
+     * @param after        cursor of the page, or null for the first page
+     * @param sortBy       sort key, one of name, owner, throttlingTier or status
+     * @param sortOrder    sort order, asc or desc
+     * @param appName      content to search applications based on application name
+     * @return page of applications along with the cursor of the next page
+     * @throws APIManagementException if the sort criteria are invalid or failed to get the applications
+     */
+    ApplicationPage getApplicationsPage(String owner, String organization, int limit, ApplicationCursor after,
+                                        String sortBy, String sortOrder, String appName)
+            throws APIManagementException;
+
+    /**
+     * Returns a page of the applications of the organization along with the total number of matching applications,
+     * in a single statement. The exact total is computed by the page query with a window function, while an
+     * estimated total is read from the planner statistics without scanning the matching rows.
+     *
+     * @param owner        content to search applications based on owners
+     * @param organization organization of the applications
+     * @param limit        maximum number of applications in the page
+     * @param offset       index of the first application of the page
+     * @param sortBy       sort key, one of name, owner, throttlingTier or status
+     * @param sortOrder    sort order, asc or desc
+     * @param appName      content to search applications based on application name
+     * @param countMode    how the total is computed
+     * @return page of applications along with the total
+     * @throws APIManagementException if the sort criteria are invalid or failed to get the applications
+     */
+    ApplicationPage getApplicationsWithCount(String owner, String organization, int limit, int offset, String sortBy,
+                                             String sortOrder, String appName, CountMode countMode)
+            throws APIManagementException;
+
     /**
      * returns application for Organization
      *
@@ -19,6 +19,7 @@
 package org.wso2.apk.apimgt.impl.dao;
 
 import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.ResultConsumer;
 import org.wso2.apk.apimgt.api.model.BlockConditionsDTO;
 
 import java.util.List;
@@ -34,6 +35,19 @@ public interface BlockConditionDAO {
      */
     List<BlockConditionsDTO> getBlockConditions(String organization) throws APIManagementException;
 
+    /**
+     * Passes the Block Conditions of an Organization to the given consumer as they are read from the database. The
+     * rows are fetched in batches within a read transaction, so the connection is held until the consumer has
+     * processed the last Block Condition.
+     *
+     * @param organization Organization
+     * @param consumer     consumer of the Block Conditions
+     * @return number of Block Conditions read
+     * @throws APIManagementException if the Block Conditions could not be read or the consumer failed
+     */
+    int getBlockConditions(String organization, ResultConsumer<BlockConditionsDTO> consumer)
+            throws APIManagementException;
+
     /**
      * Get details of a block condition by Id
      *
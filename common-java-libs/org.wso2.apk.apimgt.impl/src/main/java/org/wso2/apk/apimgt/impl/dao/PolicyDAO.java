@@ -191,8 +191,8 @@ public interface PolicyDAO {
     SubscriptionPolicy getSubscriptionPolicyByUUID(String uuid) throws APIManagementException;
 
     /**
-     * Get API level policies. Result only contains basic details of the policy,
-     * it doesn't contain pipeline information.
+     * Get API level policies along with their pipelines. Pipelines and their conditions of all the policies are
+     * loaded with a fixed number of queries.
      *
      * @param organization policies are selected using organization
      * @return APIPolicy ArrayList
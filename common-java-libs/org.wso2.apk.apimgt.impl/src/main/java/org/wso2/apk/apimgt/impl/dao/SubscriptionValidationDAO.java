@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.dao;
+
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.ResultConsumer;
+import org.wso2.apk.apimgt.api.model.subscription.APIPolicy;
+import org.wso2.apk.apimgt.api.model.subscription.Application;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationKeyMapping;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationPolicy;
+import org.wso2.apk.apimgt.api.model.subscription.Subscription;
+import org.wso2.apk.apimgt.api.model.subscription.SubscriptionPolicy;
+import org.wso2.apk.apimgt.impl.dto.SubscriptionDataChangeDTO;
+
+import java.util.Collection;
+
+/**
+ * Reads the data required to validate subscriptions in bulk. Each method passes the entities of an organization to
+ * the given consumer as they are read, so large organizations are loaded without building intermediate lists. When
+ * called within {@link org.wso2.apk.apimgt.impl.utils.APIMgtDBUtil#executeInTransaction}, all the methods share the
+ * connection of the transaction.
+ * <p>
+ * Changes to the underlying tables are recorded in a change log, which is read to update the loaded data
+ * incrementally. The methods taking ids read only the entities changed since.
+ */
+public interface SubscriptionValidationDAO {
+
+    /**
+     * Reads the applications of an organization along with their attributes and group ids.
+     *
+     * @param organization Organization
+     * @param consumer     consumer of the applications
+     * @return number of applications read
+     * @throws APIManagementException if the applications could not be read or the consumer failed
+     */
+    int getApplications(String organization, ResultConsumer<Application> consumer) throws APIManagementException;
+
+    /**
+     * Reads the subscriptions of the applications of an organization.
+     *
+     * @param organization Organization
+     * @param consumer     consumer of the subscriptions
+     * @return number of subscriptions read
+     * @throws APIManagementException if the subscriptions could not be read or the consumer failed
+     */
+    int getSubscriptions(String organization, ResultConsumer<Subscription> consumer) throws APIManagementException;
+
+    /**
+     * Reads the consumer keys of the applications of an organization.
+     *
+     * @param organization Organization
+     * @param consumer     consumer of the key mappings
+     * @return number of key mappings read
+     * @throws APIManagementException if the key mappings could not be read or the consumer failed
+     */
+    int getApplicationKeyMappings(String organization, ResultConsumer<ApplicationKeyMapping> consumer)
+            throws APIManagementException;
+
+    /**
+     * Reads the subscription policies of an organization.
+     *
+     * @param organization Organization
+     * @param consumer     consumer of the policies
+     * @return number of policies read
+     * @throws APIManagementException if the policies could not be read or the consumer failed
+     */
+    int getSubscriptionPolicies(String organization, ResultConsumer<SubscriptionPolicy> consumer)
+            throws APIManagementException;
+
+    /**
+     * Reads the application policies of an organization.
+     *
+     * @param organization Organization
+     * @param consumer     consumer of the policies
+     * @return number of policies read
+     * @throws APIManagementException if the policies could not be read or the consumer failed
+     */
+    int getApplicationPolicies(String organization, ResultConsumer<ApplicationPolicy> consumer)
+            throws APIManagementException;
+
+    /**
+     * Reads the API policies of an organization along with their condition groups.
+     *
+     * @param organization Organization
+     * @param consumer     consumer of the policies
+     * @return number of policies read
+     * @throws APIManagementException if the policies could not be read or the consumer failed
+     */
+    int getAPIPolicies(String organization, ResultConsumer<APIPolicy> consumer) throws APIManagementException;
+
+    /**
+     * Reads the applications of an organization with the given ids. Ids of applications that do not exist or belong
+     * to another organization are skipped.
+     *
+     * @param organization   Organization
+     * @param applicationIds application ids
+     * @param consumer       consumer of the applications
+     * @return number of applications read
+     * @throws APIManagementException if the applications could not be read or the consumer failed
+     */
+    int getApplications(String organization, Collection<Integer> applicationIds,
+                        ResultConsumer<Application> consumer) throws APIManagementException;
+
+    /**
+     * Reads the subscriptions of an organization with the given ids.
+     *
+     * @param organization    Organization
+     * @param subscriptionIds subscription ids
+     * @param consumer        consumer of the subscriptions
+     * @return number of subscriptions read
+     * @throws APIManagementException if the subscriptions could not be read or the consumer failed
+     */
+    int getSubscriptions(String organization, Collection<Integer> subscriptionIds,
+                         ResultConsumer<Subscription> consumer) throws APIManagementException;
+
+    /**
+     * Reads the key mappings of an organization with the given consumer keys.
+     *
+     * @param organization Organization
+     * @param consumerKeys consumer keys
+     * @param consumer     consumer of the key mappings
+     * @return number of key mappings read
+     * @throws APIManagementException if the key mappings could not be read or the consumer failed
+     */
+    int getApplicationKeyMappings(String organization, Collection<String> consumerKeys,
+                                  ResultConsumer<ApplicationKeyMapping> consumer) throws APIManagementException;
+
+    /**
+     * Reads the subscription policies of an organization with the given ids.
+     *
+     * @param organization Organization
+     * @param policyIds    policy ids
+     * @param consumer     consumer of the policies
+     * @return number of policies read
+     * @throws APIManagementException if the policies could not be read or the consumer failed
+     */
+    int getSubscriptionPolicies(String organization, Collection<Integer> policyIds,
+                                ResultConsumer<SubscriptionPolicy> consumer) throws APIManagementException;
+
+    /**
+     * Reads the application policies of an organization with the given ids.
+     *
+     * @param organization Organization
+     * @param policyIds    policy ids
+     * @param consumer     consumer of the policies
+     * @return number of policies read
+     * @throws APIManagementException if the policies could not be read or the consumer failed
+     */
+    int getApplicationPolicies(String organization, Collection<Integer> policyIds,
+                               ResultConsumer<ApplicationPolicy> consumer) throws APIManagementException;
+
+    /**
+     * Reads the API policies of an organization with the given ids.
+     *
+     * @param organization Organization
+     * @param policyIds    policy ids
+     * @param consumer     consumer of the policies
+     * @return number of policies read
+     * @throws APIManagementException if the policies could not be read or the consumer failed
+     */
+    int getAPIPolicies(String organization, Collection<Integer> policyIds, ResultConsumer<APIPolicy> consumer)
+            throws APIManagementException;
+
+    /**
+     * Returns the id of the latest change that is older than the settle time. A snapshot loaded afterwards includes
+     * all the changes up to this id.
+     *
+     * @param settleSeconds time after which a change is known to be committed
+     * @return change id, or 0 if there are no such changes
+     * @throws APIManagementException if the change log could not be read
+     */
+    long getSettledChangeId(int settleSeconds) throws APIManagementException;
+
+    /**
+     * Reads the changes of an organization after the given change id, in the order of their ids. Changes whose
+     * organization could not be resolved are read for all organizations.
+     *
+     * @param organization  Organization
+     * @param changeId      id of the last change that need not be read
+     * @param settleSeconds time after which a change is known to be committed
+     * @param consumer      consumer of the changes
+     * @return number of changes read
+     * @throws APIManagementException if the changes could not be read or the consumer failed
+     */
+    int getChanges(String organization, long changeId, int settleSeconds,
+                   ResultConsumer<SubscriptionDataChangeDTO> consumer) throws APIManagementException;
+
+    /**
+     * Deletes the changes older than the given retention time.
+     *
+     * @param retentionSeconds time for which changes are kept
+     * @return number of changes deleted
+     * @throws APIManagementException if the changes could not be deleted
+     */
+    int deleteChanges(int retentionSeconds) throws APIManagementException;
+}
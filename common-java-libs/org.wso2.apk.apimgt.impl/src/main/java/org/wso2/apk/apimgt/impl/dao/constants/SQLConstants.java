@@ -1105,6 +1105,81 @@ public class SQLConstants {
             "    ( SUB.CREATED_BY like ?" +
             " AND APP.NAME like ? )";
 
+    /*
+     * Keyset paginated application listing. $1 is the sort column, coalesced to an empty string, and $2 the sort
+     * order. Pages are ordered by the sort column and the application id, so that each page continues from the last
+     * row of the previous page.
+     */
+    public static final String GET_APPLICATIONS_PAGE_BY_ORGANIZATION =
+            "SELECT " +
+            "   APP.APPLICATION_ID AS APPLICATION_ID, " +
+            "   SUB.CREATED_BY AS CREATED_BY, " +
+            "   APP.GROUP_ID AS GROUP_ID, " +
+            "   APP.APPLICATION_TIER AS APPLICATION_TIER, " +
+            "   SUB.ORGANIZATION AS ORGANIZATION, " +
+            "   SUB.SUBSCRIBER_ID AS SUBSCRIBER_ID, " +
+            "   APP.UUID AS UUID, " +
+            "   APP.NAME AS NAME, " +
+            "   APP.APPLICATION_STATUS AS APPLICATION_STATUS, " +
+            "   $1 AS SORT_VALUE " +
+            " FROM" +
+            "   AM_APPLICATION APP, " +
+            "   AM_SUBSCRIBER SUB  " +
+            " WHERE " +
+            "   SUB.SUBSCRIBER_ID = APP.SUBSCRIBER_ID " +
+            " AND " +
+            "   SUB.ORGANIZATION = ? " +
+            " AND " +
+            "   ( SUB.CREATED_BY like ? AND APP.NAME like ? ) ";
+
+    public static final String GET_APPLICATIONS_PAGE_BY_ORGANIZATION_ORDER =
+            " ORDER BY $1 $2, APP.APPLICATION_ID $2 LIMIT ?";
+
+    public static final String GET_APPLICATIONS_PAGE_BY_ORGANIZATION_OFFSET_ORDER =
+            " ORDER BY $1 $2, APP.APPLICATION_ID $2 OFFSET ? LIMIT ?";
+
+    /* Same as GET_APPLICATIONS_PAGE_BY_ORGANIZATION, with the total number of matching rows in every row */
+    public static final String GET_APPLICATIONS_WITH_TOTAL_BY_ORGANIZATION =
+            "SELECT " +
+            "   APP.APPLICATION_ID AS APPLICATION_ID, " +
+            "   SUB.CREATED_BY AS CREATED_BY, " +
+            "   APP.GROUP_ID AS GROUP_ID, " +
+            "   APP.APPLICATION_TIER AS APPLICATION_TIER, " +
+            "   SUB.ORGANIZATION AS ORGANIZATION, " +
+            "   SUB.SUBSCRIBER_ID AS SUBSCRIBER_ID, " +
+            "   APP.UUID AS UUID, " +
+            "   APP.NAME AS NAME, " +
+            "   APP.APPLICATION_STATUS AS APPLICATION_STATUS, " +
+            "   $1 AS SORT_VALUE, " +
+            "   count(*) OVER() AS TOTAL_COUNT " +
+            " FROM" +
+            "   AM_APPLICATION APP, " +
+            "   AM_SUBSCRIBER SUB  " +
+            " WHERE " +
+            "   SUB.SUBSCRIBER_ID = APP.SUBSCRIBER_ID " +
+            " AND " +
+            "   SUB.ORGANIZATION = ? " +
+            " AND " +
+            "   ( SUB.CREATED_BY like ? AND APP.NAME like ? ) ";
+
+    /* Planner estimate of the number of rows matching GET_APPLICATIONS_COUNT, read without executing the query */
+    public static final String GET_APPLICATIONS_COUNT_ESTIMATE =
+            "EXPLAIN (FORMAT JSON) " +
+            "SELECT 1 " +
+            " FROM" +
+            "   AM_APPLICATION APP, " +
+            "   AM_SUBSCRIBER SUB  " +
+            " WHERE " +
+            "   SUB.SUBSCRIBER_ID = APP.SUBSCRIBER_ID " +
+            " AND " +
+            "   SUB.ORGANIZATION = ? " +
+            " AND " +
+            "   ( SUB.CREATED_BY like ? AND APP.NAME like ? )";
+
+    /* Appended to GET_APPLICATIONS_PAGE_BY_ORGANIZATION for pages after the first, $3 being > or < by sort order */
+    public static final String GET_APPLICATIONS_PAGE_BY_ORGANIZATION_AFTER_CURSOR =
+            " AND ($1, APP.APPLICATION_ID) $3 (?, ?) ";
+
     public static final String GET_APPLICATION_BY_SUBSCRIBERID_AND_NAME_SQL =
             " SELECT " +
                     "   APP.APPLICATION_ID," +
@@ -3096,6 +3171,51 @@ public class SQLConstants {
 		public static final String GET_QUERY_PARAMETER_CONDITIONS_SQL = "SELECT " + "PARAMETER_NAME, "
 				+ " PARAMETER_VALUE , IS_PARAM_MAPPING " + "FROM " + "AM_QUERY_PARAMETER_CONDITION " + "WHERE " + "CONDITION_GROUP_ID =?";
 
+        public static final String GET_PIPELINES_BY_POLICY_SQL = "SELECT CONDITION_GROUP_ID, POLICY_ID, QUOTA_TYPE, "
+                + "QUOTA, QUOTA_UNIT, UNIT_TIME, TIME_UNIT, DESCRIPTION FROM AM_CONDITION_GROUP WHERE POLICY_ID = ? "
+                + "ORDER BY CONDITION_GROUP_ID";
+
+        public static final String GET_IP_CONDITIONS_BY_POLICY_SQL = "SELECT IP.CONDITION_GROUP_ID, IP.STARTING_IP, "
+                + "IP.ENDING_IP, IP.SPECIFIC_IP, IP.WITHIN_IP_RANGE FROM AM_IP_CONDITION IP INNER JOIN AM_CONDITION_GROUP CG "
+                + "ON IP.CONDITION_GROUP_ID = CG.CONDITION_GROUP_ID WHERE CG.POLICY_ID = ?";
+
+        public static final String GET_HEADER_CONDITIONS_BY_POLICY_SQL = "SELECT HC.CONDITION_GROUP_ID, "
+                + "HC.HEADER_FIELD_NAME, HC.HEADER_FIELD_VALUE, HC.IS_HEADER_FIELD_MAPPING FROM AM_HEADER_FIELD_CONDITION HC "
+                + "INNER JOIN AM_CONDITION_GROUP CG ON HC.CONDITION_GROUP_ID = CG.CONDITION_GROUP_ID WHERE CG.POLICY_ID = ?";
+
+        public static final String GET_QUERY_PARAMETER_CONDITIONS_BY_POLICY_SQL = "SELECT QC.CONDITION_GROUP_ID, "
+                + "QC.PARAMETER_NAME, QC.PARAMETER_VALUE, QC.IS_PARAM_MAPPING FROM AM_QUERY_PARAMETER_CONDITION QC "
+                + "INNER JOIN AM_CONDITION_GROUP CG ON QC.CONDITION_GROUP_ID = CG.CONDITION_GROUP_ID WHERE CG.POLICY_ID = ?";
+
+        public static final String GET_JWT_CLAIM_CONDITIONS_BY_POLICY_SQL = "SELECT JC.CONDITION_GROUP_ID, "
+                + "JC.CLAIM_URI, JC.CLAIM_ATTRIB, JC.IS_CLAIM_MAPPING FROM AM_JWT_CLAIM_CONDITION JC "
+                + "INNER JOIN AM_CONDITION_GROUP CG ON JC.CONDITION_GROUP_ID = CG.CONDITION_GROUP_ID WHERE CG.POLICY_ID = ?";
+
+        public static final String GET_PIPELINES_BY_ORGANIZATION_SQL = "SELECT CG.CONDITION_GROUP_ID, CG.POLICY_ID, "
+                + "CG.QUOTA_TYPE, CG.QUOTA, CG.QUOTA_UNIT, CG.UNIT_TIME, CG.TIME_UNIT, CG.DESCRIPTION "
+                + "FROM AM_CONDITION_GROUP CG INNER JOIN AM_API_THROTTLE_POLICY P ON CG.POLICY_ID = P.POLICY_ID "
+                + "WHERE P.ORGANIZATION = ? ORDER BY CG.CONDITION_GROUP_ID";
+
+        public static final String GET_IP_CONDITIONS_BY_ORGANIZATION_SQL = "SELECT IP.CONDITION_GROUP_ID, "
+                + "IP.STARTING_IP, IP.ENDING_IP, IP.SPECIFIC_IP, IP.WITHIN_IP_RANGE FROM AM_IP_CONDITION IP "
+                + "INNER JOIN AM_CONDITION_GROUP CG ON IP.CONDITION_GROUP_ID = CG.CONDITION_GROUP_ID "
+                + "INNER JOIN AM_API_THROTTLE_POLICY P ON CG.POLICY_ID = P.POLICY_ID WHERE P.ORGANIZATION = ?";
+
+        public static final String GET_HEADER_CONDITIONS_BY_ORGANIZATION_SQL = "SELECT HC.CONDITION_GROUP_ID, "
+                + "HC.HEADER_FIELD_NAME, HC.HEADER_FIELD_VALUE, HC.IS_HEADER_FIELD_MAPPING FROM AM_HEADER_FIELD_CONDITION HC "
+                + "INNER JOIN AM_CONDITION_GROUP CG ON HC.CONDITION_GROUP_ID = CG.CONDITION_GROUP_ID "
+                + "INNER JOIN AM_API_THROTTLE_POLICY P ON CG.POLICY_ID = P.POLICY_ID WHERE P.ORGANIZATION = ?";
+
+        public static final String GET_QUERY_PARAMETER_CONDITIONS_BY_ORGANIZATION_SQL = "SELECT QC.CONDITION_GROUP_ID, "
+                + "QC.PARAMETER_NAME, QC.PARAMETER_VALUE, QC.IS_PARAM_MAPPING FROM AM_QUERY_PARAMETER_CONDITION QC "
+                + "INNER JOIN AM_CONDITION_GROUP CG ON QC.CONDITION_GROUP_ID = CG.CONDITION_GROUP_ID "
+                + "INNER JOIN AM_API_THROTTLE_POLICY P ON CG.POLICY_ID = P.POLICY_ID WHERE P.ORGANIZATION = ?";
+
+        public static final String GET_JWT_CLAIM_CONDITIONS_BY_ORGANIZATION_SQL = "SELECT JC.CONDITION_GROUP_ID, "
+                + "JC.CLAIM_URI, JC.CLAIM_ATTRIB, JC.IS_CLAIM_MAPPING FROM AM_JWT_CLAIM_CONDITION JC "
+                + "INNER JOIN AM_CONDITION_GROUP CG ON JC.CONDITION_GROUP_ID = CG.CONDITION_GROUP_ID "
+                + "INNER JOIN AM_API_THROTTLE_POLICY P ON CG.POLICY_ID = P.POLICY_ID WHERE P.ORGANIZATION = ?";
+
 		public static final String INSERT_QUERY_PARAMETER_CONDITION_SQL = "INSERT INTO AM_QUERY_PARAMETER_CONDITION(CONDITION_GROUP_ID,PARAMETER_NAME,PARAMETER_VALUE, IS_PARAM_MAPPING) \n"
 				+ " VALUES (?,?,?,?)";
 
@@ -3561,10 +3681,14 @@ public class SQLConstants {
      */
     public static class TenantThemeConstants {
 
-        public static final String ADD_TENANT_THEME = "INSERT INTO AM_TENANT_THEMES (ORGANIZATION, THEME) VALUES (?,?)";
-        public static final String UPDATE_TENANT_THEME = "UPDATE AM_TENANT_THEMES SET THEME = ? WHERE TENANT_ID = ?";
+        public static final String ADD_TENANT_THEME =
+                "INSERT INTO AM_TENANT_THEMES (ORGANIZATION, THEME, THEME_HASH) VALUES (?,?,?)";
+        public static final String UPDATE_TENANT_THEME =
+                "UPDATE AM_TENANT_THEMES SET THEME = ?, THEME_HASH = ? WHERE ORGANIZATION = ?";
         public static final String DELETE_TENANT_THEME = "DELETE FROM AM_TENANT_THEMES WHERE ORGANIZATION = ?";
-        public static final String GET_TENANT_THEME = "SELECT * FROM AM_TENANT_THEMES WHERE ORGANIZATION = ?";
+        public static final String GET_TENANT_THEME = "SELECT THEME FROM AM_TENANT_THEMES WHERE ORGANIZATION = ?";
+        public static final String GET_TENANT_THEME_HASH =
+                "SELECT THEME_HASH FROM AM_TENANT_THEMES WHERE ORGANIZATION = ?";
     }
 
     public static final String GET_API_VERSIONS =
@@ -117,16 +117,14 @@ public class SubscriptionValidationSQLConstants {
                     "   APP.UUID AS APPLICATION_UUID," +
                     "   API.API_UUID AS API_UUID," +
                     "   SUBS.SUB_STATUS AS STATUS," +
-                    "   SUB.TENANT_ID AS TENANT_ID" +
+                    "   APP.ORGANIZATION AS ORGANIZATION" +
                     " FROM " +
                     "   AM_SUBSCRIPTION SUBS," +
                     "   AM_APPLICATION APP," +
-                    "   AM_API API," +
-                    "   AM_SUBSCRIBER SUB" +
+                    "   AM_API API" +
                     " WHERE " +
                     "   SUBS.API_ID = API.API_ID AND " +
                     "   SUBS.APPLICATION_ID = APP.APPLICATION_ID AND " +
-                    "   APP.SUBSCRIBER_ID = SUB.SUBSCRIBER_ID AND " +
                     "   APP.ORGANIZATION = ? ";
     public static final String GET_ALL_SUBSCRIPTIONS_SQL =
             "SELECT " +
@@ -516,6 +514,108 @@ public class SubscriptionValidationSQLConstants {
                     "   MAPPING.APPLICATION_ID = APP.APPLICATION_ID AND APP.SUBSCRIBER_ID = SUB.SUBSCRIBER_ID AND" +
                     "   MAPPING.KEY_MANAGER = KEYM.UUID AND APP.ORGANIZATION = ?";
 
+    public static final String GET_ORGANIZATION_SUBSCRIPTION_POLICIES_SQL =
+            "SELECT " +
+                    "   APS.POLICY_ID AS POLICY_ID," +
+                    "   APS.NAME AS POLICY_NAME," +
+                    "   APS.RATE_LIMIT_COUNT AS RATE_LIMIT_COUNT," +
+                    "   APS.RATE_LIMIT_TIME_UNIT AS RATE_LIMIT_TIME_UNIT," +
+                    "   APS.QUOTA_TYPE AS QUOTA_TYPE," +
+                    "   APS.STOP_ON_QUOTA_REACH AS STOP_ON_QUOTA_REACH," +
+                    "   APS.ORGANIZATION AS ORGANIZATION," +
+                    "   APS.MAX_DEPTH AS MAX_DEPTH," +
+                    "   APS.MAX_COMPLEXITY AS MAX_COMPLEXITY, " +
+                    "   APS.QUOTA AS QUOTA, " +
+                    "   APS.QUOTA_UNIT AS QUOTA_UNIT, " +
+                    "   APS.UNIT_TIME AS UNIT_TIME, " +
+                    "   APS.TIME_UNIT AS TIME_UNIT " +
+                    " FROM " +
+                    "   AM_POLICY_SUBSCRIPTION APS" +
+                    " WHERE " +
+                    "   APS.ORGANIZATION = ? ";
+
+    public static final String GET_ORGANIZATION_APPLICATION_POLICIES_SQL =
+            "SELECT " +
+                    "   POLICY_ID," +
+                    "   NAME," +
+                    "   QUOTA_TYPE," +
+                    "   ORGANIZATION, " +
+                    "   QUOTA, " +
+                    "   QUOTA_UNIT, " +
+                    "   UNIT_TIME, " +
+                    "   TIME_UNIT " +
+                    "FROM " +
+                    "   AM_POLICY_APPLICATION" +
+                    " WHERE " +
+                    "   ORGANIZATION = ? ";
+
+    public static final String GET_ORGANIZATION_API_POLICIES_SQL =
+            "SELECT" +
+                    "   POLICY.POLICY_ID," +
+                    "   POLICY.NAME," +
+                    "   POLICY.ORGANIZATION," +
+                    "   POLICY.DEFAULT_QUOTA_TYPE," +
+                    "   POLICY.DEFAULT_QUOTA," +
+                    "   POLICY.DEFAULT_QUOTA_UNIT," +
+                    "   POLICY.DEFAULT_UNIT_TIME," +
+                    "   POLICY.DEFAULT_TIME_UNIT," +
+                    "   POLICY.APPLICABLE_LEVEL," +
+                    "   COND.CONDITION_GROUP_ID," +
+                    "   COND.QUOTA_TYPE," +
+                    "   COND.QUOTA AS QUOTA," +
+                    "   COND.QUOTA_UNIT AS QUOTA_UNIT," +
+                    "   COND.UNIT_TIME AS UNIT_TIME," +
+                    "   COND.TIME_UNIT AS TIME_UNIT" +
+                    " FROM" +
+                    "   AM_API_THROTTLE_POLICY POLICY " +
+                    " LEFT JOIN " +
+                    "   AM_CONDITION_GROUP COND " +
+                    " ON " +
+                    "   POLICY.POLICY_ID = COND.POLICY_ID" +
+                    " WHERE POLICY.ORGANIZATION = ?";
+
+    public static final String GET_ORGANIZATION_SUBSCRIPTIONS_BY_ID_SQL =
+            GET_ORGANIZATION_SUBSCRIPTIONS_SQL + " AND SUBS.SUBSCRIPTION_ID = ANY (?)";
+
+    public static final String GET_APPLICATIONS_BY_ORGANIZATION_AND_ID_SQL =
+            GET_APPLICATIONS_BY_ORGANIZATION_SQL + " AND APP.APPLICATION_ID = ANY (?)";
+
+    public static final String GET_ORGANIZATION_AM_KEY_MAPPING_BY_CONSUMER_KEY_SQL =
+            GET_ORGANIZATION_AM_KEY_MAPPING_SQL + " AND MAPPING.CONSUMER_KEY = ANY (?)";
+
+    public static final String GET_ORGANIZATION_SUBSCRIPTION_POLICIES_BY_ID_SQL =
+            GET_ORGANIZATION_SUBSCRIPTION_POLICIES_SQL + " AND APS.POLICY_ID = ANY (?)";
+
+    public static final String GET_ORGANIZATION_APPLICATION_POLICIES_BY_ID_SQL =
+            GET_ORGANIZATION_APPLICATION_POLICIES_SQL + " AND POLICY_ID = ANY (?)";
+
+    public static final String GET_ORGANIZATION_API_POLICIES_BY_ID_SQL =
+            GET_ORGANIZATION_API_POLICIES_SQL + " AND POLICY.POLICY_ID = ANY (?)";
+
+    public static final String GET_SETTLED_SUBSCRIPTION_DATA_CHANGE_ID_SQL =
+            "SELECT COALESCE(MAX(CHANGE_ID), 0) AS CHANGE_ID" +
+                    " FROM " +
+                    "   AM_SUBSCRIPTION_DATA_CHANGE" +
+                    " WHERE " +
+                    "   CHANGED_TIME < LOCALTIMESTAMP - ? * INTERVAL '1 SECOND'";
+
+    public static final String GET_SUBSCRIPTION_DATA_CHANGES_SQL =
+            "SELECT " +
+                    "   CHANGE_ID," +
+                    "   ENTITY_TYPE," +
+                    "   ENTITY_ID," +
+                    "   ENTITY_KEY," +
+                    "   CHANGED_TIME < LOCALTIMESTAMP - ? * INTERVAL '1 SECOND' AS SETTLED" +
+                    " FROM " +
+                    "   AM_SUBSCRIPTION_DATA_CHANGE" +
+                    " WHERE " +
+                    "   CHANGE_ID > ? AND" +
+                    "   (ORGANIZATION = ? OR ORGANIZATION IS NULL)" +
+                    " ORDER BY CHANGE_ID";
+
+    public static final String DELETE_SUBSCRIPTION_DATA_CHANGES_SQL =
+            "DELETE FROM AM_SUBSCRIPTION_DATA_CHANGE WHERE CHANGED_TIME < LOCALTIMESTAMP - ? * INTERVAL '1 SECOND'";
+
     public static final String GET_ALL_GLOBAL_POLICIES_SQL =
             " SELECT " +
                     "   POLICY_ID," +
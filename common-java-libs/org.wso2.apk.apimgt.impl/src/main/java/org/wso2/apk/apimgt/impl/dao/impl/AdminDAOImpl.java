@@ -18,6 +18,7 @@
 
 package org.wso2.apk.apimgt.impl.dao.impl;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.apk.apimgt.api.APIManagementException;
@@ -30,7 +31,11 @@ import org.wso2.apk.apimgt.impl.dao.constants.SQLConstants;
 import org.wso2.apk.apimgt.impl.utils.APIMgtDBUtil;
 import org.wso2.apk.apimgt.impl.utils.APIUtil;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -42,6 +47,7 @@ import java.util.UUID;
 public class AdminDAOImpl implements AdminDAO {
     private static final Log log = LogFactory.getLog(AdminDAOImpl.class);
     private static AdminDAOImpl INSTANCE = new AdminDAOImpl();
+    private static final int TENANT_THEME_BUFFER_SIZE = 8192;
 
     private AdminDAOImpl() {
 
@@ -292,13 +298,22 @@ public class AdminDAOImpl implements AdminDAO {
     }
 
     @Override
+    @Deprecated
     public void addTenantTheme(String organization, InputStream themeContent) throws APIManagementException {
 
+        addTenantTheme(organization, themeContent, -1, null);
+    }
+
+    @Override
+    public void addTenantTheme(String organization, InputStream themeContent, long contentLength, String themeHash)
+            throws APIManagementException {
+
         try (Connection connection = APIMgtDBUtil.getConnection();
              PreparedStatement statement = connection
                      .prepareStatement(SQLConstants.TenantThemeConstants.ADD_TENANT_THEME)) {
             statement.setString(1, organization);
-            statement.setBinaryStream(2, themeContent);
+            setTenantThemeContent(statement, 2, themeContent, contentLength);
+            statement.setString(3, themeHash);
             statement.executeUpdate();
         } catch (SQLException e) {
             handleExceptionWithCode("Failed to add tenant theme of tenant "
@@ -307,13 +322,22 @@ public class AdminDAOImpl implements AdminDAO {
     }
 
     @Override
+    @Deprecated
     public void updateTenantTheme(String organization, InputStream themeContent) throws APIManagementException {
 
+        updateTenantTheme(organization, themeContent, -1, null);
+    }
+
+    @Override
+    public void updateTenantTheme(String organization, InputStream themeContent, long contentLength, String themeHash)
+            throws APIManagementException {
+
         try (Connection connection = APIMgtDBUtil.getConnection();
              PreparedStatement statement =
                      connection.prepareStatement(SQLConstants.TenantThemeConstants.UPDATE_TENANT_THEME)) {
-            statement.setBinaryStream(1, themeContent);
-            statement.setString(2, organization);
+            setTenantThemeContent(statement, 1, themeContent, contentLength);
+            statement.setString(2, themeHash);
+            statement.setString(3, organization);
             statement.executeUpdate();
         } catch (SQLException e) {
             handleExceptionWithCode("Failed to update tenant theme of tenant "
@@ -321,23 +345,65 @@ public class AdminDAOImpl implements AdminDAO {
         }
     }
 
+    private static void setTenantThemeContent(PreparedStatement statement, int index, InputStream themeContent,
+                                              long contentLength) throws SQLException {
+
+        // the content length is not known for themes stored through the deprecated methods
+        if (contentLength < 0) {
+            statement.setBinaryStream(index, themeContent);
+        } else {
+            statement.setBinaryStream(index, themeContent, contentLength);
+        }
+    }
+
     @Override
     public InputStream getTenantTheme(String organization) throws APIManagementException {
 
-        InputStream tenantThemeContent = null;
+        ByteArrayOutputStream tenantThemeContent = new ByteArrayOutputStream();
+        if (getTenantTheme(organization, tenantThemeContent)) {
+            return new ByteArrayInputStream(tenantThemeContent.toByteArray());
+        }
+        return null;
+    }
+
+    @Override
+    public boolean getTenantTheme(String organization, OutputStream outputStream) throws APIManagementException {
+
         try (Connection connection = APIMgtDBUtil.getConnection();
              PreparedStatement statement = connection
                      .prepareStatement(SQLConstants.TenantThemeConstants.GET_TENANT_THEME)) {
             statement.setString(1, organization);
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                tenantThemeContent = resultSet.getBinaryStream("THEME");
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return false;
+                }
+                try (InputStream tenantThemeContent = resultSet.getBinaryStream("THEME")) {
+                    IOUtils.copyLarge(tenantThemeContent, outputStream, new byte[TENANT_THEME_BUFFER_SIZE]);
+                }
+                return true;
             }
-        } catch (SQLException e) {
+        } catch (SQLException | IOException e) {
             handleExceptionWithCode("Failed to fetch tenant theme of tenant "
                     + organization, e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
         }
-        return tenantThemeContent;
+        return false;
+    }
+
+    @Override
+    public String getTenantThemeHash(String organization) throws APIManagementException {
+
+        try (Connection connection = APIMgtDBUtil.getConnection();
+             PreparedStatement statement = connection
+                     .prepareStatement(SQLConstants.TenantThemeConstants.GET_TENANT_THEME_HASH)) {
+            statement.setString(1, organization);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString("THEME_HASH") : null;
+            }
+        } catch (SQLException e) {
+            handleExceptionWithCode("Failed to fetch tenant theme hash of tenant "
+                    + organization, e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
+        }
+        return null;
     }
 
     @Override
@@ -345,10 +411,11 @@ public class AdminDAOImpl implements AdminDAO {
 
         try (Connection connection = APIMgtDBUtil.getConnection();
              PreparedStatement statement = connection
-                     .prepareStatement(SQLConstants.TenantThemeConstants.GET_TENANT_THEME)) {
+                     .prepareStatement(SQLConstants.TenantThemeConstants.GET_TENANT_THEME_HASH)) {
             statement.setString(1, organization);
-            ResultSet resultSet = statement.executeQuery();
-            return resultSet.next();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
         } catch (SQLException e) {
             handleExceptionWithCode("Failed to check whether tenant theme exist for tenant "
                     + organization, e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
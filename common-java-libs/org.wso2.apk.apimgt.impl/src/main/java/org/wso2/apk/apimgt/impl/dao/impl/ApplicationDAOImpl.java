@@ -18,7 +18,7 @@
 
 package org.wso2.apk.apimgt.impl.dao.impl;
 
-import com.google.gson.Gson;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,11 +33,13 @@ import org.wso2.apk.apimgt.impl.dao.constants.SQLConstants;
 import org.wso2.apk.apimgt.impl.factory.SQLConstantManagerFactory;
 import org.wso2.apk.apimgt.impl.utils.APIMgtDBUtil;
 import org.wso2.apk.apimgt.impl.utils.APIUtil;
+import org.wso2.apk.apimgt.impl.utils.JsonCodecRegistry;
 import org.wso2.apk.apimgt.user.mgt.util.UserUtils;
 //import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -48,6 +50,17 @@ import java.util.*;
 public class ApplicationDAOImpl implements ApplicationDAO {
     private static final Log log = LogFactory.getLog(ApplicationDAOImpl.class);
     private static ApplicationDAOImpl INSTANCE = new ApplicationDAOImpl();
+    private static final Map<String, String> APPLICATION_SORT_COLUMNS = new HashMap<>();
+
+    static {
+        // the sort columns are nullable, and a null would never compare true in the keyset predicate. Sorting on
+        // the coalesced value keeps the selected value, the order and the predicate consistent with the cursor,
+        // which carries a null as an empty string.
+        APPLICATION_SORT_COLUMNS.put("name", "COALESCE(APP.NAME, '')");
+        APPLICATION_SORT_COLUMNS.put("owner", "COALESCE(SUB.CREATED_BY, '')");
+        APPLICATION_SORT_COLUMNS.put("throttlingTier", "COALESCE(APP.APPLICATION_TIER, '')");
+        APPLICATION_SORT_COLUMNS.put("status", "COALESCE(APP.APPLICATION_STATUS, '')");
+    }
 
     private boolean multiGroupAppSharingEnabled = false;
     private boolean forceCaseInsensitiveComparisons = false;
@@ -256,6 +269,170 @@ public class ApplicationDAOImpl implements ApplicationDAO {
         return applications;
     }
 
+    @Override
+    public ApplicationPage getApplicationsPage(String owner, String organization, int limit, ApplicationCursor after,
+                                               String sortBy, String sortOrder, String appName)
+            throws APIManagementException {
+
+        String sortColumn = getApplicationSortColumn(sortBy, sortOrder);
+        String sqlQuery = SQLConstants.GET_APPLICATIONS_PAGE_BY_ORGANIZATION;
+        if (after != null) {
+            sqlQuery += SQLConstants.GET_APPLICATIONS_PAGE_BY_ORGANIZATION_AFTER_CURSOR
+                    .replace("$3", "asc".equalsIgnoreCase(sortOrder) ? ">" : "<");
+        }
+        sqlQuery = (sqlQuery + SQLConstants.GET_APPLICATIONS_PAGE_BY_ORGANIZATION_ORDER)
+                .replace("$1", sortColumn).replace("$2", sortOrder.toUpperCase(Locale.ENGLISH));
+
+        Connection connection = null;
+        PreparedStatement prepStmt = null;
+        ResultSet rs = null;
+        List<Application> applicationList = new ArrayList<>();
+        ApplicationCursor nextCursor = null;
+        try {
+            connection = APIMgtDBUtil.getConnection();
+            prepStmt = connection.prepareStatement(sqlQuery);
+            int index = 1;
+            prepStmt.setString(index++, organization);
+            prepStmt.setString(index++, "%" + StringUtils.defaultString(owner) + "%");
+            prepStmt.setString(index++, "%" + StringUtils.defaultString(appName) + "%");
+            if (after != null) {
+                prepStmt.setString(index++, after.getSortValue());
+                prepStmt.setInt(index++, after.getApplicationId());
+            }
+            // one more row than the page size tells whether there is a next page, without counting
+            prepStmt.setInt(index, limit + 1);
+            rs = prepStmt.executeQuery();
+            String lastSortValue = null;
+            while (rs.next()) {
+                if (applicationList.size() == limit) {
+                    Application last = applicationList.get(limit - 1);
+                    nextCursor = new ApplicationCursor(lastSortValue, last.getId());
+                    break;
+                }
+                applicationList.add(getApplicationPageRow(rs));
+                lastSortValue = rs.getString("SORT_VALUE");
+            }
+        } catch (SQLException e) {
+            handleExceptionWithCode("Error while obtaining details of the Application for organization : "
+                    + organization, e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
+        } finally {
+            APIMgtDBUtil.closeAllConnections(prepStmt, connection, rs);
+        }
+        return new ApplicationPage(applicationList.toArray(new Application[0]), nextCursor);
+    }
+
+    @Override
+    public ApplicationPage getApplicationsWithCount(String owner, String organization, int limit, int offset,
+                                                    String sortBy, String sortOrder, String appName,
+                                                    CountMode countMode) throws APIManagementException {
+
+        String sortColumn = getApplicationSortColumn(sortBy, sortOrder);
+        String sqlQuery = (countMode == CountMode.EXACT ? SQLConstants.GET_APPLICATIONS_WITH_TOTAL_BY_ORGANIZATION
+                : SQLConstants.GET_APPLICATIONS_PAGE_BY_ORGANIZATION)
+                + SQLConstants.GET_APPLICATIONS_PAGE_BY_ORGANIZATION_OFFSET_ORDER;
+        sqlQuery = sqlQuery.replace("$1", sortColumn).replace("$2", sortOrder.toUpperCase(Locale.ENGLISH));
+        String ownerPattern = "%" + StringUtils.defaultString(owner) + "%";
+        String appNamePattern = "%" + StringUtils.defaultString(appName) + "%";
+
+        Connection connection = null;
+        PreparedStatement prepStmt = null;
+        ResultSet rs = null;
+        List<Application> applicationList = new ArrayList<>();
+        int total = -1;
+        try {
+            connection = APIMgtDBUtil.getConnection();
+            prepStmt = connection.prepareStatement(sqlQuery);
+            prepStmt.setString(1, organization);
+            prepStmt.setString(2, ownerPattern);
+            prepStmt.setString(3, appNamePattern);
+            prepStmt.setInt(4, offset);
+            prepStmt.setInt(5, limit);
+            rs = prepStmt.executeQuery();
+            while (rs.next()) {
+                applicationList.add(getApplicationPageRow(rs));
+                if (countMode == CountMode.EXACT) {
+                    total = rs.getInt("TOTAL_COUNT");
+                }
+            }
+            if (countMode == CountMode.EXACT && applicationList.isEmpty()) {
+                // the window count is only seen through a returned row, so a page past the end is counted apart
+                total = offset == 0 ? 0 : getApplicationsCount(connection, organization, ownerPattern,
+                        appNamePattern);
+            } else if (countMode == CountMode.ESTIMATED) {
+                total = getEstimatedApplicationsCount(connection, organization, ownerPattern, appNamePattern);
+            }
+        } catch (SQLException e) {
+            handleExceptionWithCode("Error while obtaining details of the Application for organization : "
+                    + organization, e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
+        } finally {
+            APIMgtDBUtil.closeAllConnections(prepStmt, connection, rs);
+        }
+        return new ApplicationPage(applicationList.toArray(new Application[0]), null, total,
+                countMode == CountMode.ESTIMATED);
+    }
+
+    private static String getApplicationSortColumn(String sortBy, String sortOrder) throws APIManagementException {
+
+        String sortColumn = APPLICATION_SORT_COLUMNS.get(sortBy);
+        if (sortColumn == null || !("asc".equalsIgnoreCase(sortOrder) || "desc".equalsIgnoreCase(sortOrder))) {
+            throw new APIManagementException("Invalid sort criteria: " + sortBy + " " + sortOrder,
+                    ExceptionCodes.INVALID_SORT_CRITERIA);
+        }
+        return sortColumn;
+    }
+
+    private static Application getApplicationPageRow(ResultSet rs) throws SQLException {
+
+        String applicationName = rs.getString("NAME");
+        String subscriberName = rs.getString("CREATED_BY");
+        Subscriber subscriber = new Subscriber(subscriberName);
+        Application application = new Application(applicationName, subscriber);
+        application.setName(applicationName);
+        application.setId(rs.getInt("APPLICATION_ID"));
+        application.setUUID(rs.getString("UUID"));
+        application.setGroupId(rs.getString("GROUP_ID"));
+        application.setTier(rs.getString("APPLICATION_TIER"));
+        subscriber.setOrganization(rs.getString("ORGANIZATION"));
+        subscriber.setId(rs.getInt("SUBSCRIBER_ID"));
+        application.setStatus(rs.getString("APPLICATION_STATUS"));
+        application.setOwner(subscriberName);
+        return application;
+    }
+
+    private static int getApplicationsCount(Connection connection, String organization, String ownerPattern,
+                                            String appNamePattern) throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(SQLConstants.GET_APPLICATIONS_COUNT)) {
+            prepStmt.setString(1, organization);
+            prepStmt.setString(2, ownerPattern);
+            prepStmt.setString(3, appNamePattern);
+            try (ResultSet rs = prepStmt.executeQuery()) {
+                return rs.next() ? rs.getInt("count") : 0;
+            }
+        }
+    }
+
+    private static int getEstimatedApplicationsCount(Connection connection, String organization,
+                                                     String ownerPattern, String appNamePattern)
+            throws SQLException {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(SQLConstants.GET_APPLICATIONS_COUNT_ESTIMATE)) {
+            prepStmt.setString(1, organization);
+            prepStmt.setString(2, ownerPattern);
+            prepStmt.setString(3, appNamePattern);
+            try (ResultSet rs = prepStmt.executeQuery()) {
+                if (rs.next()) {
+                    JsonNode plan = JsonCodecRegistry.getInstance().getReader(JsonNode.class)
+                            .readTree(rs.getString(1));
+                    return plan.path(0).path("Plan").path("Plan Rows").asInt(-1);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read the planner estimate of the application count", e);
+        }
+        return -1;
+    }
+
     @Override
     public int getApplicationsCount(String organization, String searchOwner, String searchApplication) throws
             APIManagementException {
@@ -2004,7 +2181,7 @@ public class ApplicationDAOImpl implements ApplicationDAO {
                 connection.setAutoCommit(false);
                 try {
                     try (PreparedStatement ps = connection.prepareStatement(addApplicationKeyMapping)) {
-                        String content = new Gson().toJson(updatedAppInfo);
+                        String content = JsonCodecRegistry.getInstance().getGson().toJson(updatedAppInfo);
                         ps.setBinaryStream(1, new ByteArrayInputStream(content.getBytes()));
                         ps.setInt(2, applicationId);
                         ps.setString(3, keyType);
@@ -26,6 +26,7 @@ import org.wso2.apk.apimgt.api.APIManagementException;
 import org.wso2.apk.apimgt.api.BlockConditionAlreadyExistsException;
 import org.wso2.apk.apimgt.api.ErrorHandler;
 import org.wso2.apk.apimgt.api.ExceptionCodes;
+import org.wso2.apk.apimgt.api.ResultConsumer;
 import org.wso2.apk.apimgt.api.model.BlockConditionsDTO;
 import org.wso2.apk.apimgt.impl.APIConstants;
 import org.wso2.apk.apimgt.impl.dao.constants.SQLConstants;
@@ -44,6 +45,7 @@ import java.util.List;
 public class BlockConditionDAOImpl implements BlockConditionDAO {
     private static final Log log = LogFactory.getLog(BlockConditionDAOImpl.class);
     private static BlockConditionDAOImpl INSTANCE = new BlockConditionDAOImpl();
+    private static final int BLOCK_CONDITIONS_FETCH_SIZE = 500;
 
     private BlockConditionDAOImpl() {
 
@@ -67,41 +69,56 @@ public class BlockConditionDAOImpl implements BlockConditionDAO {
     @Override
     public List<BlockConditionsDTO> getBlockConditions(String tenantDomain) throws APIManagementException {
 
-        Connection connection = null;
-        PreparedStatement selectPreparedStatement = null;
-        ResultSet resultSet = null;
         List<BlockConditionsDTO> blockConditionsDTOList = new ArrayList<BlockConditionsDTO>();
-        try {
-            String query = SQLConstants.ThrottleSQLConstants.GET_BLOCK_CONDITIONS_SQL;
-            connection = APIMgtDBUtil.getConnection();
-            connection.setAutoCommit(true);
-            selectPreparedStatement = connection.prepareStatement(query);
-            selectPreparedStatement.setString(1, tenantDomain);
-            resultSet = selectPreparedStatement.executeQuery();
-            while (resultSet.next()) {
-                BlockConditionsDTO blockConditionsDTO = new BlockConditionsDTO();
-                blockConditionsDTO.setEnabled(resultSet.getBoolean("ENABLED"));
-                blockConditionsDTO.setConditionType(resultSet.getString("TYPE"));
-                blockConditionsDTO.setConditionValue(resultSet.getString("BLOCK_CONDITION"));
-                blockConditionsDTO.setConditionId(resultSet.getInt(ThrottlePolicyConstants.COLUMN_BLOCK_CONDITION_ID));
-                blockConditionsDTO.setUUID(resultSet.getString(ThrottlePolicyConstants.COLUMN_UUID));
-                blockConditionsDTO.setTenantDomain(resultSet.getString(ThrottlePolicyConstants.COLUMN_ORGANIZATION));
-                blockConditionsDTOList.add(blockConditionsDTO);
-            }
-        } catch (SQLException e) {
-            if (connection != null) {
-                try {
-                    connection.rollback();
-                } catch (SQLException ex) {
-                    handleExceptionWithCode("Failed to rollback getting Block conditions ", ex,
-                            ExceptionCodes.APIMGT_DAO_EXCEPTION);
+        getBlockConditions(tenantDomain, blockConditionsDTOList::add);
+        return blockConditionsDTOList;
+    }
+
+    @Override
+    public int getBlockConditions(String organization, ResultConsumer<BlockConditionsDTO> consumer)
+            throws APIManagementException {
+
+        // a transaction disables auto commit, which lets the driver fetch the rows in batches through a cursor
+        return APIMgtDBUtil.executeInTransaction(() -> {
+            Connection connection = null;
+            PreparedStatement selectPreparedStatement = null;
+            ResultSet resultSet = null;
+            int count = 0;
+            try {
+                String query = SQLConstants.ThrottleSQLConstants.GET_BLOCK_CONDITIONS_SQL;
+                connection = APIMgtDBUtil.getConnection();
+                selectPreparedStatement = connection.prepareStatement(query);
+                selectPreparedStatement.setFetchSize(BLOCK_CONDITIONS_FETCH_SIZE);
+                selectPreparedStatement.setString(1, organization);
+                resultSet = selectPreparedStatement.executeQuery();
+                while (resultSet.next()) {
+                    BlockConditionsDTO blockConditionsDTO = new BlockConditionsDTO();
+                    blockConditionsDTO.setEnabled(resultSet.getBoolean("ENABLED"));
+                    blockConditionsDTO.setConditionType(resultSet.getString("TYPE"));
+                    blockConditionsDTO.setConditionValue(resultSet.getString("BLOCK_CONDITION"));
+                    blockConditionsDTO.setConditionId(
+                            resultSet.getInt(ThrottlePolicyConstants.COLUMN_BLOCK_CONDITION_ID));
+                    blockConditionsDTO.setUUID(resultSet.getString(ThrottlePolicyConstants.COLUMN_UUID));
+                    blockConditionsDTO.setTenantDomain(
+                            resultSet.getString(ThrottlePolicyConstants.COLUMN_ORGANIZATION));
+                    consumer.accept(blockConditionsDTO);
+                    count++;
                 }
+            } catch (SQLException e) {
+                if (connection != null) {
+                    try {
+                        connection.rollback();
+                    } catch (SQLException ex) {
+                        handleExceptionWithCode("Failed to rollback getting Block conditions ", ex,
+                                ExceptionCodes.APIMGT_DAO_EXCEPTION);
+                    }
+                }
+                handleExceptionWithCode("Failed to get Block conditions", e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
+            } finally {
+                APIMgtDBUtil.closeAllConnections(selectPreparedStatement, connection, resultSet);
             }
-            handleExceptionWithCode("Failed to get Block conditions", e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
-        } finally {
-            APIMgtDBUtil.closeAllConnections(selectPreparedStatement, connection, resultSet);
-        }
-        return blockConditionsDTOList;
+            return count;
+        });
     }
 
     @Override
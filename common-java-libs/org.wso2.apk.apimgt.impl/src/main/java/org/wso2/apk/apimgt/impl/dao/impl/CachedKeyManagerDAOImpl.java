@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.dao.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.dto.KeyManagerConfigurationDTO;
+import org.wso2.apk.apimgt.impl.caching.CacheProvider;
+import org.wso2.apk.apimgt.impl.dao.KeyManagerDAO;
+import org.wso2.apk.apimgt.impl.utils.TransactionContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-through cache in front of {@link KeyManagerDAOImpl}. The key manager configurations of an organization are
+ * read once, with their additional properties already decoded, into an immutable snapshot. Reads are served from the
+ * snapshot without locking, and every write of an organization replaces the snapshot as a whole on the next read, so
+ * a node always reads its own writes. Changes made by other nodes are visible once the snapshot expires.
+ * <p>
+ * Callers receive copies of the cached configurations, so they are free to modify the returned objects. Values nested
+ * within the additional properties are shared and must not be modified.
+ */
+public class CachedKeyManagerDAOImpl implements KeyManagerDAO {
+
+    private static final Log log = LogFactory.getLog(CachedKeyManagerDAOImpl.class);
+    private static final CachedKeyManagerDAOImpl INSTANCE =
+            new CachedKeyManagerDAOImpl(KeyManagerDAOImpl.getInstance());
+
+    private final KeyManagerDAO keyManagerDAO;
+    private final Map<String, SnapshotHolder> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, String> organizationsByUuid = new ConcurrentHashMap<>();
+
+    private CachedKeyManagerDAOImpl(KeyManagerDAO keyManagerDAO) {
+
+        this.keyManagerDAO = keyManagerDAO;
+    }
+
+    public static CachedKeyManagerDAOImpl getInstance() {
+
+        return INSTANCE;
+    }
+
+    @Override
+    public List<KeyManagerConfigurationDTO> getKeyManagerConfigurationsByOrganization(String organization)
+            throws APIManagementException {
+
+        if (organization == null) {
+            return keyManagerDAO.getKeyManagerConfigurationsByOrganization(null);
+        }
+        List<KeyManagerConfigurationDTO> configurations = getSnapshot(organization).configurations;
+        List<KeyManagerConfigurationDTO> copies = new ArrayList<>(configurations.size());
+        for (KeyManagerConfigurationDTO configuration : configurations) {
+            copies.add(copy(configuration));
+        }
+        return copies;
+    }
+
+    @Override
+    public List<KeyManagerConfigurationDTO> getKeyManagerConfigurations() throws APIManagementException {
+
+        return keyManagerDAO.getKeyManagerConfigurations();
+    }
+
+    @Override
+    public KeyManagerConfigurationDTO getKeyManagerConfigurationByID(String organization, String uuid)
+            throws APIManagementException {
+
+        if (organization == null || uuid == null) {
+            return keyManagerDAO.getKeyManagerConfigurationByID(organization, uuid);
+        }
+        return copy(getSnapshot(organization).configurationsByUuid.get(uuid));
+    }
+
+    @Override
+    public boolean isIDPExistInOrg(String organization, String resourceId) throws APIManagementException {
+
+        return keyManagerDAO.isIDPExistInOrg(organization, resourceId);
+    }
+
+    @Override
+    public boolean isKeyManagerConfigurationExistById(String organization, String resourceId)
+            throws APIManagementException {
+
+        if (organization == null || resourceId == null) {
+            return keyManagerDAO.isKeyManagerConfigurationExistById(organization, resourceId);
+        }
+        return getSnapshot(organization).configurationsByUuid.containsKey(resourceId);
+    }
+
+    @Override
+    public boolean isKeyManagerConfigurationExistByName(String organization, String name)
+            throws APIManagementException {
+
+        if (organization == null || name == null) {
+            return keyManagerDAO.isKeyManagerConfigurationExistByName(organization, name);
+        }
+        return getSnapshot(organization).configurationsByName.containsKey(name);
+    }
+
+    @Override
+    public void addKeyManagerConfiguration(KeyManagerConfigurationDTO keyManagerConfigurationDTO)
+            throws APIManagementException {
+
+        try {
+            keyManagerDAO.addKeyManagerConfiguration(keyManagerConfigurationDTO);
+        } finally {
+            invalidate(keyManagerConfigurationDTO.getOrganization());
+        }
+    }
+
+    @Override
+    public void updateKeyManagerConfiguration(KeyManagerConfigurationDTO keyManagerConfigurationDTO)
+            throws APIManagementException {
+
+        try {
+            keyManagerDAO.updateKeyManagerConfiguration(keyManagerConfigurationDTO);
+        } finally {
+            invalidate(keyManagerConfigurationDTO.getOrganization());
+        }
+    }
+
+    @Override
+    public void deleteKeyManagerConfigurationById(String id, String organization) throws APIManagementException {
+
+        try {
+            keyManagerDAO.deleteKeyManagerConfigurationById(id, organization);
+        } finally {
+            organizationsByUuid.remove(id);
+            invalidate(organization);
+        }
+    }
+
+    @Override
+    public KeyManagerConfigurationDTO getKeyManagerConfigurationByName(String organization, String name)
+            throws APIManagementException {
+
+        if (organization == null || name == null) {
+            return keyManagerDAO.getKeyManagerConfigurationByName(organization, name);
+        }
+        return copy(getSnapshot(organization).configurationsByName.get(name));
+    }
+
+    @Override
+    public KeyManagerConfigurationDTO getKeyManagerConfigurationByUUID(String uuid) throws APIManagementException {
+
+        if (uuid == null) {
+            return keyManagerDAO.getKeyManagerConfigurationByUUID(null);
+        }
+        String organization = organizationsByUuid.get(uuid);
+        if (organization != null) {
+            KeyManagerConfigurationDTO configuration = getSnapshot(organization).configurationsByUuid.get(uuid);
+            if (configuration != null) {
+                return copy(configuration);
+            }
+        }
+        KeyManagerConfigurationDTO configuration = keyManagerDAO.getKeyManagerConfigurationByUUID(uuid);
+        if (configuration != null && configuration.getOrganization() != null) {
+            organizationsByUuid.put(uuid, configuration.getOrganization());
+        }
+        return configuration;
+    }
+
+    /**
+     * Drops the cached key manager configurations of an organization.
+     *
+     * @param organization organization of the key managers
+     */
+    public void invalidate(String organization) {
+
+        if (organization == null) {
+            return;
+        }
+        snapshots.remove(organization);
+        TransactionContext transactionContext = TransactionContext.getCurrent();
+        if (transactionContext != null) {
+            // Configurations read by other threads before the transaction commits are still the old ones
+            transactionContext.afterCompletion(() -> snapshots.remove(organization));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Invalidated cached key manager configurations of organization " + organization);
+        }
+    }
+
+    /**
+     * Drops the cached key manager configurations of all the organizations.
+     */
+    public void invalidateAll() {
+
+        snapshots.clear();
+        organizationsByUuid.clear();
+    }
+
+    /**
+     * Returns the snapshot of the key manager configurations of an organization, reading it from the database if it
+     * is not cached or has expired. The holder of the snapshot is placed in the map before the database is read, so
+     * an invalidation that happens while a read is in progress detaches the holder and the result of that read is
+     * never served again.
+     */
+    private KeyManagerSnapshot getSnapshot(String organization) throws APIManagementException {
+
+        SnapshotHolder holder = snapshots.computeIfAbsent(organization, key -> new SnapshotHolder());
+        KeyManagerSnapshot snapshot = holder.snapshot;
+        if (snapshot != null && snapshot.expiryTime - System.nanoTime() > 0) {
+            return snapshot;
+        }
+        List<KeyManagerConfigurationDTO> configurations =
+                keyManagerDAO.getKeyManagerConfigurationsByOrganization(organization);
+        snapshot = new KeyManagerSnapshot(configurations,
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(CacheProvider.getDefaultCacheTimeout()));
+        for (KeyManagerConfigurationDTO configuration : snapshot.configurations) {
+            if (configuration.getUuid() != null) {
+                organizationsByUuid.put(configuration.getUuid(), organization);
+            }
+        }
+        holder.snapshot = snapshot;
+        return snapshot;
+    }
+
+    private static KeyManagerConfigurationDTO copy(KeyManagerConfigurationDTO configuration) {
+
+        if (configuration == null) {
+            return null;
+        }
+        KeyManagerConfigurationDTO copy = new KeyManagerConfigurationDTO(configuration);
+        copy.setAlias(configuration.getAlias());
+        if (configuration.getEndpoints() != null) {
+            copy.setEndpoints(new HashMap<>(configuration.getEndpoints()));
+        }
+        return copy;
+    }
+
+    /**
+     * Holder of the snapshot of an organization.
+     */
+    private static final class SnapshotHolder {
+
+        private volatile KeyManagerSnapshot snapshot;
+    }
+
+    /**
+     * Immutable view of the key manager configurations of an organization, indexed by UUID and name.
+     */
+    private static final class KeyManagerSnapshot {
+
+        private final List<KeyManagerConfigurationDTO> configurations;
+        private final Map<String, KeyManagerConfigurationDTO> configurationsByUuid;
+        private final Map<String, KeyManagerConfigurationDTO> configurationsByName;
+        private final long expiryTime;
+
+        private KeyManagerSnapshot(List<KeyManagerConfigurationDTO> configurations, long expiryTime) {
+
+            List<KeyManagerConfigurationDTO> snapshot = new ArrayList<>(configurations.size());
+            Map<String, KeyManagerConfigurationDTO> byUuid = new HashMap<>();
+            Map<String, KeyManagerConfigurationDTO> byName = new HashMap<>();
+            for (KeyManagerConfigurationDTO configuration : configurations) {
+                if (configuration.getAdditionalProperties() == null) {
+                    configuration.setAdditionalProperties(new HashMap<>());
+                }
+                KeyManagerConfigurationDTO copy = copy(configuration);
+                copy.setAdditionalProperties(Collections.unmodifiableMap(copy.getAdditionalProperties()));
+                snapshot.add(copy);
+                if (copy.getUuid() != null) {
+                    byUuid.put(copy.getUuid(), copy);
+                }
+                if (copy.getName() != null) {
+                    byName.put(copy.getName(), copy);
+                }
+            }
+            this.configurations = Collections.unmodifiableList(snapshot);
+            this.configurationsByUuid = byUuid;
+            this.configurationsByName = byName;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.dao.impl;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.model.policy.APIPolicy;
+import org.wso2.apk.apimgt.api.model.policy.ApplicationPolicy;
+import org.wso2.apk.apimgt.api.model.policy.Policy;
+import org.wso2.apk.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.apk.apimgt.api.model.policy.SubscriptionPolicy;
+import org.wso2.apk.apimgt.impl.caching.CacheProvider;
+import org.wso2.apk.apimgt.impl.dao.PolicyDAO;
+import org.wso2.apk.apimgt.impl.metrics.Counter;
+import org.wso2.apk.apimgt.impl.metrics.MetricsRegistry;
+import org.wso2.apk.apimgt.impl.utils.APIUtil;
+import org.wso2.apk.apimgt.impl.utils.TransactionContext;
+
+import javax.cache.Cache;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache in front of {@link PolicyDAOImpl}. Policies are cached per organization and policy level, and
+ * every write of a level of an organization drops the cached policies of that level, so a node always reads its own
+ * writes. Writes made within a transaction drop the cached policies again once the transaction completes. Changes made
+ * by other nodes are visible once the cached entry expires.
+ * <p>
+ * Policies are copied when they are cached and again when they are served, so callers may modify the policies they
+ * get. Lookups by UUID and attachment checks are not cached as they are not scoped to an organization. Hits, misses,
+ * invalidations and the maximum staleness are exported through the {@link MetricsRegistry}.
+ */
+public class CachedPolicyDAOImpl implements PolicyDAO {
+
+    public static final String CACHE_HITS = "apk_policy_cache_hits_total";
+    public static final String CACHE_MISSES = "apk_policy_cache_misses_total";
+    public static final String CACHE_INVALIDATIONS = "apk_policy_cache_invalidations_total";
+    public static final String CACHE_MAX_STALENESS = "apk_policy_cache_max_staleness_milliseconds";
+
+    private static final Log log = LogFactory.getLog(CachedPolicyDAOImpl.class);
+    private static final CachedPolicyDAOImpl INSTANCE = new CachedPolicyDAOImpl(PolicyDAOImpl.getInstance());
+
+    private final PolicyDAO policyDAO;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private final LongAdder totalStaleness = new LongAdder();
+    private final LongAccumulator maxStaleness = new LongAccumulator(Long::max, 0);
+
+    private CachedPolicyDAOImpl(PolicyDAO policyDAO) {
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.policyDAO = policyDAO;
+        this.hits = registry.counter(CACHE_HITS);
+        this.misses = registry.counter(CACHE_MISSES);
+        this.invalidations = registry.counter(CACHE_INVALIDATIONS);
+        registry.gauge(CACHE_MAX_STALENESS, maxStaleness::get);
+    }
+
+    public static CachedPolicyDAOImpl getInstance() {
+
+        return INSTANCE;
+    }
+
+    @Override
+    public APIPolicy addAPIPolicy(APIPolicy policy) throws APIManagementException {
+
+        try {
+            return policyDAO.addAPIPolicy(policy);
+        } finally {
+            invalidate(PolicyConstants.POLICY_LEVEL_API, policy.getTenantDomain());
+        }
+    }
+
+    @Override
+    public APIPolicy getAPIPolicy(String policyName, String organization) throws APIManagementException {
+
+        return getPolicy(PolicyConstants.POLICY_LEVEL_API, policyName, organization,
+                () -> policyDAO.getAPIPolicy(policyName, organization));
+    }
+
+    @Override
+    public void addApplicationPolicy(ApplicationPolicy policy) throws APIManagementException {
+
+        try {
+            policyDAO.addApplicationPolicy(policy);
+        } finally {
+            invalidate(PolicyConstants.POLICY_LEVEL_APP, policy.getTenantDomain());
+        }
+    }
+
+    @Override
+    public ApplicationPolicy getApplicationPolicy(String policyName, String organization)
+            throws APIManagementException {
+
+        return getPolicy(PolicyConstants.POLICY_LEVEL_APP, policyName, organization,
+                () -> policyDAO.getApplicationPolicy(policyName, organization));
+    }
+
+    @Override
+    public void addSubscriptionPolicy(SubscriptionPolicy policy) throws APIManagementException {
+
+        try {
+            policyDAO.addSubscriptionPolicy(policy);
+        } finally {
+            invalidate(PolicyConstants.POLICY_LEVEL_SUB, policy.getTenantDomain());
+        }
+    }
+
+    @Override
+    public SubscriptionPolicy getSubscriptionPolicy(String policyName, String organization)
+            throws APIManagementException {
+
+        return getPolicy(PolicyConstants.POLICY_LEVEL_SUB, policyName, organization,
+                () -> policyDAO.getSubscriptionPolicy(policyName, organization));
+    }
+
+    @Override
+    public APIPolicy updateAPIPolicy(APIPolicy policy) throws APIManagementException {
+
+        try {
+            return policyDAO.updateAPIPolicy(policy);
+        } finally {
+            invalidate(PolicyConstants.POLICY_LEVEL_API, policy.getTenantDomain());
+        }
+    }
+
+    @Override
+    public void updateApplicationPolicy(ApplicationPolicy policy) throws APIManagementException {
+
+        try {
+            policyDAO.updateApplicationPolicy(policy);
+        } finally {
+            invalidate(PolicyConstants.POLICY_LEVEL_APP, policy.getTenantDomain());
+        }
+    }
+
+    @Override
+    public void updateSubscriptionPolicy(SubscriptionPolicy policy) throws APIManagementException {
+
+        try {
+            policyDAO.updateSubscriptionPolicy(policy);
+        } finally {
+            invalidate(PolicyConstants.POLICY_LEVEL_SUB, policy.getTenantDomain());
+        }
+    }
+
+    @Override
+    public String[] getPolicyNames(String policyLevel, String username) throws APIManagementException {
+
+        return policyDAO.getPolicyNames(policyLevel, username);
+    }
+
+    @Override
+    public void removeThrottlePolicy(String policyLevel, String policyName, String organization)
+            throws APIManagementException {
+
+        try {
+            policyDAO.removeThrottlePolicy(policyLevel, policyName, organization);
+        } finally {
+            invalidate(policyLevel, organization);
+        }
+    }
+
+    @Override
+    public boolean hasApplicationPolicyAttachedToApplication(String policyName, String organization)
+            throws APIManagementException {
+
+        return policyDAO.hasApplicationPolicyAttachedToApplication(policyName, organization);
+    }
+
+    @Override
+    public boolean hasSubscriptionPolicyAttached(String policyName, String organization)
+            throws APIManagementException {
+
+        return policyDAO.hasSubscriptionPolicyAttached(policyName, organization);
+    }
+
+    @Override
+    public boolean hasAPIPolicyAttached(String policyName, String organization) throws APIManagementException {
+
+        return policyDAO.hasAPIPolicyAttached(policyName, organization);
+    }
+
+    @Override
+    public APIPolicy getAPIPolicyByUUID(String uuid) throws APIManagementException {
+
+        return policyDAO.getAPIPolicyByUUID(uuid);
+    }
+
+    @Override
+    public ApplicationPolicy getApplicationPolicyByUUID(String uuid) throws APIManagementException {
+
+        return policyDAO.getApplicationPolicyByUUID(uuid);
+    }
+
+    @Override
+    public SubscriptionPolicy getSubscriptionPolicyByUUID(String uuid) throws APIManagementException {
+
+        return policyDAO.getSubscriptionPolicyByUUID(uuid);
+    }
+
+    @Override
+    public APIPolicy[] getAPIPolicies(String organization) throws APIManagementException {
+
+        return getPolicies(PolicyConstants.POLICY_LEVEL_API, organization,
+                () -> policyDAO.getAPIPolicies(organization));
+    }
+
+    @Override
+    public ApplicationPolicy[] getApplicationPolicies(String organization) throws APIManagementException {
+
+        return getPolicies(PolicyConstants.POLICY_LEVEL_APP, organization,
+                () -> policyDAO.getApplicationPolicies(organization));
+    }
+
+    @Override
+    public SubscriptionPolicy[] getSubscriptionPolicies(String organization) throws APIManagementException {
+
+        return getPolicies(PolicyConstants.POLICY_LEVEL_SUB, organization,
+                () -> policyDAO.getSubscriptionPolicies(organization));
+    }
+
+    /**
+     * Drops the cached policies of the given level of an organization.
+     *
+     * @param policyLevel  policy level
+     * @param organization organization of the policies
+     */
+    public void invalidate(String policyLevel, String organization) {
+
+        if (organization == null) {
+            return;
+        }
+        Cache<String, PolicyCacheEntry> cache = getCache();
+        String cacheKey = getCacheKey(policyLevel, organization);
+        cache.remove(cacheKey);
+        invalidations.increment();
+        TransactionContext transactionContext = TransactionContext.getCurrent();
+        if (transactionContext != null) {
+            // Policies read by other threads before the transaction commits are still the old ones
+            transactionContext.afterCompletion(() -> cache.remove(cacheKey));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Invalidated cached " + policyLevel + " policies of organization " + organization);
+        }
+    }
+
+    /**
+     * Drops the cached policies of all the levels of an organization.
+     *
+     * @param organization organization of the policies
+     */
+    public void invalidate(String organization) {
+
+        invalidate(PolicyConstants.POLICY_LEVEL_API, organization);
+        invalidate(PolicyConstants.POLICY_LEVEL_APP, organization);
+        invalidate(PolicyConstants.POLICY_LEVEL_SUB, organization);
+    }
+
+    /**
+     * @return number of policy reads served from the cache
+     */
+    public long getCacheHits() {
+
+        return hits.getValue();
+    }
+
+    /**
+     * @return number of policy reads served from the database
+     */
+    public long getCacheMisses() {
+
+        return misses.getValue();
+    }
+
+    /**
+     * @return ratio of policy reads served from the cache, between 0 and 1
+     */
+    public double getHitRatio() {
+
+        long hitCount = hits.getValue();
+        long total = hitCount + misses.getValue();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return number of times cached policies of an organization and level were dropped
+     */
+    public long getInvalidations() {
+
+        return invalidations.getValue();
+    }
+
+    /**
+     * @return average age in milliseconds of the policies served from the cache
+     */
+    public long getAverageStaleness() {
+
+        long hitCount = hits.getValue();
+        return hitCount == 0 ? 0 : totalStaleness.sum() / hitCount;
+    }
+
+    /**
+     * @return maximum age in milliseconds of a policy served from the cache
+     */
+    public long getMaxStaleness() {
+
+        return maxStaleness.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Policy> T[] getPolicies(String policyLevel, String organization, PolicyLoader<T[]> loader)
+            throws APIManagementException {
+
+        if (!APIUtil.isPolicyCacheEnabled() || organization == null) {
+            return loader.load();
+        }
+        PolicyCacheEntry entry = getCacheEntry(policyLevel, organization);
+        CachedValue cachedPolicies = entry.policies;
+        if (cachedPolicies != null) {
+            recordHit(cachedPolicies);
+            return copy((T[]) cachedPolicies.value);
+        }
+        misses.increment();
+        T[] policies = loader.load();
+        if (policies != null) {
+            entry.policies = new CachedValue(copy(policies));
+        }
+        return policies;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Policy> T getPolicy(String policyLevel, String policyName, String organization,
+                                           PolicyLoader<T> loader) throws APIManagementException {
+
+        if (!APIUtil.isPolicyCacheEnabled() || organization == null || policyName == null) {
+            return loader.load();
+        }
+        PolicyCacheEntry entry = getCacheEntry(policyLevel, organization);
+        CachedValue cachedPolicy = entry.policiesByName.get(policyName);
+        if (cachedPolicy != null) {
+            recordHit(cachedPolicy);
+            return SerializationUtils.clone((T) cachedPolicy.value);
+        }
+        misses.increment();
+        T policy = loader.load();
+        if (policy != null) {
+            entry.policiesByName.put(policyName, new CachedValue(SerializationUtils.clone(policy)));
+        }
+        return policy;
+    }
+
+    /**
+     * Returns the cache entry of the given level of an organization, creating it if needed. The entry is placed in the
+     * cache before the database is read, so an invalidation that happens while a read is in progress detaches the
+     * entry and the result of that read is never served again.
+     */
+    private PolicyCacheEntry getCacheEntry(String policyLevel, String organization) {
+
+        Cache<String, PolicyCacheEntry> cache = getCache();
+        String cacheKey = getCacheKey(policyLevel, organization);
+        PolicyCacheEntry entry = cache.get(cacheKey);
+        if (entry == null) {
+            PolicyCacheEntry newEntry = new PolicyCacheEntry();
+            if (cache.putIfAbsent(cacheKey, newEntry)) {
+                entry = newEntry;
+            } else {
+                entry = cache.get(cacheKey);
+                if (entry == null) {
+                    entry = newEntry;
+                }
+            }
+        }
+        return entry;
+    }
+
+    private void recordHit(CachedValue cachedValue) {
+
+        long staleness = System.currentTimeMillis() - cachedValue.loadedTime;
+        hits.increment();
+        totalStaleness.add(staleness);
+        maxStaleness.accumulate(staleness);
+    }
+
+    /**
+     * Copies the policies, including the pipelines, conditions and limits they hold.
+     */
+    private static <T extends Policy> T[] copy(T[] policies) {
+
+        T[] copies = policies.clone();
+        for (int i = 0; i < copies.length; i++) {
+            if (copies[i] != null) {
+                copies[i] = SerializationUtils.clone(copies[i]);
+            }
+        }
+        return copies;
+    }
+
+    private static Cache<String, PolicyCacheEntry> getCache() {
+
+        return CacheProvider.getPolicyCache();
+    }
+
+    private static String getCacheKey(String policyLevel, String organization) {
+
+        return policyLevel + ':' + organization;
+    }
+
+    /**
+     * Loads policies from the underlying DAO.
+     */
+    private interface PolicyLoader<T> {
+
+        T load() throws APIManagementException;
+    }
+
+    /**
+     * Cached policies of a level of an organization.
+     */
+    private static final class PolicyCacheEntry {
+
+        private volatile CachedValue policies;
+        private final Map<String, CachedValue> policiesByName = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * A cached value along with the time it was read from the database.
+     */
+    private static final class CachedValue {
+
+        private final Object value;
+        private final long loadedTime = System.currentTimeMillis();
+
+        private CachedValue(Object value) {
+
+            this.value = value;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.apk.apimgt.impl.utils.APIMgtDBUtil;
+import org.wso2.apk.apimgt.impl.utils.JsonCodecRegistry;
 import org.wso2.apk.apimgt.api.APIManagementException;
 import org.wso2.apk.apimgt.api.ErrorHandler;
 import org.wso2.apk.apimgt.api.ExceptionCodes;
@@ -44,6 +45,7 @@ import java.util.Map;
 
 public class KeyManagerDAOImpl implements KeyManagerDAO {
     private static final Log log = LogFactory.getLog(KeyManagerDAOImpl.class);
+    private static final Gson gson = JsonCodecRegistry.getInstance().getGson();
     private static KeyManagerDAOImpl INSTANCE = new KeyManagerDAOImpl();
 
     private KeyManagerDAOImpl() {
@@ -89,7 +91,7 @@ public class KeyManagerDAOImpl implements KeyManagerDAO {
                     keyManagerConfigurationDTO.setExternalReferenceId(resultSet.getString("EXTERNAL_REFERENCE_ID"));
                     try (InputStream configuration = resultSet.getBinaryStream("CONFIGURATION")) {
                         String configurationContent = IOUtils.toString(configuration);
-                        Map map = new Gson().fromJson(configurationContent, Map.class);
+                        Map map = gson.fromJson(configurationContent, Map.class);
                         keyManagerConfigurationDTO.setAdditionalProperties(map);
                     } catch (IOException e) {
                         log.error("Error while converting configurations in " + uuid, e);
@@ -126,7 +128,7 @@ public class KeyManagerDAOImpl implements KeyManagerDAO {
                     keyManagerConfigurationDTO.setExternalReferenceId(resultSet.getString("EXTERNAL_REFERENCE_ID"));
                     try (InputStream configuration = resultSet.getBinaryStream("CONFIGURATION")) {
                         String configurationContent = IOUtils.toString(configuration);
-                        Map map = new Gson().fromJson(configurationContent, Map.class);
+                        Map map = gson.fromJson(configurationContent, Map.class);
                         keyManagerConfigurationDTO.setAdditionalProperties(map);
                     } catch (IOException e) {
                         log.error("Error while converting configurations in " + uuid, e);
@@ -165,7 +167,7 @@ public class KeyManagerDAOImpl implements KeyManagerDAO {
                     keyManagerConfigurationDTO.setExternalReferenceId(resultSet.getString("EXTERNAL_REFERENCE_ID"));
                     try (InputStream configuration = resultSet.getBinaryStream("CONFIGURATION")) {
                         String configurationContent = IOUtils.toString(configuration);
-                        Map map = new Gson().fromJson(configurationContent, Map.class);
+                        Map map = gson.fromJson(configurationContent, Map.class);
                         keyManagerConfigurationDTO.setAdditionalProperties(map);
                     }
                     return keyManagerConfigurationDTO;
@@ -254,7 +256,7 @@ public class KeyManagerDAOImpl implements KeyManagerDAO {
                 preparedStatement.setString(2, keyManagerConfigurationDTO.getName());
                 preparedStatement.setString(3, keyManagerConfigurationDTO.getDescription());
                 preparedStatement.setString(4, keyManagerConfigurationDTO.getType());
-                String configurationJson = new Gson().toJson(keyManagerConfigurationDTO.getAdditionalProperties());
+                String configurationJson = gson.toJson(keyManagerConfigurationDTO.getAdditionalProperties());
                 preparedStatement.setBinaryStream(5, new ByteArrayInputStream(configurationJson.getBytes()));
                 preparedStatement.setString(6, keyManagerConfigurationDTO.getOrganization());
                 preparedStatement.setBoolean(7, keyManagerConfigurationDTO.isEnabled());
@@ -308,7 +310,7 @@ public class KeyManagerDAOImpl implements KeyManagerDAO {
                     keyManagerConfigurationDTO.setExternalReferenceId(resultSet.getString("EXTERNAL_REFERENCE_ID"));
                     try (InputStream configuration = resultSet.getBinaryStream("CONFIGURATION")) {
                         String configurationContent = IOUtils.toString(configuration);
-                        Map map = new Gson().fromJson(configurationContent, Map.class);
+                        Map map = gson.fromJson(configurationContent, Map.class);
                         keyManagerConfigurationDTO.setAdditionalProperties(map);
                     }
                     return keyManagerConfigurationDTO;
@@ -329,7 +331,7 @@ public class KeyManagerDAOImpl implements KeyManagerDAO {
                 preparedStatement.setString(1, keyManagerConfigurationDTO.getName());
                 preparedStatement.setString(2, keyManagerConfigurationDTO.getDescription());
                 preparedStatement.setString(3, keyManagerConfigurationDTO.getType());
-                String configurationJson = new Gson().toJson(keyManagerConfigurationDTO.getAdditionalProperties());
+                String configurationJson = gson.toJson(keyManagerConfigurationDTO.getAdditionalProperties());
                 preparedStatement.setBinaryStream(4, new ByteArrayInputStream(configurationJson.getBytes()));
                 preparedStatement.setString(5, keyManagerConfigurationDTO.getOrganization());
                 preparedStatement.setBoolean(6, keyManagerConfigurationDTO.isEnabled());
@@ -419,7 +421,7 @@ public class KeyManagerDAOImpl implements KeyManagerDAO {
                     keyManagerConfigurationDTO.setExternalReferenceId(resultSet.getString("EXTERNAL_REFERENCE_ID"));
                     try (InputStream configuration = resultSet.getBinaryStream("CONFIGURATION")) {
                         String configurationContent = IOUtils.toString(configuration);
-                        Map map = new Gson().fromJson(configurationContent, Map.class);
+                        Map map = gson.fromJson(configurationContent, Map.class);
                         keyManagerConfigurationDTO.setAdditionalProperties(map);
                     }
                     return keyManagerConfigurationDTO;
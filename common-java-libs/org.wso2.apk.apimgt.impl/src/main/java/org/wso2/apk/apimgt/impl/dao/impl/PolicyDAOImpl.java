@@ -760,7 +760,7 @@ public class PolicyDAOImpl implements PolicyDAO {
                 policy = new APIPolicy(resultSet.getString(ThrottlePolicyConstants.COLUMN_NAME));
                 setCommonPolicyDetails(policy, resultSet);
                 policy.setUserLevel(resultSet.getString(ThrottlePolicyConstants.COLUMN_APPLICABLE_LEVEL));
-                policy.setPipelines(getPipelines(policy.getPolicyId()));
+                policy.setPipelines(getPipelines(connection, policy.getPolicyId()));
             }
         } catch (SQLException e) {
             handleExceptionWithCode("Failed to get api policy: " + policyName + '-' + organization, e,
@@ -772,241 +772,223 @@ public class PolicyDAOImpl implements PolicyDAO {
     }
 
     /**
-     * Retrieves list of pipelines for the policy with policy Id: <code>policyId</code>
+     * Retrieves list of pipelines for the policy with policy Id: <code>policyId</code> using the given connection.
      *
-     * @param policyId policy id of the pipelines
+     * @param connection connection to the database
+     * @param policyId   policy id of the pipelines
      * @return list of pipelines
-     * @throws APIManagementException
+     * @throws SQLException
      */
-    private ArrayList<Pipeline> getPipelines(int policyId) throws APIManagementException {
+    private List<Pipeline> getPipelines(Connection connection, int policyId) throws SQLException {
 
-        Connection connection = null;
-        PreparedStatement pipelinesStatement = null;
-        ResultSet resultSet = null;
-        ArrayList<Pipeline> pipelines = new ArrayList<Pipeline>();
+        List<Pipeline> pipelines = getPipelines(connection, PipelineQueries.BY_POLICY, policyId).get(policyId);
+        return pipelines != null ? pipelines : new ArrayList<Pipeline>();
+    }
 
-        try {
-            connection = APIMgtDBUtil.getConnection();
-            pipelinesStatement = connection.prepareStatement(SQLConstants.ThrottleSQLConstants.GET_PIPELINES_SQL);
-            int unitTime = 0;
-            int quota = 0;
-            int pipelineId = -1;
-            String timeUnit = null;
-            String quotaUnit = null;
-            String description;
-            pipelinesStatement.setInt(1, policyId);
-            resultSet = pipelinesStatement.executeQuery();
-
-            while (resultSet.next()) {
-                Pipeline pipeline = new Pipeline();
-                ArrayList<Condition> conditions = null;
-                QuotaPolicy quotaPolicy = new QuotaPolicy();
-                quotaPolicy.setType(resultSet.getString(ThrottlePolicyConstants.COLUMN_QUOTA_POLICY_TYPE));
-                timeUnit = resultSet.getString(ThrottlePolicyConstants.COLUMN_TIME_UNIT);
-                quotaUnit = resultSet.getString(ThrottlePolicyConstants.COLUMN_QUOTA_UNIT);
-                unitTime = resultSet.getInt(ThrottlePolicyConstants.COLUMN_UNIT_TIME);
-                quota = resultSet.getInt(ThrottlePolicyConstants.COLUMN_QUOTA);
-                pipelineId = resultSet.getInt(ThrottlePolicyConstants.COLUMN_CONDITION_ID);
-                description = resultSet.getString(ThrottlePolicyConstants.COLUMN_DESCRIPTION);
-                if (PolicyConstants.REQUEST_COUNT_TYPE.equals(quotaPolicy.getType())) {
-                    RequestCountLimit requestCountLimit = new RequestCountLimit();
-                    requestCountLimit.setUnitTime(unitTime);
-                    requestCountLimit.setTimeUnit(timeUnit);
-                    requestCountLimit.setRequestCount(quota);
-                    quotaPolicy.setLimit(requestCountLimit);
-                } else if (PolicyConstants.BANDWIDTH_TYPE.equals(quotaPolicy.getType())) {
-                    BandwidthLimit bandwidthLimit = new BandwidthLimit();
-                    bandwidthLimit.setUnitTime(unitTime);
-                    bandwidthLimit.setTimeUnit(timeUnit);
-                    bandwidthLimit.setDataUnit(quotaUnit);
-                    bandwidthLimit.setDataAmount(quota);
-                    quotaPolicy.setLimit(bandwidthLimit);
-                }
+    /**
+     * Retrieves the pipelines of all the API policies of an organization using the given connection.
+     *
+     * @param connection   connection to the database
+     * @param organization organization of the policies
+     * @return map of pipeline lists against the policy id
+     * @throws SQLException
+     */
+    private Map<Integer, List<Pipeline>> getPipelines(Connection connection, String organization)
+            throws SQLException {
 
-                conditions = getConditions(pipelineId);
-                pipeline.setConditions(conditions);
-                pipeline.setQuotaPolicy(quotaPolicy);
-                pipeline.setId(pipelineId);
-                pipeline.setDescription(description);
-                pipelines.add(pipeline);
-            }
-        } catch (SQLException e) {
-            handleExceptionWithCode("Failed to get pipelines for policyId: " + policyId, e,
-                    ExceptionCodes.APIMGT_DAO_EXCEPTION);
-        } finally {
-            APIMgtDBUtil.closeAllConnections(pipelinesStatement, connection, resultSet);
-        }
-        return pipelines;
+        return getPipelines(connection, PipelineQueries.BY_ORGANIZATION, organization);
     }
 
-
     /**
-     * Retrieves list of Conditions for a pipeline specified by <code>pipelineId</code>
+     * Loads the pipelines selected by the given queries along with their conditions. Condition groups and each
+     * condition type are fetched with a single query each and joined to their pipelines in memory, so the number of
+     * queries does not depend on the number of policies or pipelines.
      *
-     * @param pipelineId pipeline Id with conditions to retrieve
-     * @return list of Conditions for a pipeline
-     * @throws APIManagementException
+     * @param connection connection to the database
+     * @param queries    queries used to select the pipelines and their conditions
+     * @param parameter  value of the single parameter of the queries
+     * @return map of pipeline lists against the policy id
+     * @throws SQLException
      */
-    private ArrayList<Condition> getConditions(int pipelineId) throws APIManagementException {
-
-        Connection connection = null;
-        PreparedStatement conditionsStatement = null;
-        ResultSet resultSet = null;
-        ArrayList<Condition> conditions = new ArrayList<Condition>();
-        String startingIP = null;
-        String endingIP = null;
-        String specificIP = null;
-        boolean invert;
-        try {
-            connection = APIMgtDBUtil.getConnection();
-            conditionsStatement = connection.prepareStatement(SQLConstants.ThrottleSQLConstants.GET_IP_CONDITIONS_SQL);
-            conditionsStatement.setInt(1, pipelineId);
-            resultSet = conditionsStatement.executeQuery();
-
-            while (resultSet.next()) {
-                startingIP = resultSet.getString(ThrottlePolicyConstants.COLUMN_STARTING_IP);
-                endingIP = resultSet.getString(ThrottlePolicyConstants.COLUMN_ENDING_IP);
-                specificIP = resultSet.getString(ThrottlePolicyConstants.COLUMN_SPECIFIC_IP);
-                invert = resultSet.getBoolean(ThrottlePolicyConstants.COLUMN_WITHIN_IP_RANGE);
-
-                if (specificIP != null && !"".equals(specificIP)) {
-                    IPCondition ipCondition = new IPCondition(PolicyConstants.IP_SPECIFIC_TYPE);
-                    ipCondition.setSpecificIP(specificIP);
-                    ipCondition.setInvertCondition(invert);
-                    conditions.add(ipCondition);
-                } else if (startingIP != null && !"".equals(startingIP)) {
-
-                     /*
-                     Assumes availability of starting ip means ip range is enforced.
-                     Therefore availability of ending ip is not checked.
-                    */
-                    IPCondition ipRangeCondition = new IPCondition(PolicyConstants.IP_RANGE_TYPE);
-                    ipRangeCondition.setStartingIP(startingIP);
-                    ipRangeCondition.setEndingIP(endingIP);
-                    ipRangeCondition.setInvertCondition(invert);
-                    conditions.add(ipRangeCondition);
+    private Map<Integer, List<Pipeline>> getPipelines(Connection connection, PipelineQueries queries,
+                                                      Object parameter) throws SQLException {
+
+        Map<Integer, List<Pipeline>> policyPipelines = new HashMap<>();
+        Map<Integer, Pipeline> pipelines = new HashMap<>();
+        try (PreparedStatement pipelinesStatement = connection.prepareStatement(queries.pipelinesQuery)) {
+            pipelinesStatement.setObject(1, parameter);
+            try (ResultSet resultSet = pipelinesStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    Pipeline pipeline = toPipeline(resultSet);
+                    pipelines.put(pipeline.getId(), pipeline);
+                    policyPipelines.computeIfAbsent(resultSet.getInt(ThrottlePolicyConstants.COLUMN_POLICY_ID),
+                            policyId -> new ArrayList<>()).add(pipeline);
                 }
             }
-            setHeaderConditions(pipelineId, conditions);
-            setQueryParameterConditions(pipelineId, conditions);
-            setJWTClaimConditions(pipelineId, conditions);
-        } catch (SQLException e) {
-            handleExceptionWithCode("Failed to get conditions for pipelineId: " + pipelineId, e,
-                    ExceptionCodes.APIMGT_DAO_EXCEPTION);
-        } finally {
-            APIMgtDBUtil.closeAllConnections(conditionsStatement, connection, resultSet);
         }
-        return conditions;
+        if (!pipelines.isEmpty()) {
+            // Keep the condition order of a pipeline as IP, header, query parameter and JWT claim conditions.
+            addConditions(connection, queries.ipConditionsQuery, parameter, pipelines, this::toIPCondition);
+            addConditions(connection, queries.headerConditionsQuery, parameter, pipelines, this::toHeaderCondition);
+            addConditions(connection, queries.queryParameterConditionsQuery, parameter, pipelines,
+                    this::toQueryParameterCondition);
+            addConditions(connection, queries.jwtClaimConditionsQuery, parameter, pipelines,
+                    this::toJWTClaimsCondition);
+        }
+        return policyPipelines;
     }
 
-
     /**
-     * Add Header conditions of pipeline with pipeline Id: <code>pipelineId</code> to a
-     * provided {@link Condition} array
+     * Adds the conditions returned by the given query to their pipelines.
      *
-     * @param pipelineId Id of the pipeline
-     * @param conditions condition array to populate
-     * @throws APIManagementException
+     * @param connection connection to the database
+     * @param sqlQuery   query returning the conditions along with their condition group id
+     * @param parameter  value of the single parameter of the query
+     * @param pipelines  pipelines against their id
+     * @param mapper     mapper creating a condition from a row
+     * @throws SQLException
      */
-    private void setHeaderConditions(int pipelineId, ArrayList<Condition> conditions) throws APIManagementException {
-
-        Connection connection = null;
-        PreparedStatement conditionsStatement = null;
-        ResultSet resultSet = null;
-
-        try {
-            connection = APIMgtDBUtil.getConnection();
-            conditionsStatement =
-                    connection.prepareStatement(SQLConstants.ThrottleSQLConstants.GET_HEADER_CONDITIONS_SQL);
-            conditionsStatement.setInt(1, pipelineId);
-            resultSet = conditionsStatement.executeQuery();
-
-            while (resultSet.next()) {
-                HeaderCondition headerCondition = new HeaderCondition();
-                headerCondition.setHeader(resultSet.getString(ThrottlePolicyConstants.COLUMN_HEADER_FIELD_NAME));
-                headerCondition.setValue(resultSet.getString(ThrottlePolicyConstants.COLUMN_HEADER_FIELD_VALUE));
-                headerCondition.setInvertCondition(resultSet.getBoolean(ThrottlePolicyConstants.COLUMN_IS_HEADER_FIELD_MAPPING));
-                conditions.add(headerCondition);
+    private void addConditions(Connection connection, String sqlQuery, Object parameter,
+                               Map<Integer, Pipeline> pipelines, ConditionMapper mapper) throws SQLException {
+
+        try (PreparedStatement conditionsStatement = connection.prepareStatement(sqlQuery)) {
+            conditionsStatement.setObject(1, parameter);
+            try (ResultSet resultSet = conditionsStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    Pipeline pipeline = pipelines.get(resultSet.getInt(ThrottlePolicyConstants.COLUMN_CONDITION_ID));
+                    Condition condition = mapper.map(resultSet);
+                    if (pipeline != null && condition != null) {
+                        pipeline.getConditions().add(condition);
+                    }
+                }
             }
-        } catch (SQLException e) {
-            handleExceptionWithCode("Failed to get header conditions for pipelineId: " + pipelineId, e,
-                    ExceptionCodes.APIMGT_DAO_EXCEPTION);
-        } finally {
-            APIMgtDBUtil.closeAllConnections(conditionsStatement, connection, resultSet);
         }
     }
 
-    /**
-     * Add Query parameter conditions of pipeline with pipeline Id: <code>pipelineId</code> to a
-     * provided {@link Condition} array
-     *
-     * @param pipelineId Id of the pipeline
-     * @param conditions condition array to populate
-     * @throws APIManagementException
-     */
-    private void setQueryParameterConditions(int pipelineId, ArrayList<Condition> conditions)
-            throws APIManagementException {
+    private Pipeline toPipeline(ResultSet resultSet) throws SQLException {
 
-        Connection connection = null;
-        PreparedStatement conditionsStatement = null;
-        ResultSet resultSet = null;
+        Pipeline pipeline = new Pipeline();
+        QuotaPolicy quotaPolicy = new QuotaPolicy();
+        quotaPolicy.setType(resultSet.getString(ThrottlePolicyConstants.COLUMN_QUOTA_POLICY_TYPE));
+        String timeUnit = resultSet.getString(ThrottlePolicyConstants.COLUMN_TIME_UNIT);
+        String quotaUnit = resultSet.getString(ThrottlePolicyConstants.COLUMN_QUOTA_UNIT);
+        int unitTime = resultSet.getInt(ThrottlePolicyConstants.COLUMN_UNIT_TIME);
+        int quota = resultSet.getInt(ThrottlePolicyConstants.COLUMN_QUOTA);
+        if (PolicyConstants.REQUEST_COUNT_TYPE.equals(quotaPolicy.getType())) {
+            RequestCountLimit requestCountLimit = new RequestCountLimit();
+            requestCountLimit.setUnitTime(unitTime);
+            requestCountLimit.setTimeUnit(timeUnit);
+            requestCountLimit.setRequestCount(quota);
+            quotaPolicy.setLimit(requestCountLimit);
+        } else if (PolicyConstants.BANDWIDTH_TYPE.equals(quotaPolicy.getType())) {
+            BandwidthLimit bandwidthLimit = new BandwidthLimit();
+            bandwidthLimit.setUnitTime(unitTime);
+            bandwidthLimit.setTimeUnit(timeUnit);
+            bandwidthLimit.setDataUnit(quotaUnit);
+            bandwidthLimit.setDataAmount(quota);
+            quotaPolicy.setLimit(bandwidthLimit);
+        }
+        pipeline.setConditions(new ArrayList<Condition>());
+        pipeline.setQuotaPolicy(quotaPolicy);
+        pipeline.setId(resultSet.getInt(ThrottlePolicyConstants.COLUMN_CONDITION_ID));
+        pipeline.setDescription(resultSet.getString(ThrottlePolicyConstants.COLUMN_DESCRIPTION));
+        return pipeline;
+    }
 
-        try {
-            connection = APIMgtDBUtil.getConnection();
-            conditionsStatement =
-                    connection.prepareStatement(SQLConstants.ThrottleSQLConstants.GET_QUERY_PARAMETER_CONDITIONS_SQL);
-            conditionsStatement.setInt(1, pipelineId);
-            resultSet = conditionsStatement.executeQuery();
-
-            while (resultSet.next()) {
-                QueryParameterCondition queryParameterCondition = new QueryParameterCondition();
-                queryParameterCondition
-                        .setParameter(resultSet.getString(ThrottlePolicyConstants.COLUMN_PARAMETER_NAME));
-                queryParameterCondition.setValue(resultSet.getString(ThrottlePolicyConstants.COLUMN_PARAMETER_VALUE));
-                queryParameterCondition.setInvertCondition(resultSet.getBoolean(ThrottlePolicyConstants.COLUMN_IS_PARAM_MAPPING));
-                conditions.add(queryParameterCondition);
-            }
-        } catch (SQLException e) {
-            handleExceptionWithCode("Failed to get query parameter conditions for pipelineId: " + pipelineId, e,
-                    ExceptionCodes.APIMGT_DAO_EXCEPTION);
-        } finally {
-            APIMgtDBUtil.closeAllConnections(conditionsStatement, connection, resultSet);
+    private Condition toIPCondition(ResultSet resultSet) throws SQLException {
+
+        String startingIP = resultSet.getString(ThrottlePolicyConstants.COLUMN_STARTING_IP);
+        String endingIP = resultSet.getString(ThrottlePolicyConstants.COLUMN_ENDING_IP);
+        String specificIP = resultSet.getString(ThrottlePolicyConstants.COLUMN_SPECIFIC_IP);
+        boolean invert = resultSet.getBoolean(ThrottlePolicyConstants.COLUMN_WITHIN_IP_RANGE);
+
+        if (specificIP != null && !"".equals(specificIP)) {
+            IPCondition ipCondition = new IPCondition(PolicyConstants.IP_SPECIFIC_TYPE);
+            ipCondition.setSpecificIP(specificIP);
+            ipCondition.setInvertCondition(invert);
+            return ipCondition;
+        } else if (startingIP != null && !"".equals(startingIP)) {
+            /*
+             Assumes availability of starting ip means ip range is enforced.
+             Therefore availability of ending ip is not checked.
+            */
+            IPCondition ipRangeCondition = new IPCondition(PolicyConstants.IP_RANGE_TYPE);
+            ipRangeCondition.setStartingIP(startingIP);
+            ipRangeCondition.setEndingIP(endingIP);
+            ipRangeCondition.setInvertCondition(invert);
+            return ipRangeCondition;
         }
+        return null;
+    }
+
+    private Condition toHeaderCondition(ResultSet resultSet) throws SQLException {
+
+        HeaderCondition headerCondition = new HeaderCondition();
+        headerCondition.setHeader(resultSet.getString(ThrottlePolicyConstants.COLUMN_HEADER_FIELD_NAME));
+        headerCondition.setValue(resultSet.getString(ThrottlePolicyConstants.COLUMN_HEADER_FIELD_VALUE));
+        headerCondition.setInvertCondition(
+                resultSet.getBoolean(ThrottlePolicyConstants.COLUMN_IS_HEADER_FIELD_MAPPING));
+        return headerCondition;
+    }
+
+    private Condition toQueryParameterCondition(ResultSet resultSet) throws SQLException {
+
+        QueryParameterCondition queryParameterCondition = new QueryParameterCondition();
+        queryParameterCondition.setParameter(resultSet.getString(ThrottlePolicyConstants.COLUMN_PARAMETER_NAME));
+        queryParameterCondition.setValue(resultSet.getString(ThrottlePolicyConstants.COLUMN_PARAMETER_VALUE));
+        queryParameterCondition.setInvertCondition(
+                resultSet.getBoolean(ThrottlePolicyConstants.COLUMN_IS_PARAM_MAPPING));
+        return queryParameterCondition;
+    }
+
+    private Condition toJWTClaimsCondition(ResultSet resultSet) throws SQLException {
+
+        JWTClaimsCondition jwtClaimsCondition = new JWTClaimsCondition();
+        jwtClaimsCondition.setClaimUrl(resultSet.getString(ThrottlePolicyConstants.COLUMN_CLAIM_URI));
+        jwtClaimsCondition.setAttribute(resultSet.getString(ThrottlePolicyConstants.COLUMN_CLAIM_ATTRIBUTE));
+        jwtClaimsCondition.setInvertCondition(resultSet.getBoolean(ThrottlePolicyConstants.COLUMN_IS_CLAIM_MAPPING));
+        return jwtClaimsCondition;
     }
 
     /**
-     * Add JWT claim conditions of pipeline with pipeline Id: <code>pipelineId</code> to a
-     * provided {@link Condition} array
-     *
-     * @param pipelineId Id of the pipeline
-     * @param conditions condition array to populate
-     * @throws APIManagementException
+     * Creates a {@link Condition} from the current row of a result set.
      */
-    private void setJWTClaimConditions(int pipelineId, ArrayList<Condition> conditions) throws APIManagementException {
+    private interface ConditionMapper {
 
-        Connection connection = null;
-        PreparedStatement conditionsStatement = null;
-        ResultSet resultSet = null;
+        Condition map(ResultSet resultSet) throws SQLException;
+    }
 
-        try {
-            connection = APIMgtDBUtil.getConnection();
-            conditionsStatement =
-                    connection.prepareStatement(SQLConstants.ThrottleSQLConstants.GET_JWT_CLAIM_CONDITIONS_SQL);
-            conditionsStatement.setInt(1, pipelineId);
-            resultSet = conditionsStatement.executeQuery();
-
-            while (resultSet.next()) {
-                JWTClaimsCondition jwtClaimsCondition = new JWTClaimsCondition();
-                jwtClaimsCondition.setClaimUrl(resultSet.getString(ThrottlePolicyConstants.COLUMN_CLAIM_URI));
-                jwtClaimsCondition.setAttribute(resultSet.getString(ThrottlePolicyConstants.COLUMN_CLAIM_ATTRIBUTE));
-                jwtClaimsCondition.setInvertCondition(resultSet.getBoolean(ThrottlePolicyConstants.COLUMN_IS_CLAIM_MAPPING));
-                conditions.add(jwtClaimsCondition);
-            }
-        } catch (SQLException e) {
-            handleExceptionWithCode("Failed to get jwt claim conditions for pipelineId: " + pipelineId, e,
-                    ExceptionCodes.APIMGT_DAO_EXCEPTION);
-        } finally {
-            APIMgtDBUtil.closeAllConnections(conditionsStatement, connection, resultSet);
+    /**
+     * Queries used to load pipelines and their conditions, either of a single policy or of all the API policies of
+     * an organization.
+     */
+    private enum PipelineQueries {
+
+        BY_POLICY(SQLConstants.ThrottleSQLConstants.GET_PIPELINES_BY_POLICY_SQL,
+                SQLConstants.ThrottleSQLConstants.GET_IP_CONDITIONS_BY_POLICY_SQL,
+                SQLConstants.ThrottleSQLConstants.GET_HEADER_CONDITIONS_BY_POLICY_SQL,
+                SQLConstants.ThrottleSQLConstants.GET_QUERY_PARAMETER_CONDITIONS_BY_POLICY_SQL,
+                SQLConstants.ThrottleSQLConstants.GET_JWT_CLAIM_CONDITIONS_BY_POLICY_SQL),
+        BY_ORGANIZATION(SQLConstants.ThrottleSQLConstants.GET_PIPELINES_BY_ORGANIZATION_SQL,
+                SQLConstants.ThrottleSQLConstants.GET_IP_CONDITIONS_BY_ORGANIZATION_SQL,
+                SQLConstants.ThrottleSQLConstants.GET_HEADER_CONDITIONS_BY_ORGANIZATION_SQL,
+                SQLConstants.ThrottleSQLConstants.GET_QUERY_PARAMETER_CONDITIONS_BY_ORGANIZATION_SQL,
+                SQLConstants.ThrottleSQLConstants.GET_JWT_CLAIM_CONDITIONS_BY_ORGANIZATION_SQL);
+
+        private final String pipelinesQuery;
+        private final String ipConditionsQuery;
+        private final String headerConditionsQuery;
+        private final String queryParameterConditionsQuery;
+        private final String jwtClaimConditionsQuery;
+
+        PipelineQueries(String pipelinesQuery, String ipConditionsQuery, String headerConditionsQuery,
+                        String queryParameterConditionsQuery, String jwtClaimConditionsQuery) {
+
+            this.pipelinesQuery = pipelinesQuery;
+            this.ipConditionsQuery = ipConditionsQuery;
+            this.headerConditionsQuery = headerConditionsQuery;
+            this.queryParameterConditionsQuery = queryParameterConditionsQuery;
+            this.jwtClaimConditionsQuery = jwtClaimConditionsQuery;
         }
     }
 
@@ -1521,7 +1503,7 @@ public class PolicyDAOImpl implements PolicyDAO {
                 policy = new APIPolicy(resultSet.getString(ThrottlePolicyConstants.COLUMN_NAME));
                 setCommonPolicyDetails(policy, resultSet);
                 policy.setUserLevel(resultSet.getString(ThrottlePolicyConstants.COLUMN_APPLICABLE_LEVEL));
-                policy.setPipelines(getPipelines(policy.getPolicyId()));
+                policy.setPipelines(getPipelines(connection, policy.getPolicyId()));
             }
         } catch (SQLException e) {
             handleExceptionWithCode("Failed to get api policy: " + uuid, e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
@@ -1648,9 +1630,15 @@ public class PolicyDAOImpl implements PolicyDAO {
                 APIPolicy apiPolicy = new APIPolicy(rs.getString(ThrottlePolicyConstants.COLUMN_NAME));
                 setCommonPolicyDetails(apiPolicy, rs);
                 apiPolicy.setUserLevel(rs.getString(ThrottlePolicyConstants.COLUMN_APPLICABLE_LEVEL));
-
                 policies.add(apiPolicy);
             }
+            if (!policies.isEmpty()) {
+                Map<Integer, List<Pipeline>> pipelines = getPipelines(conn, organization);
+                for (APIPolicy apiPolicy : policies) {
+                    List<Pipeline> policyPipelines = pipelines.get(apiPolicy.getPolicyId());
+                    apiPolicy.setPipelines(policyPipelines != null ? policyPipelines : new ArrayList<Pipeline>());
+                }
+            }
         } catch (SQLException e) {
             handleExceptionWithCode("Error while executing SQL", e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
         } finally {
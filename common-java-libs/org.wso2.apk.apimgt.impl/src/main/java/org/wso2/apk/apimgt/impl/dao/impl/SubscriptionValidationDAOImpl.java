@@ -0,0 +1,513 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.dao.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.ExceptionCodes;
+import org.wso2.apk.apimgt.api.ResultConsumer;
+import org.wso2.apk.apimgt.api.model.policy.BandwidthLimit;
+import org.wso2.apk.apimgt.api.model.policy.EventCountLimit;
+import org.wso2.apk.apimgt.api.model.policy.PolicyConstants;
+import org.wso2.apk.apimgt.api.model.policy.QuotaPolicy;
+import org.wso2.apk.apimgt.api.model.policy.RequestCountLimit;
+import org.wso2.apk.apimgt.api.model.subscription.APIPolicy;
+import org.wso2.apk.apimgt.api.model.subscription.APIPolicyConditionGroup;
+import org.wso2.apk.apimgt.api.model.subscription.Application;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationKeyMapping;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationPolicy;
+import org.wso2.apk.apimgt.api.model.subscription.Policy;
+import org.wso2.apk.apimgt.api.model.subscription.Subscription;
+import org.wso2.apk.apimgt.api.model.subscription.SubscriptionPolicy;
+import org.wso2.apk.apimgt.impl.ThrottlePolicyConstants;
+import org.wso2.apk.apimgt.impl.dao.SubscriptionValidationDAO;
+import org.wso2.apk.apimgt.impl.dao.constants.SubscriptionValidationSQLConstants;
+import org.wso2.apk.apimgt.impl.dto.SubscriptionDataChangeDTO;
+import org.wso2.apk.apimgt.impl.utils.APIMgtDBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SubscriptionValidationDAOImpl implements SubscriptionValidationDAO {
+
+    private static final Log log = LogFactory.getLog(SubscriptionValidationDAOImpl.class);
+    private static final SubscriptionValidationDAOImpl INSTANCE = new SubscriptionValidationDAOImpl();
+    private static final int FETCH_SIZE = 1000;
+
+    private SubscriptionValidationDAOImpl() {
+
+    }
+
+    public static SubscriptionValidationDAOImpl getInstance() {
+
+        return INSTANCE;
+    }
+
+    @Override
+    public int getApplications(String organization, ResultConsumer<Application> consumer)
+            throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_APPLICATIONS_BY_ORGANIZATION_SQL,
+                "applications", organization,
+                statement -> statement.setString(1, organization),
+                resultSet -> readApplications(resultSet, consumer));
+    }
+
+    @Override
+    public int getApplications(String organization, Collection<Integer> applicationIds,
+            ResultConsumer<Application> consumer) throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_APPLICATIONS_BY_ORGANIZATION_AND_ID_SQL,
+                "applications", organization,
+                statement -> bindIds(statement, organization, "integer", applicationIds),
+                resultSet -> readApplications(resultSet, consumer));
+    }
+
+    @Override
+    public int getSubscriptions(String organization, ResultConsumer<Subscription> consumer)
+            throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_ORGANIZATION_SUBSCRIPTIONS_SQL,
+                "subscriptions", organization,
+                statement -> statement.setString(1, organization),
+                resultSet -> readSubscriptions(resultSet, consumer));
+    }
+
+    @Override
+    public int getSubscriptions(String organization, Collection<Integer> subscriptionIds,
+            ResultConsumer<Subscription> consumer) throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_ORGANIZATION_SUBSCRIPTIONS_BY_ID_SQL,
+                "subscriptions", organization,
+                statement -> bindIds(statement, organization, "integer", subscriptionIds),
+                resultSet -> readSubscriptions(resultSet, consumer));
+    }
+
+    @Override
+    public int getApplicationKeyMappings(String organization, ResultConsumer<ApplicationKeyMapping> consumer)
+            throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_ORGANIZATION_AM_KEY_MAPPING_SQL,
+                "application key mappings", organization,
+                statement -> statement.setString(1, organization),
+                resultSet -> readApplicationKeyMappings(resultSet, consumer));
+    }
+
+    @Override
+    public int getApplicationKeyMappings(String organization, Collection<String> consumerKeys,
+            ResultConsumer<ApplicationKeyMapping> consumer) throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_ORGANIZATION_AM_KEY_MAPPING_BY_CONSUMER_KEY_SQL,
+                "application key mappings", organization,
+                statement -> bindIds(statement, organization, "varchar", consumerKeys),
+                resultSet -> readApplicationKeyMappings(resultSet, consumer));
+    }
+
+    @Override
+    public int getSubscriptionPolicies(String organization, ResultConsumer<SubscriptionPolicy> consumer)
+            throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_ORGANIZATION_SUBSCRIPTION_POLICIES_SQL,
+                "subscription policies", organization,
+                statement -> statement.setString(1, organization),
+                resultSet -> readSubscriptionPolicies(resultSet, consumer));
+    }
+
+    @Override
+    public int getSubscriptionPolicies(String organization, Collection<Integer> policyIds,
+            ResultConsumer<SubscriptionPolicy> consumer) throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_ORGANIZATION_SUBSCRIPTION_POLICIES_BY_ID_SQL,
+                "subscription policies", organization,
+                statement -> bindIds(statement, organization, "integer", policyIds),
+                resultSet -> readSubscriptionPolicies(resultSet, consumer));
+    }
+
+    @Override
+    public int getApplicationPolicies(String organization, ResultConsumer<ApplicationPolicy> consumer)
+            throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_ORGANIZATION_APPLICATION_POLICIES_SQL,
+                "application policies", organization,
+                statement -> statement.setString(1, organization),
+                resultSet -> readApplicationPolicies(resultSet, consumer));
+    }
+
+    @Override
+    public int getApplicationPolicies(String organization, Collection<Integer> policyIds,
+            ResultConsumer<ApplicationPolicy> consumer) throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_ORGANIZATION_APPLICATION_POLICIES_BY_ID_SQL,
+                "application policies", organization,
+                statement -> bindIds(statement, organization, "integer", policyIds),
+                resultSet -> readApplicationPolicies(resultSet, consumer));
+    }
+
+    @Override
+    public int getAPIPolicies(String organization, ResultConsumer<APIPolicy> consumer)
+            throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_ORGANIZATION_API_POLICIES_SQL,
+                "API policies", organization,
+                statement -> statement.setString(1, organization),
+                resultSet -> readAPIPolicies(resultSet, consumer));
+    }
+
+    @Override
+    public int getAPIPolicies(String organization, Collection<Integer> policyIds,
+            ResultConsumer<APIPolicy> consumer) throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_ORGANIZATION_API_POLICIES_BY_ID_SQL,
+                "API policies", organization,
+                statement -> bindIds(statement, organization, "integer", policyIds),
+                resultSet -> readAPIPolicies(resultSet, consumer));
+    }
+
+    @Override
+    public long getSettledChangeId(int settleSeconds) throws APIManagementException {
+
+        return APIMgtDBUtil.executeInTransaction(() -> {
+            Connection connection = null;
+            PreparedStatement preparedStatement = null;
+            ResultSet resultSet = null;
+            try {
+                connection = APIMgtDBUtil.getConnection();
+                preparedStatement = connection.prepareStatement(
+                        SubscriptionValidationSQLConstants.GET_SETTLED_SUBSCRIPTION_DATA_CHANGE_ID_SQL);
+                preparedStatement.setInt(1, settleSeconds);
+                resultSet = preparedStatement.executeQuery();
+                return resultSet.next() ? resultSet.getLong("CHANGE_ID") : 0L;
+            } catch (SQLException e) {
+                String msg = "Failed to get the latest subscription data change";
+                log.error(msg, e);
+                throw new APIManagementException(msg, e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
+            } finally {
+                APIMgtDBUtil.closeAllConnections(preparedStatement, connection, resultSet);
+            }
+        });
+    }
+
+    @Override
+    public int getChanges(String organization, long changeId, int settleSeconds,
+                          ResultConsumer<SubscriptionDataChangeDTO> consumer) throws APIManagementException {
+
+        return read(SubscriptionValidationSQLConstants.GET_SUBSCRIPTION_DATA_CHANGES_SQL, "subscription data changes",
+                organization, statement -> {
+                    statement.setInt(1, settleSeconds);
+                    statement.setLong(2, changeId);
+                    statement.setString(3, organization);
+                }, resultSet -> {
+                    int count = 0;
+                    while (resultSet.next()) {
+                        SubscriptionDataChangeDTO change = new SubscriptionDataChangeDTO();
+                        change.setChangeId(resultSet.getLong("CHANGE_ID"));
+                        change.setEntityId(resultSet.getInt("ENTITY_ID"));
+                        change.setEntityKey(resultSet.getString("ENTITY_KEY"));
+                        change.setSettled(resultSet.getBoolean("SETTLED"));
+                        try {
+                            change.setEntityType(
+                                    SubscriptionDataChangeDTO.EntityType.valueOf(resultSet.getString("ENTITY_TYPE")));
+                        } catch (IllegalArgumentException e) {
+                            log.warn("Skipping subscription data change " + change.getChangeId()
+                                    + " of unknown entity type " + resultSet.getString("ENTITY_TYPE"));
+                        }
+                        consumer.accept(change);
+                        count++;
+                    }
+                    return count;
+                });
+    }
+
+    @Override
+    public int deleteChanges(int retentionSeconds) throws APIManagementException {
+
+        Connection connection = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = APIMgtDBUtil.getConnection();
+            connection.setAutoCommit(true);
+            preparedStatement = connection.prepareStatement(
+                    SubscriptionValidationSQLConstants.DELETE_SUBSCRIPTION_DATA_CHANGES_SQL);
+            preparedStatement.setInt(1, retentionSeconds);
+            return preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            String msg = "Failed to delete the subscription data changes";
+            log.error(msg, e);
+            throw new APIManagementException(msg, e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
+        } finally {
+            APIMgtDBUtil.closeAllConnections(preparedStatement, connection, null);
+        }
+    }
+
+    private int read(String query, String entities, String organization, StatementBinder binder,
+                     ResultSetReader reader) throws APIManagementException {
+
+        // a transaction disables auto commit, which lets the driver fetch the rows in batches through a cursor
+        return APIMgtDBUtil.executeInTransaction(() -> {
+            Connection connection = null;
+            PreparedStatement preparedStatement = null;
+            ResultSet resultSet = null;
+            try {
+                connection = APIMgtDBUtil.getConnection();
+                preparedStatement = connection.prepareStatement(query);
+                preparedStatement.setFetchSize(FETCH_SIZE);
+                binder.bind(preparedStatement);
+                resultSet = preparedStatement.executeQuery();
+                int count = reader.read(resultSet);
+                if (log.isDebugEnabled()) {
+                    log.debug("Read " + count + " " + entities + " of organization " + organization);
+                }
+                return count;
+            } catch (SQLException e) {
+                String msg = "Failed to get the " + entities + " of organization " + organization;
+                log.error(msg, e);
+                throw new APIManagementException(msg, e, ExceptionCodes.APIMGT_DAO_EXCEPTION);
+            } finally {
+                APIMgtDBUtil.closeAllConnections(preparedStatement, connection, resultSet);
+            }
+        });
+    }
+
+    private static int readApplications(ResultSet resultSet, ResultConsumer<Application> consumer)
+        throws SQLException, APIManagementException {
+
+        // an application spans a row per attribute and group id
+        Map<Integer, Application> applications = new LinkedHashMap<>();
+        while (resultSet.next()) {
+            int applicationId = resultSet.getInt("APP_ID");
+            Application application = applications.get(applicationId);
+            if (application == null) {
+                application = new Application();
+                application.setId(applicationId);
+                application.setUuid(resultSet.getString("APP_UUID"));
+                application.setName(resultSet.getString("APS_NAME"));
+                application.setPolicy(resultSet.getString("TIER"));
+                application.setTokenType(resultSet.getString("TOKEN_TYPE"));
+                application.setSubName(resultSet.getString("SUB_NAME"));
+                application.setOrganization(resultSet.getString("ORGANIZATION"));
+                applications.put(applicationId, application);
+            }
+            String attributeName = resultSet.getString("ATTRIBUTE_NAME");
+            String attributeValue = resultSet.getString("ATTRIBUTE_VALUE");
+            if (attributeName != null && attributeValue != null) {
+                application.addAttribute(attributeName, attributeValue);
+            }
+            String groupId = resultSet.getString("GROUP_ID");
+            if (groupId != null) {
+                application.addGroupId(groupId);
+            }
+        }
+        for (Application application : applications.values()) {
+            consumer.accept(application);
+        }
+        return applications.size();
+    }
+
+    private static int readSubscriptions(ResultSet resultSet, ResultConsumer<Subscription> consumer)
+        throws SQLException, APIManagementException {
+
+        int count = 0;
+        while (resultSet.next()) {
+            Subscription subscription = new Subscription();
+            subscription.setSubscriptionId(resultSet.getInt("SUB_ID"));
+            subscription.setSubscriptionUUID(resultSet.getString("SUBSCRIPTION_UUID"));
+            subscription.setPolicyId(resultSet.getString("TIER"));
+            subscription.setApiId(resultSet.getInt("API_ID"));
+            subscription.setApiUUID(resultSet.getString("API_UUID"));
+            subscription.setAppId(resultSet.getInt("APP_ID"));
+            subscription.setApplicationUUID(resultSet.getString("APPLICATION_UUID"));
+            subscription.setSubscriptionState(resultSet.getString("STATUS"));
+            consumer.accept(subscription);
+            count++;
+        }
+        return count;
+    }
+
+    private static int readApplicationKeyMappings(ResultSet resultSet, ResultConsumer<ApplicationKeyMapping> consumer)
+        throws SQLException, APIManagementException {
+
+        int count = 0;
+        while (resultSet.next()) {
+            ApplicationKeyMapping keyMapping = new ApplicationKeyMapping();
+            keyMapping.setApplicationId(resultSet.getInt("APPLICATION_ID"));
+            keyMapping.setApplicationUUID(resultSet.getString("UUID"));
+            keyMapping.setConsumerKey(resultSet.getString("CONSUMER_KEY"));
+            keyMapping.setKeyType(resultSet.getString("KEY_TYPE"));
+            keyMapping.setKeyManager(resultSet.getString("KEY_MANAGER"));
+            keyMapping.setWfState(resultSet.getString("STATE"));
+            consumer.accept(keyMapping);
+            count++;
+        }
+        return count;
+    }
+
+    private static int readSubscriptionPolicies(ResultSet resultSet, ResultConsumer<SubscriptionPolicy> consumer)
+        throws SQLException, APIManagementException {
+
+        int count = 0;
+        while (resultSet.next()) {
+            SubscriptionPolicy policy = new SubscriptionPolicy();
+            policy.setId(resultSet.getInt(ThrottlePolicyConstants.COLUMN_POLICY_ID));
+            policy.setName(resultSet.getString(ThrottlePolicyConstants.COLUMN_POLICY_NAME));
+            policy.setRateLimitCount(resultSet.getInt(ThrottlePolicyConstants.COLUMN_RATE_LIMIT_COUNT));
+            policy.setRateLimitTimeUnit(
+                    resultSet.getString(ThrottlePolicyConstants.COLUMN_RATE_LIMIT_TIME_UNIT));
+            policy.setStopOnQuotaReach(
+                    resultSet.getBoolean(ThrottlePolicyConstants.COLUMN_STOP_ON_QUOTA_REACH));
+            policy.setGraphQLMaxDepth(resultSet.getInt("MAX_DEPTH"));
+            policy.setGraphQLMaxComplexity(resultSet.getInt("MAX_COMPLEXITY"));
+            setQuotaPolicy(policy, resultSet);
+            consumer.accept(policy);
+            count++;
+        }
+        return count;
+    }
+
+    private static int readApplicationPolicies(ResultSet resultSet, ResultConsumer<ApplicationPolicy> consumer)
+        throws SQLException, APIManagementException {
+
+        int count = 0;
+        while (resultSet.next()) {
+            ApplicationPolicy policy = new ApplicationPolicy();
+            policy.setId(resultSet.getInt(ThrottlePolicyConstants.COLUMN_POLICY_ID));
+            policy.setName(resultSet.getString(ThrottlePolicyConstants.COLUMN_NAME));
+            setQuotaPolicy(policy, resultSet);
+            consumer.accept(policy);
+            count++;
+        }
+        return count;
+    }
+
+    private static int readAPIPolicies(ResultSet resultSet, ResultConsumer<APIPolicy> consumer)
+        throws SQLException, APIManagementException {
+
+        // an API policy spans a row per condition group
+        Map<Integer, APIPolicy> policies = new LinkedHashMap<>();
+        while (resultSet.next()) {
+            int policyId = resultSet.getInt(ThrottlePolicyConstants.COLUMN_POLICY_ID);
+            APIPolicy policy = policies.get(policyId);
+            if (policy == null) {
+                policy = new APIPolicy();
+                policy.setId(policyId);
+                policy.setName(resultSet.getString(ThrottlePolicyConstants.COLUMN_NAME));
+                policy.setTenantDomain(resultSet.getString(ThrottlePolicyConstants.COLUMN_ORGANIZATION));
+                policy.setApplicableLevel(
+                        resultSet.getString(ThrottlePolicyConstants.COLUMN_APPLICABLE_LEVEL));
+                String quotaType =
+                        resultSet.getString(ThrottlePolicyConstants.COLUMN_DEFAULT_QUOTA_POLICY_TYPE);
+                policy.setQuotaType(quotaType);
+                policy.setQuotaPolicy(toQuotaPolicy(quotaType,
+                        resultSet.getLong(ThrottlePolicyConstants.COLUMN_DEFAULT_QUOTA),
+                        resultSet.getString(ThrottlePolicyConstants.COLUMN_DEFAULT_QUOTA_UNIT),
+                        resultSet.getInt(ThrottlePolicyConstants.COLUMN_DEFAULT_UNIT_TIME),
+                        resultSet.getString(ThrottlePolicyConstants.COLUMN_DEFAULT_TIME_UNIT)));
+                policies.put(policyId, policy);
+            }
+            int conditionGroupId = resultSet.getInt(ThrottlePolicyConstants.COLUMN_CONDITION_ID);
+            if (!resultSet.wasNull()) {
+                APIPolicyConditionGroup conditionGroup = new APIPolicyConditionGroup();
+                conditionGroup.setPolicyId(policyId);
+                conditionGroup.setConditionGroupId(conditionGroupId);
+                String quotaType = resultSet.getString(ThrottlePolicyConstants.COLUMN_QUOTA_POLICY_TYPE);
+                conditionGroup.setQuotaType(quotaType);
+                conditionGroup.setQuotaPolicy(toQuotaPolicy(quotaType,
+                        resultSet.getLong(ThrottlePolicyConstants.COLUMN_QUOTA),
+                        resultSet.getString(ThrottlePolicyConstants.COLUMN_QUOTA_UNIT),
+                        resultSet.getInt(ThrottlePolicyConstants.COLUMN_UNIT_TIME),
+                        resultSet.getString(ThrottlePolicyConstants.COLUMN_TIME_UNIT)));
+                policy.addConditionGroup(conditionGroup);
+            }
+        }
+        for (APIPolicy policy : policies.values()) {
+            consumer.accept(policy);
+        }
+        return policies.size();
+    }
+
+    private static void bindIds(PreparedStatement statement, String organization, String type, Collection<?> ids)
+            throws SQLException {
+
+        statement.setString(1, organization);
+        statement.setArray(2, statement.getConnection().createArrayOf(type, ids.toArray()));
+    }
+
+    private static void setQuotaPolicy(Policy policy, ResultSet resultSet) throws SQLException {
+
+        String quotaType = resultSet.getString(ThrottlePolicyConstants.COLUMN_QUOTA_POLICY_TYPE);
+        policy.setQuotaType(quotaType);
+        policy.setTenantDomain(resultSet.getString(ThrottlePolicyConstants.COLUMN_ORGANIZATION));
+        policy.setQuotaPolicy(toQuotaPolicy(quotaType, resultSet.getLong(ThrottlePolicyConstants.COLUMN_QUOTA),
+                resultSet.getString(ThrottlePolicyConstants.COLUMN_QUOTA_UNIT),
+                resultSet.getInt(ThrottlePolicyConstants.COLUMN_UNIT_TIME),
+                resultSet.getString(ThrottlePolicyConstants.COLUMN_TIME_UNIT)));
+    }
+
+    private static QuotaPolicy toQuotaPolicy(String quotaType, long quota, String quotaUnit, int unitTime,
+                                             String timeUnit) {
+
+        QuotaPolicy quotaPolicy = new QuotaPolicy();
+        quotaPolicy.setType(quotaType);
+        if (PolicyConstants.REQUEST_COUNT_TYPE.equalsIgnoreCase(quotaType)) {
+            RequestCountLimit requestCountLimit = new RequestCountLimit();
+            requestCountLimit.setRequestCount(quota);
+            requestCountLimit.setUnitTime(unitTime);
+            requestCountLimit.setTimeUnit(timeUnit);
+            quotaPolicy.setLimit(requestCountLimit);
+        } else if (PolicyConstants.BANDWIDTH_TYPE.equalsIgnoreCase(quotaType)) {
+            BandwidthLimit bandwidthLimit = new BandwidthLimit();
+            bandwidthLimit.setDataAmount(quota);
+            bandwidthLimit.setDataUnit(quotaUnit);
+            bandwidthLimit.setUnitTime(unitTime);
+            bandwidthLimit.setTimeUnit(timeUnit);
+            quotaPolicy.setLimit(bandwidthLimit);
+        } else if (PolicyConstants.EVENT_COUNT_TYPE.equalsIgnoreCase(quotaType)) {
+            EventCountLimit eventCountLimit = new EventCountLimit();
+            eventCountLimit.setEventCount(quota);
+            eventCountLimit.setUnitTime(unitTime);
+            eventCountLimit.setTimeUnit(timeUnit);
+            quotaPolicy.setLimit(eventCountLimit);
+        }
+        return quotaPolicy;
+    }
+
+    /**
+     * Sets the parameters of a statement.
+     */
+    @FunctionalInterface
+    private interface StatementBinder {
+
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    /**
+     * Reads the rows of a result set.
+     */
+    @FunctionalInterface
+    private interface ResultSetReader {
+
+        int read(ResultSet resultSet) throws SQLException, APIManagementException;
+    }
+}
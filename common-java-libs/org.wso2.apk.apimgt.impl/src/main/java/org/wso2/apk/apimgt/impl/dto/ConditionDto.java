@@ -19,7 +19,8 @@
 package org.wso2.apk.apimgt.impl.dto;
 
 
-import java.math.BigInteger;
+import org.wso2.apk.apimgt.api.model.policy.IPAddress;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -133,50 +134,54 @@ public class ConditionDto {
         }
     }
 
+    /**
+     * IP or IP range condition. The bounds are kept as primitive addresses so a condition is evaluated without
+     * parsing or allocating.
+     */
     public static class IPCondition {
-        private BigInteger specificIp;
-        private BigInteger startingIp;
-        private BigInteger endingIp;
+        private IPAddress specificIp;
+        private IPAddress startingIp;
+        private IPAddress endingIp;
         private boolean invert;
 
         public IPCondition() {
 
         }
 
-        public IPCondition(BigInteger specificIp, boolean invert) {
+        public IPCondition(IPAddress specificIp, boolean invert) {
 
             this.specificIp = specificIp;
             this.invert = invert;
         }
 
-        public IPCondition(BigInteger startingIp, BigInteger endingIp, boolean invert) {
+        public IPCondition(IPAddress startingIp, IPAddress endingIp, boolean invert) {
 
             this.startingIp = startingIp;
             this.endingIp = endingIp;
             this.invert = invert;
         }
 
-        public BigInteger getSpecificIp() {
+        public IPAddress getSpecificIp() {
             return specificIp;
         }
 
-        public void setSpecificIp(BigInteger specificIp) {
+        public void setSpecificIp(IPAddress specificIp) {
             this.specificIp = specificIp;
         }
 
-        public BigInteger getStartingIp() {
+        public IPAddress getStartingIp() {
             return startingIp;
         }
 
-        public void setStartingIp(BigInteger startingIp) {
+        public void setStartingIp(IPAddress startingIp) {
             this.startingIp = startingIp;
         }
 
-        public BigInteger getEndingIp() {
+        public IPAddress getEndingIp() {
             return endingIp;
         }
 
-        public void setEndingIp(BigInteger endingIp) {
+        public void setEndingIp(IPAddress endingIp) {
             this.endingIp = endingIp;
         }
 
@@ -187,5 +192,26 @@ public class ConditionDto {
         public void setInvert(boolean invert) {
             this.invert = invert;
         }
+
+        /**
+         * Evaluates the condition against an address parsed with {@link IPAddress#parse(CharSequence, long[])}.
+         *
+         * @param high high 64 bits of the address
+         * @param low  low 64 bits of the address
+         * @return true if the condition matches, taking the invert flag into account
+         */
+        public boolean matches(long high, long low) {
+
+            boolean matched;
+            if (specificIp != null) {
+                matched = specificIp.getHigh() == high && specificIp.getLow() == low;
+            } else if (startingIp != null && endingIp != null) {
+                matched = IPAddress.compare(high, low, startingIp.getHigh(), startingIp.getLow()) >= 0
+                        && IPAddress.compare(high, low, endingIp.getHigh(), endingIp.getLow()) <= 0;
+            } else {
+                matched = false;
+            }
+            return matched != invert;
+        }
     }
 }
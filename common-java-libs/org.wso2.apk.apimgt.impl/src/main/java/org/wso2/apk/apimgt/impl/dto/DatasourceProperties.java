@@ -30,6 +30,8 @@ public class DatasourceProperties {
     private long validationTimeout;
     private boolean setAutocommit;
     private String testQuery;
+    private boolean metricsEnabled = true;
+    private long slowQueryThreshold = 1000;
 
     public String getName() {
         return name;
@@ -118,4 +120,20 @@ public class DatasourceProperties {
     public void setTestQuery(String testQuery) {
         this.testQuery = testQuery;
     }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public long getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    public void setSlowQueryThreshold(long slowQueryThreshold) {
+        this.slowQueryThreshold = slowQueryThreshold;
+    }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.dto;
+
+/**
+ * Entry of the subscription data change log, naming an entity whose rows were inserted, updated or deleted. The
+ * current state of the entity is read separately.
+ */
+public class SubscriptionDataChangeDTO {
+
+    /**
+     * Types of the entities tracked by the change log. Key mappings are identified by their consumer key and the
+     * other entities by their id.
+     */
+    public enum EntityType {
+        APPLICATION,
+        SUBSCRIPTION,
+        KEY_MAPPING,
+        SUBSCRIPTION_POLICY,
+        APPLICATION_POLICY,
+        API_POLICY
+    }
+
+    private long changeId;
+    private EntityType entityType;
+    private int entityId;
+    private String entityKey;
+    private boolean settled;
+
+    public long getChangeId() {
+
+        return changeId;
+    }
+
+    public void setChangeId(long changeId) {
+
+        this.changeId = changeId;
+    }
+
+    public EntityType getEntityType() {
+
+        return entityType;
+    }
+
+    public void setEntityType(EntityType entityType) {
+
+        this.entityType = entityType;
+    }
+
+    public int getEntityId() {
+
+        return entityId;
+    }
+
+    public void setEntityId(int entityId) {
+
+        this.entityId = entityId;
+    }
+
+    public String getEntityKey() {
+
+        return entityKey;
+    }
+
+    public void setEntityKey(String entityKey) {
+
+        this.entityKey = entityKey;
+    }
+
+    /**
+     * @return true if the change is older than the settle time, so no transaction holding a lower change id can still
+     * commit
+     */
+    public boolean isSettled() {
+
+        return settled;
+    }
+
+    public void setSettled(boolean settled) {
+
+        this.settled = settled;
+    }
+}
@@ -282,6 +282,12 @@ public class ThrottleProperties {
     public static class DataPublisherPool {
         private int maxIdle = 1000;
         private int initIdleCapacity = 200;
+        // settings of the asynchronous event publishers, see org.wso2.apk.apimgt.impl.publisher.EventPublisher
+        private int bufferSize = 8192;
+        private int batchSize = 200;
+        private long flushInterval = 1000;
+        private String overflowPolicy = "drop";
+        private long maxBlockTime = 100;
 
         public int getMaxIdle() {
             return maxIdle;
@@ -298,6 +304,46 @@ public class ThrottleProperties {
         public void setInitIdleCapacity(int initIdleCapacity) {
             this.initIdleCapacity = initIdleCapacity;
         }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(long flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public String getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(String overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public long getMaxBlockTime() {
+            return maxBlockTime;
+        }
+
+        public void setMaxBlockTime(long maxBlockTime) {
+            this.maxBlockTime = maxBlockTime;
+        }
     }
 
     public static class GlobalEngineWSConnection {
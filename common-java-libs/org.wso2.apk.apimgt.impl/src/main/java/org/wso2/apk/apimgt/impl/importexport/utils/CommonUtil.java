@@ -25,7 +25,6 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import org.apache.commons.io.FileUtils;
@@ -39,6 +38,7 @@ import org.wso2.apk.apimgt.impl.APIConstants;
 import org.wso2.apk.apimgt.impl.importexport.APIImportExportException;
 import org.wso2.apk.apimgt.impl.importexport.ExportFormat;
 import org.wso2.apk.apimgt.impl.importexport.ImportExportConstants;
+import org.wso2.apk.apimgt.impl.utils.JsonCodecRegistry;
 
 import java.io.*;
 import java.nio.file.Files;
@@ -241,8 +241,7 @@ public class CommonUtil {
         ObjectMapper yamlReader = new ObjectMapper(new YAMLFactory());
         Object obj = yamlReader.readValue(yaml, Object.class);
 
-        ObjectMapper jsonWriter = new ObjectMapper();
-        return jsonWriter.writeValueAsString(obj);
+        return JsonCodecRegistry.getInstance().getWriter(Object.class).writeValueAsString(obj);
     }
 
     /**
@@ -471,7 +470,7 @@ public class CommonUtil {
     public static void writeDtoToFile(String filePath, ExportFormat exportFormat, String type, Object dtoObject)
             throws APIImportExportException, IOException {
 
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        Gson gson = JsonCodecRegistry.getInstance().getPrettyPrintingGson();
         JsonObject jsonObject = addTypeAndVersionToFile(type, ImportExportConstants.APIM_VERSION,
                 gson.toJsonTree(dtoObject));
         String jsonContent = gson.toJson(jsonObject);
@@ -492,7 +491,7 @@ public class CommonUtil {
     public static void writeDtoToFile(String filePath, ExportFormat exportFormat, String type, String rootName,
                                       Object dtoObject) throws APIImportExportException, IOException {
 
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        Gson gson = JsonCodecRegistry.getInstance().getPrettyPrintingGson();
         JsonObject jsonObject =
                 addTypeAndVersionToFile(type, ImportExportConstants.APIM_VERSION, rootName, gson.toJsonTree(dtoObject));
         String jsonContent = gson.toJson(jsonObject);
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.kmclient;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.wso2.apk.apimgt.impl.metrics.Counter;
+import org.wso2.apk.apimgt.impl.metrics.LatencyHistogram;
+import org.wso2.apk.apimgt.impl.metrics.MetricsRegistry;
+
+import java.io.IOException;
+
+/**
+ * Feign client that records the latency and the failures of the requests made by a key manager client.
+ */
+public final class InstrumentedFeignClient implements Client {
+
+    public static final String REQUEST_DURATION = "apk_km_client_request_duration_seconds";
+    public static final String REQUEST_ERRORS = "apk_km_client_request_errors_total";
+
+    private final Client client;
+    private final LatencyHistogram duration;
+    private final Counter errors;
+
+    /**
+     * @param client     client executing the requests
+     * @param keyManager name of the key manager the requests are sent to
+     * @param clientName name of the key manager client, e.g. dcr or introspection
+     */
+    public InstrumentedFeignClient(Client client, String keyManager, String clientName) {
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.client = client;
+        this.duration = registry.histogram(REQUEST_DURATION, "key_manager", keyManager, "client", clientName);
+        this.errors = registry.counter(REQUEST_ERRORS, "key_manager", keyManager, "client", clientName);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+
+        long start = System.nanoTime();
+        try {
+            Response response = client.execute(request, options);
+            if (response.status() >= 500) {
+                errors.increment();
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            duration.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.kmclient;
+
+import feign.Response;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.apk.apimgt.impl.APIConstants;
+import org.wso2.apk.apimgt.impl.caching.CacheProvider;
+import org.wso2.apk.apimgt.impl.caching.CacheStatistics;
+import org.wso2.apk.apimgt.impl.kmclient.model.IntrospectInfo;
+import org.wso2.apk.apimgt.impl.kmclient.model.IntrospectionClient;
+import org.wso2.apk.apimgt.impl.kmclient.model.RevokeClient;
+import org.wso2.apk.apimgt.impl.metrics.Counter;
+import org.wso2.apk.apimgt.impl.metrics.MetricsRegistry;
+import org.wso2.apk.apimgt.impl.utils.APIUtil;
+
+import javax.cache.Cache;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the token introspection results of the key managers, keyed by the key manager and a SHA-256 hash of the
+ * token, so tokens are never held in memory. An active result lives until the token expires or for the configured
+ * token cache expiry, whichever comes first. An inactive result is cached for a few seconds, so a burst of requests
+ * with an invalid token reaches the key manager once. Revoking a token through a cached revoke client evicts its
+ * result both before the revocation and again once the key manager has answered. Each eviction also records when the
+ * token was revoked, and an introspection that started before that does not cache its result, so it cannot leave
+ * the token cached as active.
+ * <p>
+ * Cached results are shared among callers and must not be modified.
+ */
+public final class IntrospectionCache {
+
+    public static final String CACHE_HITS = "apk_introspection_cache_hits_total";
+    public static final String CACHE_MISSES = "apk_introspection_cache_misses_total";
+    public static final String CACHE_EVICTIONS = "apk_introspection_cache_evictions_total";
+
+    private static final Log log = LogFactory.getLog(IntrospectionCache.class);
+    private static final IntrospectionCache INSTANCE = new IntrospectionCache();
+    private static final long NEGATIVE_EXPIRY_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    // an introspection outliving this is cut short by the HTTP client timeouts
+    private static final long REVOCATION_RETENTION_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    // System#nanoTime of the last revocation against the cache key of each recently revoked token
+    private final ConcurrentMap<String, Long> revocations = new ConcurrentHashMap<>();
+    private final AtomicLong nextRevocationPurge = new AtomicLong(System.nanoTime() + REVOCATION_RETENTION_NANOS);
+
+    private IntrospectionCache() {
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        hits = registry.counter(CACHE_HITS);
+        misses = registry.counter(CACHE_MISSES);
+        evictions = registry.counter(CACHE_EVICTIONS);
+    }
+
+    public static IntrospectionCache getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Wraps the introspection client of a key manager so that its results are served from the cache.
+     *
+     * @param keyManagerId        key manager UUID
+     * @param introspectionClient introspection client of the key manager
+     * @return caching introspection client
+     */
+    public IntrospectionClient wrap(String keyManagerId, IntrospectionClient introspectionClient) {
+
+        return token -> {
+            if (!APIUtil.isKeyManagerTokenCacheEnabled() || token == null) {
+                return introspectionClient.introspect(token);
+            }
+            String cacheKey = getCacheKey(keyManagerId, token);
+            Cache<String, CachedIntrospectInfo> cache = getCache();
+            CachedIntrospectInfo cached = cache.get(cacheKey);
+            long now = System.currentTimeMillis();
+            if (cached != null) {
+                if (now < cached.expiryTime) {
+                    hits.increment();
+                    return cached.introspectInfo;
+                }
+                cache.remove(cacheKey);
+                evictions.increment();
+            }
+            misses.increment();
+            long started = System.nanoTime();
+            IntrospectInfo introspectInfo = introspectionClient.introspect(token);
+            if (introspectInfo != null && !isRevokedSince(cacheKey, started)) {
+                long expiryTime = getExpiryTime(introspectInfo, now);
+                if (expiryTime > now) {
+                    CachedIntrospectInfo introspected = new CachedIntrospectInfo(introspectInfo, expiryTime);
+                    cache.put(cacheKey, introspected);
+                    // the token may have been revoked between the check and the put
+                    if (isRevokedSince(cacheKey, started)) {
+                        cache.remove(cacheKey, introspected);
+                    }
+                }
+            }
+            return introspectInfo;
+        };
+    }
+
+    /**
+     * Wraps the revoke client of a key manager so that revoking a token evicts its cached introspection result.
+     *
+     * @param keyManagerId key manager UUID
+     * @param revokeClient revoke client of the key manager
+     * @return evicting revoke client
+     */
+    public RevokeClient wrap(String keyManagerId, RevokeClient revokeClient) {
+
+        return revokeTokenInfo -> {
+            if (revokeTokenInfo == null) {
+                return revokeClient.revokeToken(null);
+            }
+            evict(keyManagerId, revokeTokenInfo.getToken());
+            Response response = revokeClient.revokeToken(revokeTokenInfo);
+            // an introspection that started before the revocation may have cached the token as active again
+            evict(keyManagerId, revokeTokenInfo.getToken());
+            return response;
+        };
+    }
+
+    /**
+     * Evicts the cached introspection result of a token, and keeps introspections of the token that are already
+     * running from caching their result.
+     *
+     * @param keyManagerId key manager UUID
+     * @param token        token
+     */
+    public void evict(String keyManagerId, String token) {
+
+        if (token == null) {
+            return;
+        }
+        String cacheKey = getCacheKey(keyManagerId, token);
+        long now = System.nanoTime();
+        revocations.put(cacheKey, now);
+        purgeRevocations(now);
+        if (getCache().remove(cacheKey)) {
+            evictions.increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Evicted the cached introspection result of a revoked token of key manager "
+                        + keyManagerId);
+            }
+        }
+    }
+
+    /**
+     * @return number of introspections served from the cache
+     */
+    public long getHits() {
+
+        return hits.getValue();
+    }
+
+    /**
+     * @return number of introspections sent to the key managers
+     */
+    public long getMisses() {
+
+        return misses.getValue();
+    }
+
+    /**
+     * Returns the number of dropped results. The {@link #CACHE_EVICTIONS} counter covers results dropped because they
+     * expired or their token was revoked, while results dropped because the cache was full are counted by the cache
+     * statistics.
+     *
+     * @return number of results dropped because they expired, their token was revoked or the cache was full
+     */
+    public long getEvictions() {
+
+        CacheStatistics statistics = CacheProvider.getCacheStatistics(APIConstants.KEY_MANAGER_INTROSPECTION_CACHE);
+        return evictions.getValue() + (statistics != null ? statistics.getCacheEvictions() : 0);
+    }
+
+    private boolean isRevokedSince(String cacheKey, long started) {
+
+        Long revoked = revocations.get(cacheKey);
+        return revoked != null && revoked - started >= 0;
+    }
+
+    private void purgeRevocations(long now) {
+
+        long nextPurge = nextRevocationPurge.get();
+        if (now - nextPurge < 0 || !nextRevocationPurge.compareAndSet(nextPurge, now + REVOCATION_RETENTION_NANOS)) {
+            return;
+        }
+        revocations.values().removeIf(revoked -> now - revoked > REVOCATION_RETENTION_NANOS);
+    }
+
+    private static long getExpiryTime(IntrospectInfo introspectInfo, long now) {
+
+        if (!introspectInfo.isActive()) {
+            return now + NEGATIVE_EXPIRY_MILLIS;
+        }
+        long maxExpiryTime = now + TimeUnit.SECONDS.toMillis(CacheProvider.getTokenCacheTimeout());
+        if (introspectInfo.getExpiry() <= 0) {
+            return maxExpiryTime;
+        }
+        return Math.min(TimeUnit.SECONDS.toMillis(introspectInfo.getExpiry()), maxExpiryTime);
+    }
+
+    private static String getCacheKey(String keyManagerId, String token) {
+
+        return keyManagerId + ':' + DigestUtils.sha256Hex(token);
+    }
+
+    private static Cache<String, CachedIntrospectInfo> getCache() {
+
+        return CacheProvider.getIntrospectionCache();
+    }
+
+    /**
+     * Introspection result along with the time it expires from the cache.
+     */
+    private static final class CachedIntrospectInfo {
+
+        private final IntrospectInfo introspectInfo;
+        private final long expiryTime;
+
+        private CachedIntrospectInfo(IntrospectInfo introspectInfo, long expiryTime) {
+
+            this.introspectInfo = introspectInfo;
+            this.expiryTime = expiryTime;
+        }
+    }
+}
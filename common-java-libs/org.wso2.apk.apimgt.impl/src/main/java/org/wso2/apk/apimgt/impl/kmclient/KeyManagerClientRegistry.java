@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.kmclient;
+
+import com.google.gson.Gson;
+import feign.Feign;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import feign.codec.ErrorDecoder;
+import feign.gson.GsonDecoder;
+import feign.gson.GsonEncoder;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.dto.KeyManagerConfigurationDTO;
+import org.wso2.apk.apimgt.impl.utils.APIUtil;
+import org.wso2.apk.apimgt.impl.utils.JsonCodecRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the clients of the key managers. The clients of a key manager are built on first use and kept against
+ * the key manager UUID, and are rebuilt only when the endpoints or credentials of the key manager change. All the
+ * clients share the pooled http clients of {@link org.wso2.apk.apimgt.impl.utils.HttpClientRegistry} and a single set
+ * of encoders and decoders, and record their latency under {@link InstrumentedFeignClient#REQUEST_DURATION}.
+ */
+public final class KeyManagerClientRegistry {
+
+    private static final Log log = LogFactory.getLog(KeyManagerClientRegistry.class);
+    private static final KeyManagerClientRegistry INSTANCE = new KeyManagerClientRegistry();
+    private static final Gson gson = JsonCodecRegistry.getInstance().getNullSerializingGson();
+    static final Encoder FORM_ENCODER = new FormEncoder();
+    private static final Encoder JSON_ENCODER = new GsonEncoder(gson);
+    private static final Decoder JSON_DECODER = new GsonDecoder(gson);
+    private static final ErrorDecoder ERROR_DECODER = new KMClientErrorDecoder();
+
+    private final Map<String, KeyManagerClients> clients = new ConcurrentHashMap<>();
+
+    private KeyManagerClientRegistry() {
+
+    }
+
+    public static KeyManagerClientRegistry getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the clients of the given key manager, building them if they do not exist or the configuration of the key
+     * manager has changed since they were built.
+     *
+     * @param configuration key manager configuration
+     * @return clients of the key manager
+     * @throws APIManagementException if an endpoint of the key manager is not a valid URL
+     */
+    public KeyManagerClients getClients(KeyManagerConfigurationDTO configuration) throws APIManagementException {
+
+        String uuid = configuration.getUuid();
+        KeyManagerClients keyManagerClients = clients.get(uuid);
+        if (keyManagerClients != null
+                && keyManagerClients.getConfigurationKey().equals(KeyManagerClients.getConfigurationKey(configuration))) {
+            return keyManagerClients;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Building clients of key manager " + configuration.getName() + " of organization "
+                    + configuration.getOrganization());
+        }
+        keyManagerClients = new KeyManagerClients(configuration, this);
+        clients.put(uuid, keyManagerClients);
+        return keyManagerClients;
+    }
+
+    /**
+     * Drops the clients of a key manager, e.g. when the key manager is deleted.
+     *
+     * @param uuid key manager UUID
+     */
+    public void remove(String uuid) {
+
+        if (uuid != null) {
+            clients.remove(uuid);
+        }
+    }
+
+    /**
+     * Returns a Feign builder for the given endpoint, backed by the shared pooled http client of the endpoint and the
+     * shared JSON codecs.
+     *
+     * @param url        endpoint URL
+     * @param keyManager name of the key manager, used as the metrics label
+     * @param clientName name of the client, used as the metrics label
+     * @return Feign builder
+     * @throws APIManagementException if the URL is not valid
+     */
+    public Feign.Builder newBuilder(String url, String keyManager, String clientName) throws APIManagementException {
+
+        return Feign.builder()
+                .client(new InstrumentedFeignClient(new ApacheFeignHttpClient(APIUtil.getHttpClient(url)),
+                        keyManager, clientName))
+                .encoder(JSON_ENCODER).decoder(JSON_DECODER).errorDecoder(ERROR_DECODER);
+    }
+}
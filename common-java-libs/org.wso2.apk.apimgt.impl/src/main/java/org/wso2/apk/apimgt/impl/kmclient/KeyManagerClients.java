@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.kmclient;
+
+import feign.Feign;
+import feign.RequestInterceptor;
+import feign.auth.BasicAuthRequestInterceptor;
+import org.apache.commons.lang3.StringUtils;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.dto.KeyManagerConfigurationDTO;
+import org.wso2.apk.apimgt.impl.APIConstants;
+import org.wso2.apk.apimgt.impl.kmclient.model.AuthClient;
+import org.wso2.apk.apimgt.impl.kmclient.model.DCRClient;
+import org.wso2.apk.apimgt.impl.kmclient.model.IntrospectionClient;
+import org.wso2.apk.apimgt.impl.kmclient.model.RevokeClient;
+import org.wso2.apk.apimgt.impl.kmclient.model.ScopeClient;
+import org.wso2.apk.apimgt.impl.kmclient.model.TenantHeaderInterceptor;
+import org.wso2.apk.apimgt.impl.kmclient.model.UserClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clients of the endpoints of a key manager, built once from the key manager configuration. A client is null if its
+ * endpoint is not configured. Instances are immutable and shared, see {@link KeyManagerClientRegistry}.
+ */
+public final class KeyManagerClients {
+
+    private static final String[] CONFIGURATION_KEYS = {
+            APIConstants.KeyManager.CLIENT_REGISTRATION_ENDPOINT, APIConstants.KeyManager.INTROSPECTION_ENDPOINT,
+            APIConstants.KeyManager.SCOPE_MANAGEMENT_ENDPOINT, APIConstants.KeyManager.REVOKE_ENDPOINT,
+            APIConstants.KeyManager.USERINFO_ENDPOINT, APIConstants.KeyManager.TOKEN_ENDPOINT,
+            APIConstants.KeyManager.USERNAME, APIConstants.KeyManager.PASSWORD};
+
+    private final String configurationKey;
+    private final DCRClient dcrClient;
+    private final IntrospectionClient introspectionClient;
+    private final ScopeClient scopeClient;
+    private final RevokeClient revokeClient;
+    private final UserClient userClient;
+    private final AuthClient authClient;
+
+    KeyManagerClients(KeyManagerConfigurationDTO configuration, KeyManagerClientRegistry registry)
+            throws APIManagementException {
+
+        Map<String, Object> properties = configuration.getAdditionalProperties();
+        String keyManager = configuration.getName();
+        List<RequestInterceptor> interceptors = new ArrayList<>();
+        if (StringUtils.isNotEmpty(configuration.getOrganization())) {
+            interceptors.add(new TenantHeaderInterceptor(configuration.getOrganization()));
+        }
+        String username = getProperty(properties, APIConstants.KeyManager.USERNAME);
+        String password = getProperty(properties, APIConstants.KeyManager.PASSWORD);
+        if (username != null && password != null) {
+            interceptors.add(new BasicAuthRequestInterceptor(username, password));
+        }
+        this.configurationKey = getConfigurationKey(configuration);
+        this.dcrClient = build(registry, keyManager, "dcr", DCRClient.class, interceptors,
+                getProperty(properties, APIConstants.KeyManager.CLIENT_REGISTRATION_ENDPOINT), false);
+        IntrospectionCache introspectionCache = IntrospectionCache.getInstance();
+        IntrospectionClient introspectionClient = build(registry, keyManager, "introspection",
+                IntrospectionClient.class, interceptors,
+                getProperty(properties, APIConstants.KeyManager.INTROSPECTION_ENDPOINT), true);
+        this.introspectionClient = introspectionClient != null
+                ? introspectionCache.wrap(configuration.getUuid(), introspectionClient) : null;
+        this.scopeClient = build(registry, keyManager, "scope", ScopeClient.class, interceptors,
+                getProperty(properties, APIConstants.KeyManager.SCOPE_MANAGEMENT_ENDPOINT), false);
+        RevokeClient revokeClient = build(registry, keyManager, "revoke", RevokeClient.class, interceptors,
+                getProperty(properties, APIConstants.KeyManager.REVOKE_ENDPOINT), false);
+        this.revokeClient = revokeClient != null
+                ? introspectionCache.wrap(configuration.getUuid(), revokeClient) : null;
+        this.userClient = build(registry, keyManager, "user", UserClient.class, interceptors,
+                getProperty(properties, APIConstants.KeyManager.USERINFO_ENDPOINT), false);
+        // credentials of the token endpoint are sent as form parameters
+        this.authClient = build(registry, keyManager, "auth", AuthClient.class, new ArrayList<>(),
+                getProperty(properties, APIConstants.KeyManager.TOKEN_ENDPOINT), true);
+    }
+
+    /**
+     * Returns a key made of the configuration the clients are built from. Clients need to be rebuilt when the key of
+     * a key manager changes.
+     *
+     * @param configuration key manager configuration
+     * @return configuration key
+     */
+    static String getConfigurationKey(KeyManagerConfigurationDTO configuration) {
+
+        StringBuilder key = new StringBuilder();
+        key.append(configuration.getName()).append('\n').append(configuration.getOrganization());
+        Map<String, Object> properties = configuration.getAdditionalProperties();
+        for (String property : CONFIGURATION_KEYS) {
+            key.append('\n').append(getProperty(properties, property));
+        }
+        return key.toString();
+    }
+
+    String getConfigurationKey() {
+
+        return configurationKey;
+    }
+
+    public DCRClient getDcrClient() {
+
+        return dcrClient;
+    }
+
+    public IntrospectionClient getIntrospectionClient() {
+
+        return introspectionClient;
+    }
+
+    public ScopeClient getScopeClient() {
+
+        return scopeClient;
+    }
+
+    public RevokeClient getRevokeClient() {
+
+        return revokeClient;
+    }
+
+    public UserClient getUserClient() {
+
+        return userClient;
+    }
+
+    public AuthClient getAuthClient() {
+
+        return authClient;
+    }
+
+    private static <T> T build(KeyManagerClientRegistry registry, String keyManager, String clientName,
+                               Class<T> type, List<RequestInterceptor> interceptors, String url, boolean formEncoded)
+            throws APIManagementException {
+
+        if (StringUtils.isEmpty(url)) {
+            return null;
+        }
+        Feign.Builder builder = registry.newBuilder(url, keyManager, clientName).requestInterceptors(interceptors);
+        if (formEncoded) {
+            builder.encoder(KeyManagerClientRegistry.FORM_ENCODER);
+        }
+        return builder.target(type, url);
+    }
+
+    private static String getProperty(Map<String, Object> properties, String key) {
+
+        if (properties == null) {
+            return null;
+        }
+        Object value = properties.get(key);
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.kmclient;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import feign.Retryer;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.ExceptionCodes;
+import org.wso2.apk.apimgt.impl.APIConstants;
+import org.wso2.apk.apimgt.impl.caching.CacheProvider;
+import org.wso2.apk.apimgt.impl.kmclient.model.OpenIDConnectDiscoveryClient;
+import org.wso2.apk.apimgt.impl.kmclient.model.OpenIdConnectConfiguration;
+import org.wso2.apk.apimgt.impl.utils.JsonCodecRegistry;
+
+import javax.cache.Cache;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cache of the OpenID Connect discovery documents, keyed by the well-known URL.
+ * <p>
+ * A document is kept for the max-age given in its Cache-Control header, or for the default cache timeout if the
+ * header has none. Once expired, the document is revalidated with a conditional request using its ETag and
+ * Last-Modified validators. Documents that are close to expiry are refreshed in the background, so readers do not wait
+ * for the identity provider. If the identity provider cannot be reached or returns an error, the last document known
+ * to be good is served for up to a day and the identity provider is retried after a short delay.
+ * <p>
+ * Returned documents are shared among callers and must not be modified.
+ */
+public final class OpenIDConnectDiscoveryCache {
+
+    private static final Log log = LogFactory.getLog(OpenIDConnectDiscoveryCache.class);
+    private static final OpenIDConnectDiscoveryCache INSTANCE = new OpenIDConnectDiscoveryCache();
+    private static final String DISCOVERY_CLIENT = "discovery";
+    private static final String CACHE_CONTROL = "Cache-Control";
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
+    private static final String MAX_AGE = "max-age=";
+    private static final String NO_CACHE = "no-cache";
+    private static final String NO_STORE = "no-store";
+    private static final int TIMEOUT_MILLIS = 5000;
+    private static final long MAX_STALENESS_SECONDS = TimeUnit.DAYS.toSeconds(1);
+    private static final long RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(30);
+    // documents are refreshed in the background during the last fifth of their lifetime
+    private static final int REFRESH_AHEAD_DIVISOR = 5;
+
+    private final Gson gson = JsonCodecRegistry.getInstance().getNullSerializingGson();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OpenIDConnectDiscoveryRefresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private OpenIDConnectDiscoveryCache() {
+
+    }
+
+    public static OpenIDConnectDiscoveryCache getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the discovery document published at the given well-known URL.
+     *
+     * @param url well-known URL
+     * @return discovery document
+     * @throws APIManagementException if the document cannot be retrieved and no earlier document is cached
+     */
+    public OpenIdConnectConfiguration getConfiguration(String url) throws APIManagementException {
+
+        DiscoveryEntry entry = getEntry(url);
+        DiscoveryDocument document = entry.document;
+        if (document != null && document.isFresh(System.nanoTime())) {
+            if (document.isDueForRefresh(System.nanoTime())) {
+                refreshInBackground(url, entry);
+            }
+            return document.configuration;
+        }
+        synchronized (entry) {
+            document = entry.document;
+            long now = System.nanoTime();
+            if (document != null && (document.isFresh(now) || now - entry.retryTime < 0)) {
+                return document.configuration;
+            }
+            try {
+                return refresh(url, entry).configuration;
+            } catch (APIManagementException e) {
+                if (document == null) {
+                    throw e;
+                }
+                entry.retryTime = now + RETRY_DELAY_NANOS;
+                log.warn("Unable to refresh the discovery document of " + url + ". Serving the cached document. "
+                        + e.getMessage());
+                return document.configuration;
+            }
+        }
+    }
+
+    /**
+     * Drops the cached discovery document of the given well-known URL.
+     *
+     * @param url well-known URL
+     */
+    public void invalidate(String url) {
+
+        getCache().remove(url);
+    }
+
+    private void refreshInBackground(String url, DiscoveryEntry entry) {
+
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                synchronized (entry) {
+                    DiscoveryDocument document = entry.document;
+                    if (document == null || document.isDueForRefresh(System.nanoTime())) {
+                        refresh(url, entry);
+                    }
+                }
+            } catch (APIManagementException e) {
+                entry.retryTime = System.nanoTime() + RETRY_DELAY_NANOS;
+                if (log.isDebugEnabled()) {
+                    log.debug("Unable to refresh the discovery document of " + url + " in the background", e);
+                }
+            } finally {
+                entry.refreshing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Retrieves the discovery document from the identity provider, revalidating the cached document if there is one.
+     * Must be called while holding the lock of the entry.
+     */
+    private DiscoveryDocument refresh(String url, DiscoveryEntry entry) throws APIManagementException {
+
+        DiscoveryDocument cached = entry.document;
+        String eTag = cached != null ? cached.eTag : null;
+        String lastModified = cached != null ? cached.lastModified : null;
+        long requestTime = System.nanoTime();
+        DiscoveryDocument document;
+        try (Response response = entry.getClient(url).getOpenIdConnectConfiguration(eTag, lastModified)) {
+            int status = response.status();
+            if (status == 304 && cached != null) {
+                document = new DiscoveryDocument(cached.configuration, response, requestTime, cached);
+            } else if (status == 200 && response.body() != null) {
+                OpenIdConnectConfiguration configuration;
+                try (Reader reader = response.body().asReader(StandardCharsets.UTF_8)) {
+                    configuration = gson.fromJson(reader, OpenIdConnectConfiguration.class);
+                }
+                if (configuration == null) {
+                    throw new APIManagementException("Empty discovery document received from " + url,
+                            ExceptionCodes.from(ExceptionCodes.INTERNAL_ERROR_WITH_SPECIFIC_MESSAGE,
+                                    "Empty discovery document received from " + url));
+                }
+                document = new DiscoveryDocument(configuration, response, requestTime, null);
+            } else {
+                String error = "Unable to retrieve the discovery document from " + url + ". Status " + status;
+                throw new APIManagementException(error,
+                        ExceptionCodes.from(ExceptionCodes.INTERNAL_ERROR_WITH_SPECIFIC_MESSAGE, error));
+            }
+        } catch (IOException | JsonParseException | FeignException e) {
+            String error = "Unable to retrieve the discovery document from " + url;
+            throw new APIManagementException(error, e,
+                    ExceptionCodes.from(ExceptionCodes.INTERNAL_ERROR_WITH_SPECIFIC_MESSAGE, error));
+        }
+        entry.document = document;
+        entry.retryTime = requestTime;
+        return document;
+    }
+
+    private DiscoveryEntry getEntry(String url) {
+
+        Cache<String, DiscoveryEntry> cache = getCache();
+        DiscoveryEntry entry = cache.get(url);
+        if (entry == null) {
+            DiscoveryEntry newEntry = new DiscoveryEntry();
+            if (cache.putIfAbsent(url, newEntry)) {
+                entry = newEntry;
+            } else {
+                entry = cache.get(url);
+                if (entry == null) {
+                    entry = newEntry;
+                }
+            }
+        }
+        return entry;
+    }
+
+    private static Cache<String, DiscoveryEntry> getCache() {
+
+        return CacheProvider.getOIDCDiscoveryCache(MAX_STALENESS_SECONDS);
+    }
+
+    private static String getHeader(Response response, String name) {
+
+        Map<String, Collection<String>> headers = response.headers();
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, Collection<String>> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey()) && header.getValue() != null
+                    && !header.getValue().isEmpty()) {
+                return String.join(",", header.getValue());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the lifetime of a document in seconds as given by the Cache-Control header of the response, or the
+     * default cache timeout if the header does not specify one.
+     */
+    private static long getMaxAge(Response response) {
+
+        String cacheControl = getHeader(response, CACHE_CONTROL);
+        if (StringUtils.isEmpty(cacheControl)) {
+            return CacheProvider.getDefaultCacheTimeout();
+        }
+        for (String directive : cacheControl.split(",")) {
+            directive = directive.trim().toLowerCase();
+            if (directive.equals(NO_CACHE) || directive.equals(NO_STORE)) {
+                return 0;
+            } else if (directive.startsWith(MAX_AGE)) {
+                try {
+                    return Math.max(0, Long.parseLong(StringUtils.strip(directive.substring(MAX_AGE.length()),
+                            "\"")));
+                } catch (NumberFormatException e) {
+                    log.debug("Invalid max-age in Cache-Control header " + cacheControl);
+                }
+            }
+        }
+        return CacheProvider.getDefaultCacheTimeout();
+    }
+
+    /**
+     * Cached discovery document of a well-known URL.
+     */
+    private static final class DiscoveryEntry {
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile DiscoveryDocument document;
+        private volatile long retryTime = System.nanoTime();
+        private OpenIDConnectDiscoveryClient client;
+
+        private OpenIDConnectDiscoveryClient getClient(String url) throws APIManagementException {
+
+            if (client == null) {
+                client = KeyManagerClientRegistry.getInstance().newBuilder(url, DISCOVERY_CLIENT, DISCOVERY_CLIENT)
+                        .options(new Request.Options(TIMEOUT_MILLIS, TIMEOUT_MILLIS))
+                        .retryer(Retryer.NEVER_RETRY)
+                        .target(OpenIDConnectDiscoveryClient.class, url);
+            }
+            return client;
+        }
+    }
+
+    /**
+     * Immutable discovery document along with its validators and lifetime.
+     */
+    private static final class DiscoveryDocument {
+
+        private final OpenIdConnectConfiguration configuration;
+        private final String eTag;
+        private final String lastModified;
+        private final long expiryTime;
+        private final long refreshTime;
+
+        private DiscoveryDocument(OpenIdConnectConfiguration configuration, Response response, long requestTime,
+                                  DiscoveryDocument revalidated) {
+
+            long maxAgeNanos = TimeUnit.SECONDS.toNanos(getMaxAge(response));
+            String responseETag = getHeader(response, ETAG);
+            String responseLastModified = getHeader(response, LAST_MODIFIED);
+            this.configuration = configuration;
+            this.eTag = responseETag == null && revalidated != null ? revalidated.eTag : responseETag;
+            this.lastModified = responseLastModified == null && revalidated != null
+                    ? revalidated.lastModified : responseLastModified;
+            this.expiryTime = requestTime + maxAgeNanos;
+            this.refreshTime = expiryTime - maxAgeNanos / REFRESH_AHEAD_DIVISOR;
+        }
+
+        private boolean isFresh(long now) {
+
+            return expiryTime - now > 0;
+        }
+
+        private boolean isDueForRefresh(long now) {
+
+            return now - refreshTime >= 0;
+        }
+    }
+}
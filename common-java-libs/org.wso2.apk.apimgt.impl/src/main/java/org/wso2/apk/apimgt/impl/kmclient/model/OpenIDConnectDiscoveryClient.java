@@ -18,10 +18,26 @@
 
 package org.wso2.apk.apimgt.impl.kmclient.model;
 
+import feign.Headers;
+import feign.Param;
 import feign.RequestLine;
+import feign.Response;
 
 public interface OpenIDConnectDiscoveryClient {
 
     @RequestLine("GET ")
     public OpenIdConnectConfiguration getOpenIdConnectConfiguration();
+
+    /**
+     * Retrieves the discovery document as a raw response so that its caching headers can be read. Validators that
+     * are null are not sent.
+     *
+     * @param ifNoneMatch     entity tag of the cached document
+     * @param ifModifiedSince last modified date of the cached document
+     * @return response, with status 304 if the cached document is still valid
+     */
+    @RequestLine("GET ")
+    @Headers({"If-None-Match: {ifNoneMatch}", "If-Modified-Since: {ifModifiedSince}"})
+    Response getOpenIdConnectConfiguration(@Param("ifNoneMatch") String ifNoneMatch,
+                                           @Param("ifModifiedSince") String ifModifiedSince);
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonically increasing counter.
+ */
+public class Counter implements Metric {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+
+    }
+
+    public void increment() {
+
+        value.increment();
+    }
+
+    public void add(long delta) {
+
+        value.add(delta);
+    }
+
+    public long getValue() {
+
+        return value.sum();
+    }
+
+    @Override
+    public String getType() {
+
+        return "counter";
+    }
+
+    @Override
+    public void write(String name, String labels, StringBuilder builder) {
+
+        builder.append(name).append(labels).append(' ').append(value.sum()).append('\n');
+    }
+
+    @Override
+    public void reset() {
+
+        value.reset();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A metric whose value is read from a supplier when the metrics are scraped.
+ */
+public class Gauge implements Metric {
+
+    private final LongSupplier supplier;
+
+    Gauge(LongSupplier supplier) {
+
+        this.supplier = supplier;
+    }
+
+    public long getValue() {
+
+        return supplier.getAsLong();
+    }
+
+    @Override
+    public String getType() {
+
+        return "gauge";
+    }
+
+    @Override
+    public void write(String name, String labels, StringBuilder builder) {
+
+        builder.append(name).append(labels).append(' ').append(supplier.getAsLong()).append('\n');
+    }
+
+    @Override
+    public void reset() {
+
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the connection pool statistics of a Hikari data source to the {@link MetricsRegistry}: active, idle and
+ * total connection counts, the number of threads waiting for a connection, connection acquire and usage times, and
+ * the number of connection timeouts.
+ */
+public class HikariMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    public static final String POOL_CONNECTIONS = "apk_db_pool_connections";
+    public static final String POOL_PENDING_THREADS = "apk_db_pool_pending_threads";
+    public static final String POOL_ACQUIRE_DURATION = "apk_db_pool_acquire_duration_seconds";
+    public static final String POOL_USAGE_DURATION = "apk_db_pool_usage_duration_seconds";
+    public static final String POOL_CREATION_DURATION = "apk_db_pool_creation_duration_seconds";
+    public static final String POOL_TIMEOUTS = "apk_db_pool_timeouts_total";
+
+    private static final String POOL = "pool";
+    private static final String STATE = "state";
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.gauge(POOL_CONNECTIONS, poolStats::getActiveConnections, POOL, poolName, STATE, "active");
+        registry.gauge(POOL_CONNECTIONS, poolStats::getIdleConnections, POOL, poolName, STATE, "idle");
+        registry.gauge(POOL_CONNECTIONS, poolStats::getTotalConnections, POOL, poolName, STATE, "total");
+        registry.gauge(POOL_CONNECTIONS, poolStats::getMaxConnections, POOL, poolName, STATE, "max");
+        registry.gauge(POOL_PENDING_THREADS, poolStats::getPendingThreads, POOL, poolName);
+        return new HikariMetricsTracker(poolName, registry);
+    }
+
+    private static final class HikariMetricsTracker implements IMetricsTracker {
+
+        private final String poolName;
+        private final LatencyHistogram acquireTime;
+        private final LatencyHistogram usageTime;
+        private final LatencyHistogram creationTime;
+        private final Counter timeouts;
+
+        private HikariMetricsTracker(String poolName, MetricsRegistry registry) {
+
+            this.poolName = poolName;
+            this.acquireTime = registry.histogram(POOL_ACQUIRE_DURATION, POOL, poolName);
+            this.usageTime = registry.histogram(POOL_USAGE_DURATION, POOL, poolName);
+            this.creationTime = registry.histogram(POOL_CREATION_DURATION, POOL, poolName);
+            this.timeouts = registry.counter(POOL_TIMEOUTS, POOL, poolName);
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+
+            creationTime.record(TimeUnit.MILLISECONDS.toNanos(connectionCreatedMillis));
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+
+            acquireTime.record(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+
+            usageTime.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+
+            timeouts.increment();
+        }
+
+        @Override
+        public void close() {
+
+            MetricsRegistry registry = MetricsRegistry.getInstance();
+            for (String state : new String[]{"active", "idle", "total", "max"}) {
+                registry.remove(POOL_CONNECTIONS, POOL, poolName, STATE, state);
+            }
+            registry.remove(POOL_PENDING_THREADS, POOL, poolName);
+        }
+    }
+}
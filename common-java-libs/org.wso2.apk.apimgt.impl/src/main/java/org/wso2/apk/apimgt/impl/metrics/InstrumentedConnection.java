@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps database connections so that the execution time of every statement is recorded against the DAO method that
+ * created the statement. Statements slower than the configured threshold are logged along with their SQL.
+ * <p>
+ * The DAO method is the closest caller in the API manager code base outside the database utilities, so existing DAO
+ * implementations are instrumented without changes.
+ */
+public final class InstrumentedConnection {
+
+    public static final String QUERY_DURATION = "apk_dao_query_duration_seconds";
+    public static final String SLOW_QUERIES = "apk_dao_slow_queries_total";
+    public static final String QUERY_ERRORS = "apk_dao_query_errors_total";
+
+    private static final Log log = LogFactory.getLog(InstrumentedConnection.class);
+    private static final String APPLICATION_PACKAGE = "org.wso2.apk.";
+    private static final String METRICS_PACKAGE = InstrumentedConnection.class.getPackage().getName() + '.';
+    private static final String DB_UTIL_CLASS = "org.wso2.apk.apimgt.impl.utils.APIMgtDBUtil";
+    private static final String TRANSACTION_CONTEXT_CLASS = "org.wso2.apk.apimgt.impl.utils.TransactionContext";
+    private static final String UNKNOWN = "unknown";
+    private static final int MAX_LOGGED_SQL_LENGTH = 1000;
+    private static final StackWalker stackWalker = StackWalker.getInstance();
+    private static final Map<String, QueryMetrics> queryMetrics = new ConcurrentHashMap<>();
+
+    private InstrumentedConnection() {
+
+    }
+
+    /**
+     * Wraps the given connection.
+     *
+     * @param connection               connection to be wrapped
+     * @param slowQueryThresholdMillis execution time above which a statement is logged, or a negative value to
+     *                                 disable logging
+     * @return instrumented connection
+     */
+    public static Connection wrap(Connection connection, long slowQueryThresholdMillis) {
+
+        long slowQueryThresholdNanos = slowQueryThresholdMillis < 0 ? Long.MAX_VALUE
+                : TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMillis);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{Connection.class},
+                new ConnectionHandler(connection, slowQueryThresholdNanos));
+    }
+
+    private static QueryMetrics getCallerMetrics() {
+
+        Optional<StackWalker.StackFrame> caller = stackWalker.walk(frames -> frames
+                .filter(frame -> isApplicationFrame(frame.getClassName()))
+                .findFirst());
+        if (!caller.isPresent()) {
+            return queryMetrics.computeIfAbsent(UNKNOWN, key -> new QueryMetrics(UNKNOWN, UNKNOWN));
+        }
+        String className = caller.get().getClassName();
+        String methodName = caller.get().getMethodName();
+        return queryMetrics.computeIfAbsent(className + '#' + methodName,
+                key -> new QueryMetrics(className.substring(className.lastIndexOf('.') + 1), methodName));
+    }
+
+    private static boolean isApplicationFrame(String className) {
+
+        return className.startsWith(APPLICATION_PACKAGE) && !className.startsWith(METRICS_PACKAGE)
+                && !className.startsWith(DB_UTIL_CLASS) && !className.startsWith(TRANSACTION_CONTEXT_CLASS);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Metrics of the statements created by a DAO method.
+     */
+    private static final class QueryMetrics {
+
+        private final String dao;
+        private final String method;
+        private final LatencyHistogram duration;
+        private final Counter slowQueries;
+        private final Counter errors;
+
+        private QueryMetrics(String dao, String method) {
+
+            MetricsRegistry registry = MetricsRegistry.getInstance();
+            this.dao = dao;
+            this.method = method;
+            this.duration = registry.histogram(QUERY_DURATION, "dao", dao, "method", method);
+            this.slowQueries = registry.counter(SLOW_QUERIES, "dao", dao, "method", method);
+            this.errors = registry.counter(QUERY_ERRORS, "dao", dao, "method", method);
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+        private final long slowQueryThresholdNanos;
+
+        private ConnectionHandler(Connection connection, long slowQueryThresholdNanos) {
+
+            this.connection = connection;
+            this.slowQueryThresholdNanos = slowQueryThresholdNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            String methodName = method.getName();
+            if ("equals".equals(methodName) && args != null && args.length == 1) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(methodName) && args == null) {
+                return System.identityHashCode(proxy);
+            }
+            Object result = InstrumentedConnection.invoke(connection, method, args);
+            if (result instanceof Statement) {
+                Class<?> statementType;
+                if (result instanceof CallableStatement) {
+                    statementType = CallableStatement.class;
+                } else if (result instanceof PreparedStatement) {
+                    statementType = PreparedStatement.class;
+                } else {
+                    statementType = Statement.class;
+                }
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class[]{statementType},
+                        new StatementHandler((Statement) result, sql, getCallerMetrics(), slowQueryThresholdNanos));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final String sql;
+        private final QueryMetrics metrics;
+        private final long slowQueryThresholdNanos;
+
+        private StatementHandler(Statement statement, String sql, QueryMetrics metrics, long slowQueryThresholdNanos) {
+
+            this.statement = statement;
+            this.sql = sql;
+            this.metrics = metrics;
+            this.slowQueryThresholdNanos = slowQueryThresholdNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            String methodName = method.getName();
+            if (!methodName.startsWith("execute")) {
+                if ("equals".equals(methodName) && args != null && args.length == 1) {
+                    return proxy == args[0];
+                } else if ("hashCode".equals(methodName) && args == null) {
+                    return System.identityHashCode(proxy);
+                }
+                return InstrumentedConnection.invoke(statement, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return InstrumentedConnection.invoke(statement, method, args);
+            } catch (Throwable e) {
+                metrics.errors.increment();
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                metrics.duration.record(elapsed);
+                if (elapsed > slowQueryThresholdNanos) {
+                    metrics.slowQueries.increment();
+                    logSlowQuery(args, elapsed);
+                }
+            }
+        }
+
+        private void logSlowQuery(Object[] args, long elapsedNanos) {
+
+            String query = sql;
+            if (query == null && args != null && args.length > 0 && args[0] instanceof String) {
+                query = (String) args[0];
+            }
+            if (query != null && query.length() > MAX_LOGGED_SQL_LENGTH) {
+                query = query.substring(0, MAX_LOGGED_SQL_LENGTH) + "...";
+            }
+            log.warn("Slow query in " + metrics.dao + '.' + metrics.method + " took "
+                    + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms: " + query);
+        }
+    }
+}
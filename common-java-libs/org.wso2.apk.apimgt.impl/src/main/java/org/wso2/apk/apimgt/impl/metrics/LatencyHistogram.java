@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram with fixed buckets ranging from a millisecond to ten seconds.
+ */
+public class LatencyHistogram implements Metric {
+
+    private static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS_MILLIS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = TimeUnit.MILLISECONDS.toNanos(BUCKET_BOUNDS_MILLIS[i]);
+        }
+    }
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_NANOS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    LatencyHistogram() {
+
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records an observed latency.
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void record(long nanos) {
+
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * @return number of recorded latencies
+     */
+    public long getCount() {
+
+        return count.sum();
+    }
+
+    /**
+     * @return average of the recorded latencies in milliseconds
+     */
+    public double getAverageMillis() {
+
+        long total = count.sum();
+        return total == 0 ? 0 : (double) sumNanos.sum() / total / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return maximum recorded latency in milliseconds
+     */
+    public double getMaxMillis() {
+
+        return (double) maxNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String getType() {
+
+        return "histogram";
+    }
+
+    @Override
+    public void write(String name, String labels, StringBuilder builder) {
+
+        long cumulative = 0;
+        String labelPrefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ',';
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += buckets[i].sum();
+            String bound = i < BUCKET_BOUNDS_MILLIS.length ? Double.toString(BUCKET_BOUNDS_MILLIS[i] / 1000.0) : "+Inf";
+            builder.append(name).append("_bucket").append(labelPrefix).append("le=\"").append(bound).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        builder.append(name).append("_sum").append(labels).append(' ')
+                .append((double) sumNanos.sum() / TimeUnit.SECONDS.toNanos(1)).append('\n');
+        builder.append(name).append("_count").append(labels).append(' ').append(count.sum()).append('\n');
+    }
+
+    @Override
+    public void reset() {
+
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sumNanos.reset();
+        maxNanos.reset();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.metrics;
+
+/**
+ * A metric held by the {@link MetricsRegistry}.
+ */
+public interface Metric {
+
+    /**
+     * @return Prometheus type of the metric
+     */
+    String getType();
+
+    /**
+     * Writes the samples of the metric in the Prometheus text exposition format.
+     *
+     * @param name    name of the metric
+     * @param labels  formatted labels of the metric, including the braces, or an empty string
+     * @param builder builder to write to
+     */
+    void write(String name, String labels, StringBuilder builder);
+
+    /**
+     * Resets the recorded values of the metric. Gauges are not affected.
+     */
+    void reset();
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * In process registry of the metrics recorded by the API manager components. Metrics are identified by a name and an
+ * optional set of labels, and can be scraped in the Prometheus text exposition format through {@link #scrape()}, which
+ * is also exposed over JMX as {@value #OBJECT_NAME}.
+ */
+public final class MetricsRegistry implements MetricsRegistryMBean {
+
+    public static final String OBJECT_NAME = "org.wso2.apk.apimgt:type=Metrics";
+
+    private static final Log log = LogFactory.getLog(MetricsRegistry.class);
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final Map<MetricKey, Metric> metrics = new ConcurrentSkipListMap<>();
+
+    private MetricsRegistry() {
+
+    }
+
+    public static MetricsRegistry getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the registry with the platform MBean server, if it is not registered already.
+     */
+    public static void registerMBean() {
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(INSTANCE, objectName);
+            }
+        } catch (JMException e) {
+            log.warn("Could not register the metrics MBean " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Returns the histogram with the given name and labels, creating it if needed.
+     *
+     * @param name   name of the metric
+     * @param labels label names and values, alternately
+     * @return histogram
+     */
+    public LatencyHistogram histogram(String name, String... labels) {
+
+        return getOrCreate(name, labels, key -> new LatencyHistogram(), LatencyHistogram.class);
+    }
+
+    /**
+     * Returns the counter with the given name and labels, creating it if needed.
+     *
+     * @param name   name of the metric
+     * @param labels label names and values, alternately
+     * @return counter
+     */
+    public Counter counter(String name, String... labels) {
+
+        return getOrCreate(name, labels, key -> new Counter(), Counter.class);
+    }
+
+    /**
+     * Registers a gauge with the given name and labels. An existing gauge with the same name and labels is replaced.
+     *
+     * @param name     name of the metric
+     * @param supplier supplier of the value of the gauge
+     * @param labels   label names and values, alternately
+     */
+    public void gauge(String name, LongSupplier supplier, String... labels) {
+
+        metrics.put(new MetricKey(name, formatLabels(labels)), new Gauge(supplier));
+    }
+
+    /**
+     * Removes the metric with the given name and labels.
+     *
+     * @param name   name of the metric
+     * @param labels label names and values, alternately
+     */
+    public void remove(String name, String... labels) {
+
+        metrics.remove(new MetricKey(name, formatLabels(labels)));
+    }
+
+    @Override
+    public String scrape() {
+
+        StringBuilder builder = new StringBuilder();
+        String currentName = null;
+        for (Map.Entry<MetricKey, Metric> entry : metrics.entrySet()) {
+            MetricKey key = entry.getKey();
+            if (!key.name.equals(currentName)) {
+                currentName = key.name;
+                builder.append("# TYPE ").append(currentName).append(' ').append(entry.getValue().getType())
+                        .append('\n');
+            }
+            entry.getValue().write(key.name, key.labels, builder);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void reset() {
+
+        for (Metric metric : metrics.values()) {
+            metric.reset();
+        }
+    }
+
+    private <T extends Metric> T getOrCreate(String name, String[] labels, Function<MetricKey, T> factory,
+                                             Class<T> type) {
+
+        Metric metric = metrics.computeIfAbsent(new MetricKey(name, formatLabels(labels)), factory);
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + metric.getType());
+        }
+        return type.cast(metric);
+    }
+
+    private static String formatLabels(String[] labels) {
+
+        if (labels == null || labels.length == 0) {
+            return "";
+        }
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels should be given as name and value pairs");
+        }
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(labels[i]).append("=\"");
+            String value = labels[i + 1] == null ? "" : labels[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    builder.append('\\').append(c);
+                } else if (c == '\n') {
+                    builder.append("\\n");
+                } else {
+                    builder.append(c);
+                }
+            }
+            builder.append('"');
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Name and formatted labels of a metric. Keys sort by name first so the samples of a metric are written together.
+     */
+    private static final class MetricKey implements Comparable<MetricKey> {
+
+        private final String name;
+        private final String labels;
+
+        private MetricKey(String name, String labels) {
+
+            this.name = name;
+            this.labels = labels;
+        }
+
+        @Override
+        public int compareTo(MetricKey other) {
+
+            int result = name.compareTo(other.name);
+            return result != 0 ? result : labels.compareTo(other.labels);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MetricKey)) {
+                return false;
+            }
+            MetricKey other = (MetricKey) o;
+            return name.equals(other.name) && labels.equals(other.labels);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return 31 * name.hashCode() + labels.hashCode();
+        }
+    }
+}
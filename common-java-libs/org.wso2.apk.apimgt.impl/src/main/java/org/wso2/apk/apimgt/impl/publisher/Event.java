@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.publisher;
+
+/**
+ * Immutable event handed to an {@link EventPublisher}. The payload is serialized by the caller, usually as JSON, so
+ * sinks only write it out.
+ */
+public final class Event {
+
+    private final String stream;
+    private final long timestamp;
+    private final String payload;
+
+    /**
+     * @param stream  name of the stream the event belongs to, e.g. audit or throttle
+     * @param payload serialized event
+     */
+    public Event(String stream, String payload) {
+
+        this(stream, System.currentTimeMillis(), payload);
+    }
+
+    public Event(String stream, long timestamp, String payload) {
+
+        this.stream = stream;
+        this.timestamp = timestamp;
+        this.payload = payload;
+    }
+
+    public String getStream() {
+
+        return stream;
+    }
+
+    /**
+     * @return time the event occurred, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+
+        return timestamp;
+    }
+
+    public String getPayload() {
+
+        return payload;
+    }
+
+    @Override
+    public String toString() {
+
+        return "Event{stream='" + stream + "', timestamp=" + timestamp + ", payload='" + payload + "'}";
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.publisher;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.apk.apimgt.impl.dto.ThrottleProperties;
+import org.wso2.apk.apimgt.impl.metrics.Counter;
+import org.wso2.apk.apimgt.impl.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes events to a sink asynchronously. Events are put into a bounded lock-free ring buffer by the calling
+ * threads and delivered to the sink in batches by a single publishing thread. A batch is delivered once it holds
+ * the configured batch size, or when the flush interval has passed since the last delivery.
+ * <p>
+ * When the buffer is full, the {@link OverflowPolicy} decides whether the event is dropped right away or the caller
+ * waits for a bounded time. Published, dropped and failed events are counted per publisher, and the number of
+ * buffered events is exported as a gauge. Events of a failed batch are written to the fallback sink, if one is set.
+ */
+public final class EventPublisher {
+
+    public static final String PUBLISHED = "apk_event_publisher_published_total";
+    public static final String DROPPED = "apk_event_publisher_dropped_total";
+    public static final String FAILED = "apk_event_publisher_failed_total";
+    public static final String BUFFERED = "apk_event_publisher_buffered_events";
+
+    private static final Log log = LogFactory.getLog(EventPublisher.class);
+    private static final String PUBLISHER = "publisher";
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10000;
+
+    private final String name;
+    private final EventSink sink;
+    private final EventSink fallbackSink;
+    private final EventRingBuffer<Event> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long maxBlockNanos;
+    private final AtomicBoolean publisherParked = new AtomicBoolean();
+    private final Counter published;
+    private final Counter dropped;
+    private final Counter failed;
+    private volatile boolean running;
+    private Thread publishingThread;
+
+    /**
+     * Creates a publisher configured by the data publisher pool settings. The publisher accepts events once it is
+     * started.
+     *
+     * @param name          name of the publisher, used in the thread name and the metric labels
+     * @param sink          sink the events are delivered to
+     * @param configuration buffer size, batch size, flush interval and overflow settings
+     */
+    public EventPublisher(String name, EventSink sink, ThrottleProperties.DataPublisherPool configuration) {
+
+        this(name, sink, null, configuration);
+    }
+
+    /**
+     * Creates a publisher configured by the data publisher pool settings, which writes the batches the sink fails to
+     * publish to a fallback sink. The fallback sink is called from the publishing thread and is not closed by the
+     * publisher.
+     *
+     * @param name          name of the publisher, used in the thread name and the metric labels
+     * @param sink          sink the events are delivered to
+     * @param fallbackSink  sink the events are written to if the sink fails, or null to drop them
+     * @param configuration buffer size, batch size, flush interval and overflow settings
+     */
+    public EventPublisher(String name, EventSink sink, EventSink fallbackSink,
+                          ThrottleProperties.DataPublisherPool configuration) {
+
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        this.name = name;
+        this.sink = sink;
+        this.fallbackSink = fallbackSink;
+        this.buffer = new EventRingBuffer<>(Math.max(configuration.getBufferSize(), 2));
+        this.batchSize = Math.max(Math.min(configuration.getBatchSize(), buffer.capacity()), 1);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(configuration.getFlushInterval(), 1));
+        this.overflowPolicy = OverflowPolicy.fromName(configuration.getOverflowPolicy(), OverflowPolicy.DROP);
+        this.maxBlockNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(configuration.getMaxBlockTime(), 0));
+        this.published = registry.counter(PUBLISHED, PUBLISHER, name);
+        this.dropped = registry.counter(DROPPED, PUBLISHER, name);
+        this.failed = registry.counter(FAILED, PUBLISHER, name);
+        registry.gauge(BUFFERED, buffer::size, PUBLISHER, name);
+    }
+
+    /**
+     * Starts the publishing thread. Does nothing if the publisher is already running.
+     */
+    public synchronized void start() {
+
+        if (running) {
+            return;
+        }
+        running = true;
+        publishingThread = new Thread(this::run, "EventPublisher-" + name);
+        publishingThread.setDaemon(true);
+        publishingThread.start();
+    }
+
+    /**
+     * Queues an event for publishing. Never blocks unless the buffer is full and the overflow policy is
+     * {@link OverflowPolicy#BLOCK}.
+     *
+     * @param event event
+     * @return true if the event was queued, false if it was dropped or the publisher is not running. False is also
+     * returned for an event queued while the publisher was stopping, which may or may not be delivered
+     */
+    public boolean publish(Event event) {
+
+        return publish(event, true);
+    }
+
+    /**
+     * Queues an event for publishing like {@link #publish(Event)}, for callers that handle the events which are not
+     * queued themselves, for example by logging them. Those events are not counted as dropped.
+     *
+     * @param event event
+     * @return true if the event was queued, false if the caller has to handle it
+     */
+    public boolean offer(Event event) {
+
+        return publish(event, false);
+    }
+
+    private boolean publish(Event event, boolean dropIfFull) {
+
+        if (!running) {
+            return false;
+        }
+        if (buffer.offer(event)) {
+            wakePublisher();
+            return isQueuedBeforeShutdown();
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            long deadline = System.nanoTime() + maxBlockNanos;
+            LockSupport.unpark(publishingThread);
+            while (running && deadline - System.nanoTime() > 0) {
+                LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                if (buffer.offer(event)) {
+                    wakePublisher();
+                    return isQueuedBeforeShutdown();
+                }
+            }
+        }
+        if (dropIfFull) {
+            dropped.increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Event buffer of publisher " + name + " is full. Dropped an event of stream "
+                        + event.getStream());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops the publisher, delivering the events buffered so far, and closes the sink. Events published while the
+     * publisher is stopping are reported as not queued.
+     */
+    public synchronized void shutdown() {
+
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(publishingThread);
+        try {
+            publishingThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+            if (publishingThread.isAlive()) {
+                log.warn("Publisher " + name + " did not deliver its buffered events within "
+                        + SHUTDOWN_TIMEOUT_MILLIS + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        MetricsRegistry.getInstance().remove(BUFFERED, PUBLISHER, name);
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+    public boolean isRunning() {
+
+        return running;
+    }
+
+    /**
+     * @return number of events waiting to be delivered
+     */
+    public int getBufferedEventCount() {
+
+        return buffer.size();
+    }
+
+    private boolean isQueuedBeforeShutdown() {
+
+        // the publishing thread drains the buffer once more after it sees the publisher stopping, so an event queued
+        // while the publisher was still running is delivered, while a later one may be left in the buffer
+        return running;
+    }
+
+    private void wakePublisher() {
+
+        // the publishing thread is woken for a full batch only, smaller batches wait for the flush interval
+        if (publisherParked.get() && buffer.size() >= batchSize && publisherParked.compareAndSet(true, false)) {
+            LockSupport.unpark(publishingThread);
+        }
+    }
+
+    private void run() {
+
+        List<Event> batch = new ArrayList<>(batchSize);
+        long nextFlush = System.nanoTime() + flushIntervalNanos;
+        while (true) {
+            boolean stopping = !running;
+            long now = System.nanoTime();
+            boolean flushDue = now - nextFlush >= 0;
+            if (flushDue) {
+                nextFlush = now + flushIntervalNanos;
+            }
+            // events are only taken out of the buffer once a batch can be delivered, so the producers can tell from
+            // the buffer alone when a full batch is waiting
+            int missing = batchSize - batch.size();
+            if (buffer.size() >= missing || flushDue || stopping) {
+                buffer.drainTo(batch, missing);
+            }
+            if (batch.size() >= batchSize || (!batch.isEmpty() && (flushDue || stopping))) {
+                deliver(batch);
+                batch.clear();
+                continue;
+            }
+            if (stopping) {
+                break;
+            }
+            publisherParked.set(true);
+            // a partial batch is only kept while the rest of it is still being written to the buffer
+            if (running && buffer.size() < batchSize - batch.size()) {
+                LockSupport.parkNanos(this, nextFlush - now);
+            }
+            publisherParked.set(false);
+        }
+        try {
+            sink.close();
+        } catch (IOException e) {
+            log.warn("Error while closing the sink of publisher " + name, e);
+        }
+    }
+
+    private void deliver(List<Event> batch) {
+
+        try {
+            sink.publish(batch);
+            published.add(batch.size());
+        } catch (IOException | RuntimeException e) {
+            failed.add(batch.size());
+            log.error("Error while publishing " + batch.size() + " events of publisher " + name, e);
+            if (fallbackSink != null) {
+                deliverToFallback(batch);
+            }
+        }
+    }
+
+    private void deliverToFallback(List<Event> batch) {
+
+        try {
+            fallbackSink.publish(batch);
+        } catch (IOException | RuntimeException e) {
+            log.error("Error while writing " + batch.size() + " events of publisher " + name + " to the fallback sink",
+                    e);
+        }
+    }
+}
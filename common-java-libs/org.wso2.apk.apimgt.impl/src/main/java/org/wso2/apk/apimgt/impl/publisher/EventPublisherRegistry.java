@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.publisher;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.apk.apimgt.impl.APIManagerConfigurationService;
+import org.wso2.apk.apimgt.impl.ConfigurationHolder;
+import org.wso2.apk.apimgt.impl.dto.ThrottleProperties;
+import org.wso2.apk.apimgt.impl.internal.ServiceReferenceHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the event publishers shared by the API manager components. A publisher is created and started on first
+ * use, configured by the DataPublisherPool settings of the throttling configuration.
+ */
+public final class EventPublisherRegistry {
+
+    public static final String AUDIT_PUBLISHER = "audit";
+
+    private static final Log log = LogFactory.getLog(EventPublisherRegistry.class);
+    private static final EventPublisherRegistry INSTANCE = new EventPublisherRegistry();
+
+    private final Map<String, EventPublisher> publishers = new ConcurrentHashMap<>();
+    private volatile boolean shutdown;
+
+    private EventPublisherRegistry() {
+
+    }
+
+    public static EventPublisherRegistry getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the publisher with the given name, creating and starting it if needed.
+     *
+     * @param name        name of the publisher
+     * @param sinkFactory creates the sink of the publisher if the publisher does not exist yet
+     * @return publisher, or null if the publishers were shut down
+     */
+    public EventPublisher getPublisher(String name, Supplier<EventSink> sinkFactory) {
+
+        return getPublisher(name, sinkFactory, null);
+    }
+
+    /**
+     * Returns the publisher with the given name, creating and starting it if needed. Batches the sink fails to publish
+     * are written to the fallback sink.
+     *
+     * @param name         name of the publisher
+     * @param sinkFactory  creates the sink of the publisher if the publisher does not exist yet
+     * @param fallbackSink sink the events are written to if the sink fails, or null to drop them
+     * @return publisher, or null if the publishers were shut down
+     */
+    public EventPublisher getPublisher(String name, Supplier<EventSink> sinkFactory, EventSink fallbackSink) {
+
+        if (shutdown) {
+            return null;
+        }
+        EventPublisher created = publishers.computeIfAbsent(name, key -> {
+            if (shutdown) {
+                return null;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Creating event publisher " + key);
+            }
+            EventPublisher publisher = new EventPublisher(key, sinkFactory.get(), fallbackSink, getConfiguration());
+            publisher.start();
+            return publisher;
+        });
+        if (created != null && shutdown) {
+            // created while the publishers were being shut down
+            publishers.remove(name, created);
+            created.shutdown();
+            return null;
+        }
+        return created;
+    }
+
+    /**
+     * Stops all the publishers, delivering their buffered events. No publishers are created afterwards, so callers
+     * handle their events themselves once the registry is shut down.
+     */
+    public void shutdownAll() {
+
+        shutdown = true;
+        for (String name : publishers.keySet()) {
+            EventPublisher publisher = publishers.remove(name);
+            if (publisher != null) {
+                publisher.shutdown();
+            }
+        }
+    }
+
+    private static ThrottleProperties.DataPublisherPool getConfiguration() {
+
+        APIManagerConfigurationService configurationService = ServiceReferenceHolder.getInstance()
+                .getAPIManagerConfigurationService();
+        ConfigurationHolder configuration = configurationService != null
+                ? configurationService.getAPIManagerConfiguration() : null;
+        if (configuration != null && configuration.getThrottleProperties() != null
+                && configuration.getThrottleProperties().getDataPublisherPool() != null) {
+            return configuration.getThrottleProperties().getDataPublisherPool();
+        }
+        return new ThrottleProperties.DataPublisherPool();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.publisher;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the events of an {@link EventPublisher}. A sink is only called from the publishing thread of its
+ * publisher, so it does not need to be thread safe.
+ */
+public interface EventSink {
+
+    /**
+     * Writes a batch of events, in the order they were published.
+     *
+     * @param events events, which must not be retained after the call returns
+     * @throws IOException if the events could not be written
+     */
+    void publish(List<Event> events) throws IOException;
+
+    /**
+     * Releases the resources of the sink. Called once the publisher has delivered its last batch.
+     *
+     * @throws IOException if the sink could not be closed
+     */
+    default void close() throws IOException {
+
+    }
+}
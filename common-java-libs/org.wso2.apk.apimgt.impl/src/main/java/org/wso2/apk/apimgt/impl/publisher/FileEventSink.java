@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.publisher;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends the payload of every event as a line to a file. The file is opened on the first batch and flushed after
+ * every batch, so a batch costs a single write to the file system.
+ */
+public final class FileEventSink implements EventSink {
+
+    private final Path file;
+    private BufferedWriter writer;
+
+    public FileEventSink(Path file) {
+
+        this.file = file;
+    }
+
+    @Override
+    public void publish(List<Event> events) throws IOException {
+
+        if (writer == null) {
+            Path directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        }
+        try {
+            for (Event event : events) {
+                writer.write(event.getPayload());
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            // the file is reopened with the next batch
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+
+        if (writer != null) {
+            BufferedWriter current = writer;
+            writer = null;
+            current.close();
+        }
+    }
+
+    public Path getFile() {
+
+        return file;
+    }
+}
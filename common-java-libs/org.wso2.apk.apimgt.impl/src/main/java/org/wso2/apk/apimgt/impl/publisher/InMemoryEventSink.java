@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.publisher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the published events in memory, for tests and for inspecting the events of a publisher. The events can be
+ * read from any thread.
+ */
+public final class InMemoryEventSink implements EventSink {
+
+    private final List<Event> events = new ArrayList<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<Event> batch) {
+
+        events.addAll(batch);
+        batchSizes.add(batch.size());
+        notifyAll();
+    }
+
+    /**
+     * @return copy of the events received so far, in the order they were published
+     */
+    public synchronized List<Event> getEvents() {
+
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * @return copy of the sizes of the batches received so far
+     */
+    public synchronized List<Integer> getBatchSizes() {
+
+        return new ArrayList<>(batchSizes);
+    }
+
+    /**
+     * Waits until the sink has received at least the given number of events.
+     *
+     * @param count         number of events
+     * @param timeoutMillis maximum time to wait
+     * @return true if the events were received in time
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public synchronized boolean awaitEvents(int count, long timeoutMillis) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (events.size() < count) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    public synchronized void clear() {
+
+        events.clear();
+        batchSizes.clear();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.publisher;
+
+import org.apache.commons.logging.Log;
+
+import java.util.List;
+
+/**
+ * Writes the payload of every event to a log at info level. It keeps events such as audit messages in the log they
+ * were written to before they were published asynchronously.
+ */
+public final class LogEventSink implements EventSink {
+
+    private final Log log;
+
+    public LogEventSink(Log log) {
+
+        this.log = log;
+    }
+
+    @Override
+    public void publish(List<Event> events) {
+
+        for (Event event : events) {
+            log.info(event.getPayload());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.publisher;
+
+/**
+ * What an {@link EventPublisher} does with an event published while its buffer is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * The event is dropped right away, so publishing never blocks.
+     */
+    DROP,
+
+    /**
+     * The publishing thread waits for space in the buffer for up to the maximum block time, and the event is
+     * dropped if none becomes available.
+     */
+    BLOCK;
+
+    /**
+     * Returns the policy with the given name, ignoring case.
+     *
+     * @param name          name of the policy
+     * @param defaultPolicy policy returned if the name is empty or unknown
+     * @return policy
+     */
+    public static OverflowPolicy fromName(String name, OverflowPolicy defaultPolicy) {
+
+        if (name != null) {
+            for (OverflowPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name.trim())) {
+                    return policy;
+                }
+            }
+        }
+        return defaultPolicy;
+    }
+}
@@ -42,17 +42,40 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Obtains access tokens from a token endpoint with the client credentials grant and caches them per set of scopes.
+ * <p>
+ * A token is served until 20 seconds before it expires. Only one request to the token endpoint is made at a time for
+ * a set of scopes, and concurrent callers that need a new token wait for it and share the result, also when the
+ * request fails. Tokens are renewed
+ * in the background during the last fifth of their lifetime, ahead of the buffer, and the current token keeps being
+ * served while the renewal is in progress.
+ */
 public class AccessTokenGenerator {
 
     private static final Log log = LogFactory.getLog(AccessTokenGenerator.class);
+    // buffer time is set to 20 seconds
+    private static final long EXPIRY_BUFFER_MILLIS = 20000;
+    // tokens are renewed in the background during the last fifth of their lifetime
+    private static final int REFRESH_AHEAD_DIVISOR = 5;
+    private static final long RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final ExecutorService REFRESH_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AccessTokenRefresher");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private String oauthUrl;
     private String consumerKey;
     private String consumerSecret;
     private String tokenEndpoint;
     private String revokeEndpoint;
-    private Map<String, AccessTokenInfo> accessTokenInfoMap = new ConcurrentHashMap<>();
+    private final Map<String, TokenEntry> tokenEntries = new ConcurrentHashMap<>();
 
     public AccessTokenGenerator(String oauthUrl, String consumerKey, String consumerSecret) {
 
@@ -73,40 +96,116 @@ public class AccessTokenGenerator {
     public String getAccessToken(String[] scopes) {
 
         String scopeHash = getScopeHash(scopes);
-        AccessTokenInfo accessTokenInfo = accessTokenInfoMap.get(scopeHash);
-        if (accessTokenInfo != null) {
-            long expiryTime = accessTokenInfo.getIssuedTime() + accessTokenInfo.getValidityPeriod();
-            // buffer time is set to 20 seconds
-            long buffer = 20000;
-            if (System.currentTimeMillis() > expiryTime) {
+        TokenEntry entry = tokenEntries.computeIfAbsent(scopeHash, key -> new TokenEntry());
+        AccessTokenInfo accessTokenInfo = entry.accessTokenInfo;
+        long now = System.currentTimeMillis();
+        if (isUsable(accessTokenInfo, now)) {
+            if (isDueForRefresh(accessTokenInfo, now) && now >= entry.retryTime) {
+                refreshInBackground(scopes, entry);
+            }
+            return accessTokenInfo.getAccessToken();
+        }
+        int failedRefreshes = entry.failedRefreshes;
+        synchronized (entry) {
+            // another caller may have generated the token while this one was waiting
+            accessTokenInfo = entry.accessTokenInfo;
+            if (isUsable(accessTokenInfo, System.currentTimeMillis())) {
+                return accessTokenInfo.getAccessToken();
+            }
+            if (entry.failedRefreshes != failedRefreshes) {
+                // a token request failed while this caller was waiting, it is not repeated for every waiting caller
                 if (log.isDebugEnabled()) {
-                    log.debug("Access token expired. New token requested");
+                    log.debug("Access token request failed while waiting for it. No new token requested");
                 }
-                accessTokenInfoMap.remove(scopeHash);
-                accessTokenInfo = generateNewAccessToken(scopes);
-                accessTokenInfoMap.put(scopeHash, accessTokenInfo);
-            } else if (buffer > (expiryTime - System.currentTimeMillis())) {
+                return null;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(accessTokenInfo != null ? "Access token expires soon. New token requested"
+                        : "No access token available for the requested scopes. New token requested");
+            }
+            accessTokenInfo = refresh(scopes, entry);
+            return accessTokenInfo != null ? accessTokenInfo.getAccessToken() : null;
+        }
+    }
+
+    private void refreshInBackground(String[] scopes, TokenEntry entry) {
+
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        String[] requestedScopes = scopes.clone();
+        REFRESH_EXECUTOR.execute(() -> {
+            boolean renewed = false;
+            try {
+                synchronized (entry) {
+                    AccessTokenInfo accessTokenInfo = entry.accessTokenInfo;
+                    if (accessTokenInfo == null || isDueForRefresh(accessTokenInfo, System.currentTimeMillis())) {
+                        if (log.isDebugEnabled()) {
+                            log.debug("Access token expires soon. Renewing the token in the background");
+                        }
+                        renewed = refresh(requestedScopes, entry) != null;
+                    } else {
+                        renewed = true;
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Error occurred when renewing the Access token in the background", e);
+            } finally {
+                // callers keep the current token and retry the renewal after a delay
+                if (!renewed) {
+                    entry.retryTime = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+                }
+                entry.refreshing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Generates a new token and stores it in the entry. Must be called while holding the lock of the entry.
+     *
+     * @return new token, or null if the token could not be generated, in which case the current token is kept
+     */
+    private AccessTokenInfo refresh(String[] scopes, TokenEntry entry) {
+
+        AccessTokenInfo accessTokenInfo = null;
+        try {
+            AccessTokenInfo current = entry.accessTokenInfo;
+            accessTokenInfo = generateNewAccessToken(scopes);
+            if (accessTokenInfo != null && current != null
+                    && StringUtils.equals(current.getAccessToken(), accessTokenInfo.getAccessToken())) {
+                // the token endpoint returned the active token again, so it is revoked to get a new one
                 if (log.isDebugEnabled()) {
-                    log.debug("Access Token will expire soon. Generated a new Token after revoking the previous");
+                    log.debug("Active access token reissued. Generating a new token after revoking it");
                 }
-                revokeAccessToken(accessTokenInfo.getAccessToken());
-                accessTokenInfoMap.remove(scopeHash);
+                revokeAccessToken(current.getAccessToken());
                 accessTokenInfo = generateNewAccessToken(scopes);
-                accessTokenInfoMap.put(scopeHash, accessTokenInfo);
+            }
+        } finally {
+            if (accessTokenInfo != null) {
+                entry.accessTokenInfo = accessTokenInfo;
+                entry.retryTime = 0;
             } else {
-                if (log.isDebugEnabled()) {
-                    log.debug("Valid Access Token already available for the provided application");
-                }
-                return accessTokenInfo.getAccessToken();
+                entry.failedRefreshes++;
             }
-        } else {
-            accessTokenInfo = generateNewAccessToken(scopes);
         }
-        if (accessTokenInfo != null) {
-            accessTokenInfoMap.put(scopeHash, accessTokenInfo);
-            return accessTokenInfo.getAccessToken();
-        }
-        return null;
+        return accessTokenInfo;
+    }
+
+    private static boolean isUsable(AccessTokenInfo accessTokenInfo, long now) {
+
+        return accessTokenInfo != null && getExpiryTime(accessTokenInfo) - EXPIRY_BUFFER_MILLIS > now;
+    }
+
+    private static boolean isDueForRefresh(AccessTokenInfo accessTokenInfo, long now) {
+
+        long refreshTime = getExpiryTime(accessTokenInfo) - EXPIRY_BUFFER_MILLIS
+                - accessTokenInfo.getValidityPeriod() / REFRESH_AHEAD_DIVISOR;
+        return now >= refreshTime;
+    }
+
+    private static long getExpiryTime(AccessTokenInfo accessTokenInfo) {
+
+        return accessTokenInfo.getIssuedTime() + accessTokenInfo.getValidityPeriod();
     }
 
     private void revokeAccessToken(String accessToken) {
@@ -142,6 +241,8 @@ public class AccessTokenGenerator {
             urlParameters.add(new BasicNameValuePair(APIConstants.TOKEN_KEY, accessToken));
             request.setEntity(new UrlEncodedFormEntity(urlParameters));
             HttpResponse httpResponse = httpClient.execute(request);
+            // release the connection back to the shared pool
+            EntityUtils.consumeQuietly(httpResponse.getEntity());
             if (httpResponse.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
                 if (log.isDebugEnabled()) {
                     log.debug("Successfully revoked the token");
@@ -160,6 +261,8 @@ public class AccessTokenGenerator {
         try {
             String tokenEndpoint;
             int serverPort;
+            // the lifetime of the token is counted from the request so that it is not overestimated
+            long requestTime = System.currentTimeMillis();
 
             URL oauthURL;
             if (StringUtils.isNotEmpty(this.tokenEndpoint)){
@@ -198,16 +301,17 @@ public class AccessTokenGenerator {
                 JSONObject response = new JSONObject(payload);
                 String accessToken = (String) response.get(APIConstants.OAUTH_RESPONSE_ACCESSTOKEN);
                 int validityPeriod = (Integer) response.get(APIConstants.OAUTH_RESPONSE_EXPIRY_TIME) * 1000;
-                long expiryTime = System.currentTimeMillis() + validityPeriod;
+                long expiryTime = requestTime + validityPeriod;
                 if (log.isDebugEnabled()) {
                     log.debug("Successfully received an access token which expires in " + expiryTime);
                 }
                 AccessTokenInfo accessTokenInfo = new AccessTokenInfo();
                 accessTokenInfo.setAccessToken(accessToken);
-                accessTokenInfo.setIssuedTime(System.currentTimeMillis());
+                accessTokenInfo.setIssuedTime(requestTime);
                 accessTokenInfo.setValidityPeriod(validityPeriod);
                 return accessTokenInfo;
             } else {
+                EntityUtils.consumeQuietly(httpResponse.getEntity());
                 log.error("Error occurred when generating a new Access token. Server responded with "
                         + httpResponse.getStatusLine().getStatusCode());
             }
@@ -224,15 +328,31 @@ public class AccessTokenGenerator {
 
     public void removeInvalidToken(String[] scopes) {
 
-        String scopeHash = getScopeHash(scopes);
-        accessTokenInfoMap.remove(scopeHash);
+        TokenEntry entry = tokenEntries.get(getScopeHash(scopes));
+        if (entry != null) {
+            entry.accessTokenInfo = null;
+        }
     }
     private String getScopeHash(String[] scopes){
-        Arrays.sort(scopes);
-        return DigestUtils.md5Hex(String.join(" ", scopes));
+        // the scopes of the caller are shared among threads, so a copy is sorted
+        String[] sortedScopes = scopes.clone();
+        Arrays.sort(sortedScopes);
+        return DigestUtils.md5Hex(String.join(" ", sortedScopes));
     }
 
     public String getAccessToken() {
         return getAccessToken(new String[]{APIConstants.OAUTH2_DEFAULT_SCOPE});
     }
+
+    /**
+     * Token of a set of scopes. The lock of the entry is held while a new token is generated.
+     */
+    private static final class TokenEntry {
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile AccessTokenInfo accessTokenInfo;
+        private volatile long retryTime;
+        // number of failed token requests, only changed while holding the lock of the entry
+        private volatile int failedRefreshes;
+    }
 }
\ No newline at end of file
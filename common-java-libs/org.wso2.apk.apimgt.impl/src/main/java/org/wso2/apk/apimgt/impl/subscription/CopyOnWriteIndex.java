@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.subscription;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash index split into segments. An {@link Editor} copies only the segments it writes to, so a new version
+ * of a large index that differs in a few entries shares most of its segments with the previous version. The number
+ * of segments grows with the index, keeping the segments small enough to be copied cheaply.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+final class CopyOnWriteIndex<K, V> {
+
+    private static final int MIN_SEGMENTS = 16;
+    private static final int MAX_SEGMENT_SIZE = 2048;
+    private static final CopyOnWriteIndex<?, ?> EMPTY = new CopyOnWriteIndex<>(emptySegments(MIN_SEGMENTS), 0);
+
+    private final Map<K, V>[] segments;
+    private final int shift;
+    private final int size;
+
+    private CopyOnWriteIndex(Map<K, V>[] segments, int size) {
+
+        this.segments = segments;
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(segments.length);
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> CopyOnWriteIndex<K, V> empty() {
+
+        return (CopyOnWriteIndex<K, V>) EMPTY;
+    }
+
+    V get(K key) {
+
+        return segments[segmentOf(key, shift)].get(key);
+    }
+
+    int size() {
+
+        return size;
+    }
+
+    void forEach(BiConsumer<? super K, ? super V> action) {
+
+        for (Map<K, V> segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    Editor<K, V> edit() {
+
+        return new Editor<>(this);
+    }
+
+    private static int segmentOf(Object key, int shift) {
+
+        // the segment is taken from the high bits so that the keys of a segment still spread over its hash table
+        return (key.hashCode() * 0x9E3779B9) >>> shift;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] emptySegments(int count) {
+
+        Map<K, V>[] segments = new Map[count];
+        Arrays.fill(segments, Collections.emptyMap());
+        return segments;
+    }
+
+    /**
+     * Writes to a copy of an index. The index it was created from is not modified. An editor is used by a single
+     * thread and must not be used after the new index is built.
+     *
+     * @param <K> type of the keys
+     * @param <V> type of the values
+     */
+    static final class Editor<K, V> {
+
+        private Map<K, V>[] segments;
+        private boolean[] copied;
+        private int shift;
+        private int size;
+
+        private Editor(CopyOnWriteIndex<K, V> index) {
+
+            this.segments = index.segments.clone();
+            this.copied = new boolean[segments.length];
+            this.shift = index.shift;
+            this.size = index.size;
+        }
+
+        V get(K key) {
+
+            return segments[segmentOf(key, shift)].get(key);
+        }
+
+        V put(K key, V value) {
+
+            V previous = writableSegment(segmentOf(key, shift)).put(key, value);
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+
+        V remove(K key) {
+
+            int segment = segmentOf(key, shift);
+            if (!segments[segment].containsKey(key)) {
+                return null;
+            }
+            V previous = writableSegment(segment).remove(key);
+            size--;
+            return previous;
+        }
+
+        CopyOnWriteIndex<K, V> build() {
+
+            if (size > segments.length * MAX_SEGMENT_SIZE) {
+                resize();
+            }
+            CopyOnWriteIndex<K, V> index = new CopyOnWriteIndex<>(segments, size);
+            segments = null;
+            copied = null;
+            return index;
+        }
+
+        private Map<K, V> writableSegment(int segment) {
+
+            if (!copied[segment]) {
+                segments[segment] = new HashMap<>(segments[segment]);
+                copied[segment] = true;
+            }
+            return segments[segment];
+        }
+
+        private void resize() {
+
+            int count = MIN_SEGMENTS;
+            while (count < size / MAX_SEGMENT_SIZE * 2 && count < (1 << 20)) {
+                count <<= 1;
+            }
+            Map<K, V>[] resized = emptySegments(count);
+            int resizedShift = Integer.SIZE - Integer.numberOfTrailingZeros(count);
+            for (Map<K, V> segment : segments) {
+                for (Map.Entry<K, V> entry : segment.entrySet()) {
+                    int target = segmentOf(entry.getKey(), resizedShift);
+                    if (resized[target].isEmpty()) {
+                        resized[target] = new HashMap<>();
+                    }
+                    resized[target].put(entry.getKey(), entry.getValue());
+                }
+            }
+            segments = resized;
+            shift = resizedShift;
+        }
+    }
+}
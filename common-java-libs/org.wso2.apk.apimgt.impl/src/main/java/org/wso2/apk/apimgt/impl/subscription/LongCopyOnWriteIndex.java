@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.subscription;
+
+import java.util.Arrays;
+
+/**
+ * {@link CopyOnWriteIndex} keyed by primitive longs. The segments are {@link LongObjectHashMap}s, so neither lookups
+ * nor edits box the keys.
+ *
+ * @param <V> type of the values
+ */
+final class LongCopyOnWriteIndex<V> {
+
+    private static final int MIN_SEGMENTS = 16;
+    private static final int MAX_SEGMENT_SIZE = 4096;
+    private static final LongObjectHashMap<?> EMPTY_SEGMENT = new LongObjectHashMap<>();
+    private static final LongCopyOnWriteIndex<?> EMPTY = new LongCopyOnWriteIndex<>(emptySegments(MIN_SEGMENTS), 0);
+
+    private final LongObjectHashMap<V>[] segments;
+    private final int shift;
+    private final int size;
+
+    private LongCopyOnWriteIndex(LongObjectHashMap<V>[] segments, int size) {
+
+        this.segments = segments;
+        this.shift = Long.SIZE - Integer.numberOfTrailingZeros(segments.length);
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> LongCopyOnWriteIndex<V> empty() {
+
+        return (LongCopyOnWriteIndex<V>) EMPTY;
+    }
+
+    V get(long key) {
+
+        return segments[segmentOf(key, shift)].get(key);
+    }
+
+    int size() {
+
+        return size;
+    }
+
+    void forEach(LongObjectHashMap.EntryConsumer<? super V> action) {
+
+        for (LongObjectHashMap<V> segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    Editor<V> edit() {
+
+        return new Editor<>(this);
+    }
+
+    private static int segmentOf(long key, int shift) {
+
+        // the segment is taken from the high bits of a multiplicative hash, the segment maps mix the keys differently
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> LongObjectHashMap<V>[] emptySegments(int count) {
+
+        LongObjectHashMap<V>[] segments = new LongObjectHashMap[count];
+        Arrays.fill(segments, EMPTY_SEGMENT);
+        return segments;
+    }
+
+    /**
+     * Writes to a copy of an index. The index it was created from is not modified. An editor is used by a single
+     * thread and must not be used after the new index is built.
+     *
+     * @param <V> type of the values
+     */
+    static final class Editor<V> {
+
+        private LongObjectHashMap<V>[] segments;
+        private boolean[] copied;
+        private int shift;
+        private int size;
+
+        private Editor(LongCopyOnWriteIndex<V> index) {
+
+            this.segments = index.segments.clone();
+            this.copied = new boolean[segments.length];
+            this.shift = index.shift;
+            this.size = index.size;
+        }
+
+        V get(long key) {
+
+            return segments[segmentOf(key, shift)].get(key);
+        }
+
+        V put(long key, V value) {
+
+            V previous = writableSegment(segmentOf(key, shift)).put(key, value);
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+
+        V remove(long key) {
+
+            int segment = segmentOf(key, shift);
+            if (!segments[segment].containsKey(key)) {
+                return null;
+            }
+            V previous = writableSegment(segment).remove(key);
+            size--;
+            return previous;
+        }
+
+        LongCopyOnWriteIndex<V> build() {
+
+            if (size > segments.length * MAX_SEGMENT_SIZE) {
+                resize();
+            }
+            LongCopyOnWriteIndex<V> index = new LongCopyOnWriteIndex<>(segments, size);
+            segments = null;
+            copied = null;
+            return index;
+        }
+
+        private LongObjectHashMap<V> writableSegment(int segment) {
+
+            if (!copied[segment]) {
+                segments[segment] = segments[segment].copy();
+                copied[segment] = true;
+            }
+            return segments[segment];
+        }
+
+        private void resize() {
+
+            int count = MIN_SEGMENTS;
+            while (count < size / MAX_SEGMENT_SIZE * 2 && count < (1 << 20)) {
+                count <<= 1;
+            }
+            LongObjectHashMap<V>[] resized = emptySegments(count);
+            int resizedShift = Long.SIZE - Integer.numberOfTrailingZeros(count);
+            for (LongObjectHashMap<V> segment : segments) {
+                segment.forEach((key, value) -> {
+                    int target = segmentOf(key, resizedShift);
+                    if (resized[target] == EMPTY_SEGMENT) {
+                        resized[target] = new LongObjectHashMap<>();
+                    }
+                    resized[target].put(key, value);
+                });
+            }
+            segments = resized;
+            shift = resizedShift;
+        }
+    }
+}
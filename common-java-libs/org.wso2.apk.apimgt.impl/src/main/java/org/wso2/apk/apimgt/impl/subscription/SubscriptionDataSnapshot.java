@@ -0,0 +1,544 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.subscription;
+
+import org.wso2.apk.apimgt.api.model.subscription.APIPolicy;
+import org.wso2.apk.apimgt.api.model.subscription.Application;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationKeyMapping;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationPolicy;
+import org.wso2.apk.apimgt.api.model.subscription.Policy;
+import org.wso2.apk.apimgt.api.model.subscription.Subscription;
+import org.wso2.apk.apimgt.api.model.subscription.SubscriptionPolicy;
+import org.wso2.apk.apimgt.impl.APIConstants;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable view of the subscription validation data of an organization. Applications and subscriptions are indexed
+ * by their int ids, subscriptions also by {@link Subscription#getSubscriptionKey()}, key mappings by consumer key, and
+ * policies by their name, which is unique within an organization, and their id. Numeric keys are kept unboxed, so
+ * lookups are single hash table reads that neither allocate nor reach the database. The subscription ids and consumer
+ * keys of each application are indexed as well, so the dependents of a removed application are found without a scan.
+ * <p>
+ * Changes are applied through an {@link Editor}, which builds a new snapshot sharing the unchanged parts of this one.
+ * The version of a snapshot is the id of the latest change log entry it includes.
+ * <p>
+ * The entities are shared among all readers and must not be modified.
+ */
+public final class SubscriptionDataSnapshot {
+
+    private final String organization;
+    private final long version;
+    private final LongCopyOnWriteIndex<Application> applications;
+    private final CopyOnWriteIndex<String, Application> applicationsByUuid;
+    private final LongCopyOnWriteIndex<Subscription> subscriptions;
+    private final LongCopyOnWriteIndex<Subscription> subscriptionsById;
+    private final CopyOnWriteIndex<String, Integer> apiIds;
+    private final CopyOnWriteIndex<String, ApplicationKeyMapping> keyMappings;
+    private final LongCopyOnWriteIndex<ApplicationDependents> dependents;
+    private final CopyOnWriteIndex<String, SubscriptionPolicy> subscriptionPolicies;
+    private final LongCopyOnWriteIndex<SubscriptionPolicy> subscriptionPoliciesById;
+    private final CopyOnWriteIndex<String, ApplicationPolicy> applicationPolicies;
+    private final LongCopyOnWriteIndex<ApplicationPolicy> applicationPoliciesById;
+    private final CopyOnWriteIndex<String, APIPolicy> apiPolicies;
+    private final LongCopyOnWriteIndex<APIPolicy> apiPoliciesById;
+    private final long loadedTime;
+
+    private SubscriptionDataSnapshot(Editor editor, long version) {
+
+        this.organization = editor.organization;
+        this.version = version;
+        this.applications = editor.applications.build();
+        this.applicationsByUuid = editor.applicationsByUuid.build();
+        this.subscriptions = editor.subscriptions.build();
+        this.subscriptionsById = editor.subscriptionsById.build();
+        this.apiIds = editor.apiIds.build();
+        this.keyMappings = editor.keyMappings.build();
+        this.dependents = editor.dependents.build();
+        this.subscriptionPolicies = editor.subscriptionPolicies.build();
+        this.subscriptionPoliciesById = editor.subscriptionPoliciesById.build();
+        this.applicationPolicies = editor.applicationPolicies.build();
+        this.applicationPoliciesById = editor.applicationPoliciesById.build();
+        this.apiPolicies = editor.apiPolicies.build();
+        this.apiPoliciesById = editor.apiPoliciesById.build();
+        this.loadedTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Creates an editor that builds the first snapshot of an organization.
+     *
+     * @param organization Organization
+     * @return editor of an empty snapshot
+     */
+    static Editor create(String organization) {
+
+        return new Editor(organization);
+    }
+
+    /**
+     * @return editor that builds a new snapshot from this one
+     */
+    Editor edit() {
+
+        return new Editor(this);
+    }
+
+    public String getOrganization() {
+
+        return organization;
+    }
+
+    /**
+     * @return id of the latest change included in the snapshot
+     */
+    public long getVersion() {
+
+        return version;
+    }
+
+    /**
+     * @return time the snapshot was built, in milliseconds since the epoch
+     */
+    public long getLoadedTime() {
+
+        return loadedTime;
+    }
+
+    public Application getApplicationById(int applicationId) {
+
+        return applications.get(applicationId);
+    }
+
+    public Application getApplicationByUUID(String uuid) {
+
+        return applicationsByUuid.get(uuid);
+    }
+
+    public Subscription getSubscriptionById(int applicationId, int apiId) {
+
+        return subscriptions.get(Subscription.getSubscriptionKey(applicationId, apiId));
+    }
+
+    /**
+     * Returns the subscription of an application to an API given by its UUID.
+     *
+     * @param applicationId application id
+     * @param apiUUID       API UUID
+     * @return subscription, or null if the application is not subscribed to the API
+     */
+    public Subscription getSubscription(int applicationId, String apiUUID) {
+
+        Integer apiId = apiIds.get(apiUUID);
+        return apiId != null ? getSubscriptionById(applicationId, apiId) : null;
+    }
+
+    public ApplicationKeyMapping getKeyMappingByConsumerKey(String consumerKey) {
+
+        return keyMappings.get(consumerKey);
+    }
+
+    public SubscriptionPolicy getSubscriptionPolicyByName(String name) {
+
+        return name != null ? subscriptionPolicies.get(name) : null;
+    }
+
+    public ApplicationPolicy getApplicationPolicyByName(String name) {
+
+        return name != null ? applicationPolicies.get(name) : null;
+    }
+
+    public APIPolicy getAPIPolicyByName(String name) {
+
+        return name != null ? apiPolicies.get(name) : null;
+    }
+
+    public int getApplicationCount() {
+
+        return applications.size();
+    }
+
+    public int getSubscriptionCount() {
+
+        return subscriptions.size();
+    }
+
+    public int getKeyMappingCount() {
+
+        return keyMappings.size();
+    }
+
+    /**
+     * Validates the subscription of a consumer key to an API, resolving the key mapping, the application, the
+     * subscription and the policies in turn.
+     *
+     * @param consumerKey consumer key the token was issued to
+     * @param keyManager  name of the key manager that issued the token, or null to accept any key manager
+     * @param apiUUID     UUID of the invoked API
+     * @return validation result
+     */
+    public SubscriptionValidationResult validate(String consumerKey, String keyManager, String apiUUID) {
+
+        ApplicationKeyMapping keyMapping = consumerKey != null ? keyMappings.get(consumerKey) : null;
+        if (keyMapping == null || (keyManager != null && !keyManager.equals(keyMapping.getKeyManager()))
+                || (keyMapping.getWfState() != null
+                && !APIConstants.AppRegistrationStatus.REGISTRATION_COMPLETED.equals(keyMapping.getWfState()))) {
+            return SubscriptionValidationResult.invalid(
+                    APIConstants.KeyValidationStatus.API_AUTH_INVALID_CREDENTIALS, keyMapping, null, null);
+        }
+        Application application = applications.get(keyMapping.getApplicationId());
+        if (application == null) {
+            return SubscriptionValidationResult.invalid(
+                    APIConstants.KeyValidationStatus.API_AUTH_INVALID_CREDENTIALS, keyMapping, null, null);
+        }
+        Subscription subscription = apiUUID != null ? getSubscription(application.getId(), apiUUID) : null;
+        if (subscription == null) {
+            return SubscriptionValidationResult.invalid(
+                    APIConstants.KeyValidationStatus.API_AUTH_RESOURCE_FORBIDDEN, keyMapping, application, null);
+        }
+        String state = subscription.getSubscriptionState();
+        if (APIConstants.SubscriptionStatus.BLOCKED.equals(state)
+                || (APIConstants.SubscriptionStatus.PROD_ONLY_BLOCKED.equals(state)
+                && APIConstants.API_KEY_TYPE_PRODUCTION.equals(keyMapping.getKeyType()))) {
+            return SubscriptionValidationResult.invalid(APIConstants.KeyValidationStatus.API_BLOCKED, keyMapping,
+                    application, subscription);
+        }
+        if (APIConstants.SubscriptionStatus.ON_HOLD.equals(state)
+                || APIConstants.SubscriptionStatus.REJECTED.equals(state)) {
+            return SubscriptionValidationResult.invalid(APIConstants.KeyValidationStatus.SUBSCRIPTION_INACTIVE,
+                    keyMapping, application, subscription);
+        }
+        return SubscriptionValidationResult.valid(keyMapping, application, subscription,
+                getSubscriptionPolicyByName(subscription.getPolicyId()),
+                getApplicationPolicyByName(application.getPolicy()));
+    }
+
+    /**
+     * Collects changes to the entities of an organization into a new snapshot. The snapshot the editor was created
+     * from is not modified. An editor is used by a single thread and must not be used after the snapshot is built.
+     */
+    static final class Editor {
+
+        private final String organization;
+        private final LongCopyOnWriteIndex.Editor<Application> applications;
+        private final CopyOnWriteIndex.Editor<String, Application> applicationsByUuid;
+        private final LongCopyOnWriteIndex.Editor<Subscription> subscriptions;
+        private final LongCopyOnWriteIndex.Editor<Subscription> subscriptionsById;
+        private final CopyOnWriteIndex.Editor<String, Integer> apiIds;
+        private final CopyOnWriteIndex.Editor<String, ApplicationKeyMapping> keyMappings;
+        private final LongCopyOnWriteIndex.Editor<ApplicationDependents> dependents;
+        private final CopyOnWriteIndex.Editor<String, SubscriptionPolicy> subscriptionPolicies;
+        private final LongCopyOnWriteIndex.Editor<SubscriptionPolicy> subscriptionPoliciesById;
+        private final CopyOnWriteIndex.Editor<String, ApplicationPolicy> applicationPolicies;
+        private final LongCopyOnWriteIndex.Editor<ApplicationPolicy> applicationPoliciesById;
+        private final CopyOnWriteIndex.Editor<String, APIPolicy> apiPolicies;
+        private final LongCopyOnWriteIndex.Editor<APIPolicy> apiPoliciesById;
+        private final Set<Integer> removedApplicationIds = new HashSet<>();
+
+        private Editor(String organization) {
+
+            this.organization = organization;
+            this.applications = LongCopyOnWriteIndex.<Application>empty().edit();
+            this.applicationsByUuid = CopyOnWriteIndex.<String, Application>empty().edit();
+            this.subscriptions = LongCopyOnWriteIndex.<Subscription>empty().edit();
+            this.subscriptionsById = LongCopyOnWriteIndex.<Subscription>empty().edit();
+            this.apiIds = CopyOnWriteIndex.<String, Integer>empty().edit();
+            this.keyMappings = CopyOnWriteIndex.<String, ApplicationKeyMapping>empty().edit();
+            this.dependents = LongCopyOnWriteIndex.<ApplicationDependents>empty().edit();
+            this.subscriptionPolicies = CopyOnWriteIndex.<String, SubscriptionPolicy>empty().edit();
+            this.subscriptionPoliciesById = LongCopyOnWriteIndex.<SubscriptionPolicy>empty().edit();
+            this.applicationPolicies = CopyOnWriteIndex.<String, ApplicationPolicy>empty().edit();
+            this.applicationPoliciesById = LongCopyOnWriteIndex.<ApplicationPolicy>empty().edit();
+            this.apiPolicies = CopyOnWriteIndex.<String, APIPolicy>empty().edit();
+            this.apiPoliciesById = LongCopyOnWriteIndex.<APIPolicy>empty().edit();
+        }
+
+        private Editor(SubscriptionDataSnapshot snapshot) {
+
+            this.organization = snapshot.organization;
+            this.applications = snapshot.applications.edit();
+            this.applicationsByUuid = snapshot.applicationsByUuid.edit();
+            this.subscriptions = snapshot.subscriptions.edit();
+            this.subscriptionsById = snapshot.subscriptionsById.edit();
+            this.apiIds = snapshot.apiIds.edit();
+            this.keyMappings = snapshot.keyMappings.edit();
+            this.dependents = snapshot.dependents.edit();
+            this.subscriptionPolicies = snapshot.subscriptionPolicies.edit();
+            this.subscriptionPoliciesById = snapshot.subscriptionPoliciesById.edit();
+            this.applicationPolicies = snapshot.applicationPolicies.edit();
+            this.applicationPoliciesById = snapshot.applicationPoliciesById.edit();
+            this.apiPolicies = snapshot.apiPolicies.edit();
+            this.apiPoliciesById = snapshot.apiPoliciesById.edit();
+        }
+
+        void putApplication(Application application) {
+
+            Application previous = applications.put(application.getId(), application);
+            if (previous != null && previous.getUuid() != null) {
+                applicationsByUuid.remove(previous.getUuid());
+            }
+            if (application.getUuid() != null) {
+                applicationsByUuid.put(application.getUuid(), application);
+            }
+            removedApplicationIds.remove(application.getId());
+        }
+
+        /**
+         * Removes the application. Its subscriptions and key mappings are removed as well when the snapshot is built,
+         * as the database deletes them along with the application.
+         *
+         * @param applicationId id of the application
+         */
+        void removeApplication(int applicationId) {
+
+            Application previous = applications.remove(applicationId);
+            if (previous != null && previous.getUuid() != null) {
+                applicationsByUuid.remove(previous.getUuid());
+            }
+            removedApplicationIds.add(applicationId);
+        }
+
+        void putSubscription(Subscription subscription) {
+
+            Subscription previous = subscriptionsById.put(subscription.getSubscriptionId(), subscription);
+            if (previous != null) {
+                removeSubscriptionByKey(previous);
+                editDependents(previous.getAppId(), d -> d.withoutSubscription(previous.getSubscriptionId()));
+            }
+            subscriptions.put(subscription.getSubscriptionKey(), subscription);
+            editDependents(subscription.getAppId(), d -> d.withSubscription(subscription.getSubscriptionId()));
+            if (subscription.getApiUUID() != null) {
+                apiIds.put(subscription.getApiUUID(), subscription.getApiId());
+            }
+        }
+
+        void removeSubscription(int subscriptionId) {
+
+            Subscription previous = subscriptionsById.remove(subscriptionId);
+            if (previous != null) {
+                removeSubscriptionByKey(previous);
+                editDependents(previous.getAppId(), d -> d.withoutSubscription(subscriptionId));
+            }
+        }
+
+        void putKeyMapping(ApplicationKeyMapping keyMapping) {
+
+            String consumerKey = keyMapping.getCacheKey();
+            if (consumerKey == null) {
+                return;
+            }
+            ApplicationKeyMapping previous = keyMappings.put(consumerKey, keyMapping);
+            if (previous != null) {
+                editDependents(previous.getApplicationId(), d -> d.withoutKeyMapping(consumerKey));
+            }
+            editDependents(keyMapping.getApplicationId(), d -> d.withKeyMapping(consumerKey));
+        }
+
+        void removeKeyMapping(String consumerKey) {
+
+            ApplicationKeyMapping previous = keyMappings.remove(consumerKey);
+            if (previous != null) {
+                editDependents(previous.getApplicationId(), d -> d.withoutKeyMapping(consumerKey));
+            }
+        }
+
+        void putSubscriptionPolicy(SubscriptionPolicy policy) {
+
+            putPolicy(subscriptionPolicies, subscriptionPoliciesById, policy);
+        }
+
+        void removeSubscriptionPolicy(int policyId) {
+
+            removePolicy(subscriptionPolicies, subscriptionPoliciesById, policyId);
+        }
+
+        void putApplicationPolicy(ApplicationPolicy policy) {
+
+            putPolicy(applicationPolicies, applicationPoliciesById, policy);
+        }
+
+        void removeApplicationPolicy(int policyId) {
+
+            removePolicy(applicationPolicies, applicationPoliciesById, policyId);
+        }
+
+        void putAPIPolicy(APIPolicy policy) {
+
+            putPolicy(apiPolicies, apiPoliciesById, policy);
+        }
+
+        void removeAPIPolicy(int policyId) {
+
+            removePolicy(apiPolicies, apiPoliciesById, policyId);
+        }
+
+        /**
+         * Builds the snapshot.
+         *
+         * @param version id of the latest change included in the snapshot
+         * @return snapshot
+         */
+        SubscriptionDataSnapshot build(long version) {
+
+            removeDependentsOfRemovedApplications();
+            return new SubscriptionDataSnapshot(this, version);
+        }
+
+        private void removeDependentsOfRemovedApplications() {
+
+            if (removedApplicationIds.isEmpty()) {
+                return;
+            }
+            // the cascaded deletes are not reliably in the change log, as the organization of a subscription or key
+            // mapping is looked up from its application, which is gone by then
+            for (int applicationId : removedApplicationIds) {
+                ApplicationDependents removed = dependents.get(applicationId);
+                if (removed == null) {
+                    continue;
+                }
+                for (int subscriptionId : removed.subscriptionIds) {
+                    removeSubscription(subscriptionId);
+                }
+                for (String consumerKey : removed.consumerKeys) {
+                    removeKeyMapping(consumerKey);
+                }
+            }
+            removedApplicationIds.clear();
+        }
+
+        private void editDependents(int applicationId, UnaryOperator<ApplicationDependents> change) {
+
+            ApplicationDependents current = dependents.get(applicationId);
+            ApplicationDependents changed = change.apply(current != null ? current : ApplicationDependents.EMPTY);
+            if (changed == current) {
+                return;
+            }
+            if (changed.isEmpty()) {
+                dependents.remove(applicationId);
+            } else {
+                dependents.put(applicationId, changed);
+            }
+        }
+
+        private void removeSubscriptionByKey(Subscription subscription) {
+
+            // another subscription may have taken the key of the given one
+            if (subscriptions.get(subscription.getSubscriptionKey()) == subscription) {
+                subscriptions.remove(subscription.getSubscriptionKey());
+            }
+        }
+
+        private static <P extends Policy> void putPolicy(CopyOnWriteIndex.Editor<String, P> policies,
+                                                         LongCopyOnWriteIndex.Editor<P> policiesById, P policy) {
+
+            removePolicy(policies, policiesById, policy.getId());
+            policiesById.put(policy.getId(), policy);
+            if (policy.getName() != null) {
+                policies.put(policy.getName(), policy);
+            }
+        }
+
+        private static <P extends Policy> void removePolicy(CopyOnWriteIndex.Editor<String, P> policies,
+                                                            LongCopyOnWriteIndex.Editor<P> policiesById,
+                                                            int policyId) {
+
+            P previous = policiesById.remove(policyId);
+            // another policy may have taken the name of the removed one
+            if (previous != null && previous.getName() != null && policies.get(previous.getName()) == previous) {
+                policies.remove(previous.getName());
+            }
+        }
+    }
+
+    /**
+     * Ids of the subscriptions and consumer keys of the key mappings of an application. Instances are immutable, as
+     * they are shared among snapshots, and an application has few of either, so a change copies the arrays.
+     */
+    private static final class ApplicationDependents {
+
+        private static final ApplicationDependents EMPTY = new ApplicationDependents(new int[0], new String[0]);
+
+        private final int[] subscriptionIds;
+        private final String[] consumerKeys;
+
+        private ApplicationDependents(int[] subscriptionIds, String[] consumerKeys) {
+
+            this.subscriptionIds = subscriptionIds;
+            this.consumerKeys = consumerKeys;
+        }
+
+        private boolean isEmpty() {
+
+            return subscriptionIds.length == 0 && consumerKeys.length == 0;
+        }
+
+        private ApplicationDependents withSubscription(int subscriptionId) {
+
+            for (int id : subscriptionIds) {
+                if (id == subscriptionId) {
+                    return this;
+                }
+            }
+            int[] ids = Arrays.copyOf(subscriptionIds, subscriptionIds.length + 1);
+            ids[subscriptionIds.length] = subscriptionId;
+            return new ApplicationDependents(ids, consumerKeys);
+        }
+
+        private ApplicationDependents withoutSubscription(int subscriptionId) {
+
+            for (int i = 0; i < subscriptionIds.length; i++) {
+                if (subscriptionIds[i] == subscriptionId) {
+                    int[] ids = new int[subscriptionIds.length - 1];
+                    System.arraycopy(subscriptionIds, 0, ids, 0, i);
+                    System.arraycopy(subscriptionIds, i + 1, ids, i, ids.length - i);
+                    return new ApplicationDependents(ids, consumerKeys);
+                }
+            }
+            return this;
+        }
+
+        private ApplicationDependents withKeyMapping(String consumerKey) {
+
+            for (String key : consumerKeys) {
+                if (key.equals(consumerKey)) {
+                    return this;
+                }
+            }
+            String[] keys = Arrays.copyOf(consumerKeys, consumerKeys.length + 1);
+            keys[consumerKeys.length] = consumerKey;
+            return new ApplicationDependents(subscriptionIds, keys);
+        }
+
+        private ApplicationDependents withoutKeyMapping(String consumerKey) {
+
+            for (int i = 0; i < consumerKeys.length; i++) {
+                if (consumerKeys[i].equals(consumerKey)) {
+                    String[] keys = new String[consumerKeys.length - 1];
+                    System.arraycopy(consumerKeys, 0, keys, 0, i);
+                    System.arraycopy(consumerKeys, i + 1, keys, i, keys.length - i);
+                    return new ApplicationDependents(subscriptionIds, keys);
+                }
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,497 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.subscription;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.ResultConsumer;
+import org.wso2.apk.apimgt.api.model.subscription.Application;
+import org.wso2.apk.apimgt.impl.APIConstants;
+import org.wso2.apk.apimgt.impl.dao.SubscriptionValidationDAO;
+import org.wso2.apk.apimgt.impl.dao.impl.SubscriptionValidationDAOImpl;
+import org.wso2.apk.apimgt.impl.dto.SubscriptionDataChangeDTO;
+import org.wso2.apk.apimgt.impl.metrics.Counter;
+import org.wso2.apk.apimgt.impl.metrics.LatencyHistogram;
+import org.wso2.apk.apimgt.impl.metrics.MetricsRegistry;
+import org.wso2.apk.apimgt.impl.utils.APIMgtDBUtil;
+import org.wso2.apk.apimgt.impl.utils.BlockConditionStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Per organization store of the data required to validate subscriptions. The applications, subscriptions, key
+ * mappings and policies of an organization are bulk loaded within a single read transaction into an immutable
+ * {@link SubscriptionDataSnapshot}, so validating a request never touches the database.
+ * <p>
+ * Organizations are loaded at startup through {@link #initialize(Collection)}, or on first use otherwise. Afterwards
+ * they are kept up to date from the AM_SUBSCRIPTION_DATA_CHANGE log, which database triggers fill whenever a
+ * tracked row is inserted, updated or deleted. Each synchronization reads the entries logged after the watermark of
+ * the organization, reads the current rows of the changed entities and applies them to a copy of the snapshot, which
+ * then replaces the current one. Readers keep using the snapshot they hold while a new one is built.
+ * <p>
+ * Change ids are assigned when a row is written but become visible only when its transaction commits, so a change
+ * may appear after changes with higher ids. The watermark is therefore advanced only over changes older than the
+ * settle window, and newer changes are remembered so they are not applied twice.
+ */
+public final class SubscriptionDataStore {
+
+    public static final String SNAPSHOT_VERSION = "apk_subscription_store_version";
+    public static final String SYNC_LAG = "apk_subscription_store_lag_seconds";
+    public static final String CHANGES = "apk_subscription_store_changes_total";
+    public static final String SYNC_DURATION = "apk_subscription_store_sync_duration_seconds";
+
+    private static final Log log = LogFactory.getLog(SubscriptionDataStore.class);
+    private static final SubscriptionDataStore INSTANCE =
+            new SubscriptionDataStore(SubscriptionValidationDAOImpl.getInstance());
+    // longer than any transaction writing subscription data is expected to take
+    private static final int SETTLE_SECONDS = 30;
+    private static final int RETENTION_SECONDS = (int) TimeUnit.DAYS.toSeconds(1);
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    // must stay well below the retention, so that no change is purged before it is applied
+    private static final long MAX_SYNC_AGE_MILLIS = TimeUnit.HOURS.toMillis(12);
+    // reading the whole organization again is cheaper than applying this many changes one by one
+    private static final int MAX_CHANGES = 100000;
+
+    private final SubscriptionValidationDAO subscriptionValidationDAO;
+    private final Map<String, SnapshotHolder> snapshots = new ConcurrentHashMap<>();
+    private ScheduledExecutorService synchronizer;
+    private volatile long lastPurgeTime;
+
+    SubscriptionDataStore(SubscriptionValidationDAO subscriptionValidationDAO) {
+
+        this.subscriptionValidationDAO = subscriptionValidationDAO;
+    }
+
+    public static SubscriptionDataStore getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Loads the given organizations. An organization that fails to load is logged and loaded again on first use.
+     *
+     * @param organizations organizations to be loaded
+     */
+    public void initialize(Collection<String> organizations) {
+
+        for (String organization : organizations) {
+            try {
+                reload(organization);
+            } catch (APIManagementException e) {
+                log.error("Error while loading the subscription data of organization " + organization, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the snapshot of an organization, loading it if it has not been loaded yet.
+     *
+     * @param organization Organization
+     * @return snapshot of the organization
+     * @throws APIManagementException if the organization could not be loaded
+     */
+    public SubscriptionDataSnapshot getSnapshot(String organization) throws APIManagementException {
+
+        SnapshotHolder holder = getHolder(organization);
+        SubscriptionDataSnapshot snapshot = holder.snapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (holder) {
+            if (holder.snapshot == null) {
+                load(holder);
+            }
+            return holder.snapshot;
+        }
+    }
+
+    /**
+     * Loads an organization again and replaces its snapshot.
+     *
+     * @param organization Organization
+     * @return new snapshot of the organization
+     * @throws APIManagementException if the organization could not be loaded, in which case the current snapshot is
+     *                                kept
+     */
+    public SubscriptionDataSnapshot reload(String organization) throws APIManagementException {
+
+        SnapshotHolder holder = getHolder(organization);
+        synchronized (holder) {
+            load(holder);
+            return holder.snapshot;
+        }
+    }
+
+    /**
+     * Applies the changes logged since the last synchronization of an organization. An organization that has not
+     * been loaded yet is loaded instead.
+     *
+     * @param organization Organization
+     * @return new snapshot of the organization
+     * @throws APIManagementException if the changes could not be applied, in which case the current snapshot is kept
+     */
+    public SubscriptionDataSnapshot synchronize(String organization) throws APIManagementException {
+
+        SnapshotHolder holder = getHolder(organization);
+        synchronized (holder) {
+            if (holder.snapshot == null
+                    || System.currentTimeMillis() - holder.lastSyncTime > MAX_SYNC_AGE_MILLIS) {
+                load(holder);
+            } else {
+                applyChanges(holder);
+            }
+            return holder.snapshot;
+        }
+    }
+
+    /**
+     * Synchronizes all the loaded organizations and purges the change log entries older than the retention period.
+     * Failures are logged and retried on the next call.
+     */
+    public void synchronizeAll() {
+
+        for (String organization : snapshots.keySet()) {
+            try {
+                synchronize(organization);
+            } catch (APIManagementException e) {
+                log.error("Error while synchronizing the subscription data of organization " + organization, e);
+            }
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeTime > PURGE_INTERVAL_MILLIS) {
+            try {
+                int purged = subscriptionValidationDAO.deleteChanges(RETENTION_SECONDS);
+                lastPurgeTime = now;
+                if (log.isDebugEnabled()) {
+                    log.debug("Purged " + purged + " subscription data change log entries");
+                }
+            } catch (APIManagementException e) {
+                log.error("Error while purging the subscription data change log", e);
+            }
+        }
+    }
+
+    /**
+     * Starts synchronizing all the loaded organizations in the background. Does nothing if the synchronization is
+     * already running.
+     *
+     * @param intervalMillis delay between the end of a synchronization and the start of the next one
+     */
+    public synchronized void startSynchronization(long intervalMillis) {
+
+        if (synchronizer != null) {
+            return;
+        }
+        synchronizer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SubscriptionDataSynchronizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        synchronizer.scheduleWithFixedDelay(() -> {
+            try {
+                synchronizeAll();
+            } catch (RuntimeException e) {
+                // an exception escaping the task would cancel the following runs
+                log.error("Error while synchronizing the subscription data", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background synchronization.
+     */
+    public synchronized void stopSynchronization() {
+
+        if (synchronizer != null) {
+            synchronizer.shutdownNow();
+            synchronizer = null;
+        }
+    }
+
+    /**
+     * Drops the snapshot of an organization.
+     *
+     * @param organization Organization
+     */
+    public void remove(String organization) {
+
+        SnapshotHolder holder = snapshots.remove(organization);
+        if (holder != null) {
+            MetricsRegistry registry = MetricsRegistry.getInstance();
+            registry.remove(SNAPSHOT_VERSION, "organization", organization);
+            registry.remove(SYNC_LAG, "organization", organization);
+            registry.remove(CHANGES, "organization", organization);
+            registry.remove(SYNC_DURATION, "organization", organization);
+        }
+    }
+
+    /**
+     * Validates the subscription of a consumer key to an API. See
+     * {@link SubscriptionDataSnapshot#validate(String, String, String)}.
+     *
+     * @param organization organization of the API
+     * @param consumerKey  consumer key the token was issued to
+     * @param keyManager   name of the key manager that issued the token, or null to accept any key manager
+     * @param apiUUID      UUID of the invoked API
+     * @return validation result
+     * @throws APIManagementException if the organization is not loaded and could not be loaded
+     */
+    public SubscriptionValidationResult validate(String organization, String consumerKey, String keyManager,
+                                                 String apiUUID) throws APIManagementException {
+
+        return getSnapshot(organization).validate(consumerKey, keyManager, apiUUID);
+    }
+
+    /**
+     * Validates the subscription of a consumer key to an API, and then checks the request against the block
+     * conditions of the organization. A blocked request fails with
+     * {@link APIConstants.KeyValidationStatus#API_BLOCKED}.
+     *
+     * @param organization organization of the API
+     * @param consumerKey  consumer key the token was issued to
+     * @param keyManager   name of the key manager that issued the token, or null to accept any key manager
+     * @param apiUUID      UUID of the invoked API
+     * @param apiContext   context of the invoked API, or null if not known
+     * @param username     authenticated user, or null if not known
+     * @param clientIp     address of the client, or null if not known
+     * @return validation result
+     * @throws APIManagementException if the organization or its block conditions could not be loaded
+     */
+    public SubscriptionValidationResult validate(String organization, String consumerKey, String keyManager,
+                                                 String apiUUID, String apiContext, String username,
+                                                 String clientIp) throws APIManagementException {
+
+        SubscriptionValidationResult result = validate(organization, consumerKey, keyManager, apiUUID);
+        if (!result.isValid()) {
+            return result;
+        }
+        Application application = result.getApplication();
+        // application conditions identify the application by its owner and name
+        String applicationKey = application.getSubName() + ':' + application.getName();
+        if (BlockConditionStore.getInstance().isRequestBlocked(organization, apiContext, applicationKey, username,
+                clientIp, null)) {
+            return SubscriptionValidationResult.invalid(APIConstants.KeyValidationStatus.API_BLOCKED,
+                    result.getKeyMapping(), application, result.getSubscription());
+        }
+        return result;
+    }
+
+    private SnapshotHolder getHolder(String organization) {
+
+        return snapshots.computeIfAbsent(organization, SnapshotHolder::new);
+    }
+
+    private void load(SnapshotHolder holder) throws APIManagementException {
+
+        long start = System.nanoTime();
+        String organization = holder.organization;
+        SubscriptionDataSnapshot.Editor editor = SubscriptionDataSnapshot.create(organization);
+        // a single transaction reads all the entities through the same connection
+        long watermark = APIMgtDBUtil.executeInTransaction(() -> {
+            long settledChangeId = subscriptionValidationDAO.getSettledChangeId(SETTLE_SECONDS);
+            subscriptionValidationDAO.getSubscriptionPolicies(organization, editor::putSubscriptionPolicy);
+            subscriptionValidationDAO.getApplicationPolicies(organization, editor::putApplicationPolicy);
+            subscriptionValidationDAO.getAPIPolicies(organization, editor::putAPIPolicy);
+            subscriptionValidationDAO.getApplications(organization, editor::putApplication);
+            subscriptionValidationDAO.getApplicationKeyMappings(organization, editor::putKeyMapping);
+            subscriptionValidationDAO.getSubscriptions(organization, editor::putSubscription);
+            return settledChangeId;
+        });
+        SubscriptionDataSnapshot snapshot = editor.build(watermark);
+        holder.snapshot = snapshot;
+        holder.watermark = watermark;
+        holder.appliedChangeIds = Collections.emptySet();
+        holder.lastSyncTime = System.currentTimeMillis();
+        holder.syncDuration.record(System.nanoTime() - start);
+        if (log.isDebugEnabled()) {
+            log.debug("Loaded " + snapshot.getApplicationCount() + " applications, "
+                    + snapshot.getSubscriptionCount() + " subscriptions and " + snapshot.getKeyMappingCount()
+                    + " key mappings of organization " + organization + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        }
+    }
+
+    private void applyChanges(SnapshotHolder holder) throws APIManagementException {
+
+        long start = System.nanoTime();
+        String organization = holder.organization;
+        List<SubscriptionDataChangeDTO> changes = new ArrayList<>();
+        subscriptionValidationDAO.getChanges(organization, holder.watermark, SETTLE_SECONDS, changes::add);
+        if (changes.size() > MAX_CHANGES) {
+            log.info(changes.size() + " subscription data changes are pending for organization " + organization
+                    + ", loading the organization again");
+            load(holder);
+            return;
+        }
+        long watermark = holder.watermark;
+        long version = holder.snapshot.getVersion();
+        boolean settled = true;
+        Set<Long> appliedChangeIds = new HashSet<>();
+        Set<Integer> applicationIds = new HashSet<>();
+        Set<Integer> subscriptionIds = new HashSet<>();
+        Set<String> consumerKeys = new HashSet<>();
+        Set<Integer> subscriptionPolicyIds = new HashSet<>();
+        Set<Integer> applicationPolicyIds = new HashSet<>();
+        Set<Integer> apiPolicyIds = new HashSet<>();
+        int applied = 0;
+        for (SubscriptionDataChangeDTO change : changes) {
+            long changeId = change.getChangeId();
+            // changes are ordered by id, so the watermark moves up to the first change that has not settled
+            settled = settled && change.isSettled();
+            if (settled) {
+                watermark = changeId;
+            } else {
+                appliedChangeIds.add(changeId);
+            }
+            if (holder.appliedChangeIds.contains(changeId) || change.getEntityType() == null) {
+                continue;
+            }
+            applied++;
+            version = Math.max(version, changeId);
+            switch (change.getEntityType()) {
+                case APPLICATION:
+                    applicationIds.add(change.getEntityId());
+                    break;
+                case SUBSCRIPTION:
+                    subscriptionIds.add(change.getEntityId());
+                    break;
+                case KEY_MAPPING:
+                    if (change.getEntityKey() != null) {
+                        consumerKeys.add(change.getEntityKey());
+                    }
+                    break;
+                case SUBSCRIPTION_POLICY:
+                    subscriptionPolicyIds.add(change.getEntityId());
+                    break;
+                case APPLICATION_POLICY:
+                    applicationPolicyIds.add(change.getEntityId());
+                    break;
+                case API_POLICY:
+                    apiPolicyIds.add(change.getEntityId());
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (applied > 0) {
+            SubscriptionDataSnapshot.Editor editor = holder.snapshot.edit();
+            APIMgtDBUtil.executeInTransaction(() -> {
+                refresh(applicationIds, (ids, consumer) ->
+                                subscriptionValidationDAO.getApplications(organization, ids, consumer),
+                        application -> application.getId(), editor::putApplication, editor::removeApplication);
+                refresh(subscriptionIds, (ids, consumer) ->
+                                subscriptionValidationDAO.getSubscriptions(organization, ids, consumer),
+                        subscription -> subscription.getSubscriptionId(), editor::putSubscription,
+                        editor::removeSubscription);
+                refresh(consumerKeys, (keys, consumer) ->
+                                subscriptionValidationDAO.getApplicationKeyMappings(organization, keys, consumer),
+                        keyMapping -> keyMapping.getCacheKey(), editor::putKeyMapping, editor::removeKeyMapping);
+                refresh(subscriptionPolicyIds, (ids, consumer) ->
+                                subscriptionValidationDAO.getSubscriptionPolicies(organization, ids, consumer),
+                        policy -> policy.getId(), editor::putSubscriptionPolicy, editor::removeSubscriptionPolicy);
+                refresh(applicationPolicyIds, (ids, consumer) ->
+                                subscriptionValidationDAO.getApplicationPolicies(organization, ids, consumer),
+                        policy -> policy.getId(), editor::putApplicationPolicy, editor::removeApplicationPolicy);
+                refresh(apiPolicyIds, (ids, consumer) ->
+                                subscriptionValidationDAO.getAPIPolicies(organization, ids, consumer),
+                        policy -> policy.getId(), editor::putAPIPolicy, editor::removeAPIPolicy);
+                return null;
+            });
+            holder.snapshot = editor.build(version);
+            holder.changes.add(applied);
+        }
+        holder.watermark = watermark;
+        holder.appliedChangeIds = appliedChangeIds;
+        holder.lastSyncTime = System.currentTimeMillis();
+        holder.syncDuration.record(System.nanoTime() - start);
+        if (applied > 0 && log.isDebugEnabled()) {
+            log.debug("Applied " + applied + " subscription data changes to organization " + organization + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        }
+    }
+
+    /**
+     * Reads the current state of the changed entities of a type, storing the entities found and removing the ones
+     * that no longer exist.
+     */
+    private static <K, T> void refresh(Set<K> keys, EntityReader<K, T> reader, Function<T, K> keyOf,
+                                       Consumer<T> put, Consumer<K> remove) throws APIManagementException {
+
+        if (keys.isEmpty()) {
+            return;
+        }
+        Set<K> missing = new HashSet<>(keys);
+        reader.read(keys, entity -> {
+            missing.remove(keyOf.apply(entity));
+            put.accept(entity);
+        });
+        missing.forEach(remove);
+    }
+
+    /**
+     * Reads the entities of a type with the given keys.
+     */
+    @FunctionalInterface
+    private interface EntityReader<K, T> {
+
+        int read(Collection<K> keys, ResultConsumer<T> consumer) throws APIManagementException;
+    }
+
+    /**
+     * Holder of the snapshot of an organization and of its synchronization state, which is guarded by the holder.
+     */
+    private static final class SnapshotHolder {
+
+        private final String organization;
+        private final LatencyHistogram syncDuration;
+        private final Counter changes;
+        private volatile SubscriptionDataSnapshot snapshot;
+        private volatile long lastSyncTime;
+        private long watermark;
+        private Set<Long> appliedChangeIds = Collections.emptySet();
+
+        private SnapshotHolder(String organization) {
+
+            MetricsRegistry registry = MetricsRegistry.getInstance();
+            this.organization = organization;
+            this.syncDuration = registry.histogram(SYNC_DURATION, "organization", organization);
+            this.changes = registry.counter(CHANGES, "organization", organization);
+            registry.gauge(SNAPSHOT_VERSION, () -> {
+                SubscriptionDataSnapshot current = snapshot;
+                return current != null ? current.getVersion() : 0;
+            }, "organization", organization);
+            registry.gauge(SYNC_LAG, () -> lastSyncTime > 0
+                    ? TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - lastSyncTime) : 0,
+                    "organization", organization);
+        }
+    }
+}
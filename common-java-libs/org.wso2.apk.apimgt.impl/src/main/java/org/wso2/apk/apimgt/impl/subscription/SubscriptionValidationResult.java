@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.impl.subscription;
+
+import org.wso2.apk.apimgt.api.model.subscription.Application;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationKeyMapping;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationPolicy;
+import org.wso2.apk.apimgt.api.model.subscription.Subscription;
+import org.wso2.apk.apimgt.api.model.subscription.SubscriptionPolicy;
+
+/**
+ * Outcome of validating the subscription of a consumer key to an API. A failed validation carries one of the
+ * {@link org.wso2.apk.apimgt.impl.APIConstants.KeyValidationStatus} codes, along with the entities resolved before
+ * the failure.
+ * <p>
+ * The entities are shared with the {@link SubscriptionDataSnapshot} they were read from and must not be modified.
+ */
+public final class SubscriptionValidationResult {
+
+    private final boolean valid;
+    private final int validationStatus;
+    private final ApplicationKeyMapping keyMapping;
+    private final Application application;
+    private final Subscription subscription;
+    private final SubscriptionPolicy subscriptionPolicy;
+    private final ApplicationPolicy applicationPolicy;
+
+    private SubscriptionValidationResult(boolean valid, int validationStatus, ApplicationKeyMapping keyMapping,
+                                         Application application, Subscription subscription,
+                                         SubscriptionPolicy subscriptionPolicy, ApplicationPolicy applicationPolicy) {
+
+        this.valid = valid;
+        this.validationStatus = validationStatus;
+        this.keyMapping = keyMapping;
+        this.application = application;
+        this.subscription = subscription;
+        this.subscriptionPolicy = subscriptionPolicy;
+        this.applicationPolicy = applicationPolicy;
+    }
+
+    static SubscriptionValidationResult valid(ApplicationKeyMapping keyMapping, Application application,
+                                              Subscription subscription, SubscriptionPolicy subscriptionPolicy,
+                                              ApplicationPolicy applicationPolicy) {
+
+        return new SubscriptionValidationResult(true, 0, keyMapping, application, subscription,
+                subscriptionPolicy, applicationPolicy);
+    }
+
+    static SubscriptionValidationResult invalid(int validationStatus, ApplicationKeyMapping keyMapping,
+                                                Application application, Subscription subscription) {
+
+        return new SubscriptionValidationResult(false, validationStatus, keyMapping, application, subscription,
+                null, null);
+    }
+
+    public boolean isValid() {
+
+        return valid;
+    }
+
+    /**
+     * @return validation status code of a failed validation, or 0 if the validation succeeded
+     */
+    public int getValidationStatus() {
+
+        return validationStatus;
+    }
+
+    public ApplicationKeyMapping getKeyMapping() {
+
+        return keyMapping;
+    }
+
+    /**
+     * @return key type of the consumer key, PRODUCTION or SANDBOX
+     */
+    public String getKeyType() {
+
+        return keyMapping != null ? keyMapping.getKeyType() : null;
+    }
+
+    public Application getApplication() {
+
+        return application;
+    }
+
+    public Subscription getSubscription() {
+
+        return subscription;
+    }
+
+    public SubscriptionPolicy getSubscriptionPolicy() {
+
+        return subscriptionPolicy;
+    }
+
+    public ApplicationPolicy getApplicationPolicy() {
+
+        return applicationPolicy;
+    }
+}
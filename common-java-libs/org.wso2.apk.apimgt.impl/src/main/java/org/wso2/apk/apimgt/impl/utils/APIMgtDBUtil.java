@@ -18,7 +18,6 @@
 
 package org.wso2.apk.apimgt.impl.utils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.apache.commons.io.IOUtils;
@@ -31,6 +30,9 @@ import org.wso2.apk.apimgt.api.ExceptionCodes;
 import org.wso2.apk.apimgt.impl.ConfigurationHolder;
 import org.wso2.apk.apimgt.impl.dto.DatasourceProperties;
 import org.wso2.apk.apimgt.impl.internal.ServiceReferenceHolder;
+import org.wso2.apk.apimgt.impl.metrics.HikariMetricsTrackerFactory;
+import org.wso2.apk.apimgt.impl.metrics.InstrumentedConnection;
+import org.wso2.apk.apimgt.impl.metrics.MetricsRegistry;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -48,6 +50,8 @@ public final class APIMgtDBUtil {
 
     private static final Log log = LogFactory.getLog(APIMgtDBUtil.class);
     private static volatile HikariDataSource dataSource = null;
+    private static volatile boolean metricsEnabled = false;
+    private static volatile long slowQueryThreshold = -1;
 
     /**
      * Initializes the data source
@@ -82,6 +86,12 @@ public final class APIMgtDBUtil {
                     hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
                     hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
                     hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+                    if (datasourceProperties.isMetricsEnabled()) {
+                        hikariConfig.setMetricsTrackerFactory(new HikariMetricsTrackerFactory());
+                        MetricsRegistry.registerMBean();
+                        slowQueryThreshold = datasourceProperties.getSlowQueryThreshold();
+                        metricsEnabled = true;
+                    }
                     dataSource = new HikariDataSource(hikariConfig);
                     log.debug("Hikari datasource created successfully");
                 }
@@ -90,18 +100,93 @@ public final class APIMgtDBUtil {
     }
 
     /**
-     * Utility method to get a new database connection
+     * Utility method to get a database connection. If a transaction is bound to the current thread through
+     * {@link #executeInTransaction(TransactionalOperation)}, the connection of that transaction is returned.
      *
      * @return Connection
      * @throws SQLException if failed to get Connection
      */
     public static Connection getConnection() throws SQLException {
+        TransactionContext transactionContext = TransactionContext.getCurrent();
+        if (transactionContext != null) {
+            return transactionContext.getConnection();
+        }
+        return getPooledConnection();
+    }
+
+    private static Connection getPooledConnection() throws SQLException {
         if (dataSource != null) {
-            return dataSource.getConnection();
+            Connection connection = dataSource.getConnection();
+            return metricsEnabled ? InstrumentedConnection.wrap(connection, slowQueryThreshold) : connection;
         }
         throw new SQLException("Data source is not configured properly.");
     }
 
+    /**
+     * Executes the given operation with a single connection and transaction bound to the current thread. All the
+     * connections obtained through {@link #getConnection()} within the operation share that transaction, which is
+     * committed when the operation completes and rolled back if it fails or a DAO rolled back its connection. If a
+     * transaction is already bound to the current thread, the operation joins it.
+     *
+     * @param operation operation to be executed
+     * @param <T>       type of the result of the operation
+     * @return result of the operation
+     * @throws APIManagementException if the operation fails or the transaction could not be completed
+     */
+    public static <T> T executeInTransaction(TransactionalOperation<T> operation) throws APIManagementException {
+        if (TransactionContext.getCurrent() != null) {
+            return operation.execute();
+        }
+        TransactionContext transactionContext;
+        try {
+            transactionContext = TransactionContext.begin(getPooledConnection());
+        } catch (SQLException e) {
+            throw new APIManagementException("Error while starting a database transaction", e,
+                    ExceptionCodes.APIMGT_DAO_EXCEPTION);
+        }
+        boolean committed = false;
+        try {
+            T result = operation.execute();
+            transactionContext.commit();
+            committed = true;
+            return result;
+        } catch (SQLException e) {
+            throw new APIManagementException("Error while committing the database transaction", e,
+                    ExceptionCodes.APIMGT_DAO_EXCEPTION);
+        } finally {
+            if (!committed) {
+                transactionContext.rollback();
+            }
+            transactionContext.end();
+        }
+    }
+
+    /**
+     * Runs the given task once the transaction bound to the current thread completes, or immediately if there is no
+     * such transaction.
+     *
+     * @param task task to be run
+     */
+    public static void runAfterTransaction(Runnable task) {
+        TransactionContext transactionContext = TransactionContext.getCurrent();
+        if (transactionContext != null) {
+            transactionContext.afterCompletion(task);
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * An operation executed within a database transaction.
+     *
+     * @param <T> type of the result of the operation
+     */
+    @FunctionalInterface
+    public interface TransactionalOperation<T> {
+
+        T execute() throws APIManagementException;
+    }
+
     /**
      * Utility method to close the connection streams.
      *
@@ -264,8 +349,7 @@ public final class APIMgtDBUtil {
         Map<String, Object> map = null;
         if (StringUtils.isNotEmpty(jsonString)) {
             try {
-                ObjectMapper objectMapper = new ObjectMapper();
-                map = objectMapper.readValue(jsonString, Map.class);
+                map = JsonCodecRegistry.getInstance().getReader(Map.class).readValue(jsonString);
             } catch (IOException e) {
                 String msg = "Error while parsing JSON string";
                 log.error(msg, e);
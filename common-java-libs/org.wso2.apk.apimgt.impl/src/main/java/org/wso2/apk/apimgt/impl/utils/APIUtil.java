@@ -19,7 +19,6 @@
 package org.wso2.apk.apimgt.impl.utils;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -43,7 +42,10 @@ import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLContexts;
 import org.apache.http.conn.ssl.SSLSocketFactory;
 import org.apache.http.conn.ssl.X509HostnameVerifier;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.DefaultProxyRoutePlanner;
@@ -56,6 +58,7 @@ import org.json.simple.parser.ParseException;
 import org.wso2.apk.apimgt.api.APIManagementException;
 import org.wso2.apk.apimgt.api.ErrorHandler;
 import org.wso2.apk.apimgt.api.ExceptionCodes;
+import org.wso2.apk.apimgt.api.dto.KeyManagerConfigurationDTO;
 import org.wso2.apk.apimgt.api.model.APIStatus;
 import org.wso2.apk.apimgt.api.model.Environment;
 import org.wso2.apk.apimgt.api.model.KeyManagerConnectorConfiguration;
@@ -68,11 +71,22 @@ import org.wso2.apk.apimgt.impl.APIConstants;
 import org.wso2.apk.apimgt.impl.APIManagerAnalyticsConfiguration;
 import org.wso2.apk.apimgt.impl.APIManagerConfigurationServiceImpl;
 import org.wso2.apk.apimgt.impl.ConfigurationHolder;
+import org.wso2.apk.apimgt.impl.caching.CacheProvider;
 import org.wso2.apk.apimgt.impl.config.APIMConfigService;
 import org.wso2.apk.apimgt.impl.config.APIMConfigServiceImpl;
 import org.wso2.apk.apimgt.impl.dao.ScopesDAO;
+import org.wso2.apk.apimgt.impl.dao.impl.CachedKeyManagerDAOImpl;
 import org.wso2.apk.apimgt.impl.internal.ServiceReferenceHolder;
+import org.wso2.apk.apimgt.impl.kmclient.KeyManagerClientRegistry;
+import org.wso2.apk.apimgt.impl.kmclient.KeyManagerClients;
 import org.wso2.apk.apimgt.impl.proxy.ExtendedProxyRoutePlanner;
+import org.wso2.apk.apimgt.impl.publisher.Event;
+import org.wso2.apk.apimgt.impl.publisher.EventPublisher;
+import org.wso2.apk.apimgt.impl.publisher.EventPublisherRegistry;
+import org.wso2.apk.apimgt.impl.publisher.EventSink;
+import org.wso2.apk.apimgt.impl.publisher.LogEventSink;
+import org.wso2.apk.apimgt.impl.subscription.SubscriptionDataStore;
+import org.wso2.apk.apimgt.impl.subscription.SubscriptionValidationResult;
 import org.wso2.apk.apimgt.user.exceptions.UserException;
 import org.wso2.apk.apimgt.user.mgt.internal.UserManagerHolder;
 
@@ -94,6 +108,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
 import javax.net.ssl.SSLContext;
 
 /**
@@ -105,6 +121,7 @@ public final class APIUtil {
     private static final Log log = LogFactory.getLog(APIUtil.class);
 
     private static final Log audit = LogFactory.getLog("AUDIT_LOG");
+    private static final EventSink auditSink = new LogEventSink(audit);
     public static final String ERROR_WHILE_RETRIEVING_TENANT_DOMAIN = "Error while retrieving tenant domain values from user store";
 
     public static final String DISABLE_ROLE_VALIDATION_AT_SCOPE_CREATION = "disableRoleValidationAtScopeCreation";
@@ -112,6 +129,8 @@ public final class APIUtil {
     private static final int ENTITY_EXPANSION_LIMIT = 0;
     private static volatile Set<String> allowedScopes;
     private static boolean isPublisherRoleCacheEnabled = true;
+    private static boolean isPolicyCacheEnabled = true;
+    private static boolean isKeyManagerTokenCacheEnabled = true;
 
     public static final String STRICT = "Strict";
     public static final String ALLOW_ALL = "AllowAll";
@@ -164,6 +183,30 @@ public final class APIUtil {
                 .getFirstProperty(APIConstants.PUBLISHER_ROLE_CACHE_ENABLED);
         isPublisherRoleCacheEnabled = isPublisherRoleCacheEnabledConfiguration == null || Boolean
                 .parseBoolean(isPublisherRoleCacheEnabledConfiguration);
+        String isPolicyCacheEnabledConfiguration = apiManagerConfiguration
+                .getFirstProperty(APIConstants.POLICY_CACHE_ENABLED);
+        isPolicyCacheEnabled = isPolicyCacheEnabledConfiguration == null || Boolean
+                .parseBoolean(isPolicyCacheEnabledConfiguration);
+        String isKeyManagerTokenCacheEnabledConfiguration = apiManagerConfiguration
+                .getFirstProperty(APIConstants.KEY_MANAGER_TOKEN_CACHE);
+        isKeyManagerTokenCacheEnabled = isKeyManagerTokenCacheEnabledConfiguration == null || Boolean
+                .parseBoolean(isKeyManagerTokenCacheEnabledConfiguration);
+    }
+
+    /**
+     * @return true if throttling policies read through the policy DAO are cached
+     */
+    public static boolean isPolicyCacheEnabled() {
+
+        return isPolicyCacheEnabled;
+    }
+
+    /**
+     * @return true if the token introspection results of the key managers are cached
+     */
+    public static boolean isKeyManagerTokenCacheEnabled() {
+
+        return isKeyManagerTokenCacheEnabled;
     }
 
     public static APIStatus getApiStatus(String status) throws APIManagementException {
@@ -334,6 +377,54 @@ public final class APIUtil {
         }
     }
 
+    /**
+     * Updates the role list of a user and removes the cached roles and admin permission of the user.
+     *
+     * @param username     A username
+     * @param deletedRoles roles to be removed from the user
+     * @param newRoles     roles to be assigned to the user
+     * @throws APIManagementException If an error occurs
+     */
+    public static void updateRoleListOfUser(String username, String[] deletedRoles, String[] newRoles)
+            throws APIManagementException {
+
+        if (username == null) {
+            throw new APIManagementException(ExceptionCodes.ANON_USER_ACTION);
+        }
+        try {
+            int tenantId = UserManagerHolder.getUserManager().getTenantId(getTenantDomain(username));
+            UserManagerHolder.getUserManager().updateRoleListOfUser(tenantId, getTenantAwareUsername(username),
+                    deletedRoles, newRoles);
+        } catch (UserException e) {
+            throw new APIManagementException("UserStoreException while updating the role list of the user "
+                    + username, e, ExceptionCodes.USERSTORE_INITIALIZATION_FAILED);
+        } finally {
+            clearRoleCache(username);
+        }
+    }
+
+    /**
+     * Deletes a user and removes the cached roles and admin permission of the user.
+     *
+     * @param username A username
+     * @throws APIManagementException If an error occurs
+     */
+    public static void deleteUser(String username) throws APIManagementException {
+
+        if (username == null) {
+            throw new APIManagementException(ExceptionCodes.ANON_USER_ACTION);
+        }
+        try {
+            int tenantId = UserManagerHolder.getUserManager().getTenantId(getTenantDomain(username));
+            UserManagerHolder.getUserManager().deleteUser(tenantId, getTenantAwareUsername(username));
+        } catch (UserException e) {
+            throw new APIManagementException("UserStoreException while deleting the user " + username, e,
+                    ExceptionCodes.USERSTORE_INITIALIZATION_FAILED);
+        } finally {
+            clearRoleCache(username);
+        }
+    }
+
     /**
      * To add the value to a cache.
      *
@@ -348,8 +439,8 @@ public final class APIUtil {
                 log.debug("Publisher role cache is enabled, adding the roles for the " + key + " to the cache "
                         + cacheName + "'");
             }
-            //TODO: APK
-//            Caching.getCacheManager(APIConstants.API_MANAGER_CACHE_MANAGER).getCache(cacheName).put(key, value);
+            Cache<String, T> rolesCache = CacheProvider.getCache(cacheName);
+            rolesCache.put(key, value);
         }
     }
 
@@ -367,14 +458,43 @@ public final class APIUtil {
                 log.debug("Publisher role cache is enabled, retrieving the roles for  " + key + " from the cache "
                         + cacheName + "'");
             }
-            //TODO: APK
-//            Cache<String, T> rolesCache = Caching.getCacheManager(APIConstants.API_MANAGER_CACHE_MANAGER)
-//                    .getCache(cacheName);
-//            return rolesCache.get(key);
+            Cache<String, T> rolesCache = CacheProvider.getCache(cacheName);
+            return rolesCache.get(key);
         }
         return null;
     }
 
+    /**
+     * Removes the cached role list and admin permission of the given user. This should be called whenever the roles
+     * of the user are changed.
+     *
+     * @param username username of the user
+     */
+    public static void clearRoleCache(String username) {
+
+        if (username == null) {
+            return;
+        }
+        CacheProvider.removeFromCache(APIConstants.API_USER_ROLE_CACHE, username);
+        CacheProvider.removeFromCache(APIConstants.API_PUBLISHER_ADMIN_PERMISSION_CACHE, username);
+    }
+
+    /**
+     * Removes the cached tenant-conf and the REST API scopes derived from it for the given organization. This should
+     * be called whenever the tenant-conf of the organization is changed.
+     *
+     * @param organization organization
+     */
+    public static void clearTenantConfigCache(String organization) {
+
+        if (organization == null) {
+            return;
+        }
+        CacheProvider.removeFromCache(APIConstants.TENANT_CONFIG_CACHE_NAME, organization);
+        CacheProvider.removeFromCache(APIConstants.REST_API_SCOPE_CACHE, organization);
+        CacheProvider.removeFromCache(APIConstants.REST_API_SCOPE_ROLE_INDEX_CACHE, organization);
+    }
+
     private static JsonElement getFileBaseTenantConfig() throws APIManagementException {
 
         try {
@@ -548,6 +668,7 @@ public final class APIUtil {
             SSLConnectionSocketFactory socketFactory = createSocketFactory();
             org.apache.http.config.Registry<ConnectionSocketFactory> socketFactoryRegistry =
                     RegistryBuilder.<ConnectionSocketFactory>create()
+                            .register(APIConstants.HTTP_PROTOCOL, PlainConnectionSocketFactory.getSocketFactory())
                             .register(APIConstants.HTTPS_PROTOCOL, socketFactory).build();
             poolManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
         } else {
@@ -594,7 +715,9 @@ public final class APIUtil {
     }
 
     /**
-     * Return a http client instance
+     * Return a http client instance. Clients are shared through the {@link HttpClientRegistry}, so connections to
+     * the same endpoint are pooled and kept alive across calls. The returned client must not be closed by the caller
+     * and response entities should be consumed to release the connection.
      *
      * @param port      - server port
      * @param protocol- service endpoint protocol http/https
@@ -602,6 +725,18 @@ public final class APIUtil {
      */
     public static HttpClient getHttpClient(int port, String protocol) {
 
+        return HttpClientRegistry.getInstance().getHttpClient(port, protocol);
+    }
+
+    /**
+     * Creates a new pooled http client as configured under HttpClient and ProxyConfig.
+     *
+     * @param port      - server port
+     * @param protocol- service endpoint protocol http/https
+     * @return http client
+     */
+    static CloseableHttpClient createHttpClient(int port, String protocol) {
+
         ConfigurationHolder configuration = ServiceReferenceHolder.getInstance().getAPIManagerConfigurationService()
                 .getAPIManagerConfiguration();
 
@@ -628,12 +763,32 @@ public final class APIUtil {
         } catch (APIManagementException e) {
             log.error("Error while getting http client connection manager", e);
         }
-        pool.setMaxTotal(Integer.parseInt(maxTotal));
-        pool.setDefaultMaxPerRoute(Integer.parseInt(defaultMaxPerRoute));
-
-        RequestConfig params = RequestConfig.custom().build();
+        pool.setMaxTotal(StringUtils.isBlank(maxTotal) ? APIConstants.DEFAULT_HTTP_CLIENT_MAX_TOTAL
+                : Integer.parseInt(maxTotal));
+        pool.setDefaultMaxPerRoute(StringUtils.isBlank(defaultMaxPerRoute)
+                ? APIConstants.DEFAULT_HTTP_CLIENT_MAX_PER_ROUTE : Integer.parseInt(defaultMaxPerRoute));
+        pool.setValidateAfterInactivity(getIntProperty(configuration,
+                APIConstants.HTTP_CLIENT_VALIDATE_AFTER_INACTIVITY,
+                APIConstants.DEFAULT_HTTP_CLIENT_VALIDATE_AFTER_INACTIVITY));
+
+        long keepAliveTimeout = getLongProperty(configuration, APIConstants.HTTP_CLIENT_KEEP_ALIVE_TIMEOUT,
+                APIConstants.DEFAULT_HTTP_CLIENT_KEEP_ALIVE_TIMEOUT);
+        long maxIdleTime = getLongProperty(configuration, APIConstants.HTTP_CLIENT_MAX_IDLE_TIME,
+                APIConstants.DEFAULT_HTTP_CLIENT_MAX_IDLE_TIME);
+        RequestConfig params = RequestConfig.custom()
+                .setConnectionRequestTimeout(getIntProperty(configuration,
+                        APIConstants.HTTP_CLIENT_CONNECTION_REQUEST_TIMEOUT,
+                        APIConstants.DEFAULT_HTTP_CLIENT_CONNECTION_REQUEST_TIMEOUT))
+                .build();
         HttpClientBuilder clientBuilder = HttpClients.custom().setConnectionManager(pool)
-                .setDefaultRequestConfig(params);
+                .setDefaultRequestConfig(params)
+                .setKeepAliveStrategy((response, context) -> {
+                    // honour the Keep-Alive header of the server, but never keep a connection longer than configured
+                    long timeout = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return timeout > 0 ? Math.min(timeout, keepAliveTimeout) : keepAliveTimeout;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(maxIdleTime, TimeUnit.MILLISECONDS);
 
         if (Boolean.parseBoolean(proxyEnabled)) {
             HttpHost host = new HttpHost(proxyHost, Integer.parseInt(proxyPort), protocol);
@@ -654,6 +809,18 @@ public final class APIUtil {
         return clientBuilder.build();
     }
 
+    private static int getIntProperty(ConfigurationHolder configuration, String key, int defaultValue) {
+
+        String value = configuration.getFirstProperty(key);
+        return StringUtils.isBlank(value) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long getLongProperty(ConfigurationHolder configuration, String key, long defaultValue) {
+
+        String value = configuration.getFirstProperty(key);
+        return StringUtils.isBlank(value) ? defaultValue : Long.parseLong(value.trim());
+    }
+
     /**
      * Gets the  class given the class name.
      *
@@ -725,35 +892,35 @@ public final class APIUtil {
     }
 
     /**
-     * Returns the tenant-conf.json in JSONObject format for the given tenant(id) from the registry.
+     * Returns the tenant-conf.json in JSONObject format for the given organization. The parsed tenant-conf is cached
+     * per organization until it is updated, hence the returned object is shared and cannot be modified.
      *
      * @param organization organization
-     * @return tenant-conf.json in JSONObject format for the given tenant(id)
-     * @throws APIManagementException when tenant-conf.json is not available in registry
+     * @return tenant-conf.json in JSONObject format for the given organization
+     * @throws APIManagementException when tenant-conf.json cannot be retrieved or parsed
      */
     public static JSONObject getTenantConfig(String organization) throws APIManagementException {
 
-        //TODO implement with suitable cache
-//        Cache tenantConfigCache = CacheProvider.getTenantConfigCache();
-//        String cacheName = organization + "_" + APIConstants.TENANT_CONFIG_CACHE_NAME;
-//        if (tenantConfigCache.containsKey(cacheName)) {
-//            return (JSONObject) tenantConfigCache.get(cacheName);
-//        } else {
+        String cacheKey = organization != null ? organization : APIConstants.SUPER_TENANT_DOMAIN;
+        Cache<String, JSONObject> tenantConfigCache = CacheProvider.getTenantConfigCache();
+        JSONObject jsonObject = tenantConfigCache.get(cacheKey);
+        if (jsonObject != null) {
+            return jsonObject;
+        }
 
         String tenantConfig = getAPIMConfigService().getTenantConfig(organization);
         if (StringUtils.isNotEmpty(tenantConfig)) {
             try {
-                JSONObject jsonObject = (JSONObject) new JSONParser().parse(tenantConfig);
-                //TODO implement with suitable cache
-//                    tenantConfigCache.put(cacheName, jsonObject);
-                return jsonObject;
+                jsonObject = UnmodifiableJSONObject.of((JSONObject) new JSONParser().parse(tenantConfig));
             } catch (ParseException e) {
                 throw new APIManagementException("Error occurred while converting tenant-conf to json", e,
                         ExceptionCodes.JSON_PARSE_ERROR);
             }
+        } else {
+            jsonObject = UnmodifiableJSONObject.of(new JSONObject());
         }
-        return new JSONObject();
-//        }
+        tenantConfigCache.put(cacheKey, jsonObject);
+        return jsonObject;
     }
 
     private static JSONObject getRESTAPIScopesFromTenantConfig(JSONObject tenantConf) {
@@ -776,20 +943,17 @@ public final class APIUtil {
     @SuppressWarnings("unchecked")
     public static Map<String, String> getRESTAPIScopesForTenant(String tenantDomain) {
 
-        //TODO: APK
-        Map<String, String> restAPIScopes = null;
-//        restAPIScopes = (Map) Caching.getCacheManager(APIConstants.API_MANAGER_CACHE_MANAGER)
-//                .getCache(APIConstants.REST_API_SCOPE_CACHE)
-//                .get(tenantDomain);
+        Cache<String, Map<String, String>> restAPIScopeCache = CacheProvider.getRESTAPIScopeCache();
+        Map<String, String> restAPIScopes = tenantDomain != null ? restAPIScopeCache.get(tenantDomain) : null;
         if (restAPIScopes == null) {
             try {
                 restAPIScopes = APIUtil.getRESTAPIScopesFromConfig(APIUtil.getTenantRESTAPIScopesConfig(tenantDomain),
                         APIUtil.getTenantRESTAPIScopeRoleMappingsConfig(tenantDomain));
-                //call load tenant config for rest API.
-                //then put cache
-//                Caching.getCacheManager(APIConstants.API_MANAGER_CACHE_MANAGER)
-//                        .getCache(APIConstants.REST_API_SCOPE_CACHE)
-//                        .put(tenantDomain, restAPIScopes);
+                //the same map is shared among the callers hence it should not be modified
+                restAPIScopes = Collections.unmodifiableMap(restAPIScopes);
+                if (tenantDomain != null) {
+                    restAPIScopeCache.put(tenantDomain, restAPIScopes);
+                }
             } catch (APIManagementException e) {
                 log.error("Error while getting REST API scopes for tenant: " + tenantDomain, e);
             }
@@ -797,6 +961,30 @@ public final class APIUtil {
         return restAPIScopes;
     }
 
+    /**
+     * Returns the compiled scope-role index of the RESTAPIScopes configuration of the given tenant. The index is
+     * compiled once per version of the cached scope-role mapping.
+     *
+     * @param tenantDomain tenant domain name
+     * @return compiled scope-role index, or null if the RESTAPIScopes configuration could not be read
+     */
+    public static ScopeRoleIndex getRESTAPIScopeRoleIndex(String tenantDomain) {
+
+        Map<String, String> restAPIScopes = getRESTAPIScopesForTenant(tenantDomain);
+        if (restAPIScopes == null) {
+            return null;
+        }
+        Cache<String, ScopeRoleIndex> scopeRoleIndexCache = CacheProvider.getRESTAPIScopeRoleIndexCache();
+        ScopeRoleIndex scopeRoleIndex = tenantDomain != null ? scopeRoleIndexCache.get(tenantDomain) : null;
+        if (scopeRoleIndex == null || !scopeRoleIndex.isBuiltFrom(restAPIScopes)) {
+            scopeRoleIndex = ScopeRoleIndex.build(restAPIScopes);
+            if (tenantDomain != null) {
+                scopeRoleIndexCache.put(tenantDomain, scopeRoleIndex);
+            }
+        }
+        return scopeRoleIndex;
+    }
+
     /**
      * This method gets the RESTAPIScopes configuration from tenant-conf.json in registry. Role Mappings (Role aliases
      * will not be substituted to the scope/role mappings)
@@ -870,6 +1058,9 @@ public final class APIUtil {
      * "provider": "nuwan"
      * }
      * }
+     * <p>
+     * The message is written to the audit log asynchronously by the audit event publisher, so the calling thread does
+     * not wait for the log appenders.
      *
      * @param entityType  - The entity type. Ex: API, Application
      * @param entityInfo  - The details of the entity. Ex: API Name, Context
@@ -883,7 +1074,14 @@ public final class APIUtil {
         jsonObject.put("action", action);
         jsonObject.put("performedBy", performedBy);
         jsonObject.put("info", entityInfo);
-        audit.info(StringEscapeUtils.unescapeJava(jsonObject.toString()));
+        String message = StringEscapeUtils.unescapeJava(jsonObject.toString());
+        // audit messages are not dropped, a batch the sink fails to publish is logged by the publishing thread
+        EventPublisher publisher = EventPublisherRegistry.getInstance().getPublisher(
+                EventPublisherRegistry.AUDIT_PUBLISHER, () -> auditSink, auditSink);
+        if (publisher == null || !publisher.offer(new Event(EventPublisherRegistry.AUDIT_PUBLISHER, message))) {
+            // and a message that cannot be queued, or is published after shutdown, is logged by the caller
+            audit.info(message);
+        }
     }
 
     /**
@@ -1027,6 +1225,51 @@ public final class APIUtil {
         return new HashMap<>(); //Dummy return
     }
 
+    /**
+     * Returns the clients of the endpoints of a key manager. The clients are pooled per key manager by the
+     * {@link KeyManagerClientRegistry}, which drops them when the key manager is updated or deleted.
+     *
+     * @param organization   organization of the key manager
+     * @param keyManagerName name of the key manager
+     * @return clients of the key manager
+     * @throws APIManagementException if the key manager does not exist or an endpoint of it is not a valid URL
+     */
+    public static KeyManagerClients getKeyManagerClients(String organization, String keyManagerName)
+            throws APIManagementException {
+
+        KeyManagerConfigurationDTO configuration = CachedKeyManagerDAOImpl.getInstance()
+                .getKeyManagerConfigurationByName(organization, keyManagerName);
+        if (configuration == null) {
+            throw new APIManagementException("Key Manager " + keyManagerName + " not found in organization "
+                    + organization, ExceptionCodes.KEY_MANAGER_NOT_FOUND);
+        }
+        return KeyManagerClientRegistry.getInstance().getClients(configuration);
+    }
+
+    /**
+     * Validates the subscription of a consumer key to an API against the in-memory subscription data of the
+     * organization, and checks the request against the block conditions of the organization. The database is only
+     * read if the organization has not been loaded yet.
+     *
+     * @param organization organization of the API
+     * @param consumerKey  consumer key the token was issued to
+     * @param keyManager   name of the key manager that issued the token, or null to accept any key manager
+     * @param apiUUID      UUID of the invoked API
+     * @param apiContext   context of the invoked API, or null if not known
+     * @param username     authenticated user, or null if not known
+     * @param clientIp     address of the client, or null if not known
+     * @return validation result
+     * @throws APIManagementException if the subscription data or the block conditions could not be loaded
+     */
+    public static SubscriptionValidationResult validateSubscription(String organization, String consumerKey,
+                                                                    String keyManager, String apiUUID,
+                                                                    String apiContext, String username,
+                                                                    String clientIp) throws APIManagementException {
+
+        return SubscriptionDataStore.getInstance().validate(organization, consumerKey, keyManager, apiUUID,
+                apiContext, username, clientIp);
+    }
+
     public static Scope getScopeByName(String scopeKey, String organization) throws APIManagementException {
 
         int tenantId = APIUtil.getInternalIdFromTenantDomainOrOrganization(organization);
@@ -1057,11 +1300,12 @@ public final class APIUtil {
         existingTenantConfObject.add(APIConstants.REST_API_SCOPES_CONFIG, mergedTenantConfScopes);
 
         // Prettify the tenant-conf
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        Gson gson = JsonCodecRegistry.getInstance().getPrettyPrintingGson();
         String formattedTenantConf = gson.toJson(existingTenantConfObject);
         //TODO handle configs
 //        ServiceReferenceHolder.getInstance().getApimConfigService().updateTenantConfig(tenantDomain,
 //                formattedTenantConf);
+        clearTenantConfigCache(tenantDomain);
 
         if (log.isDebugEnabled()) {
             log.debug("Finalized tenant-conf.json: " + formattedTenantConf);
@@ -1150,15 +1394,12 @@ public final class APIUtil {
         existingTenantConfObject.add(APIConstants.REST_API_ROLE_MAPPINGS_CONFIG, jsonElement);
 
         // Prettify the tenant-conf
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        Gson gson = JsonCodecRegistry.getInstance().getPrettyPrintingGson();
         String formattedTenantConf = gson.toJson(existingTenantConfObject);
         //TODO handle configs
 //        ServiceReferenceHolder.getInstance().getApimConfigService().updateTenantConfig(tenantDomain,
 //                formattedTenantConf);
-        //TODO cache implementation
-//        Cache tenantConfigCache = CacheProvider.getTenantConfigCache();
-//        String cacheName = tenantDomain + "_" + APIConstants.TENANT_CONFIG_CACHE_NAME;
-//        tenantConfigCache.remove(cacheName);
+        clearTenantConfigCache(tenantDomain);
         if (log.isDebugEnabled()) {
             log.debug("Finalized tenant-conf.json: " + formattedTenantConf);
         }
@@ -1251,15 +1492,16 @@ public final class APIUtil {
         String policySpecificationAsString = "";
         String synapsePolicyDefinitionAsString = "";
         String ccPolicyDefinitionAsString = "";
+        Gson gson = JsonCodecRegistry.getInstance().getGson();
 
         if (policyData.getSpecification() != null) {
-            policySpecificationAsString = new Gson().toJson(policyData.getSpecification());
+            policySpecificationAsString = gson.toJson(policyData.getSpecification());
         }
         if (policyData.getSynapsePolicyDefinition() != null) {
-            synapsePolicyDefinitionAsString = new Gson().toJson(policyData.getSynapsePolicyDefinition());
+            synapsePolicyDefinitionAsString = gson.toJson(policyData.getSynapsePolicyDefinition());
         }
         if (policyData.getCcPolicyDefinition() != null) {
-            ccPolicyDefinitionAsString = new Gson().toJson(policyData.getCcPolicyDefinition());
+            ccPolicyDefinitionAsString = gson.toJson(policyData.getCcPolicyDefinition());
         }
 
         return DigestUtils.md5Hex(policySpecificationAsString + synapsePolicyDefinitionAsString
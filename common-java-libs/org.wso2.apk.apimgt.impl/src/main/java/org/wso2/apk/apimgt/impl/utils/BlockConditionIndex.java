@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.utils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.wso2.apk.apimgt.api.model.BlockConditionsDTO;
+import org.wso2.apk.apimgt.api.model.policy.IPAddress;
+import org.wso2.apk.apimgt.api.model.policy.IPAddressRange;
+import org.wso2.apk.apimgt.impl.APIConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiled form of the block conditions of an organization. API, application, user and subscription conditions are
+ * kept in hash sets, and IP and IP range conditions are merged into sorted, non overlapping 128 bit intervals so an
+ * address is matched with a binary search. Addresses are compared in their {@link IPAddress} form.
+ * <p>
+ * Lookups do not lock or allocate. Only enabled conditions are indexed. When a condition is added, updated or
+ * deleted, only the structure of its condition type is rebuilt and published, while the other structures are
+ * reused.
+ */
+public final class BlockConditionIndex {
+
+    private static final Log log = LogFactory.getLog(BlockConditionIndex.class);
+    private static final ThreadLocal<long[]> addressBuffer = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final Map<Integer, BlockConditionsDTO> conditions = new HashMap<>();
+    private volatile Set<String> apis = Collections.emptySet();
+    private volatile Set<String> applications = Collections.emptySet();
+    private volatile Set<String> users = Collections.emptySet();
+    private volatile Set<String> subscriptions = Collections.emptySet();
+    private volatile IPRanges ipRanges = IPRanges.EMPTY;
+
+    private BlockConditionIndex() {
+
+    }
+
+    /**
+     * Compiles the given block conditions.
+     *
+     * @param blockConditions block conditions of an organization
+     * @return compiled index
+     */
+    public static BlockConditionIndex build(List<BlockConditionsDTO> blockConditions) {
+
+        BlockConditionIndex index = new BlockConditionIndex();
+        synchronized (index) {
+            for (BlockConditionsDTO blockCondition : blockConditions) {
+                index.conditions.put(blockCondition.getConditionId(), blockCondition);
+            }
+            index.apis = index.collectValues(APIConstants.BLOCKING_CONDITIONS_API);
+            index.applications = index.collectValues(APIConstants.BLOCKING_CONDITIONS_APPLICATION);
+            index.users = index.collectValues(APIConstants.BLOCKING_CONDITIONS_USER);
+            index.subscriptions = index.collectValues(APIConstants.BLOCKING_CONDITIONS_SUBSCRIPTION);
+            index.ipRanges = index.compileIPRanges();
+        }
+        return index;
+    }
+
+    /**
+     * Returns a copy of this index, to which conditions can be added and removed without affecting this index. The
+     * compiled structures are shared until a change rebuilds them.
+     *
+     * @return copy of the index
+     */
+    public synchronized BlockConditionIndex copy() {
+
+        BlockConditionIndex copy = new BlockConditionIndex();
+        synchronized (copy) {
+            copy.conditions.putAll(conditions);
+            copy.apis = apis;
+            copy.applications = applications;
+            copy.users = users;
+            copy.subscriptions = subscriptions;
+            copy.ipRanges = ipRanges;
+        }
+        return copy;
+    }
+
+    /**
+     * Adds a block condition, or replaces the condition with the same id. Disabled conditions are only tracked, they
+     * do not block requests.
+     *
+     * @param blockCondition block condition
+     */
+    public synchronized void addCondition(BlockConditionsDTO blockCondition) {
+
+        BlockConditionsDTO previous = conditions.put(blockCondition.getConditionId(), blockCondition);
+        if (previous != null && !previous.getConditionType().equals(blockCondition.getConditionType())) {
+            rebuild(previous.getConditionType());
+        }
+        rebuild(blockCondition.getConditionType());
+    }
+
+    /**
+     * Updates a block condition. This is the same as {@link #addCondition(BlockConditionsDTO)}.
+     *
+     * @param blockCondition block condition
+     */
+    public void updateCondition(BlockConditionsDTO blockCondition) {
+
+        addCondition(blockCondition);
+    }
+
+    /**
+     * Removes the block condition with the given id.
+     *
+     * @param conditionId id of the block condition
+     */
+    public synchronized void removeCondition(int conditionId) {
+
+        BlockConditionsDTO previous = conditions.remove(conditionId);
+        if (previous != null) {
+            rebuild(previous.getConditionType());
+        }
+    }
+
+    /**
+     * @return number of conditions tracked by the index, including disabled ones
+     */
+    public synchronized int size() {
+
+        return conditions.size();
+    }
+
+    public boolean isAPIBlocked(String apiContext) {
+
+        return apiContext != null && apis.contains(apiContext);
+    }
+
+    public boolean isApplicationBlocked(String applicationKey) {
+
+        return applicationKey != null && applications.contains(applicationKey);
+    }
+
+    public boolean isUserBlocked(String username) {
+
+        return username != null && users.contains(username);
+    }
+
+    public boolean isSubscriptionBlocked(String subscriptionKey) {
+
+        return subscriptionKey != null && subscriptions.contains(subscriptionKey);
+    }
+
+    /**
+     * Checks whether the given address is blocked by an IP or IP range condition. Addresses which are not valid IPv4
+     * or IPv6 literals are not blocked; host names are never resolved.
+     *
+     * @param ip IPv4 or IPv6 address
+     * @return true if the address is blocked
+     */
+    public boolean isIPBlocked(String ip) {
+
+        if (ip == null) {
+            return false;
+        }
+        IPRanges ranges = ipRanges;
+        if (ranges == IPRanges.EMPTY) {
+            return false;
+        }
+        long[] address = addressBuffer.get();
+        if (!IPAddress.parse(ip, address)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Ignoring invalid IP address " + ip + " while evaluating block conditions");
+            }
+            return false;
+        }
+        return ranges.isBlocked(address[0], address[1]);
+    }
+
+    /**
+     * Checks whether a request is blocked by any of the conditions. Arguments which are not known can be null.
+     *
+     * @param apiContext      context of the invoked API
+     * @param applicationKey  application identifier in the form used by application conditions
+     * @param username        authenticated user
+     * @param clientIp        address of the client
+     * @param subscriptionKey subscription identifier in the form used by subscription conditions
+     * @return true if the request is blocked
+     */
+    public boolean isRequestBlocked(String apiContext, String applicationKey, String username, String clientIp,
+                                    String subscriptionKey) {
+
+        return isAPIBlocked(apiContext) || isApplicationBlocked(applicationKey) || isUserBlocked(username)
+                || isSubscriptionBlocked(subscriptionKey) || isIPBlocked(clientIp);
+    }
+
+    private void rebuild(String conditionType) {
+
+        if (APIConstants.BLOCKING_CONDITIONS_API.equals(conditionType)) {
+            apis = collectValues(conditionType);
+        } else if (APIConstants.BLOCKING_CONDITIONS_APPLICATION.equals(conditionType)) {
+            applications = collectValues(conditionType);
+        } else if (APIConstants.BLOCKING_CONDITIONS_USER.equals(conditionType)) {
+            users = collectValues(conditionType);
+        } else if (APIConstants.BLOCKING_CONDITIONS_SUBSCRIPTION.equals(conditionType)) {
+            subscriptions = collectValues(conditionType);
+        } else if (isIPConditionType(conditionType)) {
+            ipRanges = compileIPRanges();
+        }
+    }
+
+    private Set<String> collectValues(String conditionType) {
+
+        Set<String> values = new HashSet<>();
+        for (BlockConditionsDTO blockCondition : conditions.values()) {
+            if (blockCondition.isEnabled() && conditionType.equals(blockCondition.getConditionType())
+                    && blockCondition.getConditionValue() != null) {
+                values.add(blockCondition.getConditionValue());
+            }
+        }
+        return values.isEmpty() ? Collections.emptySet() : values;
+    }
+
+    private static boolean isIPConditionType(String conditionType) {
+
+        return APIConstants.BLOCKING_CONDITIONS_IP.equals(conditionType)
+                || APIConstants.BLOCK_CONDITION_IP_RANGE.equalsIgnoreCase(conditionType);
+    }
+
+    private IPRanges compileIPRanges() {
+
+        List<long[]> blocked = new ArrayList<>();
+        boolean inverted = false;
+        long[] allowed = {0, 0, -1, -1};
+        JSONParser parser = new JSONParser();
+        for (BlockConditionsDTO blockCondition : conditions.values()) {
+            if (!blockCondition.isEnabled() || !isIPConditionType(blockCondition.getConditionType())) {
+                continue;
+            }
+            long[] range = parseIPCondition(parser, blockCondition);
+            if (range == null) {
+                continue;
+            }
+            if (range[4] != 0) {
+                // An inverted condition blocks every address outside its range, so only the intersection of the
+                // inverted ranges is allowed through.
+                inverted = true;
+                if (IPAddress.compare(range[0], range[1], allowed[0], allowed[1]) > 0) {
+                    allowed[0] = range[0];
+                    allowed[1] = range[1];
+                }
+                if (IPAddress.compare(range[2], range[3], allowed[2], allowed[3]) < 0) {
+                    allowed[2] = range[2];
+                    allowed[3] = range[3];
+                }
+            } else {
+                blocked.add(range);
+            }
+        }
+        if (blocked.isEmpty() && !inverted) {
+            return IPRanges.EMPTY;
+        }
+        blocked.sort((a, b) -> IPAddress.compare(a[0], a[1], b[0], b[1]));
+        List<long[]> merged = new ArrayList<>();
+        for (long[] range : blocked) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && !isAdjacentOrOverlapping(last, range)) {
+                last = null;
+            }
+            if (last == null) {
+                merged.add(range);
+            } else if (IPAddress.compare(range[2], range[3], last[2], last[3]) > 0) {
+                last[2] = range[2];
+                last[3] = range[3];
+            }
+        }
+        return new IPRanges(merged, inverted, allowed);
+    }
+
+    private static boolean isAdjacentOrOverlapping(long[] last, long[] next) {
+
+        if (IPAddress.compare(next[0], next[1], last[2], last[3]) <= 0) {
+            return true;
+        }
+        // next starts right after the end of last, unless last ends at the largest address
+        long endLow = last[3] + 1;
+        long endHigh = endLow == 0 ? last[2] + 1 : last[2];
+        return !(last[2] == -1 && last[3] == -1) && next[0] == endHigh && next[1] == endLow;
+    }
+
+    /**
+     * Parses the value of an IP or IP range condition into {startHigh, startLow, endHigh, endLow, invert}.
+     */
+    private static long[] parseIPCondition(JSONParser parser, BlockConditionsDTO blockCondition) {
+
+        try {
+            Object parsed = parser.parse(blockCondition.getConditionValue());
+            if (!(parsed instanceof JSONObject)) {
+                log.warn("Ignoring malformed IP block condition " + blockCondition.getUUID());
+                return null;
+            }
+            JSONObject value = (JSONObject) parsed;
+            IPAddressRange range;
+            if (APIConstants.BLOCKING_CONDITIONS_IP.equals(blockCondition.getConditionType())) {
+                // fixed IPs may also be given in CIDR notation
+                range = IPAddressRange.parse((String) value.get(APIConstants.BLOCK_CONDITION_FIXED_IP));
+            } else {
+                range = IPAddressRange.of(
+                        IPAddress.parse((String) value.get(APIConstants.BLOCK_CONDITION_START_IP)),
+                        IPAddress.parse((String) value.get(APIConstants.BLOCK_CONDITION_ENDING_IP)));
+            }
+            boolean invert = Boolean.parseBoolean(String.valueOf(value.get(APIConstants.BLOCK_CONDITION_INVERT)));
+            return new long[]{range.getStart().getHigh(), range.getStart().getLow(), range.getEnd().getHigh(),
+                    range.getEnd().getLow(), invert ? 1 : 0};
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring invalid IP block condition " + blockCondition.getUUID() + ": " + e.getMessage());
+            return null;
+        } catch (ParseException | ClassCastException e) {
+            log.warn("Ignoring malformed IP block condition " + blockCondition.getUUID(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Sorted, non overlapping blocked address ranges along with the range allowed by inverted conditions.
+     */
+    private static final class IPRanges {
+
+        private static final IPRanges EMPTY = new IPRanges(Collections.emptyList(), false, new long[4]);
+
+        private final long[] startHigh;
+        private final long[] startLow;
+        private final long[] endHigh;
+        private final long[] endLow;
+        private final boolean inverted;
+        private final long[] allowed;
+
+        private IPRanges(List<long[]> ranges, boolean inverted, long[] allowed) {
+
+            int size = ranges.size();
+            this.startHigh = new long[size];
+            this.startLow = new long[size];
+            this.endHigh = new long[size];
+            this.endLow = new long[size];
+            for (int i = 0; i < size; i++) {
+                long[] range = ranges.get(i);
+                startHigh[i] = range[0];
+                startLow[i] = range[1];
+                endHigh[i] = range[2];
+                endLow[i] = range[3];
+            }
+            this.inverted = inverted;
+            this.allowed = Arrays.copyOf(allowed, allowed.length);
+        }
+
+        private boolean isBlocked(long high, long low) {
+
+            if (inverted && (IPAddress.compare(high, low, allowed[0], allowed[1]) < 0
+                    || IPAddress.compare(high, low, allowed[2], allowed[3]) > 0)) {
+                return true;
+            }
+            // find the last range starting at or before the address
+            int lowIndex = 0;
+            int highIndex = startHigh.length - 1;
+            int candidate = -1;
+            while (lowIndex <= highIndex) {
+                int mid = (lowIndex + highIndex) >>> 1;
+                if (IPAddress.compare(startHigh[mid], startLow[mid], high, low) <= 0) {
+                    candidate = mid;
+                    lowIndex = mid + 1;
+                } else {
+                    highIndex = mid - 1;
+                }
+            }
+            return candidate >= 0 && IPAddress.compare(high, low, endHigh[candidate], endLow[candidate]) <= 0;
+        }
+    }
+}
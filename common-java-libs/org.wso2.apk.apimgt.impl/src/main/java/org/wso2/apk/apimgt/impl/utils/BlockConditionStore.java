@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.utils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.model.BlockConditionsDTO;
+import org.wso2.apk.apimgt.impl.APIConstants;
+import org.wso2.apk.apimgt.impl.caching.CacheProvider;
+import org.wso2.apk.apimgt.impl.dao.BlockConditionDAO;
+import org.wso2.apk.apimgt.impl.dao.impl.BlockConditionDAOImpl;
+
+import javax.cache.Cache;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+/**
+ * Holds the {@link BlockConditionIndex} of each organization in a cache. An index is loaded on first use and kept up
+ * to date with the block conditions added, updated and deleted on this node. Changes made on other nodes are picked
+ * up when the cached index expires, after the configured block condition cache expiry.
+ */
+public final class BlockConditionStore {
+
+    private static final Log log = LogFactory.getLog(BlockConditionStore.class);
+    private static final BlockConditionStore INSTANCE = new BlockConditionStore(BlockConditionDAOImpl.getInstance());
+
+    private final BlockConditionDAO blockConditionDAO;
+    private final ConcurrentMap<String, FutureTask<BlockConditionIndex>> loads = new ConcurrentHashMap<>();
+
+    private BlockConditionStore(BlockConditionDAO blockConditionDAO) {
+
+        this.blockConditionDAO = blockConditionDAO;
+    }
+
+    public static BlockConditionStore getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the compiled block conditions of an organization, loading them if they are not cached. Concurrent
+     * callers wait for a single load of the organization.
+     *
+     * @param organization organization
+     * @return block condition index of the organization
+     * @throws APIManagementException if the block conditions could not be loaded
+     */
+    public BlockConditionIndex getIndex(String organization) throws APIManagementException {
+
+        Cache<String, BlockConditionIndex> cache = CacheProvider.getBlockConditionIndexCache();
+        BlockConditionIndex index = cache.get(organization);
+        if (index != null) {
+            return index;
+        }
+        FutureTask<BlockConditionIndex> load = new FutureTask<>(
+                () -> BlockConditionIndex.build(blockConditionDAO.getBlockConditions(organization)));
+        FutureTask<BlockConditionIndex> running = loads.putIfAbsent(organization, load);
+        if (running != null) {
+            return await(organization, running);
+        }
+        // the conditions are read from the database outside of the cache lock
+        load.run();
+        try {
+            index = await(organization, load);
+        } catch (APIManagementException e) {
+            loads.remove(organization, load);
+            throw e;
+        }
+        cache.putIfAbsent(organization, index);
+        if (!loads.remove(organization, load)) {
+            // a condition changed while loading, the loaded index may not reflect it
+            cache.remove(organization, index);
+        }
+        return index;
+    }
+
+    /**
+     * Checks whether a request is blocked by the block conditions of an organization. Arguments which are not known
+     * can be null. See {@link BlockConditionIndex#isRequestBlocked(String, String, String, String, String)}.
+     *
+     * @param organization    organization of the invoked API
+     * @param apiContext      context of the invoked API
+     * @param applicationKey  application identifier in the form owner:name
+     * @param username        authenticated user
+     * @param clientIp        address of the client
+     * @param subscriptionKey subscription identifier in the form used by subscription conditions
+     * @return true if the request is blocked
+     * @throws APIManagementException if the block conditions could not be loaded
+     */
+    public boolean isRequestBlocked(String organization, String apiContext, String applicationKey, String username,
+                                    String clientIp, String subscriptionKey) throws APIManagementException {
+
+        return getIndex(organization).isRequestBlocked(apiContext, applicationKey, username, clientIp,
+                subscriptionKey);
+    }
+
+    /**
+     * Applies an added or updated block condition to the cached index of its organization.
+     *
+     * @param blockCondition block condition as stored
+     */
+    public void updateCondition(BlockConditionsDTO blockCondition) {
+
+        if (blockCondition == null || blockCondition.getTenantDomain() == null) {
+            return;
+        }
+        applyToIndex(blockCondition.getTenantDomain(), index -> index.updateCondition(blockCondition));
+    }
+
+    /**
+     * Removes a deleted block condition from the cached index of its organization.
+     *
+     * @param blockCondition block condition as stored before it was deleted
+     */
+    public void removeCondition(BlockConditionsDTO blockCondition) {
+
+        if (blockCondition == null || blockCondition.getTenantDomain() == null) {
+            return;
+        }
+        applyToIndex(blockCondition.getTenantDomain(), index -> index.removeCondition(blockCondition.getConditionId()));
+    }
+
+    /**
+     * Drops the cached index of an organization, so that it is loaded again on next use.
+     *
+     * @param organization organization
+     */
+    public void invalidate(String organization) {
+
+        CacheProvider.removeFromCache(APIConstants.BLOCK_CONDITION_INDEX_CACHE, organization);
+    }
+
+    private void applyToIndex(String organization, Consumer<BlockConditionIndex> change) {
+
+        // a load in progress may have read the conditions before this change, so it is not cached
+        loads.remove(organization);
+        Cache<String, BlockConditionIndex> cache = CacheProvider.getBlockConditionIndexCache();
+        try {
+            // the change is applied to a copy, so that lookups never see a partly applied change
+            BlockConditionIndex index;
+            BlockConditionIndex changed;
+            do {
+                index = cache.get(organization);
+                if (index == null) {
+                    return;
+                }
+                changed = index.copy();
+                change.accept(changed);
+            } while (!cache.replace(organization, index, changed));
+        } catch (RuntimeException e) {
+            // the index must not keep serving the previous state of the condition
+            log.warn("Error while updating the block condition index of organization " + organization, e);
+            invalidate(organization);
+        }
+    }
+
+    private static BlockConditionIndex await(String organization, FutureTask<BlockConditionIndex> load)
+            throws APIManagementException {
+
+        try {
+            return load.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof APIManagementException) {
+                throw (APIManagementException) e.getCause();
+            }
+            throw new APIManagementException("Error while loading the block conditions of organization "
+                    + organization, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new APIManagementException("Interrupted while loading the block conditions of organization "
+                    + organization, e);
+        }
+    }
+}
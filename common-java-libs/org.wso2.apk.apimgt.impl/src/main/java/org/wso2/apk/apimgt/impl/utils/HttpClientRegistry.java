@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.utils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the pooled http clients shared by the API manager components. A client is created per endpoint
+ * protocol and port on first use and reused afterwards, so connections, including their TLS sessions, are kept alive
+ * and reused across calls. Each client has a bounded connection pool and evicts expired and idle connections in the
+ * background.
+ */
+public final class HttpClientRegistry {
+
+    private static final Log log = LogFactory.getLog(HttpClientRegistry.class);
+    private static final HttpClientRegistry INSTANCE = new HttpClientRegistry();
+
+    private final Map<String, CloseableHttpClient> clients = new ConcurrentHashMap<>();
+
+    private HttpClientRegistry() {
+
+    }
+
+    public static HttpClientRegistry getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the shared client for the given endpoint, creating it if needed. The client must not be closed by the
+     * caller.
+     *
+     * @param port     endpoint port
+     * @param protocol endpoint protocol, http or https
+     * @return http client
+     */
+    public HttpClient getHttpClient(int port, String protocol) {
+
+        return clients.computeIfAbsent(protocol + ':' + port, key -> {
+            if (log.isDebugEnabled()) {
+                log.debug("Creating http client for " + key);
+            }
+            return APIUtil.createHttpClient(port, protocol);
+        });
+    }
+
+    /**
+     * Closes all the clients and their connection pools. Clients are created again on next use.
+     */
+    public void closeAll() {
+
+        for (String key : clients.keySet()) {
+            CloseableHttpClient client = clients.remove(key);
+            if (client != null) {
+                try {
+                    client.close();
+                } catch (IOException e) {
+                    log.warn("Error while closing the http client for " + key, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.utils;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the shared JSON codecs used by the API manager components. Building an ObjectMapper or a Gson instance
+ * and warming up its serializer caches costs far more than serializing a typical DTO, so the mappers are created once
+ * and the readers and writers are created once per type, with their root (de)serializers resolved on creation.
+ * <p>
+ * All the returned codecs are immutable and thread safe. The underlying mappers are not exposed so that their
+ * configuration cannot be changed by a caller.
+ */
+public final class JsonCodecRegistry {
+
+    private static final JsonCodecRegistry INSTANCE = new JsonCodecRegistry();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectMapper lenientMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ObjectMapper nonNullMapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> nonNullWriters = new ConcurrentHashMap<>();
+    private final Gson gson = new Gson();
+    private final Gson nullSerializingGson = new GsonBuilder().serializeNulls().create();
+    private final Gson prettyPrintingGson = new GsonBuilder().setPrettyPrinting().create();
+
+    private JsonCodecRegistry() {
+
+    }
+
+    public static JsonCodecRegistry getInstance() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the reader of the given type. Unknown properties fail the read.
+     *
+     * @param type type to be read
+     * @return reader
+     */
+    public ObjectReader getReader(Class<?> type) {
+
+        return readers.computeIfAbsent(type, mapper::readerFor);
+    }
+
+    /**
+     * Returns the writer of the given type. Null valued properties are written.
+     *
+     * @param type type to be written
+     * @return writer
+     */
+    public ObjectWriter getWriter(Class<?> type) {
+
+        return writers.computeIfAbsent(type, mapper::writerFor);
+    }
+
+    /**
+     * Returns the writer of the given type which omits null valued properties, as expected in REST API responses.
+     *
+     * @param type type to be written
+     * @return writer
+     */
+    public ObjectWriter getNonNullWriter(Class<?> type) {
+
+        return nonNullWriters.computeIfAbsent(type, nonNullMapper::writerFor);
+    }
+
+    /**
+     * Creates a UTF-8 generator writing to the given stream, for writing large documents incrementally with the
+     * writers returned by {@link #getNonNullWriter(Class)}. Closing the generator flushes it but does not close the
+     * stream.
+     *
+     * @param outputStream stream to be written to
+     * @return generator
+     * @throws IOException if the generator could not be created
+     */
+    public JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+
+        return nonNullMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Converts the given value to the given type through its JSON representation. Unknown properties fail the
+     * conversion.
+     *
+     * @param value value to be converted
+     * @param type  target type
+     * @return converted value
+     * @throws IllegalArgumentException if the value cannot be converted
+     */
+    public <T> T convertValue(Object value, Class<T> type) {
+
+        return mapper.convertValue(value, type);
+    }
+
+    /**
+     * Converts the given value to the given type through its JSON representation, ignoring the properties the target
+     * type does not have.
+     *
+     * @param value value to be converted
+     * @param type  target type
+     * @return converted value
+     * @throws IllegalArgumentException if the value cannot be converted
+     */
+    public <T> T convertValueIgnoringUnknown(Object value, Class<T> type) {
+
+        return lenientMapper.convertValue(value, type);
+    }
+
+    public Gson getGson() {
+
+        return gson;
+    }
+
+    public Gson getNullSerializingGson() {
+
+        return nullSerializingGson;
+    }
+
+    public Gson getPrettyPrintingGson() {
+
+        return prettyPrintingGson;
+    }
+}
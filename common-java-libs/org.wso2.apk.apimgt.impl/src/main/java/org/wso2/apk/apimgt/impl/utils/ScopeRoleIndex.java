@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled, read only form of a REST API scope to role mapping. Each scope is assigned a position and each role is
+ * mapped to the set of scope positions it grants, so resolving the scopes of a user is a union of the bit sets of the
+ * user roles instead of a scan over every scope and its role list.
+ * <p>
+ * Roles are matched exactly as in the scope-role mapping, i.e. the role list of a scope is split on commas and
+ * compared case sensitively.
+ */
+public final class ScopeRoleIndex {
+
+    private final Map<String, String> source;
+    private final String[] scopeNames;
+    private final Map<String, Integer> scopeIds;
+    private final Map<String, long[]> roleScopes;
+    private final int words;
+
+    private ScopeRoleIndex(Map<String, String> source) {
+
+        this.source = source;
+        this.scopeNames = new String[source.size()];
+        this.scopeIds = new HashMap<>(source.size() * 2);
+        this.words = (source.size() + Long.SIZE - 1) / Long.SIZE;
+        Map<String, long[]> roles = new HashMap<>();
+        int scopeId = 0;
+        for (Map.Entry<String, String> entry : source.entrySet()) {
+            scopeNames[scopeId] = entry.getKey();
+            scopeIds.put(entry.getKey(), scopeId);
+            if (entry.getValue() != null) {
+                for (String role : entry.getValue().split(",")) {
+                    long[] scopes = roles.computeIfAbsent(role, r -> new long[words]);
+                    scopes[scopeId / Long.SIZE] |= 1L << (scopeId % Long.SIZE);
+                }
+            }
+            scopeId++;
+        }
+        this.roleScopes = roles;
+    }
+
+    /**
+     * Compiles the given scope to role mapping.
+     *
+     * @param scopeRoleMapping map of scope names against comma separated role lists
+     * @return compiled index
+     */
+    public static ScopeRoleIndex build(Map<String, String> scopeRoleMapping) {
+
+        return new ScopeRoleIndex(scopeRoleMapping);
+    }
+
+    /**
+     * Checks whether this index was compiled from the given mapping instance.
+     *
+     * @param scopeRoleMapping scope to role mapping
+     * @return true if the index was built from the same mapping instance
+     */
+    public boolean isBuiltFrom(Map<String, String> scopeRoleMapping) {
+
+        return source == scopeRoleMapping;
+    }
+
+    /**
+     * @param scopeName name of the scope
+     * @return true if the scope is defined in the mapping
+     */
+    public boolean containsScope(String scopeName) {
+
+        return scopeIds.containsKey(scopeName);
+    }
+
+    /**
+     * Checks whether any of the given roles grants the given scope.
+     *
+     * @param userRoles roles of the user
+     * @param scopeName name of the scope
+     * @return true if the scope is granted to at least one of the roles
+     */
+    public boolean isScopeAllowed(String[] userRoles, String scopeName) {
+
+        Integer scopeId = scopeIds.get(scopeName);
+        if (scopeId == null || userRoles == null) {
+            return false;
+        }
+        int word = scopeId / Long.SIZE;
+        long mask = 1L << (scopeId % Long.SIZE);
+        for (String role : userRoles) {
+            long[] scopes = roleScopes.get(role);
+            if (scopes != null && (scopes[word] & mask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the scopes granted to any of the given roles.
+     *
+     * @param userRoles roles of the user
+     * @return bit set of the granted scope positions
+     */
+    public BitSet getScopeBits(String[] userRoles) {
+
+        long[] granted = new long[words];
+        if (userRoles != null) {
+            for (String role : userRoles) {
+                long[] scopes = roleScopes.get(role);
+                if (scopes != null) {
+                    for (int i = 0; i < words; i++) {
+                        granted[i] |= scopes[i];
+                    }
+                }
+            }
+        }
+        return BitSet.valueOf(granted);
+    }
+
+    /**
+     * Returns the names of the scopes granted to any of the given roles.
+     *
+     * @param userRoles roles of the user
+     * @return list of granted scope names
+     */
+    public List<String> getScopes(String[] userRoles) {
+
+        BitSet granted = getScopeBits(userRoles);
+        List<String> scopes = new ArrayList<>(granted.cardinality());
+        for (int i = granted.nextSetBit(0); i >= 0; i = granted.nextSetBit(i + 1)) {
+            scopes.add(scopeNames[i]);
+        }
+        return scopes;
+    }
+}
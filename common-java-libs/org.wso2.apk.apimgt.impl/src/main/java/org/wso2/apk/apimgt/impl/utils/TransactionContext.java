@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.utils;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A database connection bound to the current thread for the duration of a logical operation. While a context is
+ * active, {@link APIMgtDBUtil#getConnection()} hands out the bound connection, so all the DAO calls made within the
+ * operation share one pooled connection and one transaction.
+ * <p>
+ * The connection handed out to DAOs ignores close, commit and auto commit changes, since the transaction is completed
+ * by the owner of the context. A rollback requested by a DAO marks the transaction for rollback instead.
+ *
+ * @see APIMgtDBUtil#executeInTransaction(APIMgtDBUtil.TransactionalOperation)
+ */
+public final class TransactionContext {
+
+    private static final Log log = LogFactory.getLog(TransactionContext.class);
+    private static final ThreadLocal<TransactionContext> currentContext = new ThreadLocal<>();
+
+    private final Connection connection;
+    private final Connection scopedConnection;
+    private final boolean initialAutoCommit;
+    private final List<Runnable> completionCallbacks = new ArrayList<>();
+    private boolean rollbackOnly;
+
+    private TransactionContext(Connection connection) throws SQLException {
+
+        this.connection = connection;
+        this.initialAutoCommit = connection.getAutoCommit();
+        this.scopedConnection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class[]{Connection.class}, new ScopedConnectionHandler());
+        if (initialAutoCommit) {
+            connection.setAutoCommit(false);
+        }
+    }
+
+    /**
+     * @return context bound to the current thread or null if there is none
+     */
+    public static TransactionContext getCurrent() {
+
+        return currentContext.get();
+    }
+
+    /**
+     * Binds a new context over the given connection to the current thread.
+     *
+     * @param connection connection to be bound
+     * @return bound context
+     * @throws SQLException if the transaction could not be started
+     */
+    static TransactionContext begin(Connection connection) throws SQLException {
+
+        if (currentContext.get() != null) {
+            throw new IllegalStateException("A transaction is already bound to the current thread");
+        }
+        TransactionContext context;
+        try {
+            context = new TransactionContext(connection);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        currentContext.set(context);
+        return context;
+    }
+
+    /**
+     * @return connection to be used by the DAOs within this context
+     */
+    Connection getConnection() {
+
+        return scopedConnection;
+    }
+
+    /**
+     * Marks the transaction so that it is rolled back when the context completes.
+     */
+    public void setRollbackOnly() {
+
+        rollbackOnly = true;
+    }
+
+    /**
+     * @return true if the transaction will be rolled back when the context completes
+     */
+    public boolean isRollbackOnly() {
+
+        return rollbackOnly;
+    }
+
+    /**
+     * Registers a task to be run once the transaction is committed or rolled back, such as invalidating a cache
+     * populated within the transaction.
+     *
+     * @param callback task to be run
+     */
+    public void afterCompletion(Runnable callback) {
+
+        completionCallbacks.add(callback);
+    }
+
+    /**
+     * Commits the transaction unless it is marked for rollback.
+     *
+     * @throws SQLException if the transaction was marked for rollback or the commit failed
+     */
+    void commit() throws SQLException {
+
+        if (rollbackOnly) {
+            throw new SQLException("Transaction was marked for rollback");
+        }
+        connection.commit();
+    }
+
+    /**
+     * Rolls back the transaction.
+     */
+    void rollback() {
+
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            log.error("Error while rolling back the transaction", e);
+        }
+    }
+
+    /**
+     * Releases the connection and unbinds the context from the current thread.
+     */
+    void end() {
+
+        currentContext.remove();
+        APIMgtDBUtil.setAutoCommit(connection, initialAutoCommit);
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Database error. Could not close database connection. - " + e.getMessage(), e);
+        }
+        for (Runnable callback : completionCallbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                log.error("Error while running the transaction completion callback", e);
+            }
+        }
+    }
+
+    /**
+     * Forwards calls to the bound connection, except the ones that would end the transaction or release the
+     * connection.
+     */
+    private final class ScopedConnectionHandler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            String methodName = method.getName();
+            int argumentCount = args == null ? 0 : args.length;
+            if (("close".equals(methodName) || "commit".equals(methodName)) && argumentCount == 0) {
+                return null;
+            } else if ("setAutoCommit".equals(methodName)) {
+                return null;
+            } else if ("rollback".equals(methodName) && argumentCount == 0) {
+                rollbackOnly = true;
+                return null;
+            } else if ("equals".equals(methodName) && argumentCount == 1) {
+                return proxy == args[0];
+            } else if ("hashCode".equals(methodName) && argumentCount == 0) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.utils;
+
+import org.json.simple.JSONArray;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@link JSONArray} which cannot be modified once created. Nested objects and arrays are converted to their
+ * unmodifiable counterparts.
+ *
+ * @see UnmodifiableJSONObject
+ */
+public final class UnmodifiableJSONArray extends JSONArray {
+
+    private static final long serialVersionUID = 1L;
+
+    private UnmodifiableJSONArray(List<?> source) {
+
+        super.ensureCapacity(source.size());
+        for (Object value : source) {
+            super.add(UnmodifiableJSONObject.freeze(value));
+        }
+    }
+
+    /**
+     * Returns an unmodifiable deep copy of the given JSON array.
+     *
+     * @param jsonArray JSON array to be copied
+     * @return unmodifiable JSON array
+     */
+    public static UnmodifiableJSONArray of(JSONArray jsonArray) {
+
+        if (jsonArray instanceof UnmodifiableJSONArray) {
+            return (UnmodifiableJSONArray) jsonArray;
+        }
+        return new UnmodifiableJSONArray(jsonArray);
+    }
+
+    @Override
+    public boolean add(Object value) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void add(int index, Object value) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(Collection collection) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(int index, Collection collection) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object set(int index, Object value) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object remove(int index) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object value) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAll(Collection collection) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection collection) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeIf(Predicate filter) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator operator) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void sort(Comparator comparator) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator iterator() {
+
+        return new ReadOnlyListIterator(super.listIterator(0));
+    }
+
+    @Override
+    public ListIterator listIterator() {
+
+        return new ReadOnlyListIterator(super.listIterator(0));
+    }
+
+    @Override
+    public ListIterator listIterator(int index) {
+
+        return new ReadOnlyListIterator(super.listIterator(index));
+    }
+
+    @Override
+    public List subList(int fromIndex, int toIndex) {
+
+        return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+    }
+
+    private static final class ReadOnlyListIterator implements ListIterator {
+
+        private final ListIterator delegate;
+
+        private ReadOnlyListIterator(ListIterator delegate) {
+
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Object next() {
+
+            return delegate.next();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+
+            return delegate.hasPrevious();
+        }
+
+        @Override
+        public Object previous() {
+
+            return delegate.previous();
+        }
+
+        @Override
+        public int nextIndex() {
+
+            return delegate.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+
+            return delegate.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(Object value) {
+
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(Object value) {
+
+            throw new UnsupportedOperationException();
+        }
+    }
+}
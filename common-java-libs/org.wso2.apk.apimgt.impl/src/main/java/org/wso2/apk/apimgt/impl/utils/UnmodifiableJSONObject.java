@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.utils;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A {@link JSONObject} which cannot be modified once created. Nested objects and arrays are converted to
+ * {@link UnmodifiableJSONObject} and {@link UnmodifiableJSONArray} respectively, so the whole document is read only.
+ * Used to share a parsed JSON document, such as a cached tenant-conf, among multiple readers.
+ */
+public final class UnmodifiableJSONObject extends JSONObject {
+
+    private static final long serialVersionUID = 1L;
+
+    private UnmodifiableJSONObject(Map<?, ?> source) {
+
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            super.put(entry.getKey(), freeze(entry.getValue()));
+        }
+    }
+
+    /**
+     * Returns an unmodifiable deep copy of the given JSON object.
+     *
+     * @param jsonObject JSON object to be copied
+     * @return unmodifiable JSON object
+     */
+    public static UnmodifiableJSONObject of(JSONObject jsonObject) {
+
+        if (jsonObject instanceof UnmodifiableJSONObject) {
+            return (UnmodifiableJSONObject) jsonObject;
+        }
+        return new UnmodifiableJSONObject(jsonObject);
+    }
+
+    static Object freeze(Object value) {
+
+        if (value instanceof JSONObject) {
+            return of((JSONObject) value);
+        } else if (value instanceof JSONArray) {
+            return UnmodifiableJSONArray.of((JSONArray) value);
+        }
+        return value;
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(Map map) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object remove(Object key) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object putIfAbsent(Object key, Object value) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean replace(Object key, Object oldValue, Object newValue) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object replace(Object key, Object value) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void replaceAll(BiFunction function) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object computeIfAbsent(Object key, Function mappingFunction) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object computeIfPresent(Object key, BiFunction remappingFunction) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object compute(Object key, BiFunction remappingFunction) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object merge(Object key, Object value, BiFunction remappingFunction) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Set keySet() {
+
+        return Collections.unmodifiableSet(super.keySet());
+    }
+
+    @Override
+    public Collection values() {
+
+        return Collections.unmodifiableCollection(super.values());
+    }
+
+    @Override
+    public Set entrySet() {
+
+        // the entries are wrapped as well, as Map.Entry#setValue writes through to the object
+        Set entries = super.entrySet();
+        return Collections.unmodifiableMap(new AbstractMap() {
+            @Override
+            public Set entrySet() {
+
+                return entries;
+            }
+        }).entrySet();
+    }
+}
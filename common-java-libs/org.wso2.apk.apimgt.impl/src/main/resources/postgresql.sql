@@ -2379,6 +2379,7 @@ DROP TABLE IF EXISTS AM_TENANT_THEMES;
 CREATE TABLE IF NOT EXISTS AM_TENANT_THEMES (
   ORGANIZATION VARCHAR(100) NOT NULL,
   THEME BYTEA NOT NULL,
+  THEME_HASH VARCHAR(64),
   PRIMARY KEY (ORGANIZATION)
 );
 
@@ -2626,6 +2627,157 @@ CREATE TABLE IF NOT EXISTS AM_SYSTEM_CONFIGS
   PRIMARY KEY (ORGANIZATION,CONFIG_TYPE)
 );
 
+-- Subscription Data Change Log --
+-- Rows changed in the tables the subscription data store is built from. Readers fetch the current state of the
+-- changed entities, so a row only names the entity. The organization of a child row is looked up from its parent and
+-- is NULL when the parent was deleted in the same transaction, so the store drops the subscriptions and key mappings
+-- of a deleted application itself.
+DROP TABLE IF EXISTS AM_SUBSCRIPTION_DATA_CHANGE;
+DROP SEQUENCE IF EXISTS AM_SUBSCRIPTION_DATA_CHANGE_SEQ;
+CREATE SEQUENCE AM_SUBSCRIPTION_DATA_CHANGE_SEQ;
+CREATE TABLE IF NOT EXISTS AM_SUBSCRIPTION_DATA_CHANGE (
+  CHANGE_ID BIGINT DEFAULT NEXTVAL('AM_SUBSCRIPTION_DATA_CHANGE_SEQ'),
+  ORGANIZATION VARCHAR(100),
+  ENTITY_TYPE VARCHAR(25) NOT NULL,
+  ENTITY_ID INTEGER,
+  ENTITY_KEY VARCHAR(512),
+  CHANGED_TIME TIMESTAMP NOT NULL DEFAULT CLOCK_TIMESTAMP(),
+  PRIMARY KEY (CHANGE_ID)
+);
+CREATE INDEX IDX_ASDC_ORG_CI ON AM_SUBSCRIPTION_DATA_CHANGE (ORGANIZATION, CHANGE_ID);
+CREATE INDEX IDX_ASDC_CT ON AM_SUBSCRIPTION_DATA_CHANGE (CHANGED_TIME);
+
+CREATE OR REPLACE FUNCTION AM_LOG_APPLICATION_CHANGE()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP <> 'DELETE' THEN
+        INSERT INTO AM_SUBSCRIPTION_DATA_CHANGE (ORGANIZATION, ENTITY_TYPE, ENTITY_ID)
+            VALUES (NEW.ORGANIZATION, 'APPLICATION', NEW.APPLICATION_ID);
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO AM_SUBSCRIPTION_DATA_CHANGE (ORGANIZATION, ENTITY_TYPE, ENTITY_ID)
+            VALUES (OLD.ORGANIZATION, 'APPLICATION', OLD.APPLICATION_ID);
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF OLD.ORGANIZATION IS DISTINCT FROM NEW.ORGANIZATION THEN
+            INSERT INTO AM_SUBSCRIPTION_DATA_CHANGE (ORGANIZATION, ENTITY_TYPE, ENTITY_ID)
+                VALUES (OLD.ORGANIZATION, 'APPLICATION', OLD.APPLICATION_ID);
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION AM_LOG_APPLICATION_DETAIL_CHANGE()
+RETURNS TRIGGER AS $$
+DECLARE
+    CHANGED_APPLICATION_ID INTEGER;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        CHANGED_APPLICATION_ID := OLD.APPLICATION_ID;
+    ELSE
+        CHANGED_APPLICATION_ID := NEW.APPLICATION_ID;
+    END IF;
+    INSERT INTO AM_SUBSCRIPTION_DATA_CHANGE (ORGANIZATION, ENTITY_TYPE, ENTITY_ID)
+        VALUES ((SELECT ORGANIZATION FROM AM_APPLICATION WHERE APPLICATION_ID = CHANGED_APPLICATION_ID),
+                'APPLICATION', CHANGED_APPLICATION_ID);
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION AM_LOG_SUBSCRIPTION_CHANGE()
+RETURNS TRIGGER AS $$
+DECLARE
+    CHANGED_SUBSCRIPTION_ID INTEGER;
+    CHANGED_APPLICATION_ID INTEGER;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        CHANGED_SUBSCRIPTION_ID := OLD.SUBSCRIPTION_ID;
+        CHANGED_APPLICATION_ID := OLD.APPLICATION_ID;
+    ELSE
+        CHANGED_SUBSCRIPTION_ID := NEW.SUBSCRIPTION_ID;
+        CHANGED_APPLICATION_ID := NEW.APPLICATION_ID;
+    END IF;
+    INSERT INTO AM_SUBSCRIPTION_DATA_CHANGE (ORGANIZATION, ENTITY_TYPE, ENTITY_ID)
+        VALUES ((SELECT ORGANIZATION FROM AM_APPLICATION WHERE APPLICATION_ID = CHANGED_APPLICATION_ID),
+                'SUBSCRIPTION', CHANGED_SUBSCRIPTION_ID);
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION AM_LOG_KEY_MAPPING_CHANGE()
+RETURNS TRIGGER AS $$
+DECLARE
+    NEW_CONSUMER_KEY VARCHAR(512);
+BEGIN
+    IF TG_OP <> 'DELETE' THEN
+        NEW_CONSUMER_KEY := NEW.CONSUMER_KEY;
+        IF NEW_CONSUMER_KEY IS NOT NULL THEN
+            INSERT INTO AM_SUBSCRIPTION_DATA_CHANGE (ORGANIZATION, ENTITY_TYPE, ENTITY_KEY)
+                VALUES ((SELECT ORGANIZATION FROM AM_APPLICATION WHERE APPLICATION_ID = NEW.APPLICATION_ID),
+                        'KEY_MAPPING', NEW_CONSUMER_KEY);
+        END IF;
+    END IF;
+    IF TG_OP <> 'INSERT' THEN
+        IF OLD.CONSUMER_KEY IS NOT NULL AND OLD.CONSUMER_KEY IS DISTINCT FROM NEW_CONSUMER_KEY THEN
+            INSERT INTO AM_SUBSCRIPTION_DATA_CHANGE (ORGANIZATION, ENTITY_TYPE, ENTITY_KEY)
+                VALUES ((SELECT ORGANIZATION FROM AM_APPLICATION WHERE APPLICATION_ID = OLD.APPLICATION_ID),
+                        'KEY_MAPPING', OLD.CONSUMER_KEY);
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION AM_LOG_POLICY_CHANGE()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO AM_SUBSCRIPTION_DATA_CHANGE (ORGANIZATION, ENTITY_TYPE, ENTITY_ID)
+            VALUES (OLD.ORGANIZATION, TG_ARGV[0], OLD.POLICY_ID);
+    ELSE
+        INSERT INTO AM_SUBSCRIPTION_DATA_CHANGE (ORGANIZATION, ENTITY_TYPE, ENTITY_ID)
+            VALUES (NEW.ORGANIZATION, TG_ARGV[0], NEW.POLICY_ID);
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION AM_LOG_CONDITION_GROUP_CHANGE()
+RETURNS TRIGGER AS $$
+DECLARE
+    CHANGED_POLICY_ID INTEGER;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        CHANGED_POLICY_ID := OLD.POLICY_ID;
+    ELSE
+        CHANGED_POLICY_ID := NEW.POLICY_ID;
+    END IF;
+    INSERT INTO AM_SUBSCRIPTION_DATA_CHANGE (ORGANIZATION, ENTITY_TYPE, ENTITY_ID)
+        VALUES ((SELECT ORGANIZATION FROM AM_API_THROTTLE_POLICY WHERE POLICY_ID = CHANGED_POLICY_ID),
+                'API_POLICY', CHANGED_POLICY_ID);
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER AM_APPLICATION_CHANGE AFTER INSERT OR UPDATE OR DELETE ON AM_APPLICATION
+    FOR EACH ROW EXECUTE PROCEDURE AM_LOG_APPLICATION_CHANGE();
+CREATE TRIGGER AM_APPLICATION_ATTRIBUTES_CHANGE AFTER INSERT OR UPDATE OR DELETE ON AM_APPLICATION_ATTRIBUTES
+    FOR EACH ROW EXECUTE PROCEDURE AM_LOG_APPLICATION_DETAIL_CHANGE();
+CREATE TRIGGER AM_APPLICATION_GROUP_MAPPING_CHANGE AFTER INSERT OR UPDATE OR DELETE ON AM_APPLICATION_GROUP_MAPPING
+    FOR EACH ROW EXECUTE PROCEDURE AM_LOG_APPLICATION_DETAIL_CHANGE();
+CREATE TRIGGER AM_SUBSCRIPTION_CHANGE AFTER INSERT OR UPDATE OR DELETE ON AM_SUBSCRIPTION
+    FOR EACH ROW EXECUTE PROCEDURE AM_LOG_SUBSCRIPTION_CHANGE();
+CREATE TRIGGER AM_APPLICATION_KEY_MAPPING_CHANGE AFTER INSERT OR UPDATE OR DELETE ON AM_APPLICATION_KEY_MAPPING
+    FOR EACH ROW EXECUTE PROCEDURE AM_LOG_KEY_MAPPING_CHANGE();
+CREATE TRIGGER AM_POLICY_SUBSCRIPTION_CHANGE AFTER INSERT OR UPDATE OR DELETE ON AM_POLICY_SUBSCRIPTION
+    FOR EACH ROW EXECUTE PROCEDURE AM_LOG_POLICY_CHANGE('SUBSCRIPTION_POLICY');
+CREATE TRIGGER AM_POLICY_APPLICATION_CHANGE AFTER INSERT OR UPDATE OR DELETE ON AM_POLICY_APPLICATION
+    FOR EACH ROW EXECUTE PROCEDURE AM_LOG_POLICY_CHANGE('APPLICATION_POLICY');
+CREATE TRIGGER AM_API_THROTTLE_POLICY_CHANGE AFTER INSERT OR UPDATE OR DELETE ON AM_API_THROTTLE_POLICY
+    FOR EACH ROW EXECUTE PROCEDURE AM_LOG_POLICY_CHANGE('API_POLICY');
+CREATE TRIGGER AM_CONDITION_GROUP_CHANGE AFTER INSERT OR UPDATE OR DELETE ON AM_CONDITION_GROUP
+    FOR EACH ROW EXECUTE PROCEDURE AM_LOG_CONDITION_GROUP_CHANGE();
+
 -- End of API-MGT Tables --
 
 -- Performance indexes start--
@@ -2644,6 +2796,24 @@ create index IDX_APS_QT on AM_POLICY_SUBSCRIPTION (QUOTA_TYPE);
 create index IDX_AS_AITIAI on AM_SUBSCRIPTION (API_ID,TIER_ID,APPLICATION_ID);
 create index IDX_APA_QT on AM_POLICY_APPLICATION (QUOTA_TYPE);
 create index IDX_AA_AT_CB on AM_APPLICATION (APPLICATION_TIER,CREATED_BY);
+-- Indexes backing the keyset order of application listings. The expressions match the sort columns of
+-- ApplicationDAOImpl. The listings filter on the organization of the subscriber, so only the owner index can lead
+-- with the organization; the application indexes are ordered scans filtered by the join.
+create index IDX_AS_ORG_CB on AM_SUBSCRIBER (ORGANIZATION,COALESCE(CREATED_BY, ''));
+create index IDX_AA_NAME_AI on AM_APPLICATION (COALESCE(NAME, ''),APPLICATION_ID);
+create index IDX_AA_AT_AI on AM_APPLICATION (COALESCE(APPLICATION_TIER, ''),APPLICATION_ID);
+create index IDX_AA_AS_AI on AM_APPLICATION (COALESCE(APPLICATION_STATUS, ''),APPLICATION_ID);
+
+-- Trigram indexes for application search by name and owner. They are skipped when pg_trgm is not available.
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+    CREATE INDEX IDX_AA_NAME_TRGM ON AM_APPLICATION USING gin (NAME gin_trgm_ops);
+    CREATE INDEX IDX_AS_CB_TRGM ON AM_SUBSCRIBER USING gin (CREATED_BY gin_trgm_ops);
+EXCEPTION WHEN insufficient_privilege OR undefined_file THEN
+    RAISE NOTICE 'pg_trgm extension is not available, application search indexes are not created';
+END;
+$$ language 'plpgsql';
 
 -- Performance indexes end--
 
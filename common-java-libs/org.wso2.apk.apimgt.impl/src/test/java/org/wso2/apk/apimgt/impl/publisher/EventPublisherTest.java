@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.publisher;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.apk.apimgt.impl.dto.ThrottleProperties;
+import org.wso2.apk.apimgt.impl.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EventPublisherTest {
+
+    private static final long TIMEOUT_MILLIS = 10000;
+    private static final long NO_FLUSH_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+    private static final AtomicInteger publisherCount = new AtomicInteger();
+
+    private final List<EventPublisher> publishers = new ArrayList<>();
+    private InMemoryEventSink sink;
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() {
+
+        sink = new InMemoryEventSink();
+        callers = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+
+        callers.shutdownNow();
+        for (EventPublisher publisher : publishers) {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatchIsDeliveredWhenFull() throws Exception {
+
+        EventPublisher publisher = start(sink, configuration(64, 10, NO_FLUSH_INTERVAL, "drop"));
+        for (int i = 0; i < 25; i++) {
+            Assert.assertTrue(publisher.publish(event(i)));
+        }
+
+        Assert.assertTrue(sink.awaitEvents(20, TIMEOUT_MILLIS));
+        // the remaining events wait for the flush interval or the shutdown
+        Assert.assertEquals(5, publisher.getBufferedEventCount());
+        Assert.assertEquals(Arrays.asList(10, 10), sink.getBatchSizes());
+
+        publisher.shutdown();
+        Assert.assertEquals(Arrays.asList(10, 10, 5), sink.getBatchSizes());
+        assertPayloads(sink.getEvents(), 0, 25);
+        Assert.assertEquals(25, counter(EventPublisher.PUBLISHED, publisher));
+        Assert.assertFalse(publisher.publish(event(25)));
+    }
+
+    @Test
+    public void testBatchIsDeliveredAfterFlushInterval() throws Exception {
+
+        EventPublisher publisher = start(sink, configuration(64, 10, 50, "drop"));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(publisher.publish(event(i)));
+        }
+
+        Assert.assertTrue(sink.awaitEvents(3, TIMEOUT_MILLIS));
+        Assert.assertEquals(Collections.singletonList(3), sink.getBatchSizes());
+        assertPayloads(sink.getEvents(), 0, 3);
+    }
+
+    @Test
+    public void testEventIsDroppedWhenBufferIsFull() throws Exception {
+
+        BlockingEventSink blockingSink = new BlockingEventSink(sink);
+        EventPublisher publisher = start(blockingSink, configuration(4, 1, NO_FLUSH_INTERVAL, "drop"));
+        fillBuffer(publisher, blockingSink);
+
+        Assert.assertFalse(publisher.publish(event(5)));
+        Assert.assertEquals(1, counter(EventPublisher.DROPPED, publisher));
+
+        blockingSink.release();
+        publisher.shutdown();
+        assertPayloads(sink.getEvents(), 0, 5);
+    }
+
+    @Test
+    public void testOfferedEventIsNotCountedAsDropped() throws Exception {
+
+        BlockingEventSink blockingSink = new BlockingEventSink(sink);
+        EventPublisher publisher = start(blockingSink, configuration(4, 1, NO_FLUSH_INTERVAL, "drop"));
+        fillBuffer(publisher, blockingSink);
+
+        // the caller handles the event that is not queued
+        Assert.assertFalse(publisher.offer(event(5)));
+        Assert.assertEquals(0, counter(EventPublisher.DROPPED, publisher));
+
+        blockingSink.release();
+        publisher.shutdown();
+        assertPayloads(sink.getEvents(), 0, 5);
+        Assert.assertFalse(publisher.offer(event(6)));
+    }
+
+    @Test
+    public void testPublishBlocksUntilBufferHasSpace() throws Exception {
+
+        BlockingEventSink blockingSink = new BlockingEventSink(sink);
+        ThrottleProperties.DataPublisherPool configuration = configuration(4, 1, NO_FLUSH_INTERVAL, "block");
+        configuration.setMaxBlockTime(TIMEOUT_MILLIS);
+        EventPublisher publisher = start(blockingSink, configuration);
+        fillBuffer(publisher, blockingSink);
+
+        Future<Boolean> blocked = callers.submit(() -> publisher.publish(event(5)));
+        Thread.sleep(100);
+        Assert.assertFalse(blocked.isDone());
+        blockingSink.release();
+
+        Assert.assertTrue(blocked.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(sink.awaitEvents(6, TIMEOUT_MILLIS));
+        assertPayloads(sink.getEvents(), 0, 6);
+        Assert.assertEquals(0, counter(EventPublisher.DROPPED, publisher));
+    }
+
+    @Test
+    public void testBlockedPublishIsDroppedAfterMaxBlockTime() throws Exception {
+
+        BlockingEventSink blockingSink = new BlockingEventSink(sink);
+        ThrottleProperties.DataPublisherPool configuration = configuration(4, 1, NO_FLUSH_INTERVAL, "block");
+        configuration.setMaxBlockTime(50);
+        EventPublisher publisher = start(blockingSink, configuration);
+        fillBuffer(publisher, blockingSink);
+
+        long start = System.nanoTime();
+        Assert.assertFalse(publisher.publish(event(5)));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertEquals(1, counter(EventPublisher.DROPPED, publisher));
+
+        blockingSink.release();
+        publisher.shutdown();
+        assertPayloads(sink.getEvents(), 0, 5);
+    }
+
+    @Test
+    public void testFailedBatchIsWrittenToFallbackSink() throws Exception {
+
+        EventSink failingSink = events -> {
+            throw new IOException("Sink unavailable");
+        };
+        InMemoryEventSink fallbackSink = new InMemoryEventSink();
+        EventPublisher publisher = new EventPublisher(nextName(), failingSink, fallbackSink,
+                configuration(64, 2, NO_FLUSH_INTERVAL, "drop"));
+        publishers.add(publisher);
+        publisher.start();
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(publisher.publish(event(i)));
+        }
+
+        Assert.assertTrue(fallbackSink.awaitEvents(4, TIMEOUT_MILLIS));
+        assertPayloads(fallbackSink.getEvents(), 0, 4);
+        Assert.assertEquals(4, counter(EventPublisher.FAILED, publisher));
+        Assert.assertEquals(0, counter(EventPublisher.PUBLISHED, publisher));
+    }
+
+    /**
+     * Publishes an event that blocks the sink, then fills the buffer with four more.
+     */
+    private static void fillBuffer(EventPublisher publisher, BlockingEventSink blockingSink) throws Exception {
+
+        Assert.assertTrue(publisher.publish(event(0)));
+        Assert.assertTrue(blockingSink.awaitPublishing());
+        for (int i = 1; i < 5; i++) {
+            Assert.assertTrue(publisher.publish(event(i)));
+        }
+    }
+
+    private EventPublisher start(EventSink eventSink, ThrottleProperties.DataPublisherPool configuration) {
+
+        EventPublisher publisher = new EventPublisher(nextName(), eventSink, configuration);
+        publishers.add(publisher);
+        publisher.start();
+        return publisher;
+    }
+
+    private static String nextName() {
+
+        // counters are kept per publisher name, so every test gets its own
+        return "test-" + publisherCount.incrementAndGet();
+    }
+
+    private static ThrottleProperties.DataPublisherPool configuration(int bufferSize, int batchSize,
+                                                                      long flushInterval, String overflowPolicy) {
+
+        ThrottleProperties.DataPublisherPool configuration = new ThrottleProperties.DataPublisherPool();
+        configuration.setBufferSize(bufferSize);
+        configuration.setBatchSize(batchSize);
+        configuration.setFlushInterval(flushInterval);
+        configuration.setOverflowPolicy(overflowPolicy);
+        return configuration;
+    }
+
+    private static long counter(String name, EventPublisher publisher) {
+
+        return MetricsRegistry.getInstance().counter(name, "publisher", publisher.getName()).getValue();
+    }
+
+    private static Event event(int i) {
+
+        return new Event("test", "event-" + i);
+    }
+
+    private static void assertPayloads(List<Event> events, int from, int to) {
+
+        Assert.assertEquals(to - from, events.size());
+        for (int i = from; i < to; i++) {
+            Assert.assertEquals("event-" + i, events.get(i - from).getPayload());
+        }
+    }
+
+    /**
+     * Holds the publishing thread in its first batch until released, so that the buffer can be filled.
+     */
+    private static final class BlockingEventSink implements EventSink {
+
+        private final EventSink delegate;
+        private final CountDownLatch publishing = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        private BlockingEventSink(EventSink delegate) {
+
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void publish(List<Event> events) throws IOException {
+
+            publishing.countDown();
+            try {
+                released.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delegate.publish(events);
+        }
+
+        boolean awaitPublishing() throws InterruptedException {
+
+            return publishing.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        void release() {
+
+            released.countDown();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.publisher;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class EventRingBufferTest {
+
+    @Test
+    public void testCapacityIsRoundedUpToPowerOfTwo() {
+
+        Assert.assertEquals(2, new EventRingBuffer<Integer>(1).capacity());
+        Assert.assertEquals(8, new EventRingBuffer<Integer>(5).capacity());
+        Assert.assertEquals(8, new EventRingBuffer<Integer>(8).capacity());
+    }
+
+    @Test
+    public void testOfferUntilFullAndDrainInOrder() {
+
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        Assert.assertFalse(buffer.offer(4));
+        Assert.assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(3, buffer.drainTo(drained, 3));
+        Assert.assertEquals(Arrays.asList(0, 1, 2), drained);
+        Assert.assertEquals(1, buffer.size());
+
+        // the freed slots are reused on the next lap
+        for (int i = 4; i < 7; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        Assert.assertFalse(buffer.offer(7));
+        drained.clear();
+        Assert.assertEquals(4, buffer.drainTo(drained, 10));
+        Assert.assertEquals(Arrays.asList(3, 4, 5, 6), drained);
+        Assert.assertNull(buffer.poll());
+        Assert.assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+
+        int producerCount = 4;
+        int eventsPerProducer = 2500;
+        EventRingBuffer<int[]> buffer = new EventRingBuffer<>(producerCount * eventsPerProducer);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < producerCount; p++) {
+            int producer = p;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    Assert.assertTrue(buffer.offer(new int[]{producer, i}));
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        List<int[]> drained = new ArrayList<>();
+        buffer.drainTo(drained, Integer.MAX_VALUE);
+        Assert.assertEquals(producerCount * eventsPerProducer, drained.size());
+        // every producer's elements are drained in the order they were offered
+        int[] next = new int[producerCount];
+        for (int[] element : drained) {
+            Assert.assertEquals(next[element[0]]++, element[1]);
+        }
+        for (int count : next) {
+            Assert.assertEquals(eventsPerProducer, count);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.recommendationmgt;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
+import org.wso2.apk.apimgt.impl.utils.APIUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(APIUtil.class)
+@PowerMockIgnore("javax.management.*")
+public class AccessTokenGeneratorTest {
+
+    private static final String TOKEN_ENDPOINT = "https://localhost:9443/oauth2/token";
+    private static final String REVOKE_ENDPOINT = "https://localhost:9443/oauth2/revoke";
+    private static final String[] SCOPES = {"apk:api_view", "apk:api_create"};
+    private static final long TIMEOUT_SECONDS = 10;
+    // tokens living 25 seconds are due for renewal as soon as they are issued, but served for 5 seconds
+    private static final int RENEWABLE_VALIDITY_SECONDS = 25;
+
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private HttpClient httpClient;
+    private AccessTokenGenerator accessTokenGenerator;
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() {
+
+        httpClient = Mockito.mock(HttpClient.class);
+        PowerMockito.mockStatic(APIUtil.class);
+        PowerMockito.when(APIUtil.getHttpClient(ArgumentMatchers.anyInt(), ArgumentMatchers.anyString()))
+                .thenReturn(httpClient);
+        accessTokenGenerator = new AccessTokenGenerator(TOKEN_ENDPOINT, REVOKE_ENDPOINT, "key", "secret");
+        callers = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneTokenRequest() throws Exception {
+
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch respond = new CountDownLatch(1);
+        stubTokenEndpoint(request -> {
+            requested.countDown();
+            Assert.assertTrue(respond.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            return tokenResponse(request, 3600);
+        });
+
+        List<Future<String>> tokens = new ArrayList<>();
+        tokens.add(callers.submit(() -> accessTokenGenerator.getAccessToken(SCOPES)));
+        Assert.assertTrue(requested.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // the other callers arrive while the token is being generated
+        for (int i = 0; i < 7; i++) {
+            tokens.add(callers.submit(() -> accessTokenGenerator.getAccessToken(SCOPES)));
+        }
+        Thread.sleep(100);
+        respond.countDown();
+
+        for (Future<String> token : tokens) {
+            Assert.assertEquals("token-1", token.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(1, tokenRequests.get());
+        // the scopes are matched regardless of their order
+        Assert.assertEquals("token-1", accessTokenGenerator.getAccessToken(new String[]{SCOPES[1], SCOPES[0]}));
+        Assert.assertEquals(1, tokenRequests.get());
+    }
+
+    @Test
+    public void testCallersWaitingForFailedTokenRequestShareTheFailure() throws Exception {
+
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch respond = new CountDownLatch(1);
+        stubTokenEndpoint(request -> {
+            if (request == 1) {
+                requested.countDown();
+                Assert.assertTrue(respond.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+                return response(HttpStatus.SC_SERVICE_UNAVAILABLE, "");
+            }
+            return tokenResponse(request, 3600);
+        });
+
+        List<Future<String>> tokens = new ArrayList<>();
+        tokens.add(callers.submit(() -> accessTokenGenerator.getAccessToken(SCOPES)));
+        Assert.assertTrue(requested.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // the other callers arrive while the failing token request is in progress
+        for (int i = 0; i < 7; i++) {
+            tokens.add(callers.submit(() -> accessTokenGenerator.getAccessToken(SCOPES)));
+        }
+        Thread.sleep(100);
+        respond.countDown();
+
+        for (Future<String> token : tokens) {
+            Assert.assertNull(token.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(1, tokenRequests.get());
+        // a caller arriving after the failure requests a token again
+        Assert.assertEquals("token-2", accessTokenGenerator.getAccessToken(SCOPES));
+        Assert.assertEquals(2, tokenRequests.get());
+    }
+
+    @Test
+    public void testTokenIsRenewedAheadOfExpiry() throws Exception {
+
+        CountDownLatch renewing = new CountDownLatch(1);
+        CountDownLatch respond = new CountDownLatch(1);
+        stubTokenEndpoint(request -> {
+            if (request > 1) {
+                renewing.countDown();
+                Assert.assertTrue(respond.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            return tokenResponse(request, RENEWABLE_VALIDITY_SECONDS);
+        });
+
+        Assert.assertEquals("token-1", accessTokenGenerator.getAccessToken(SCOPES));
+        // the token is due for renewal, so the next caller starts a renewal in the background
+        Assert.assertEquals("token-1", accessTokenGenerator.getAccessToken(SCOPES));
+        Assert.assertTrue(renewing.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        // the current token is served without waiting while the renewal is in progress, and no other is started
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals("token-1", callers.submit(() -> accessTokenGenerator.getAccessToken(SCOPES))
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(2, tokenRequests.get());
+
+        respond.countDown();
+        awaitRefreshes();
+        Assert.assertEquals("token-2", accessTokenGenerator.getAccessToken(SCOPES));
+    }
+
+    @Test
+    public void testFailedRenewalIsRetriedAfterDelay() throws Exception {
+
+        stubTokenEndpoint(request -> {
+            if (request > 1) {
+                // a malformed response makes the token generation fail with a runtime exception
+                return response(HttpStatus.SC_OK, "{}");
+            }
+            return tokenResponse(request, RENEWABLE_VALIDITY_SECONDS);
+        });
+
+        Assert.assertEquals("token-1", accessTokenGenerator.getAccessToken(SCOPES));
+        Assert.assertEquals("token-1", accessTokenGenerator.getAccessToken(SCOPES));
+        awaitRefreshes();
+        Assert.assertEquals(2, tokenRequests.get());
+
+        // the token is still due for renewal, but the failed renewal is not retried right away
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals("token-1", accessTokenGenerator.getAccessToken(SCOPES));
+        }
+        awaitRefreshes();
+        Assert.assertEquals(2, tokenRequests.get());
+    }
+
+    private void stubTokenEndpoint(TokenEndpoint tokenEndpoint) throws Exception {
+
+        Mockito.when(httpClient.execute(ArgumentMatchers.any(HttpUriRequest.class)))
+                .thenAnswer(invocation -> tokenEndpoint.respond(tokenRequests.incrementAndGet()));
+    }
+
+    /**
+     * Waits for the background renewals started so far to complete.
+     */
+    private static void awaitRefreshes() throws Exception {
+
+        ExecutorService refreshExecutor = Whitebox.getInternalState(AccessTokenGenerator.class, "REFRESH_EXECUTOR");
+        refreshExecutor.submit(() -> {
+        }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static HttpResponse tokenResponse(int request, int validityPeriod) throws Exception {
+
+        return response(HttpStatus.SC_OK, "{\"access_token\":\"token-" + request + "\",\"token_type\":\"Bearer\","
+                + "\"expires_in\":" + validityPeriod + "}");
+    }
+
+    private static HttpResponse response(int status, String payload) throws Exception {
+
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, null);
+        response.setEntity(new StringEntity(payload));
+        return response;
+    }
+
+    /**
+     * Stubbed token endpoint, given the 1-based number of the request.
+     */
+    private interface TokenEndpoint {
+
+        HttpResponse respond(int request) throws Exception;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.subscription;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.apk.apimgt.api.model.subscription.Application;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationKeyMapping;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationPolicy;
+import org.wso2.apk.apimgt.api.model.subscription.Subscription;
+import org.wso2.apk.apimgt.api.model.subscription.SubscriptionPolicy;
+import org.wso2.apk.apimgt.impl.APIConstants;
+
+public class SubscriptionDataSnapshotTest {
+
+    static final String ORGANIZATION = "carbon.super";
+    static final String CONSUMER_KEY = "consumer-key";
+    static final String KEY_MANAGER = "Resident Key Manager";
+    static final String API_UUID = "api-uuid";
+    static final int APPLICATION_ID = 1;
+    static final int API_ID = 10;
+    static final int SUBSCRIPTION_ID = 100;
+
+    private SubscriptionDataSnapshot snapshot;
+
+    @Before
+    public void setUp() {
+
+        SubscriptionDataSnapshot.Editor editor = SubscriptionDataSnapshot.create(ORGANIZATION);
+        editor.putSubscriptionPolicy(subscriptionPolicy(1, "Gold"));
+        editor.putApplicationPolicy(applicationPolicy(2, "10PerMin"));
+        editor.putApplication(application(APPLICATION_ID, "app-uuid", "10PerMin"));
+        editor.putKeyMapping(keyMapping(CONSUMER_KEY, APPLICATION_ID, KEY_MANAGER));
+        editor.putSubscription(subscription(SUBSCRIPTION_ID, APPLICATION_ID, API_ID, API_UUID, "Gold",
+                APIConstants.SubscriptionStatus.UNBLOCKED));
+        snapshot = editor.build(1);
+    }
+
+    @Test
+    public void testLookups() {
+
+        Assert.assertEquals(1, snapshot.getVersion());
+        Assert.assertEquals(1, snapshot.getApplicationCount());
+        Assert.assertEquals(1, snapshot.getSubscriptionCount());
+        Assert.assertEquals(1, snapshot.getKeyMappingCount());
+        Assert.assertEquals(APPLICATION_ID, snapshot.getApplicationByUUID("app-uuid").getId());
+        Assert.assertEquals("app-uuid", snapshot.getApplicationById(APPLICATION_ID).getUuid());
+        Assert.assertEquals(APPLICATION_ID, snapshot.getKeyMappingByConsumerKey(CONSUMER_KEY).getApplicationId());
+        Assert.assertEquals(SUBSCRIPTION_ID, snapshot.getSubscriptionById(APPLICATION_ID, API_ID).getSubscriptionId());
+        Assert.assertEquals(SUBSCRIPTION_ID, snapshot.getSubscription(APPLICATION_ID, API_UUID).getSubscriptionId());
+        Assert.assertNotNull(snapshot.getSubscriptionPolicyByName("Gold"));
+        Assert.assertNotNull(snapshot.getApplicationPolicyByName("10PerMin"));
+        Assert.assertNull(snapshot.getApplicationById(2));
+        Assert.assertNull(snapshot.getKeyMappingByConsumerKey("unknown"));
+        Assert.assertNull(snapshot.getSubscription(APPLICATION_ID, "unknown"));
+    }
+
+    @Test
+    public void testValidSubscription() {
+
+        SubscriptionValidationResult result = snapshot.validate(CONSUMER_KEY, KEY_MANAGER, API_UUID);
+        Assert.assertTrue(result.isValid());
+        Assert.assertEquals(APPLICATION_ID, result.getApplication().getId());
+        Assert.assertEquals(SUBSCRIPTION_ID, result.getSubscription().getSubscriptionId());
+        Assert.assertEquals("Gold", result.getSubscriptionPolicy().getName());
+        Assert.assertEquals("10PerMin", result.getApplicationPolicy().getName());
+        Assert.assertTrue(snapshot.validate(CONSUMER_KEY, null, API_UUID).isValid());
+    }
+
+    @Test
+    public void testInvalidSubscription() {
+
+        Assert.assertEquals(APIConstants.KeyValidationStatus.API_AUTH_INVALID_CREDENTIALS,
+                snapshot.validate("unknown", KEY_MANAGER, API_UUID).getValidationStatus());
+        Assert.assertEquals(APIConstants.KeyValidationStatus.API_AUTH_INVALID_CREDENTIALS,
+                snapshot.validate(CONSUMER_KEY, "other", API_UUID).getValidationStatus());
+        Assert.assertEquals(APIConstants.KeyValidationStatus.API_AUTH_RESOURCE_FORBIDDEN,
+                snapshot.validate(CONSUMER_KEY, KEY_MANAGER, "other-api").getValidationStatus());
+    }
+
+    @Test
+    public void testBlockedSubscription() {
+
+        SubscriptionDataSnapshot.Editor editor = snapshot.edit();
+        editor.putSubscription(subscription(SUBSCRIPTION_ID, APPLICATION_ID, API_ID, API_UUID, "Gold",
+                APIConstants.SubscriptionStatus.BLOCKED));
+        SubscriptionDataSnapshot blocked = editor.build(2);
+        SubscriptionValidationResult result = blocked.validate(CONSUMER_KEY, KEY_MANAGER, API_UUID);
+        Assert.assertFalse(result.isValid());
+        Assert.assertEquals(APIConstants.KeyValidationStatus.API_BLOCKED, result.getValidationStatus());
+    }
+
+    @Test
+    public void testEditDoesNotChangeSnapshot() {
+
+        SubscriptionDataSnapshot.Editor editor = snapshot.edit();
+        editor.removeSubscription(SUBSCRIPTION_ID);
+        editor.removeKeyMapping(CONSUMER_KEY);
+        SubscriptionDataSnapshot edited = editor.build(2);
+
+        Assert.assertNull(edited.getSubscriptionById(APPLICATION_ID, API_ID));
+        Assert.assertNull(edited.getKeyMappingByConsumerKey(CONSUMER_KEY));
+        Assert.assertNotNull(snapshot.getSubscriptionById(APPLICATION_ID, API_ID));
+        Assert.assertTrue(snapshot.validate(CONSUMER_KEY, KEY_MANAGER, API_UUID).isValid());
+    }
+
+    @Test
+    public void testRemoveApplicationRemovesDependents() {
+
+        SubscriptionDataSnapshot.Editor editor = snapshot.edit();
+        editor.putApplication(application(2, "other-app-uuid", "10PerMin"));
+        editor.putKeyMapping(keyMapping("other-consumer-key", 2, KEY_MANAGER));
+        editor.putSubscription(subscription(SUBSCRIPTION_ID + 1, 2, API_ID, API_UUID, "Gold",
+                APIConstants.SubscriptionStatus.UNBLOCKED));
+        editor.removeApplication(APPLICATION_ID);
+        SubscriptionDataSnapshot removed = editor.build(2);
+
+        Assert.assertEquals(1, removed.getApplicationCount());
+        Assert.assertEquals(1, removed.getSubscriptionCount());
+        Assert.assertEquals(1, removed.getKeyMappingCount());
+        Assert.assertNull(removed.getSubscriptionById(APPLICATION_ID, API_ID));
+        Assert.assertNull(removed.getKeyMappingByConsumerKey(CONSUMER_KEY));
+        Assert.assertTrue(removed.validate("other-consumer-key", KEY_MANAGER, API_UUID).isValid());
+        Assert.assertTrue(snapshot.validate(CONSUMER_KEY, KEY_MANAGER, API_UUID).isValid());
+    }
+
+    @Test
+    public void testRemoveApplicationKeepsMovedDependents() {
+
+        SubscriptionDataSnapshot.Editor editor = snapshot.edit();
+        editor.putApplication(application(2, "other-app-uuid", "10PerMin"));
+        SubscriptionDataSnapshot moved = editor.build(2);
+        // the key mapping and the subscription are moved to the other application in a later change
+        editor = moved.edit();
+        editor.putKeyMapping(keyMapping(CONSUMER_KEY, 2, KEY_MANAGER));
+        editor.putSubscription(subscription(SUBSCRIPTION_ID, 2, API_ID, API_UUID, "Gold",
+                APIConstants.SubscriptionStatus.UNBLOCKED));
+        moved = editor.build(3);
+        editor = moved.edit();
+        editor.removeApplication(APPLICATION_ID);
+        SubscriptionDataSnapshot removed = editor.build(4);
+
+        Assert.assertEquals(1, removed.getApplicationCount());
+        Assert.assertEquals(1, removed.getSubscriptionCount());
+        Assert.assertEquals(1, removed.getKeyMappingCount());
+        Assert.assertTrue(removed.validate(CONSUMER_KEY, KEY_MANAGER, API_UUID).isValid());
+    }
+
+    static Application application(int id, String uuid, String policy) {
+
+        Application application = new Application();
+        application.setId(id);
+        application.setUuid(uuid);
+        application.setName("app" + id);
+        application.setSubName("admin");
+        application.setPolicy(policy);
+        application.setOrganization(ORGANIZATION);
+        return application;
+    }
+
+    static ApplicationKeyMapping keyMapping(String consumerKey, int applicationId, String keyManager) {
+
+        ApplicationKeyMapping keyMapping = new ApplicationKeyMapping();
+        keyMapping.setConsumerKey(consumerKey);
+        keyMapping.setApplicationId(applicationId);
+        keyMapping.setKeyManager(keyManager);
+        keyMapping.setKeyType(APIConstants.API_KEY_TYPE_PRODUCTION);
+        keyMapping.setWfState(APIConstants.AppRegistrationStatus.REGISTRATION_COMPLETED);
+        return keyMapping;
+    }
+
+    static Subscription subscription(int id, int applicationId, int apiId, String apiUUID, String policy,
+                                     String state) {
+
+        Subscription subscription = new Subscription();
+        subscription.setSubscriptionId(id);
+        subscription.setAppId(applicationId);
+        subscription.setApiId(apiId);
+        subscription.setApiUUID(apiUUID);
+        subscription.setPolicyId(policy);
+        subscription.setSubscriptionState(state);
+        return subscription;
+    }
+
+    static SubscriptionPolicy subscriptionPolicy(int id, String name) {
+
+        SubscriptionPolicy policy = new SubscriptionPolicy();
+        policy.setId(id);
+        policy.setName(name);
+        return policy;
+    }
+
+    static ApplicationPolicy applicationPolicy(int id, String name) {
+
+        ApplicationPolicy policy = new ApplicationPolicy();
+        policy.setId(id);
+        policy.setName(name);
+        return policy;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.apk.apimgt.impl.subscription;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Stubber;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.wso2.apk.apimgt.api.ResultConsumer;
+import org.wso2.apk.apimgt.api.model.subscription.Application;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationKeyMapping;
+import org.wso2.apk.apimgt.api.model.subscription.ApplicationPolicy;
+import org.wso2.apk.apimgt.api.model.subscription.Subscription;
+import org.wso2.apk.apimgt.api.model.subscription.SubscriptionPolicy;
+import org.wso2.apk.apimgt.impl.APIConstants;
+import org.wso2.apk.apimgt.impl.dao.SubscriptionValidationDAO;
+import org.wso2.apk.apimgt.impl.dto.SubscriptionDataChangeDTO;
+import org.wso2.apk.apimgt.impl.utils.APIMgtDBUtil;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import static org.wso2.apk.apimgt.impl.subscription.SubscriptionDataSnapshotTest.API_ID;
+import static org.wso2.apk.apimgt.impl.subscription.SubscriptionDataSnapshotTest.API_UUID;
+import static org.wso2.apk.apimgt.impl.subscription.SubscriptionDataSnapshotTest.APPLICATION_ID;
+import static org.wso2.apk.apimgt.impl.subscription.SubscriptionDataSnapshotTest.CONSUMER_KEY;
+import static org.wso2.apk.apimgt.impl.subscription.SubscriptionDataSnapshotTest.KEY_MANAGER;
+import static org.wso2.apk.apimgt.impl.subscription.SubscriptionDataSnapshotTest.SUBSCRIPTION_ID;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(APIMgtDBUtil.class)
+@PowerMockIgnore("javax.management.*")
+public class SubscriptionDataStoreTest {
+
+    private static final String ORGANIZATION = "wso2";
+
+    private SubscriptionValidationDAO subscriptionValidationDAO;
+    private SubscriptionDataStore subscriptionDataStore;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+
+        PowerMockito.mockStatic(APIMgtDBUtil.class);
+        PowerMockito.when(APIMgtDBUtil.executeInTransaction(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> ((APIMgtDBUtil.TransactionalOperation<Object>) invocation.getArgument(0))
+                        .execute());
+        subscriptionValidationDAO = Mockito.mock(SubscriptionValidationDAO.class);
+        Mockito.when(subscriptionValidationDAO.getSettledChangeId(ArgumentMatchers.anyInt())).thenReturn(5L);
+        answer(SubscriptionDataSnapshotTest.subscriptionPolicy(1, "Gold"))
+                .when(subscriptionValidationDAO).getSubscriptionPolicies(ArgumentMatchers.eq(ORGANIZATION),
+                        ArgumentMatchers.<ResultConsumer<SubscriptionPolicy>>any());
+        answer(SubscriptionDataSnapshotTest.applicationPolicy(2, "10PerMin"))
+                .when(subscriptionValidationDAO).getApplicationPolicies(ArgumentMatchers.eq(ORGANIZATION),
+                        ArgumentMatchers.<ResultConsumer<ApplicationPolicy>>any());
+        answer(SubscriptionDataSnapshotTest.application(APPLICATION_ID, "app-uuid", "10PerMin"))
+                .when(subscriptionValidationDAO).getApplications(ArgumentMatchers.eq(ORGANIZATION),
+                        ArgumentMatchers.<ResultConsumer<Application>>any());
+        answer(SubscriptionDataSnapshotTest.keyMapping(CONSUMER_KEY, APPLICATION_ID, KEY_MANAGER))
+                .when(subscriptionValidationDAO).getApplicationKeyMappings(ArgumentMatchers.eq(ORGANIZATION),
+                        ArgumentMatchers.<ResultConsumer<ApplicationKeyMapping>>any());
+        answer(SubscriptionDataSnapshotTest.subscription(SUBSCRIPTION_ID, APPLICATION_ID, API_ID, API_UUID, "Gold",
+                APIConstants.SubscriptionStatus.UNBLOCKED))
+                .when(subscriptionValidationDAO).getSubscriptions(ArgumentMatchers.eq(ORGANIZATION),
+                        ArgumentMatchers.<ResultConsumer<Subscription>>any());
+        subscriptionDataStore = new SubscriptionDataStore(subscriptionValidationDAO);
+    }
+
+    @Test
+    public void testInitializeLoadsOrganizations() throws Exception {
+
+        subscriptionDataStore.initialize(Collections.singletonList(ORGANIZATION));
+        SubscriptionDataSnapshot snapshot = subscriptionDataStore.getSnapshot(ORGANIZATION);
+
+        Assert.assertEquals(ORGANIZATION, snapshot.getOrganization());
+        Assert.assertEquals(5, snapshot.getVersion());
+        Assert.assertEquals(1, snapshot.getApplicationCount());
+        Assert.assertEquals(1, snapshot.getSubscriptionCount());
+        Assert.assertEquals(1, snapshot.getKeyMappingCount());
+        Mockito.verify(subscriptionValidationDAO, Mockito.times(1)).getApplications(
+                ArgumentMatchers.eq(ORGANIZATION), ArgumentMatchers.<ResultConsumer<Application>>any());
+    }
+
+    @Test
+    public void testValidateServesFromSnapshot() throws Exception {
+
+        subscriptionDataStore.initialize(Collections.singletonList(ORGANIZATION));
+        for (int i = 0; i < 3; i++) {
+            SubscriptionValidationResult result = subscriptionDataStore.validate(ORGANIZATION, CONSUMER_KEY,
+                    KEY_MANAGER, API_UUID);
+            Assert.assertTrue(result.isValid());
+            Assert.assertEquals(SUBSCRIPTION_ID, result.getSubscription().getSubscriptionId());
+        }
+        Assert.assertFalse(subscriptionDataStore.validate(ORGANIZATION, "unknown", KEY_MANAGER, API_UUID)
+                .isValid());
+        // lookups never go back to the database once the organization is loaded
+        Mockito.verify(subscriptionValidationDAO, Mockito.times(1)).getSubscriptions(
+                ArgumentMatchers.eq(ORGANIZATION), ArgumentMatchers.<ResultConsumer<Subscription>>any());
+    }
+
+    @Test
+    public void testOrganizationIsLoadedOnFirstUse() throws Exception {
+
+        Assert.assertTrue(subscriptionDataStore.validate(ORGANIZATION, CONSUMER_KEY, KEY_MANAGER, API_UUID)
+                .isValid());
+        Mockito.verify(subscriptionValidationDAO, Mockito.times(1)).getApplications(
+                ArgumentMatchers.eq(ORGANIZATION), ArgumentMatchers.<ResultConsumer<Application>>any());
+    }
+
+    @Test
+    public void testSynchronizeRemovesDeletedSubscription() throws Exception {
+
+        subscriptionDataStore.initialize(Collections.singletonList(ORGANIZATION));
+        SubscriptionDataSnapshot loaded = subscriptionDataStore.getSnapshot(ORGANIZATION);
+        SubscriptionDataChangeDTO change = new SubscriptionDataChangeDTO();
+        change.setChangeId(6);
+        change.setEntityType(SubscriptionDataChangeDTO.EntityType.SUBSCRIPTION);
+        change.setEntityId(SUBSCRIPTION_ID);
+        change.setSettled(true);
+        answer(change).when(subscriptionValidationDAO).getChanges(ArgumentMatchers.eq(ORGANIZATION),
+                ArgumentMatchers.eq(5L), ArgumentMatchers.anyInt(),
+                ArgumentMatchers.<ResultConsumer<SubscriptionDataChangeDTO>>any());
+        // the subscription no longer exists
+        Mockito.doReturn(0).when(subscriptionValidationDAO).getSubscriptions(ArgumentMatchers.eq(ORGANIZATION),
+                ArgumentMatchers.<Collection<Integer>>any(), ArgumentMatchers.<ResultConsumer<Subscription>>any());
+
+        SubscriptionDataSnapshot synchronizedSnapshot = subscriptionDataStore.synchronize(ORGANIZATION);
+
+        Assert.assertEquals(6, synchronizedSnapshot.getVersion());
+        Assert.assertEquals(0, synchronizedSnapshot.getSubscriptionCount());
+        Assert.assertEquals(APIConstants.KeyValidationStatus.API_AUTH_RESOURCE_FORBIDDEN,
+                subscriptionDataStore.validate(ORGANIZATION, CONSUMER_KEY, KEY_MANAGER, API_UUID)
+                        .getValidationStatus());
+        // readers holding the previous snapshot keep a consistent view
+        Assert.assertEquals(1, loaded.getSubscriptionCount());
+    }
+
+    /**
+     * Answers a bulk read by passing the given entity to the consumer, which is the last argument.
+     */
+    private static <T> Stubber answer(T entity) {
+
+        return Mockito.doAnswer(invocation -> {
+            Object[] arguments = invocation.getArguments();
+            @SuppressWarnings("unchecked")
+            ResultConsumer<T> consumer = (ResultConsumer<T>) arguments[arguments.length - 1];
+            consumer.accept(entity);
+            return 1;
+        });
+    }
+}
@@ -21,19 +21,28 @@ package org.wso2.apk.apimgt.init;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.impl.APIConstants;
 import org.wso2.apk.apimgt.impl.APIManagerConfigurationServiceImpl;
 import org.wso2.apk.apimgt.impl.ConfigurationHolder;
 import org.wso2.apk.apimgt.impl.factory.SQLConstantManagerFactory;
 import org.wso2.apk.apimgt.impl.internal.ServiceReferenceHolder;
+import org.wso2.apk.apimgt.impl.publisher.EventPublisherRegistry;
+import org.wso2.apk.apimgt.impl.subscription.SubscriptionDataStore;
 import org.wso2.apk.apimgt.impl.utils.APIMgtDBUtil;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 
 public class APKComponent {
 
     private static final Log log = LogFactory.getLog(APKComponent.class);
+    private static final AtomicBoolean shutdownHookRegistered = new AtomicBoolean();
 
     public static void activate(String configuration) throws APIManagementException {
 
@@ -62,8 +71,45 @@ public class APKComponent {
         log.debug("Initializing SQL constant manager");
         SQLConstantManagerFactory.initializeSQLConstantManager();
 
+        // Load the subscription validation data and keep it in sync with the database
+        List<String> organizations = config.getProperty(APIConstants.SUBSCRIPTION_DATA_STORE_ORGANIZATIONS);
+        SubscriptionDataStore subscriptionDataStore = SubscriptionDataStore.getInstance();
+        subscriptionDataStore.initialize(organizations != null ? organizations : Collections.emptyList());
+        subscriptionDataStore.startSynchronization(getSubscriptionDataSyncInterval(config));
+        log.info("Subscription data store initialized for " + (organizations != null ? organizations.size() : 0)
+                + " organizations");
+
+        // The background threads are daemons, so buffered events are only delivered if they are stopped on exit
+        if (shutdownHookRegistered.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(APKComponent::deactivate, "APKComponentShutdown"));
+        }
+
         //TODO: APK
 //        // initialize API-M Caches
 //        CacheProvider.createTenantConfigCache();
     }
+
+    /**
+     * Stops the subscription data synchronization and the event publishers, delivering their buffered events. Called
+     * when the runtime shuts down.
+     */
+    public static void deactivate() {
+
+        SubscriptionDataStore.getInstance().stopSynchronization();
+        EventPublisherRegistry.getInstance().shutdownAll();
+    }
+
+    private static long getSubscriptionDataSyncInterval(ConfigurationHolder config) {
+
+        String interval = config.getFirstProperty(APIConstants.SUBSCRIPTION_DATA_STORE_SYNC_INTERVAL);
+        if (StringUtils.isNotEmpty(interval)) {
+            try {
+                return Math.max(Long.parseLong(interval.trim()), 1);
+            } catch (NumberFormatException e) {
+                log.warn("Invalid subscription data sync interval " + interval + ". Using "
+                        + APIConstants.DEFAULT_SUBSCRIPTION_DATA_STORE_SYNC_INTERVAL + " ms instead.");
+            }
+        }
+        return APIConstants.DEFAULT_SUBSCRIPTION_DATA_STORE_SYNC_INTERVAL;
+    }
 }
@@ -21,6 +21,8 @@ public class PaginationDTO   {
 
   private Integer total;
 
+  private Boolean totalEstimated = false;
+
   private String next;
 
   private String previous;
@@ -80,6 +82,25 @@ public class PaginationDTO   {
   }
 
 
+  /**
+   * True if the total is an estimate rather than an exact count.
+   **/
+  public PaginationDTO totalEstimated(Boolean totalEstimated) {
+    this.totalEstimated = totalEstimated;
+    return this;
+  }
+
+  
+  @ApiModelProperty(example = "false", value = "True if the total is an estimate rather than an exact count.")
+  @JsonProperty("totalEstimated")
+  public Boolean getTotalEstimated() {
+    return totalEstimated;
+  }
+  public void setTotalEstimated(Boolean totalEstimated) {
+    this.totalEstimated = totalEstimated;
+  }
+
+
   /**
    * Link to the next subset of resources qualified. Empty if no more resources are to be returned. example: \&quot;\&quot; 
    **/
@@ -131,13 +152,14 @@ public class PaginationDTO   {
     return Objects.equals(offset, pagination.offset) &&
         Objects.equals(limit, pagination.limit) &&
         Objects.equals(total, pagination.total) &&
+        Objects.equals(totalEstimated, pagination.totalEstimated) &&
         Objects.equals(next, pagination.next) &&
         Objects.equals(previous, pagination.previous);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(offset, limit, total, next, previous);
+    return Objects.hash(offset, limit, total, totalEstimated, next, previous);
   }
 
   @Override
@@ -148,6 +170,7 @@ public class PaginationDTO   {
     sb.append("    offset: ").append(toIndentedString(offset)).append("\n");
     sb.append("    limit: ").append(toIndentedString(limit)).append("\n");
     sb.append("    total: ").append(toIndentedString(total)).append("\n");
+    sb.append("    totalEstimated: ").append(toIndentedString(totalEstimated)).append("\n");
     sb.append("    next: ").append(toIndentedString(next)).append("\n");
     sb.append("    previous: ").append(toIndentedString(previous)).append("\n");
     sb.append("}");
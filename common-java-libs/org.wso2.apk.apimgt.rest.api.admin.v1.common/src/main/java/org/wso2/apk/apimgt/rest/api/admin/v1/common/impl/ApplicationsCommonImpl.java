@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.rest.api.admin.v1.common.impl;
+
+import org.wso2.apk.apimgt.api.APIAdmin;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.model.ApplicationCursor;
+import org.wso2.apk.apimgt.api.model.ApplicationPage;
+import org.wso2.apk.apimgt.api.model.CountMode;
+import org.wso2.apk.apimgt.impl.APIAdminImpl;
+import org.wso2.apk.apimgt.rest.api.admin.v1.common.utils.mappings.ApplicationMappingUtil;
+import org.wso2.apk.apimgt.rest.api.admin.v1.dto.ApplicationListDTO;
+import org.wso2.apk.apimgt.rest.api.util.RestApiConstants;
+import org.wso2.apk.apimgt.rest.api.util.utils.RestApiCommonUtil;
+
+public class ApplicationsCommonImpl {
+
+    private ApplicationsCommonImpl() {
+    }
+
+    /**
+     * Get a page of the applications of the organization. The page and the total are read with a single query.
+     *
+     * @param owner        Owner to search applications by
+     * @param limit        Max number of applications returned
+     * @param offset       Starting index
+     * @param sortBy       Sort key, one of name, owner, throttlingTier or status
+     * @param sortOrder    Sort order, asc or desc
+     * @param name         Application name to search applications by
+     * @param organization Tenant organization
+     * @param countMode    Whether the total is computed exactly, estimated or not computed
+     * @return List of applications with pagination details
+     * @throws APIManagementException When an internal error occurs
+     */
+    public static ApplicationListDTO getApplications(String owner, Integer limit, Integer offset, String sortBy,
+                                                     String sortOrder, String name, String organization,
+                                                     CountMode countMode) throws APIManagementException {
+        limit = limit != null ? limit : RestApiConstants.PAGINATION_LIMIT_DEFAULT;
+        offset = offset != null ? offset : RestApiConstants.PAGINATION_OFFSET_DEFAULT;
+        sortBy = sortBy != null ? sortBy : RestApiConstants.SORT_BY_NAME;
+        sortOrder = sortOrder != null ? sortOrder : RestApiConstants.DEFAULT_SORT_ORDER;
+        countMode = countMode != null ? countMode : CountMode.EXACT;
+
+        APIAdmin apiAdmin = new APIAdminImpl();
+        ApplicationPage page = apiAdmin.getApplicationsWithCount(owner, organization, limit, offset, name, sortBy,
+                sortOrder, countMode);
+        ApplicationListDTO applicationListDTO = ApplicationMappingUtil.fromApplicationsToDTO(page.getApplications());
+        ApplicationMappingUtil.setPaginationParams(applicationListDTO, limit, offset, page);
+        return applicationListDTO;
+    }
+
+    /**
+     * Get the page of the applications of the organization following the given continuation token
+     *
+     * @param owner             Owner to search applications by
+     * @param limit             Max number of applications returned
+     * @param continuationToken Continuation token of the page, or null for the first page
+     * @param sortBy            Sort key, one of name, owner, throttlingTier or status
+     * @param sortOrder         Sort order, asc or desc
+     * @param name              Application name to search applications by
+     * @param organization      Tenant organization
+     * @return List of applications with the url of the next page
+     * @throws APIManagementException When the continuation token is invalid or an internal error occurs
+     */
+    public static ApplicationListDTO getApplicationsAfter(String owner, Integer limit, String continuationToken,
+                                                          String sortBy, String sortOrder, String name,
+                                                          String organization) throws APIManagementException {
+        limit = limit != null ? limit : RestApiConstants.PAGINATION_LIMIT_DEFAULT;
+        sortBy = sortBy != null ? sortBy : RestApiConstants.SORT_BY_NAME;
+        sortOrder = sortOrder != null ? sortOrder : RestApiConstants.DEFAULT_SORT_ORDER;
+        ApplicationCursor after = RestApiCommonUtil.getApplicationCursor(continuationToken);
+
+        APIAdmin apiAdmin = new APIAdminImpl();
+        ApplicationPage page = apiAdmin.getApplicationsPage(owner, organization, limit, after, name, sortBy,
+                sortOrder);
+        ApplicationListDTO applicationListDTO = ApplicationMappingUtil.fromApplicationsToDTO(page.getApplications());
+        ApplicationMappingUtil.setPaginationParams(applicationListDTO, limit, page, sortOrder, sortBy);
+        return applicationListDTO;
+    }
+}
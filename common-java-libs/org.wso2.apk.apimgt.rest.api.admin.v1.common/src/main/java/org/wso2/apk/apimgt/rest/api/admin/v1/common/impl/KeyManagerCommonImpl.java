@@ -18,11 +18,6 @@
 
 package org.wso2.apk.apimgt.rest.api.admin.v1.common.impl;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import feign.Feign;
-import feign.gson.GsonDecoder;
-import feign.gson.GsonEncoder;
 import org.apache.commons.lang3.StringUtils;
 import org.wso2.apk.apimgt.api.APIAdmin;
 import org.wso2.apk.apimgt.api.APIManagementException;
@@ -30,11 +25,10 @@ import org.wso2.apk.apimgt.api.ExceptionCodes;
 import org.wso2.apk.apimgt.api.dto.KeyManagerConfigurationDTO;
 import org.wso2.apk.apimgt.impl.APIAdminImpl;
 import org.wso2.apk.apimgt.impl.APIConstants;
-import org.wso2.apk.apimgt.impl.kmclient.ApacheFeignHttpClient;
-import org.wso2.apk.apimgt.impl.kmclient.KMClientErrorDecoder;
-import org.wso2.apk.apimgt.impl.kmclient.model.OpenIDConnectDiscoveryClient;
+import org.wso2.apk.apimgt.impl.kmclient.OpenIDConnectDiscoveryCache;
 import org.wso2.apk.apimgt.impl.kmclient.model.OpenIdConnectConfiguration;
 import org.wso2.apk.apimgt.impl.utils.APIUtil;
+import org.wso2.apk.apimgt.impl.utils.JsonCodecRegistry;
 import org.wso2.apk.apimgt.rest.api.admin.v1.common.utils.mappings.KeyManagerMappingUtil;
 import org.wso2.apk.apimgt.rest.api.admin.v1.dto.KeyManagerDTO;
 import org.wso2.apk.apimgt.rest.api.admin.v1.dto.KeyManagerListDTO;
@@ -61,14 +55,8 @@ public class KeyManagerCommonImpl {
     public static KeyManagerWellKnownResponseDTO getWellKnownInfoKeyManager(String url, String type)
             throws APIManagementException {
         if (StringUtils.isNotEmpty(url)) {
-            Gson gson = new GsonBuilder().serializeNulls().create();
-            OpenIDConnectDiscoveryClient openIDConnectDiscoveryClient =
-                    Feign.builder().client(new ApacheFeignHttpClient(APIUtil.getHttpClient(url)))
-                            .encoder(new GsonEncoder(gson)).decoder(new GsonDecoder(gson))
-                            .errorDecoder(new KMClientErrorDecoder())
-                            .target(OpenIDConnectDiscoveryClient.class, url);
             OpenIdConnectConfiguration openIdConnectConfiguration =
-                    openIDConnectDiscoveryClient.getOpenIdConnectConfiguration();
+                    OpenIDConnectDiscoveryCache.getInstance().getConfiguration(url);
             if (openIdConnectConfiguration != null) {
                 KeyManagerWellKnownResponseDTO keyManagerWellKnownResponseDTO = KeyManagerMappingUtil
                         .fromOpenIdConnectConfigurationToKeyManagerConfiguration(openIdConnectConfiguration);
@@ -109,8 +97,8 @@ public class KeyManagerCommonImpl {
             apiAdmin.deleteKeyManagerConfigurationById(organization, keyManagerConfigurationDTO);
 
             APIUtil.logAuditMessage(APIConstants.AuditLogConstants.KEY_MANAGER,
-                    new Gson().toJson(keyManagerConfigurationDTO), APIConstants.AuditLogConstants.DELETED,
-                    RestApiCommonUtil.getLoggedInUsername());
+                    JsonCodecRegistry.getInstance().getGson().toJson(keyManagerConfigurationDTO),
+                    APIConstants.AuditLogConstants.DELETED, RestApiCommonUtil.getLoggedInUsername());
         } else {
             throw new APIManagementException(KEY_MANAGER_NOT_FOUND, ExceptionCodes.KEY_MANAGER_NOT_FOUND);
         }
@@ -162,7 +150,7 @@ public class KeyManagerCommonImpl {
             KeyManagerConfigurationDTO retrievedKeyManagerConfigurationDTO =
                     apiAdmin.updateKeyManagerConfiguration(keyManagerConfigurationDTO);
             APIUtil.logAuditMessage(APIConstants.AuditLogConstants.KEY_MANAGER,
-                    new Gson().toJson(keyManagerConfigurationDTO),
+                    JsonCodecRegistry.getInstance().getGson().toJson(keyManagerConfigurationDTO),
                     APIConstants.AuditLogConstants.UPDATED, RestApiCommonUtil.getLoggedInUsername());
             return KeyManagerMappingUtil.toKeyManagerDTO(retrievedKeyManagerConfigurationDTO);
         }
@@ -184,7 +172,7 @@ public class KeyManagerCommonImpl {
         KeyManagerConfigurationDTO createdKeyManagerConfiguration =
                 apiAdmin.addKeyManagerConfiguration(keyManagerConfigurationDTO);
         APIUtil.logAuditMessage(APIConstants.AuditLogConstants.KEY_MANAGER,
-                new Gson().toJson(keyManagerConfigurationDTO),
+                JsonCodecRegistry.getInstance().getGson().toJson(keyManagerConfigurationDTO),
                 APIConstants.AuditLogConstants.CREATED, RestApiCommonUtil.getLoggedInUsername());
         return KeyManagerMappingUtil.toKeyManagerDTO(createdKeyManagerConfiguration);
     }
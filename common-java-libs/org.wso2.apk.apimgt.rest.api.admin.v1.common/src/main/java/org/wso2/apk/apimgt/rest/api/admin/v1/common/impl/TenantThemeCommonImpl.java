@@ -19,11 +19,11 @@
 package org.wso2.apk.apimgt.rest.api.admin.v1.common.impl;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.wso2.apk.apimgt.api.APIManagementException;
 import org.wso2.apk.apimgt.api.ExceptionCodes;
 import org.wso2.apk.apimgt.impl.APIAdminImpl;
 import org.wso2.apk.apimgt.impl.APIConstants;
-import org.wso2.apk.apimgt.impl.utils.APIUtil;
 import org.wso2.apk.apimgt.rest.api.admin.v1.common.utils.RestApiAdminUtils;
 import org.wso2.apk.apimgt.rest.api.util.utils.RestApiCommonUtil;
 import org.wso2.apk.apimgt.rest.api.util.RestApiConstants;
@@ -31,10 +31,12 @@ import org.wso2.apk.apimgt.rest.api.util.RestApiConstants;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 public class TenantThemeCommonImpl {
 
     private static final String TENANT_THEMES_EXPORT_DIR_PREFIX = "exported-tenant-themes";
+    private static final String WEAK_ETAG_PREFIX = "W/";
 
     private TenantThemeCommonImpl() {
     }
@@ -58,26 +60,91 @@ public class TenantThemeCommonImpl {
 
     public static File exportTenantTheme() throws APIManagementException {
         String tenantDomain = RestApiCommonUtil.getLoggedInUserTenantDomain();
-        int tenantId = APIUtil.getTenantIdFromTenantDomain(tenantDomain);
-        APIAdminImpl apiAdmin = new APIAdminImpl();
-        if (!apiAdmin.isTenantThemeExist(tenantDomain)) {
-            throw new APIManagementException("Tenant Theme for tenant " + tenantDomain + " does not exist.",
-                    ExceptionCodes.from(ExceptionCodes.TENANT_THEME_NOT_FOUND, tenantDomain));
-
-        }
-        InputStream tenantTheme = apiAdmin.getTenantTheme(tenantDomain);
         String tempPath =
                 System.getProperty(RestApiConstants.JAVA_IO_TMPDIR) + File.separator + TENANT_THEMES_EXPORT_DIR_PREFIX;
         String tempFile = tenantDomain + APIConstants.ZIP_FILE_EXTENSION;
         File tenantThemeArchive = new File(tempPath, tempFile);
 
-        try {
-            FileUtils.copyInputStreamToFile(tenantTheme, tenantThemeArchive);
+        if (!new APIAdminImpl().isTenantThemeExist(tenantDomain)) {
+            throw tenantThemeNotFound(tenantDomain);
+        }
+        boolean exported = false;
+        try (OutputStream outputStream = FileUtils.openOutputStream(tenantThemeArchive)) {
+            exportTenantTheme(tenantDomain, outputStream);
+            exported = true;
             return tenantThemeArchive;
         } catch (IOException e) {
             throw new APIManagementException(e.getMessage(), e,
                     ExceptionCodes.from(ExceptionCodes.TENANT_THEME_EXPORT_FAILED, tenantDomain, e.getMessage()));
+        } finally {
+            if (!exported) {
+                // the theme may have been deleted after the check, or failed to be written
+                FileUtils.deleteQuietly(tenantThemeArchive);
+            }
+        }
+    }
+
+    /**
+     * Writes the tenant theme archive of the logged in user's tenant to the given stream, without buffering the
+     * archive in memory or in a temporary file.
+     *
+     * @param outputStream stream to write the archive to
+     * @throws APIManagementException if the tenant theme does not exist or cannot be read
+     */
+    public static void exportTenantTheme(OutputStream outputStream) throws APIManagementException {
+        exportTenantTheme(RestApiCommonUtil.getLoggedInUserTenantDomain(), outputStream);
+    }
+
+    /**
+     * Returns the entity tag of the tenant theme of the logged in user's tenant, which is the quoted SHA-256 hash of
+     * the theme archive.
+     *
+     * @return entity tag, or null if the tenant has no theme or the theme was stored without a hash
+     * @throws APIManagementException if an error occurs while reading the hash of the tenant theme
+     */
+    public static String getTenantThemeETag() throws APIManagementException {
+        String themeHash = new APIAdminImpl().getTenantThemeHash(RestApiCommonUtil.getLoggedInUserTenantDomain());
+        return themeHash != null ? '"' + themeHash + '"' : null;
+    }
+
+    /**
+     * Checks whether the tenant theme held by the client, as given by the If-None-Match header, is still current. The
+     * theme need not be sent again in that case.
+     *
+     * @param ifNoneMatch value of the If-None-Match request header
+     * @return true if the client's copy of the tenant theme is current
+     * @throws APIManagementException if an error occurs while reading the hash of the tenant theme
+     */
+    public static boolean isTenantThemeNotModified(String ifNoneMatch) throws APIManagementException {
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        String eTag = getTenantThemeETag();
+        if (eTag == null) {
+            return false;
         }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith(WEAK_ETAG_PREFIX)) {
+                candidate = candidate.substring(WEAK_ETAG_PREFIX.length());
+            }
+            if ("*".equals(candidate) || eTag.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void exportTenantTheme(String tenantDomain, OutputStream outputStream)
+            throws APIManagementException {
+        if (!new APIAdminImpl().getTenantTheme(tenantDomain, outputStream)) {
+            throw tenantThemeNotFound(tenantDomain);
+        }
+    }
+
+    private static APIManagementException tenantThemeNotFound(String tenantDomain) {
+        return new APIManagementException("Tenant Theme for tenant " + tenantDomain + " does not exist.",
+                ExceptionCodes.from(ExceptionCodes.TENANT_THEME_NOT_FOUND, tenantDomain));
     }
 
 }
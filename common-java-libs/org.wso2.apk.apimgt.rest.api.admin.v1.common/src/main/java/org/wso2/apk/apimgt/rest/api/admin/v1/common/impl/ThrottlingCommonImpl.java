@@ -18,7 +18,6 @@
 
 package org.wso2.apk.apimgt.rest.api.admin.v1.common.impl;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.google.common.base.Splitter;
@@ -38,17 +37,23 @@ import org.wso2.apk.apimgt.impl.dto.TierPermissionDTO;
 import org.wso2.apk.apimgt.impl.importexport.APIImportExportException;
 import org.wso2.apk.apimgt.impl.importexport.ImportExportConstants;
 import org.wso2.apk.apimgt.impl.importexport.utils.CommonUtil;
+import org.wso2.apk.apimgt.impl.utils.APIMgtDBUtil;
 import org.wso2.apk.apimgt.impl.utils.APIUtil;
+import org.wso2.apk.apimgt.impl.utils.JsonCodecRegistry;
+import org.wso2.apk.apimgt.rest.api.admin.v1.common.utils.JsonListWriter;
 import org.wso2.apk.apimgt.rest.api.admin.v1.common.utils.RestApiAdminUtils;
 import org.wso2.apk.apimgt.rest.api.admin.v1.common.utils.mappings.throttling.*;
 import org.wso2.apk.apimgt.rest.api.admin.v1.dto.*;
 import org.wso2.apk.apimgt.rest.api.util.utils.RestApiCommonUtil;
 import org.wso2.apk.apimgt.rest.api.util.RestApiConstants;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -215,18 +220,29 @@ public class ThrottlingCommonImpl {
      * @throws APIManagementException When getting application policies fail
      */
     public static String getApplicationThrottlePolicies() throws APIManagementException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        getApplicationThrottlePolicies(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write application policies to the given stream as an application throttle policy list, one policy at a time
+     *
+     * @param outputStream Stream to write the policy list to
+     * @throws APIManagementException When getting application policies fail
+     */
+    public static void getApplicationThrottlePolicies(OutputStream outputStream) throws APIManagementException {
         APIAdmin apiAdmin = new APIAdminImpl();
         String userName = RestApiCommonUtil.getLoggedInUsername();
         String tenantDomain = APIUtil.getTenantDomain(userName);
         Policy[] appPolicies = apiAdmin.getPolicies(tenantDomain, PolicyConstants.POLICY_LEVEL_APP);
-        List<ApplicationPolicy> policies = new ArrayList<>();
+        JsonListWriter<ApplicationThrottlePolicyDTO> listWriter =
+                new JsonListWriter<>(outputStream, ApplicationThrottlePolicyDTO.class);
         for (Policy policy : appPolicies) {
-            policies.add((ApplicationPolicy) policy);
+            listWriter.write(ApplicationThrottlePolicyMappingUtil
+                    .fromApplicationThrottlePolicyToDTO((ApplicationPolicy) policy));
         }
-
-        ApplicationThrottlePolicyListDTO dtoList = ApplicationThrottlePolicyMappingUtil
-                .fromApplicationPolicyArrayToListDTO(policies.toArray(new ApplicationPolicy[policies.size()]));
-        return RestApiAdminUtils.getJsonFromDTO(dtoList);
+        listWriter.finish();
     }
 
     /**
@@ -368,18 +384,30 @@ public class ThrottlingCommonImpl {
      * @throws APIManagementException When an internal error occurs
      */
     public static String getAllSubscriptionThrottlePolicies() throws APIManagementException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        getAllSubscriptionThrottlePolicies(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write all subscription policies to the given stream as a subscription throttle policy list, one policy at a time
+     *
+     * @param outputStream Stream to write the policy list to
+     * @throws APIManagementException When an internal error occurs
+     */
+    public static void getAllSubscriptionThrottlePolicies(OutputStream outputStream) throws APIManagementException {
         try {
             APIAdmin apiAdmin = new APIAdminImpl();
             String userName = RestApiCommonUtil.getLoggedInUsername();
             String tenantDomain = APIUtil.getTenantDomain(userName);
             Policy[] subscriptionPolicies = apiAdmin.getPolicies(tenantDomain, PolicyConstants.POLICY_LEVEL_SUB);
-            List<SubscriptionPolicy> policies = new ArrayList<>();
+            JsonListWriter<SubscriptionThrottlePolicyDTO> listWriter =
+                    new JsonListWriter<>(outputStream, SubscriptionThrottlePolicyDTO.class);
             for (Policy policy : subscriptionPolicies) {
-                policies.add((SubscriptionPolicy) policy);
+                listWriter.write(SubscriptionThrottlePolicyMappingUtil
+                        .fromSubscriptionThrottlePolicyToDTO((SubscriptionPolicy) policy));
             }
-            SubscriptionThrottlePolicyListDTO dtoList = SubscriptionThrottlePolicyMappingUtil
-                    .fromSubscriptionPolicyArrayToListDTO(policies.toArray(new SubscriptionPolicy[policies.size()]));
-            return RestApiAdminUtils.getJsonFromDTO(dtoList);
+            listWriter.finish();
         } catch (ParseException e) {
             String errorMessage = "Error while retrieving Subscription level policies";
             throw new APIManagementException(errorMessage, e, ExceptionCodes.SUBSCRIPTION_POLICY_GET_ALL_FAILED);
@@ -417,11 +445,12 @@ public class ThrottlingCommonImpl {
             // validate if permission info exists and halt the execution in case of an error
             validatePolicyPermissions(body);
 
-            //Add the policy
-            apiAdmin.addPolicy(subscriptionPolicy, username);
-
-            //update policy permissions
-            updatePolicyPermissions(body);
+            //Add the policy and its permissions in a single transaction
+            APIMgtDBUtil.executeInTransaction(() -> {
+                apiAdmin.addPolicy(subscriptionPolicy, username);
+                updatePolicyPermissions(body);
+                return null;
+            });
 
             //retrieve the new policy and send back as the response
             SubscriptionPolicy newSubscriptionPolicy = apiAdmin.getSubscriptionPolicy(username,
@@ -446,7 +475,20 @@ public class ThrottlingCommonImpl {
      * @throws APIManagementException When an internal error occurs
      */
     public static String throttlingPolicySearch(String query) throws APIManagementException {
-        ThrottlePolicyDetailsListDTO resultListDTO = new ThrottlePolicyDetailsListDTO();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        throttlingPolicySearch(query, outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Search throttle policies and write the matching policy details to the given stream, one policy at a time
+     *
+     * @param query        Search query
+     * @param outputStream Stream to write the throttle policy details list to
+     * @throws APIManagementException When an internal error occurs
+     */
+    public static void throttlingPolicySearch(String query, OutputStream outputStream)
+            throws APIManagementException {
         String policyType;
         String policyName;
         Map<String, String> filters;
@@ -468,18 +510,16 @@ public class ThrottlingCommonImpl {
         policyType = filters.get("type");
         policyName = filters.get("name");
 
-        List<ThrottlePolicyDetailsDTO> result = null;
-
         // In current implementation policy filtering by either type or name and type both.
         if (policyName != null && !policyType.equalsIgnoreCase("all")) {
-            result = getThrottlingPolicyByTypeAndName(policyType, policyName);
+            Policy policy = getThrottlingPolicyByTypeAndName(policyType, policyName);
+            JsonListWriter<ThrottlePolicyDetailsDTO> listWriter =
+                    new JsonListWriter<>(outputStream, ThrottlePolicyDetailsDTO.class);
+            listWriter.write(toThrottlePolicyDetails(policy, policyType));
+            listWriter.finish();
         } else {
-            result = getThrottlingPoliciesByType(policyType);
+            writeThrottlingPoliciesByType(policyType, outputStream);
         }
-
-        resultListDTO.setCount(result.size());
-        resultListDTO.setList(result);
-        return RestApiAdminUtils.getJsonFromDTO(resultListDTO);
     }
 
     /**
@@ -545,13 +585,14 @@ public class ThrottlingCommonImpl {
             // validate if permission info exists and halt the execution in case of an error
             validatePolicyPermissions(body);
 
-            //update the policy
+            //update the policy and its permissions in a single transaction
             SubscriptionPolicy subscriptionPolicy =
                     SubscriptionThrottlePolicyMappingUtil.fromSubscriptionThrottlePolicyDTOToModel(body);
-            apiAdmin.updatePolicy(subscriptionPolicy);
-
-            //update policy permissions
-            updatePolicyPermissions(body);
+            APIMgtDBUtil.executeInTransaction(() -> {
+                apiAdmin.updatePolicy(subscriptionPolicy);
+                updatePolicyPermissions(body);
+                return null;
+            });
 
             //retrieve the new policy and send back as the response
             SubscriptionPolicy newSubscriptionPolicy = apiAdmin.getSubscriptionPolicy(username,
@@ -717,19 +758,34 @@ public class ThrottlingCommonImpl {
      * @throws APIManagementException When an internal error occurs
      */
     public static String getAllDenyPolicies() throws APIManagementException {
-        try {
-            APIAdmin apiAdmin = new APIAdminImpl();
-            String userName = RestApiCommonUtil.getLoggedInUsername();
-            String organization = APIUtil.getTenantDomain(userName);
-            List<BlockConditionsDTO> blockConditions = apiAdmin.getBlockConditions(organization);
-            BlockingConditionListDTO listDTO = BlockingConditionMappingUtil
-                    .fromBlockConditionListToListDTO(blockConditions);
-            return RestApiAdminUtils.getJsonFromDTO(listDTO);
-        } catch (ParseException e) {
-            String errorMessage = "Error while retrieving Block Conditions";
-            throw new APIManagementException(errorMessage, e,
-                    ExceptionCodes.from(ExceptionCodes.INTERNAL_ERROR_WITH_SPECIFIC_DESC, errorMessage));
-        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        getAllDenyPolicies(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write all deny policies to the given stream as a blocking condition list. Block conditions are written as they
+     * are read from the database, without loading all of them first.
+     *
+     * @param outputStream Stream to write the blocking condition list to
+     * @throws APIManagementException When an internal error occurs
+     */
+    public static void getAllDenyPolicies(OutputStream outputStream) throws APIManagementException {
+        APIAdmin apiAdmin = new APIAdminImpl();
+        String userName = RestApiCommonUtil.getLoggedInUsername();
+        String organization = APIUtil.getTenantDomain(userName);
+        JsonListWriter<BlockingConditionDTO> listWriter =
+                new JsonListWriter<>(outputStream, BlockingConditionDTO.class);
+        apiAdmin.getBlockConditions(organization, blockCondition -> {
+            try {
+                listWriter.write(BlockingConditionMappingUtil.fromBlockingConditionToDTO(blockCondition));
+            } catch (ParseException e) {
+                String errorMessage = "Error while retrieving Block Conditions";
+                throw new APIManagementException(errorMessage, e,
+                        ExceptionCodes.from(ExceptionCodes.INTERNAL_ERROR_WITH_SPECIFIC_DESC, errorMessage));
+            }
+        });
+        listWriter.finish();
     }
 
     /**
@@ -930,24 +986,19 @@ public class ThrottlingCommonImpl {
     }
 
     /**
-     * Returns throttle policy details as a list
+     * Returns the throttle policy of the given type and name
      *
-     * @param policyLevel type of the throttling policy to be returned as list
-     * @param policyName  name of the throttling policy to be returned as a list
-     * @return throttling policy list filtered by policy type and policy name
+     * @param policyLevel type of the throttling policy to be returned
+     * @param policyName  name of the throttling policy to be returned
+     * @return throttling policy filtered by policy type and policy name
      * @throws APIManagementException When an internal error occurs
      */
-    private static List<ThrottlePolicyDetailsDTO> getThrottlingPolicyByTypeAndName(String policyLevel, String policyName)
+    private static Policy getThrottlingPolicyByTypeAndName(String policyLevel, String policyName)
             throws APIManagementException {
         APIAdmin apiAdmin = new APIAdminImpl();
         String userName = RestApiCommonUtil.getLoggedInUsername();
         String organization = APIUtil.getTenantDomain(userName);
-        Policy policy;
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        List<ThrottlePolicyDetailsDTO> policies = new ArrayList<>();
-
-        policy = apiAdmin.getPolicyByNameAndType(organization, policyLevel, policyName);
+        Policy policy = apiAdmin.getPolicyByNameAndType(organization, policyLevel, policyName);
 
         if (policy == null) {
             throw new APIManagementException(
@@ -955,66 +1006,66 @@ public class ThrottlingCommonImpl {
                             + policyLevel,
                     ExceptionCodes.from(ExceptionCodes.THROTTLING_POLICY_NOT_FOUND, policyName, policyLevel));
         }
-
-        ThrottlePolicyDetailsDTO policyDetails = mapper.convertValue(policy, ThrottlePolicyDetailsDTO.class);
-        policyDetails.setType(policyLevel);
-        policies.add(policyDetails);
-
-        return policies;
+        return policy;
     }
 
     /**
-     * Returns throttle policies details as a list
+     * Writes the details of the throttle policies of the given type to the given stream as a list
      *
-     * @param policyLevel type of the throttling policy list to be returned
-     * @return throttling policy list filtered by policy type
+     * @param policyLevel  type of the throttling policies to be written
+     * @param outputStream stream to write the throttle policy details list to
      * @throws APIManagementException When an internal error occurs
      */
-    private static List<ThrottlePolicyDetailsDTO> getThrottlingPoliciesByType(String policyLevel)
+    private static void writeThrottlingPoliciesByType(String policyLevel, OutputStream outputStream)
             throws APIManagementException {
         APIAdmin apiAdmin = new APIAdminImpl();
         String userName = RestApiCommonUtil.getLoggedInUsername();
         String tenantDomain = APIUtil.getTenantDomain(userName);
         Policy[] temporaryPolicies;
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        List<ThrottlePolicyDetailsDTO> policies = new ArrayList<>();
+        JsonListWriter<ThrottlePolicyDetailsDTO> policies =
+                new JsonListWriter<>(outputStream, ThrottlePolicyDetailsDTO.class);
         if (ALL_TYPES.equals(policyLevel) || PolicyConstants.POLICY_LEVEL_APP.equals(policyLevel)) {
             temporaryPolicies = apiAdmin.getPolicies(tenantDomain, PolicyConstants.POLICY_LEVEL_APP);
-            populatePolicyList(mapper, temporaryPolicies, policies, PolicyConstants.POLICY_LEVEL_APP);
+            populatePolicyList(temporaryPolicies, policies, PolicyConstants.POLICY_LEVEL_APP);
         }
         if (ALL_TYPES.equals(policyLevel) || PolicyConstants.POLICY_LEVEL_SUB.equals(policyLevel)) {
             temporaryPolicies = apiAdmin.getPolicies(tenantDomain, PolicyConstants.POLICY_LEVEL_SUB);
-            populatePolicyList(mapper, temporaryPolicies, policies, PolicyConstants.POLICY_LEVEL_SUB);
+            populatePolicyList(temporaryPolicies, policies, PolicyConstants.POLICY_LEVEL_SUB);
         }
         if (ALL_TYPES.equals(policyLevel) || PolicyConstants.POLICY_LEVEL_API.equals(policyLevel)) {
             temporaryPolicies = apiAdmin.getPolicies(tenantDomain, PolicyConstants.POLICY_LEVEL_API);
-            populatePolicyList(mapper, temporaryPolicies, policies, PolicyConstants.POLICY_LEVEL_API);
+            populatePolicyList(temporaryPolicies, policies, PolicyConstants.POLICY_LEVEL_API);
         }
         if (ALL_TYPES.equals(policyLevel) || PolicyConstants.POLICY_LEVEL_GLOBAL.equals(policyLevel)) {
             temporaryPolicies = apiAdmin.getPolicies(tenantDomain, PolicyConstants.POLICY_LEVEL_GLOBAL);
-            populatePolicyList(mapper, temporaryPolicies, policies, PolicyConstants.POLICY_LEVEL_GLOBAL);
+            populatePolicyList(temporaryPolicies, policies, PolicyConstants.POLICY_LEVEL_GLOBAL);
         }
-        return policies;
+        policies.finish();
     }
 
     /**
      * Helper method to populate the policies
      *
-     * @param mapper            Object mapper
      * @param temporaryPolicies Temporary policy list
-     * @param policies          List of policies
+     * @param policies          Writer of the policy list
      * @param policyLevel       Policy Level
+     * @throws APIManagementException When writing the policies fail
      */
-    private static void populatePolicyList(ObjectMapper mapper, Policy[] temporaryPolicies,
-                                           List<ThrottlePolicyDetailsDTO> policies, String policyLevel) {
+    private static void populatePolicyList(Policy[] temporaryPolicies,
+                                           JsonListWriter<ThrottlePolicyDetailsDTO> policies, String policyLevel)
+            throws APIManagementException {
         for (Policy policy : temporaryPolicies) {
-            ThrottlePolicyDetailsDTO policyDetails = mapper.convertValue(policy, ThrottlePolicyDetailsDTO.class);
-            policyDetails.setType(policyLevel);
-            policies.add(policyDetails);
+            policies.write(toThrottlePolicyDetails(policy, policyLevel));
         }
     }
 
+    private static ThrottlePolicyDetailsDTO toThrottlePolicyDetails(Policy policy, String policyLevel) {
+        ThrottlePolicyDetailsDTO policyDetails = JsonCodecRegistry.getInstance()
+                .convertValueIgnoringUnknown(policy, ThrottlePolicyDetailsDTO.class);
+        policyDetails.setType(policyLevel);
+        return policyDetails;
+    }
+
     /**
      * Returns the ExportThrottlePolicyDTO by reading the file from input stream
      *
@@ -1049,11 +1100,10 @@ public class ThrottlingCommonImpl {
             ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
             importPolicy = yamlMapper.readValue(fileReader, ExportThrottlePolicyDTO.class);
         } else {
-            ObjectMapper mapper = new ObjectMapper();
             JSONParser parser = new JSONParser();
             Object obj = parser.parse(fileReader);
             JSONObject jsonObject = (JSONObject) obj;
-            importPolicy = mapper.convertValue(jsonObject, ExportThrottlePolicyDTO.class);
+            importPolicy = JsonCodecRegistry.getInstance().convertValue(jsonObject, ExportThrottlePolicyDTO.class);
         }
         return importPolicy;
     }
@@ -1071,19 +1121,18 @@ public class ThrottlingCommonImpl {
                                                                      ExportThrottlePolicyDTO exportThrottlePolicyDTO,
                                                                      String httpMethod)
             throws APIManagementException {
-        ObjectMapper mapper = new ObjectMapper();
         APIAdmin apiAdmin = new APIAdminImpl();
         String username = RestApiCommonUtil.getLoggedInUsername();
         Map<String, Object> responseObject;
 
         if (RestApiConstants.RESOURCE_SUBSCRIPTION_POLICY.equals(policyType)) {
-            responseObject = resolveUpdateSubscriptionPolicy(mapper, apiAdmin, overwrite, username,
+            responseObject = resolveUpdateSubscriptionPolicy(apiAdmin, overwrite, username,
                     exportThrottlePolicyDTO);
         } else if (RestApiConstants.RESOURCE_APP_POLICY.equals(policyType)) {
-            responseObject = resolveUpdateApplicationPolicy(mapper, apiAdmin, overwrite, username,
+            responseObject = resolveUpdateApplicationPolicy(apiAdmin, overwrite, username,
                     exportThrottlePolicyDTO);
         } else if (RestApiConstants.RESOURCE_ADVANCED_POLICY.equals(policyType)) {
-            responseObject = resolveUpdateAdvancedPolicy(mapper, apiAdmin, overwrite, username,
+            responseObject = resolveUpdateAdvancedPolicy(apiAdmin, overwrite, username,
                     exportThrottlePolicyDTO);
         } else {
             String errorMessage = "Error with Throttling Policy Type : " + policyType;
@@ -1096,7 +1145,6 @@ public class ThrottlingCommonImpl {
     /**
      * Checks if the policy exists to either update the policy or indicate the conflict or import a new policy
      *
-     * @param mapper                  Object mapper
      * @param apiAdmin                API Admin
      * @param overwrite               Override the existing policy
      * @param username                Username
@@ -1104,13 +1152,13 @@ public class ThrottlingCommonImpl {
      * @return Map of policy DTO and message
      * @throws APIManagementException When an internal error occurs
      */
-    private static Map<String, Object> resolveUpdateSubscriptionPolicy(ObjectMapper mapper, APIAdmin apiAdmin,
-                                                                       boolean overwrite, String username,
+    private static Map<String, Object> resolveUpdateSubscriptionPolicy(APIAdmin apiAdmin, boolean overwrite,
+                                                                       String username,
                                                                        ExportThrottlePolicyDTO exportThrottlePolicyDTO)
             throws APIManagementException {
         Map<String, Object> responseObject = new HashMap<>();
-        SubscriptionThrottlePolicyDTO subscriptionPolicy = mapper.convertValue(exportThrottlePolicyDTO.getData(),
-                SubscriptionThrottlePolicyDTO.class);
+        SubscriptionThrottlePolicyDTO subscriptionPolicy = JsonCodecRegistry.getInstance()
+                .convertValue(exportThrottlePolicyDTO.getData(), SubscriptionThrottlePolicyDTO.class);
         Policy policyIfExists = apiAdmin.getSubscriptionPolicy(username, subscriptionPolicy.getPolicyName());
         if (policyIfExists != null) {
             if (overwrite) {
@@ -1143,7 +1191,6 @@ public class ThrottlingCommonImpl {
     /**
      * Checks if the policy exists to either update the policy or indicate the conflict or import a new policy
      *
-     * @param mapper                  Object mapper
      * @param apiAdmin                API Admin
      * @param overwrite               Override the existing policy
      * @param username                Username
@@ -1151,13 +1198,13 @@ public class ThrottlingCommonImpl {
      * @return Map of policy DTO and message
      * @throws APIManagementException When an internal error occurs
      */
-    private static Map<String, Object> resolveUpdateApplicationPolicy(ObjectMapper mapper, APIAdmin apiAdmin,
-                                                                      boolean overwrite, String username,
+    private static Map<String, Object> resolveUpdateApplicationPolicy(APIAdmin apiAdmin, boolean overwrite,
+                                                                      String username,
                                                                       ExportThrottlePolicyDTO exportThrottlePolicyDTO)
             throws APIManagementException {
         Map<String, Object> responseObject = new HashMap<>();
-        ApplicationThrottlePolicyDTO applicationPolicy = mapper.convertValue(exportThrottlePolicyDTO.getData(),
-                ApplicationThrottlePolicyDTO.class);
+        ApplicationThrottlePolicyDTO applicationPolicy = JsonCodecRegistry.getInstance()
+                .convertValue(exportThrottlePolicyDTO.getData(), ApplicationThrottlePolicyDTO.class);
         Policy policyIfExists = apiAdmin.getApplicationPolicy(username, applicationPolicy.getPolicyName());
         if (policyIfExists != null) {
             if (overwrite) {
@@ -1188,7 +1235,6 @@ public class ThrottlingCommonImpl {
     /**
      * Checks if the policy exists to either update the policy or indicate the conflict or import a new policy
      *
-     * @param mapper                  Object mapper
      * @param apiAdmin                API Admin
      * @param overwrite               Override the existing policy
      * @param username                Username
@@ -1196,13 +1242,13 @@ public class ThrottlingCommonImpl {
      * @return Map of policy DTO and message
      * @throws APIManagementException When an internal error occurs
      */
-    private static Map<String, Object> resolveUpdateAdvancedPolicy(ObjectMapper mapper, APIAdmin apiAdmin,
-                                                                   boolean overwrite, String username,
+    private static Map<String, Object> resolveUpdateAdvancedPolicy(APIAdmin apiAdmin, boolean overwrite,
+                                                                   String username,
                                                                    ExportThrottlePolicyDTO exportThrottlePolicyDTO)
             throws APIManagementException {
         Map<String, Object> responseObject = new HashMap<>();
-        AdvancedThrottlePolicyDTO advancedPolicy = mapper.convertValue(exportThrottlePolicyDTO.getData(),
-                AdvancedThrottlePolicyDTO.class);
+        AdvancedThrottlePolicyDTO advancedPolicy = JsonCodecRegistry.getInstance()
+                .convertValue(exportThrottlePolicyDTO.getData(), AdvancedThrottlePolicyDTO.class);
         Policy policyIfExists = apiAdmin.getAPIPolicy(username, advancedPolicy.getPolicyName());
         if (policyIfExists != null) {
             if (overwrite) {
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2022, WSO2 LLC. (http://www.wso2.com).
+ *
+ * WSO2 LLC. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.apk.apimgt.rest.api.admin.v1.common.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.ExceptionCodes;
+import org.wso2.apk.apimgt.impl.utils.JsonCodecRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a list DTO, an object with a "list" array and its "count", to an output stream one element at a time, so
+ * the elements of large lists are serialized as they are produced instead of being collected first. As the count is
+ * only known at the end, it is written after the list.
+ *
+ * @param <T> type of the list elements
+ */
+public class JsonListWriter<T> {
+
+    private final JsonGenerator generator;
+    private final ObjectWriter elementWriter;
+    private int count;
+
+    /**
+     * Starts the list DTO on the given stream. The stream is not closed by the writer.
+     *
+     * @param outputStream stream to be written to
+     * @param elementType  type of the list elements
+     * @throws APIManagementException if the stream could not be written
+     */
+    public JsonListWriter(OutputStream outputStream, Class<T> elementType) throws APIManagementException {
+
+        JsonCodecRegistry codecRegistry = JsonCodecRegistry.getInstance();
+        this.elementWriter = codecRegistry.getNonNullWriter(elementType);
+        try {
+            this.generator = codecRegistry.createGenerator(outputStream);
+            generator.writeStartObject();
+            generator.writeFieldName("list");
+            generator.writeStartArray();
+        } catch (IOException e) {
+            throw new APIManagementException("Error while writing the list", e, ExceptionCodes.INTERNAL_ERROR);
+        }
+    }
+
+    /**
+     * Writes an element of the list.
+     *
+     * @param element list element
+     * @throws APIManagementException if the stream could not be written
+     */
+    public void write(T element) throws APIManagementException {
+
+        try {
+            elementWriter.writeValue(generator, element);
+            count++;
+        } catch (IOException e) {
+            throw new APIManagementException("Error while writing the list", e, ExceptionCodes.INTERNAL_ERROR);
+        }
+    }
+
+    /**
+     * Ends the list, writes the element count and flushes the stream.
+     *
+     * @return number of elements written
+     * @throws APIManagementException if the stream could not be written
+     */
+    public int finish() throws APIManagementException {
+
+        try {
+            generator.writeEndArray();
+            generator.writeNumberField("count", count);
+            generator.writeEndObject();
+            generator.close();
+            return count;
+        } catch (IOException e) {
+            throw new APIManagementException("Error while writing the list", e, ExceptionCodes.INTERNAL_ERROR);
+        }
+    }
+}
@@ -18,9 +18,8 @@
 
 package org.wso2.apk.apimgt.rest.api.admin.v1.common.utils;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
@@ -33,15 +32,22 @@ import org.wso2.apk.apimgt.api.model.policy.Policy;
 import org.wso2.apk.apimgt.impl.APIAdminImpl;
 import org.wso2.apk.apimgt.impl.APIConstants;
 import org.wso2.apk.apimgt.impl.utils.APIUtil;
+import org.wso2.apk.apimgt.impl.utils.JsonCodecRegistry;
 import org.wso2.apk.apimgt.rest.api.admin.v1.dto.ThrottleConditionDTO;
 import org.wso2.apk.apimgt.rest.api.admin.v1.dto.ThrottleLimitDTO;
 import org.wso2.apk.apimgt.rest.api.util.RestApiConstants;
 import org.wso2.apk.apimgt.user.ctx.UserContext;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -58,6 +64,8 @@ public class RestApiAdminUtils {
     //using a set for file extensions white list since it will be faster to search
     private static final Set<String> EXTENSION_WHITELIST = new HashSet<String>(Arrays.asList(
             "css", "jpg", "png", "gif", "svg", "ttf", "html", "js", "json", "ico"));
+    private static final String TENANT_THEME_STAGING_SUFFIX = ".staging";
+    private static final int TENANT_THEME_BUFFER_SIZE = 8192;
 
     /**
      * Checks whether given policy is allowed to access to user
@@ -165,7 +173,10 @@ public class RestApiAdminUtils {
     }
 
     /**
-     * Import the content of the provided tenant theme archive to the file system and the database
+     * Import the content of the provided tenant theme archive to the file system and the database. The archive is
+     * spooled to a temporary file while its SHA-256 hash is computed, so it is never held in memory. Importing an
+     * archive identical to the stored theme is a no-op. Otherwise the archive is extracted to a staging directory,
+     * stored in the database and the staging directory then replaces the existing theme directory.
      *
      * @param themeContentInputStream content relevant to the tenant theme
      * @param tenantDomain            tenant to which the theme is imported
@@ -175,51 +186,97 @@ public class RestApiAdminUtils {
     public static void importTenantTheme(InputStream themeContentInputStream, String tenantDomain)
             throws APIManagementException, IOException {
 
-        byte[] buffer = new byte[1024];
-        InputStream existingTenantTheme = null;
-        InputStream themeContent = null;
-        File tenantThemeDirectory;
-        File backupDirectory = null;
-        int tenantId = APIUtil.getTenantIdFromTenantDomain(tenantDomain);
+        APIAdmin apiAdmin = new APIAdminImpl();
+        File tenantThemeDirectory = new File(getTenantThemeDirectoryPath(tenantDomain));
+        File stagingDirectory = new File(tenantThemeDirectory.getPath() + TENANT_THEME_STAGING_SUFFIX);
+        File themeArchive = File.createTempFile(tenantDomain, APIConstants.ZIP_FILE_EXTENSION);
+        try {
+            String themeHash = spoolTenantTheme(themeContentInputStream, themeArchive);
+            String existingThemeHash = apiAdmin.getTenantThemeHash(tenantDomain);
+            if (themeHash.equals(existingThemeHash) && tenantThemeDirectory.isDirectory()) {
+                return;
+            }
+            FileUtils.deleteDirectory(stagingDirectory);
+            extractTenantTheme(themeArchive, stagingDirectory, tenantDomain);
+            //add or update the tenant theme in the database
+            try (InputStream themeContent = new BufferedInputStream(new FileInputStream(themeArchive),
+                    TENANT_THEME_BUFFER_SIZE)) {
+                if (existingThemeHash != null || apiAdmin.isTenantThemeExist(tenantDomain)) {
+                    apiAdmin.updateTenantTheme(tenantDomain, themeContent, themeArchive.length(), themeHash);
+                } else {
+                    apiAdmin.addTenantTheme(tenantDomain, themeContent, themeArchive.length(), themeHash);
+                }
+            }
+            //replace the tenant theme directory with the extracted content
+            FileUtils.deleteDirectory(tenantThemeDirectory);
+            File parentDirectory = tenantThemeDirectory.getParentFile();
+            if (parentDirectory != null && !parentDirectory.exists() && !parentDirectory.mkdirs()) {
+                APIUtil.handleException("Unable to create tenant theme directory at " + parentDirectory.getPath());
+            }
+            if (!stagingDirectory.renameTo(tenantThemeDirectory)) {
+                FileUtils.moveDirectory(stagingDirectory, tenantThemeDirectory);
+            }
+        } catch (APIManagementException | IOException e) {
+            FileUtils.deleteQuietly(stagingDirectory);
+            throw new APIManagementException(e.getMessage(), e,
+                    ExceptionCodes.from(ExceptionCodes.TENANT_THEME_IMPORT_FAILED, tenantDomain, e.getMessage()));
+        } finally {
+            FileUtils.deleteQuietly(themeArchive);
+            IOUtils.closeQuietly(themeContentInputStream);
+        }
+    }
 
+    /**
+     * Copies the tenant theme archive to the given file while computing its hash
+     *
+     * @param themeContentInputStream content relevant to the tenant theme
+     * @param themeArchive            file to copy the content to
+     * @return hex encoded SHA-256 hash of the content
+     * @throws IOException if an error occurs while copying the content
+     */
+    private static String spoolTenantTheme(InputStream themeContentInputStream, File themeArchive)
+            throws IOException {
 
-        APIAdmin apiAdmin = new APIAdminImpl();
-        //add or update the tenant theme in the database
-        if (apiAdmin.isTenantThemeExist(tenantDomain)) {
-            existingTenantTheme = apiAdmin.getTenantTheme(tenantDomain);
-            apiAdmin.updateTenantTheme(tenantDomain, themeContentInputStream);
-        } else {
-            apiAdmin.addTenantTheme(tenantDomain, themeContentInputStream);
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance(APIConstants.SHA_256);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Unable to compute the hash of the tenant theme", e);
         }
-        //retrieve the tenant theme from the database to import it to the file system
-        themeContent = apiAdmin.getTenantTheme(tenantDomain);
-
-        //import the tenant theme to the file system
-        String outputFolder = getTenantThemeDirectoryPath(tenantDomain);
-        tenantThemeDirectory = new File(outputFolder);
-        if (!tenantThemeDirectory.exists()) {
-            if (!tenantThemeDirectory.mkdirs()) {
-                APIUtil.handleException("Unable to create tenant theme directory at " + outputFolder);
-            }
-        } else {
-            //copy the existing tenant theme as a backup in case a restoration is needed to take place
-            String tempPath = getTenantThemeBackupDirectoryPath(tenantDomain);
-            backupDirectory = new File(tempPath);
-            FileUtils.copyDirectory(tenantThemeDirectory, backupDirectory);
-            //remove existing files inside the directory
-            FileUtils.cleanDirectory(tenantThemeDirectory);
+        try (InputStream themeContent = new DigestInputStream(themeContentInputStream, messageDigest);
+             OutputStream outputStream = new FileOutputStream(themeArchive)) {
+            IOUtils.copyLarge(themeContent, outputStream, new byte[TENANT_THEME_BUFFER_SIZE]);
         }
-        //get the zip file content
-        try (ZipInputStream zipInputStream = new ZipInputStream(themeContent)) {
+        return Hex.encodeHexString(messageDigest.digest());
+    }
+
+    /**
+     * Extracts the tenant theme archive to the given directory, validating the name and type of each file
+     *
+     * @param themeArchive    tenant theme archive
+     * @param outputDirectory directory to extract the archive to
+     * @param tenantDomain    tenant to which the theme is imported
+     * @throws APIManagementException if the archive contains an invalid or unsupported file
+     * @throws IOException            if an error occurs while extracting the archive
+     */
+    private static void extractTenantTheme(File themeArchive, File outputDirectory, String tenantDomain)
+            throws APIManagementException, IOException {
+
+        if (!outputDirectory.mkdirs()) {
+            APIUtil.handleException("Unable to create tenant theme directory at " + outputDirectory.getPath());
+        }
+        byte[] buffer = new byte[TENANT_THEME_BUFFER_SIZE];
+        String canonicalizedDestinationPath = outputDirectory.getCanonicalPath();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new BufferedInputStream(
+                new FileInputStream(themeArchive), TENANT_THEME_BUFFER_SIZE))) {
             //get the zipped file list entry
             ZipEntry zipEntry = zipInputStream.getNextEntry();
 
             while (zipEntry != null) {
                 String fileName = zipEntry.getName();
                 APIUtil.validateFileName(fileName);
-                File newFile = new File(outputFolder + File.separator + fileName);
+                File newFile = new File(outputDirectory, fileName);
                 String canonicalizedNewFilePath = newFile.getCanonicalPath();
-                String canonicalizedDestinationPath = new File(outputFolder).getCanonicalPath();
                 if (!canonicalizedNewFilePath.startsWith(canonicalizedDestinationPath)) {
                     APIUtil.handleException(
                             "Attempt to upload invalid zip archive with file at " + fileName + ". File path is " +
@@ -227,7 +284,7 @@ public class RestApiAdminUtils {
                 }
                 if (zipEntry.isDirectory()) {
                     if (!newFile.exists()) {
-                        boolean status = newFile.mkdir();
+                        boolean status = newFile.mkdirs();
                         if (!status) {
                             APIUtil.handleException("Error while creating " + newFile.getName() + " directory");
                         }
@@ -237,12 +294,9 @@ public class RestApiAdminUtils {
                     if (EXTENSION_WHITELIST.contains(ext)) {
                         //create all non exists folders
                         //else you will hit FileNotFoundException for compressed folder
-                        new File(newFile.getParent()).mkdirs();
+                        newFile.getParentFile().mkdirs();
                         try (FileOutputStream fileOutputStream = new FileOutputStream(newFile)) {
-                            int len;
-                            while ((len = zipInputStream.read(buffer)) > 0) {
-                                fileOutputStream.write(buffer, 0, len);
-                            }
+                            IOUtils.copyLarge(zipInputStream, fileOutputStream, buffer);
                         }
                     } else {
                         APIUtil.handleException(
@@ -253,18 +307,6 @@ public class RestApiAdminUtils {
                 zipEntry = zipInputStream.getNextEntry();
             }
             zipInputStream.closeEntry();
-            zipInputStream.close();
-            if (backupDirectory != null) {
-                FileUtils.deleteDirectory(backupDirectory);
-            }
-        } catch (APIManagementException | IOException e) {
-            //if an error occurs, revert the changes that were done when importing a tenant theme
-            revertTenantThemeImportChanges(tenantDomain, existingTenantTheme);
-            throw new APIManagementException(e.getMessage(), e,
-                    ExceptionCodes.from(ExceptionCodes.TENANT_THEME_IMPORT_FAILED, tenantDomain, e.getMessage()));
-        } finally {
-            IOUtils.closeQuietly(themeContent);
-            IOUtils.closeQuietly(themeContentInputStream);
         }
     }
 
@@ -286,7 +328,9 @@ public class RestApiAdminUtils {
      *
      * @param tenantDomain tenant to which the theme is imported
      * @return directory location in the file system where the tenant theme is temporarily backed-up
+     * @deprecated imports no longer back up the tenant theme, they extract the new theme to a staging directory
      */
+    @Deprecated
     public static String getTenantThemeBackupDirectoryPath(String tenantDomain) {
 
         return System.getProperty(RestApiConstants.JAVA_IO_TMPDIR) + File.separator + tenantDomain;
@@ -299,21 +343,50 @@ public class RestApiAdminUtils {
      * @param existingTenantTheme tenant theme which existed before the current import operation
      * @throws APIManagementException if an error occurs when reverting the changes
      * @throws IOException            if an error occurs when reverting the changes
+     * @deprecated {@link #importTenantTheme(InputStream, String)} leaves the existing theme untouched on failure
      */
+    @Deprecated
     public static void revertTenantThemeImportChanges(String tenantDomain, InputStream existingTenantTheme)
             throws APIManagementException, IOException {
 
-        String tenantThemeDirectoryPath = getTenantThemeDirectoryPath(tenantDomain);
-        File tenantThemeDirectory = new File(tenantThemeDirectoryPath);
+        File tenantThemeDirectory = new File(getTenantThemeDirectoryPath(tenantDomain));
         if (existingTenantTheme == null) {
             removeTenantTheme(tenantDomain, tenantThemeDirectory);
         } else {
-            String tenantThemeBackupDirectoryPath = getTenantThemeBackupDirectoryPath(tenantDomain);
-            File backupDirectory = new File(tenantThemeBackupDirectoryPath);
+            File backupDirectory = new File(getTenantThemeBackupDirectoryPath(tenantDomain));
             restoreTenantTheme(tenantDomain, tenantThemeDirectory, backupDirectory, existingTenantTheme);
         }
     }
 
+    /**
+     * Restores the tenant theme which existed before the current import operation was performed
+     *
+     * @param organization         tenant ID of the tenant to which the theme is imported
+     * @param tenantThemeDirectory directory in the file system to where the tenant theme is imported
+     * @param backupDirectory      directory in the file system where the tenant theme is temporarily backed-up
+     * @param existingTenantTheme  tenant theme which existed before the current import operation
+     * @throws APIManagementException if an error occurs when updating the tenant theme in the database
+     * @throws IOException            if an error occurs when restoring the tenant theme directory
+     * @deprecated {@link #importTenantTheme(InputStream, String)} leaves the existing theme untouched on failure
+     */
+    @Deprecated
+    public static void restoreTenantTheme(String organization, File tenantThemeDirectory, File backupDirectory,
+                                          InputStream existingTenantTheme) throws APIManagementException, IOException {
+
+        FileUtils.copyDirectory(backupDirectory, tenantThemeDirectory);
+        FileUtils.deleteDirectory(backupDirectory);
+        File themeArchive = File.createTempFile(organization, APIConstants.ZIP_FILE_EXTENSION);
+        try {
+            String themeHash = spoolTenantTheme(existingTenantTheme, themeArchive);
+            try (InputStream themeContent = new BufferedInputStream(new FileInputStream(themeArchive),
+                    TENANT_THEME_BUFFER_SIZE)) {
+                new APIAdminImpl().updateTenantTheme(organization, themeContent, themeArchive.length(), themeHash);
+            }
+        } finally {
+            FileUtils.deleteQuietly(themeArchive);
+        }
+    }
+
     /**
      * Deletes a tenant theme from the file system and deletes the tenant theme from the database
      *
@@ -332,40 +405,19 @@ public class RestApiAdminUtils {
         apiAdmin.deleteTenantTheme(organization);
     }
 
-    /**
-     * Restores the tenant theme which existed before the current import operation was performed
-     *
-     * @param organization             tenant ID of the tenant to which the theme is imported
-     * @param tenantThemeDirectory directory in the file system to where the tenant theme is imported
-     * @param backupDirectory      directory in the file system where the tenant theme is temporarily backed-up
-     * @param existingTenantTheme  tenant theme which existed before the current import operation
-     * @throws APIManagementException if an error occurs when updating the tenant theme in the database
-     * @throws IOException            if an error occurs when restoring the tenant theme directory
-     */
-    public static void restoreTenantTheme(String organization, File tenantThemeDirectory, File backupDirectory,
-                                          InputStream existingTenantTheme) throws APIManagementException, IOException {
-
-        APIAdmin apiAdmin = new APIAdminImpl();
-        FileUtils.copyDirectory(backupDirectory, tenantThemeDirectory);
-        FileUtils.deleteDirectory(backupDirectory);
-        apiAdmin.updateTenantTheme(organization, existingTenantTheme);
-    }
-
     public static <T> T getDTOFromJson(String json, Class<T> clazz)
             throws APIManagementException{
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            return mapper.readValue(json, clazz);
+            return JsonCodecRegistry.getInstance().getReader(clazz).readValue(json);
         } catch (JsonProcessingException e) {
             throw new APIManagementException("Error");
         }
     }
 
     public static <T> String getJsonFromDTO(T dto) throws APIManagementException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
         try {
-            return mapper.writeValueAsString(dto);
+            Class<?> type = dto != null ? dto.getClass() : Object.class;
+            return JsonCodecRegistry.getInstance().getNonNullWriter(type).writeValueAsString(dto);
         } catch (JsonProcessingException e) {
             throw new APIManagementException("Error");
         }
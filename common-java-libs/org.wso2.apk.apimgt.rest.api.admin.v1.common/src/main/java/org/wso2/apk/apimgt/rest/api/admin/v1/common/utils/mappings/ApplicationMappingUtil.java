@@ -20,6 +20,7 @@ package org.wso2.apk.apimgt.rest.api.admin.v1.common.utils.mappings;
 
 import org.apache.commons.lang3.StringUtils;
 import org.wso2.apk.apimgt.api.model.Application;
+import org.wso2.apk.apimgt.api.model.ApplicationPage;
 import org.wso2.apk.apimgt.api.model.Scope;
 import org.wso2.apk.apimgt.impl.APIConstants;
 import org.wso2.apk.apimgt.rest.api.admin.v1.dto.*;
@@ -76,6 +77,58 @@ public class ApplicationMappingUtil {
         applicationListDTO.setPagination(paginationDTO);
     }
 
+    /**
+     * Sets pagination urls for a ApplicationListDTO object given an offset based page. An exact total of the page is
+     * used when it was computed, otherwise the next url is set when the page is full. An estimated total is only
+     * reported, marked as estimated, and never used to decide whether there is a next page.
+     *
+     * @param applicationListDTO a ApplicationListDTO object
+     * @param limit              max number of objects returned
+     * @param offset             starting index
+     * @param page               page of applications
+     */
+    public static void setPaginationParams(ApplicationListDTO applicationListDTO, int limit, int offset,
+                                           ApplicationPage page) {
+
+        if (page.getTotal() >= 0 && !page.isTotalEstimated()) {
+            setPaginationParams(applicationListDTO, limit, offset, page.getTotal());
+            return;
+        }
+        int size = page.getApplications().length == limit ? offset + limit + 1 : offset + page.getApplications().length;
+        setPaginationParams(applicationListDTO, limit, offset, size);
+        if (page.getTotal() >= 0) {
+            // the planner estimate may be below the rows already seen
+            applicationListDTO.getPagination().setTotal(Math.max(page.getTotal(),
+                    offset + page.getApplications().length));
+            applicationListDTO.getPagination().setTotalEstimated(true);
+        } else {
+            applicationListDTO.getPagination().setTotal(null);
+        }
+    }
+
+    /**
+     * Sets the next page url for a ApplicationListDTO object given a keyset based page
+     *
+     * @param applicationListDTO a ApplicationListDTO object
+     * @param limit              max number of objects returned
+     * @param page               page of applications
+     * @param sortOrder          specified sorting order
+     * @param sortBy             specified parameter for the sort
+     */
+    public static void setPaginationParams(ApplicationListDTO applicationListDTO, int limit, ApplicationPage page,
+                                           String sortOrder, String sortBy) {
+
+        String paginatedNext = "";
+        if (page.hasNext()) {
+            paginatedNext = RestApiCommonUtil.getApplicationPaginatedURL(
+                    RestApiCommonUtil.getContinuationToken(page.getNextCursor()), limit, sortOrder, sortBy);
+        }
+        PaginationDTO paginationDTO = new PaginationDTO();
+        paginationDTO.setLimit(limit);
+        paginationDTO.setNext(paginatedNext);
+        applicationListDTO.setPagination(paginationDTO);
+    }
+
     private static PaginationDTO getPaginationDTO(int limit, int offset, int total, String next, String previous) {
         PaginationDTO paginationDTO = new PaginationDTO();
         paginationDTO.setLimit(limit);
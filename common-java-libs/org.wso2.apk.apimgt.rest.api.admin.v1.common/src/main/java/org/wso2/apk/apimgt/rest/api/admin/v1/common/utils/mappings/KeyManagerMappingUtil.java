@@ -23,12 +23,15 @@ import org.apache.commons.lang.StringUtils;
 import org.wso2.apk.apimgt.api.dto.KeyManagerConfigurationDTO;
 import org.wso2.apk.apimgt.impl.APIConstants;
 import org.wso2.apk.apimgt.impl.kmclient.model.OpenIdConnectConfiguration;
+import org.wso2.apk.apimgt.impl.utils.JsonCodecRegistry;
 import org.wso2.apk.apimgt.rest.api.admin.v1.dto.*;
 
 import java.util.*;
 
 public class KeyManagerMappingUtil {
 
+    private static final Gson gson = JsonCodecRegistry.getInstance().getGson();
+
     public static KeyManagerListDTO toKeyManagerListDTO(List<KeyManagerConfigurationDTO> keyManagerDTOList) {
 
         KeyManagerListDTO keyManagerListDTO = new KeyManagerListDTO();
@@ -107,7 +110,7 @@ public class KeyManagerMappingUtil {
         }
         JsonElement grantTypesElement = jsonObject.get(APIConstants.KeyManager.AVAILABLE_GRANT_TYPE);
         if (grantTypesElement instanceof JsonArray) {
-            keyManagerDTO.setAvailableGrantTypes(new Gson().fromJson(grantTypesElement, List.class));
+            keyManagerDTO.setAvailableGrantTypes(gson.fromJson(grantTypesElement, List.class));
             jsonObject.remove(APIConstants.KeyManager.AVAILABLE_GRANT_TYPE);
         }
         JsonElement issuerElement = jsonObject.get(APIConstants.KeyManager.ISSUER);
@@ -172,7 +175,7 @@ public class KeyManagerMappingUtil {
         JsonElement selfValidateJWTElement = jsonObject.get(APIConstants.KeyManager.SELF_VALIDATE_JWT);
         JsonElement validationValueElement = jsonObject.get(APIConstants.KeyManager.TOKEN_FORMAT_STRING);
         if (validationValueElement instanceof JsonPrimitive) {
-            keyManagerDTO.setTokenValidation(Arrays.asList(new Gson().fromJson(validationValueElement.getAsString(),
+            keyManagerDTO.setTokenValidation(Arrays.asList(gson.fromJson(validationValueElement.getAsString(),
                     TokenValidationDTO[].class)));
             jsonObject.remove(APIConstants.KeyManager.TOKEN_FORMAT_STRING);
         }
@@ -182,7 +185,7 @@ public class KeyManagerMappingUtil {
         JsonElement claimMappingElement = jsonObject.get(APIConstants.KeyManager.CLAIM_MAPPING);
         if (claimMappingElement != null) {
             keyManagerDTO.setClaimMapping(
-                    Arrays.asList(new Gson().fromJson(claimMappingElement, ClaimMappingEntryDTO[].class)));
+                    Arrays.asList(gson.fromJson(claimMappingElement, ClaimMappingEntryDTO[].class)));
             jsonObject.remove(APIConstants.KeyManager.CLAIM_MAPPING);
         }
         JsonElement scopeClaimKey = jsonObject.get(APIConstants.KeyManager.SCOPES_CLAIM);
@@ -195,7 +198,7 @@ public class KeyManagerMappingUtil {
             keyManagerDTO.setConsumerKeyClaim(consumerKeyClaim.getAsString());
             jsonObject.remove(APIConstants.KeyManager.CONSUMER_KEY_CLAIM);
         }
-        keyManagerDTO.setAdditionalProperties(new Gson().fromJson(jsonObject, Map.class));
+        keyManagerDTO.setAdditionalProperties(gson.fromJson(jsonObject, Map.class));
         return keyManagerDTO;
     }
 
@@ -302,12 +305,12 @@ public class KeyManagerMappingUtil {
         List<TokenValidationDTO> tokenValidationDTOList = keyManagerDTO.getTokenValidation();
         if (tokenValidationDTOList != null && !tokenValidationDTOList.isEmpty()) {
             additionalProperties
-                    .put(APIConstants.KeyManager.TOKEN_FORMAT_STRING, new Gson().toJson(tokenValidationDTOList));
+                    .put(APIConstants.KeyManager.TOKEN_FORMAT_STRING, gson.toJson(tokenValidationDTOList));
         }
         List<ClaimMappingEntryDTO> claimMapping = keyManagerDTO.getClaimMapping();
         if (claimMapping != null){
             additionalProperties
-                    .put(APIConstants.KeyManager.CLAIM_MAPPING, new Gson().toJsonTree(claimMapping));
+                    .put(APIConstants.KeyManager.CLAIM_MAPPING, gson.toJsonTree(claimMapping));
         }
         if (StringUtils.isNotEmpty(keyManagerDTO.getConsumerKeyClaim())) {
             additionalProperties.put(APIConstants.KeyManager.CONSUMER_KEY_CLAIM, keyManagerDTO.getConsumerKeyClaim());
@@ -322,7 +325,7 @@ public class KeyManagerMappingUtil {
 
     public static JsonObject fromConfigurationMapToJson(Map configuration) {
 
-        JsonObject jsonObject = (JsonObject) new JsonParser().parse(new Gson().toJson(configuration));
+        JsonObject jsonObject = (JsonObject) new JsonParser().parse(gson.toJson(configuration));
         return jsonObject;
     }
 
@@ -79,6 +79,7 @@ public final class RestApiConstants {
     public static final String OFFSET_PARAM = "{offset}";
     public static final String SORTBY_PARAM = "{sortBy}";
     public static final String SORTORDER_PARAM = "{sortOrder}";
+    public static final String AFTER_PARAM = "{after}";
     public static final String TYPE_PARAM = "{type}";
     public static final String TIER_LEVEL_PARAM = "{tierLevel}";
     public static final String SUBSCRIBER_PARAM = "{subscriber}";
@@ -175,6 +176,7 @@ public final class RestApiConstants {
     public static final String PAGINATION_NEXT_LIMIT = "next_limit";
     public static final String PAGINATION_PREVIOUS_OFFSET = "previous_offset";
     public static final String PAGINATION_PREVIOUS_LIMIT = "previous_limit";
+    public static final String PAGINATION_NEXT_TOKEN = "next_token";
     public static final String DEFAULT_SORT_ORDER = "asc";
 
     public static final int TAG_LIMIT_DEFAULT = 1000;
@@ -191,6 +193,10 @@ public final class RestApiConstants {
             RESOURCE_PATH_APPLICATIONS + "?sortBy=" + SORTBY_PARAM + "&sortOrder=" + SORTORDER_PARAM +
                     "&limit=" + LIMIT_PARAM + "&offset=" + OFFSET_PARAM + "&groupId=" + GROUPID_PARAM;
 
+    public static final String APPLICATIONS_GET_CURSOR_PAGINATION_URL =
+            RESOURCE_PATH_APPLICATIONS + "?sortBy=" + SORTBY_PARAM + "&sortOrder=" + SORTORDER_PARAM +
+                    "&limit=" + LIMIT_PARAM + "&after=" + AFTER_PARAM;
+
     public static final String SUBSCRIPTIONS_GET_PAGINATION_URL_APIID =
             RESOURCE_PATH_SUBSCRIPTIONS + "?limit=" + LIMIT_PARAM + "&offset=" + OFFSET_PARAM + "&apiId="
                     + APIID_PARAM + "&groupId=" + GROUPID_PARAM;
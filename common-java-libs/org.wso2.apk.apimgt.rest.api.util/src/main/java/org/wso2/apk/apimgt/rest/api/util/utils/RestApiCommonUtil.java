@@ -19,8 +19,13 @@
 package org.wso2.apk.apimgt.rest.api.util.utils;
 
 import org.apache.commons.lang3.StringUtils;
+import org.wso2.apk.apimgt.api.APIManagementException;
+import org.wso2.apk.apimgt.api.ExceptionCodes;
+import org.wso2.apk.apimgt.api.model.ApplicationCursor;
 import org.wso2.apk.apimgt.rest.api.util.RestApiConstants;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -131,4 +136,63 @@ public class RestApiCommonUtil {
         paginatedURL = paginatedURL.replace(RestApiConstants.OFFSET_PARAM, String.valueOf(offset));
         return paginatedURL;
     }
+
+    /**
+     * Returns the paginated url for Applications API paginated with a continuation token
+     *
+     * @param continuationToken continuation token of the next page
+     * @param limit             max number of objects returned
+     * @param sortOrder         specified sorting order ex: ASC
+     * @param sortBy            specified parameter for the sort ex: name
+     * @return constructed paginated url
+     */
+    public static String getApplicationPaginatedURL(String continuationToken, Integer limit, String sortOrder,
+                                                    String sortBy) {
+
+        String paginatedURL = RestApiConstants.APPLICATIONS_GET_CURSOR_PAGINATION_URL;
+        paginatedURL = paginatedURL.replace(RestApiConstants.SORTBY_PARAM, sortBy == null ? "" : sortBy);
+        paginatedURL = paginatedURL.replace(RestApiConstants.SORTORDER_PARAM, sortOrder == null ? "" : sortOrder);
+        paginatedURL = paginatedURL.replace(RestApiConstants.LIMIT_PARAM, String.valueOf(limit));
+        paginatedURL = paginatedURL.replace(RestApiConstants.AFTER_PARAM, continuationToken);
+        return paginatedURL;
+    }
+
+    /**
+     * Returns the opaque, url safe continuation token of the given application cursor
+     *
+     * @param cursor application cursor
+     * @return continuation token
+     */
+    public static String getContinuationToken(ApplicationCursor cursor) {
+
+        String value = cursor.getApplicationId() + ":" + StringUtils.defaultString(cursor.getSortValue());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the application cursor of the given continuation token
+     *
+     * @param continuationToken continuation token returned with the previous page, or null for the first page
+     * @return application cursor, or null for the first page
+     * @throws APIManagementException if the token is not a valid continuation token
+     */
+    public static ApplicationCursor getApplicationCursor(String continuationToken) throws APIManagementException {
+
+        if (StringUtils.isEmpty(continuationToken)) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            if (separator > 0) {
+                return new ApplicationCursor(value.substring(separator + 1),
+                        Integer.parseInt(value.substring(0, separator)));
+            }
+        } catch (IllegalArgumentException e) {
+            // invalid encoding or application id, reported below
+        }
+        throw new APIManagementException("Invalid continuation token: " + continuationToken,
+                ExceptionCodes.from(ExceptionCodes.INVALID_PARAMETERS_PROVIDED_WITH_MESSAGE,
+                        "Invalid continuation token"));
+    }
 }